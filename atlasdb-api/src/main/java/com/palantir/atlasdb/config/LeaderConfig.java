@@ -75,6 +75,16 @@ public abstract class LeaderConfig {
         return 5000L;
     }
 
+    /**
+     * If true, the paxos acceptor and learner logs are stored in a small number of memory-mapped segment files
+     * instead of one file per round. Existing logs are migrated the first time they are opened in this format, after
+     * which this option cannot be turned off again.
+     */
+    @Value.Default
+    public boolean useSegmentedPaxosStateLog() {
+        return false;
+    }
+
     @Value.Check
     protected final void check() {
         Preconditions.checkState(quorumSize() > leaders().size() / 2,
@@ -0,0 +1,73 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.keyvalue.api;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import com.palantir.common.annotation.Idempotent;
+
+/**
+ * Non-blocking variants of the hot read and write paths of {@link KeyValueService}.
+ * <p>
+ * Each method has the same semantics as its synchronous counterpart, but returns immediately with a future that
+ * completes once the underlying requests have completed. Implementations must not block the calling thread on
+ * remote calls. Failures are surfaced by completing the future exceptionally with the exception the synchronous
+ * method would have thrown.
+ * <p>
+ * This does not require the remote calls themselves to be non-blocking. The Cassandra and DbKvs implementations,
+ * for example, issue their usual blocking Thrift and JDBC calls on an executor, so every call in flight still
+ * occupies one of its threads.
+ */
+public interface AsyncKeyValueService {
+    /**
+     * Asynchronous version of {@link KeyValueService#getRows(TableReference, Iterable, ColumnSelection, long)}.
+     */
+    @Idempotent
+    CompletableFuture<Map<Cell, Value>> getRowsAsync(
+            TableReference tableRef,
+            Iterable<byte[]> rows,
+            ColumnSelection columnSelection,
+            long timestamp);
+
+    /**
+     * Asynchronous version of
+     * {@link KeyValueService#getRowsColumnRange(TableReference, Iterable, BatchColumnRangeSelection, long)}.
+     * <p>
+     * Only the first page of each row is guaranteed to have been loaded when the future completes; subsequent pages
+     * may still be fetched synchronously as the returned iterators are consumed.
+     */
+    @Idempotent
+    CompletableFuture<Map<byte[], RowColumnRangeIterator>> getRowsColumnRangeAsync(
+            TableReference tableRef,
+            Iterable<byte[]> rows,
+            BatchColumnRangeSelection batchColumnRangeSelection,
+            long timestamp);
+
+    /**
+     * Asynchronous version of {@link KeyValueService#get(TableReference, Map)}.
+     */
+    @Idempotent
+    CompletableFuture<Map<Cell, Value>> getAsync(TableReference tableRef, Map<Cell, Long> timestampByCell);
+
+    /**
+     * Asynchronous version of {@link KeyValueService#multiPut(Map, long)}. The same caveats regarding atomicity
+     * apply: if the returned future completes exceptionally, some of the writes may nonetheless have succeeded.
+     */
+    @Idempotent
+    CompletableFuture<Void> multiPutAsync(Map<TableReference, ? extends Map<Cell, byte[]>> valuesByTable,
+            long timestamp);
+}
@@ -0,0 +1,123 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.autobatch;
+
+import java.time.Duration;
+
+import org.immutables.value.Value;
+
+import com.google.common.base.Preconditions;
+import com.lmax.disruptor.BlockingWaitStrategy;
+import com.lmax.disruptor.BusySpinWaitStrategy;
+import com.lmax.disruptor.WaitStrategy;
+import com.lmax.disruptor.YieldingWaitStrategy;
+
+/**
+ * Tuning parameters for a {@link DisruptorAutobatcher}. The defaults match the behaviour of autobatchers created
+ * without a config.
+ */
+@Value.Immutable
+public abstract class AutobatcherConfig {
+    private static final int DEFAULT_BUFFER_SIZE = 1024;
+
+    /**
+     * The number of slots in the ring buffer. Must be a power of two. Callers block once this many requests are
+     * waiting to be processed.
+     */
+    @Value.Default
+    public int bufferSize() {
+        return DEFAULT_BUFFER_SIZE;
+    }
+
+    /**
+     * How the batching thread waits for new requests. {@link WaitStrategyType#BLOCKING} uses no CPU while idle;
+     * the other strategies trade CPU for lower hand-off latency.
+     */
+    @Value.Default
+    public WaitStrategyType waitStrategy() {
+        return WaitStrategyType.BLOCKING;
+    }
+
+    /**
+     * The maximum number of requests passed to the batch function at once. Larger backlogs are split across
+     * several consecutive batches.
+     */
+    @Value.Default
+    public int maxBatchSize() {
+        return Integer.MAX_VALUE;
+    }
+
+    /**
+     * If true, when the batching thread runs out of requests it may briefly wait for more before calling the batch
+     * function, in order to build larger batches. The wait is proportional to how long recent batches took (see
+     * {@link #lingerFractionOfBatchDuration()}), so this only has an effect when the batch function is expensive,
+     * and is capped at {@link #maxLinger()}.
+     */
+    @Value.Default
+    public boolean enableAdaptiveLinger() {
+        return false;
+    }
+
+    @Value.Default
+    public Duration maxLinger() {
+        return Duration.ofMillis(1);
+    }
+
+    @Value.Default
+    public double lingerFractionOfBatchDuration() {
+        return 0.1;
+    }
+
+    @Value.Check
+    protected void check() {
+        Preconditions.checkArgument(bufferSize() > 0 && Integer.bitCount(bufferSize()) == 1,
+                "Buffer size must be a positive power of two, but was %s", bufferSize());
+        Preconditions.checkArgument(maxBatchSize() > 0,
+                "Maximum batch size must be positive, but was %s", maxBatchSize());
+        Preconditions.checkArgument(!maxLinger().isNegative(),
+                "Maximum linger must not be negative, but was %s", maxLinger());
+        Preconditions.checkArgument(lingerFractionOfBatchDuration() >= 0.0 && lingerFractionOfBatchDuration() <= 1.0,
+                "Linger fraction must be between 0 and 1, but was %s", lingerFractionOfBatchDuration());
+    }
+
+    public static AutobatcherConfig defaultConfig() {
+        return ImmutableAutobatcherConfig.builder().build();
+    }
+
+    public enum WaitStrategyType {
+        BLOCKING {
+            @Override
+            WaitStrategy create() {
+                return new BlockingWaitStrategy();
+            }
+        },
+        YIELDING {
+            @Override
+            WaitStrategy create() {
+                return new YieldingWaitStrategy();
+            }
+        },
+        BUSY_SPIN {
+            @Override
+            WaitStrategy create() {
+                return new BusySpinWaitStrategy();
+            }
+        };
+
+        abstract WaitStrategy create();
+    }
+}
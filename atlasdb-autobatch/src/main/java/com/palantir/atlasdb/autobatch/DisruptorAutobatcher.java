@@ -22,10 +22,16 @@ import java.io.Closeable;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
 import com.google.common.util.concurrent.AsyncFunction;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.SettableFuture;
@@ -33,6 +39,7 @@ import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.lmax.disruptor.EventHandler;
 import com.lmax.disruptor.RingBuffer;
 import com.lmax.disruptor.dsl.Disruptor;
+import com.lmax.disruptor.dsl.ProducerType;
 
 /**
  * While this class is public, it shouldn't be used as API outside of AtlasDB because we
@@ -40,7 +47,6 @@ import com.lmax.disruptor.dsl.Disruptor;
  */
 public final class DisruptorAutobatcher<T, R>
         implements AsyncFunction<T, R>, Function<T, ListenableFuture<R>>, Closeable {
-    private static final int BUFFER_SIZE = 1024;
     private static final ThreadFactory threadFactory = new ThreadFactoryBuilder()
             .setDaemon(true)
             .setNameFormat("autobatcher-%d")
@@ -64,6 +70,7 @@ public final class DisruptorAutobatcher<T, R>
         buffer.publishEvent((refresh, sequence) -> {
             refresh.result = result;
             refresh.argument = argument;
+            refresh.publishTimeNanos = System.nanoTime();
         });
         return result;
     }
@@ -77,6 +84,7 @@ public final class DisruptorAutobatcher<T, R>
     private static final class DefaultBatchElement<T, R> implements BatchElement<T, R> {
         private T argument;
         private SettableFuture<R> result;
+        private long publishTimeNanos;
 
         @Override
         public T argument() {
@@ -87,39 +95,177 @@ public final class DisruptorAutobatcher<T, R>
         public SettableFuture<R> result() {
             return result;
         }
+
+        private DefaultBatchElement<T, R> copyAndClear() {
+            DefaultBatchElement<T, R> copy = new DefaultBatchElement<>();
+            copy.argument = argument;
+            copy.result = result;
+            copy.publishTimeNanos = publishTimeNanos;
+            argument = null;
+            result = null;
+            return copy;
+        }
     }
 
     private static final class BatchingEventHandler<T, R> implements EventHandler<DefaultBatchElement<T, R>> {
+        /**
+         * Lingering for less than this is not worth the cost of checking the clock.
+         */
+        private static final long MINIMUM_LINGER_NANOS = TimeUnit.MICROSECONDS.toNanos(5);
+        private static final double BATCH_DURATION_SMOOTHING_FACTOR = 0.2;
+
         private final Consumer<List<BatchElement<T, R>>> batchFunction;
-        private final List<DefaultBatchElement<T, R>> pending = new ArrayList<>(BUFFER_SIZE);
+        private final AutobatcherConfig config;
+        private final RingBuffer<?> buffer;
+        private final Optional<AutobatcherMetrics> metrics;
+        private final List<DefaultBatchElement<T, R>> pending;
+        private final long maxLingerNanos;
 
-        private BatchingEventHandler(Consumer<List<BatchElement<T, R>>> batchFunction) {
+        private double averageBatchDurationNanos = 0.0;
+        private long lingerDeadlineNanos = 0L;
+        private boolean lingering = false;
+
+        private BatchingEventHandler(
+                Consumer<List<BatchElement<T, R>>> batchFunction,
+                AutobatcherConfig config,
+                RingBuffer<?> buffer,
+                Optional<AutobatcherMetrics> metrics) {
             this.batchFunction = batchFunction;
+            this.config = config;
+            this.buffer = buffer;
+            this.metrics = metrics;
+            this.pending = new ArrayList<>(Math.min(config.bufferSize(), config.maxBatchSize()));
+            this.maxLingerNanos = config.maxLinger().toNanos();
         }
 
+        /**
+         * The event is copied before being buffered: once a batch of events has been delivered, the processor
+         * releases their slots, and producers may overwrite them while this handler is still lingering.
+         */
         @Override
         public void onEvent(DefaultBatchElement<T, R> event, long sequence, boolean endOfBatch) {
-            pending.add(event);
-            if (endOfBatch) {
+            pending.add(event.copyAndClear());
+            if (pending.size() >= config.maxBatchSize() || (endOfBatch && !lingerForMoreEvents(sequence))) {
                 flush();
             }
         }
 
+        /**
+         * Waits, for at most a fraction of the recent batch duration, for requests to arrive after the given
+         * sequence. Returns true if any did, in which case they will be delivered to this handler and added to the
+         * current batch. The linger deadline is fixed when the batch first runs dry, so repeated calls during the
+         * same batch cannot extend it.
+         */
+        private boolean lingerForMoreEvents(long sequence) {
+            if (!config.enableAdaptiveLinger()) {
+                return false;
+            }
+            long now = System.nanoTime();
+            if (!lingering) {
+                long lingerNanos = Math.min(maxLingerNanos,
+                        (long) (averageBatchDurationNanos * config.lingerFractionOfBatchDuration()));
+                if (lingerNanos < MINIMUM_LINGER_NANOS) {
+                    return false;
+                }
+                lingering = true;
+                lingerDeadlineNanos = now + lingerNanos;
+            }
+            while (now - lingerDeadlineNanos < 0) {
+                if (buffer.getCursor() > sequence) {
+                    return true;
+                }
+                Thread.yield();
+                now = System.nanoTime();
+            }
+            return buffer.getCursor() > sequence;
+        }
+
         private void flush() {
+            long startNanos = System.nanoTime();
+            metrics.ifPresent(m -> m.recordBatch(pending, startNanos));
             try {
                 batchFunction.accept(Collections.unmodifiableList(pending));
             } catch (Throwable t) {
                 pending.forEach(p -> p.result.setException(t));
             }
+            long durationNanos = System.nanoTime() - startNanos;
+            metrics.ifPresent(m -> m.recordBatchDuration(durationNanos));
+            averageBatchDurationNanos = BATCH_DURATION_SMOOTHING_FACTOR * durationNanos
+                    + (1 - BATCH_DURATION_SMOOTHING_FACTOR) * averageBatchDurationNanos;
+            lingering = false;
             pending.clear();
         }
     }
 
+    /**
+     * Per-autobatcher metrics, registered under {@code DisruptorAutobatcher.<name>}: the size of each batch, the
+     * number of requests waiting in the ring buffer, how long each request waited before its batch was processed,
+     * and how long the batch function took.
+     */
+    private static final class AutobatcherMetrics {
+        private final Histogram batchSize;
+        private final Timer timeInQueue;
+        private final Timer batchDuration;
+
+        private AutobatcherMetrics(MetricRegistry registry, String name, RingBuffer<?> buffer) {
+            this.batchSize = registry.histogram(MetricRegistry.name(DisruptorAutobatcher.class, name, "batchSize"));
+            this.timeInQueue = registry.timer(MetricRegistry.name(DisruptorAutobatcher.class, name, "timeInQueue"));
+            this.batchDuration = registry.timer(
+                    MetricRegistry.name(DisruptorAutobatcher.class, name, "batchDuration"));
+            String queueDepthName = MetricRegistry.name(DisruptorAutobatcher.class, name, "queueDepth");
+            registry.remove(queueDepthName);
+            registry.register(queueDepthName,
+                    (Gauge<Long>) () -> buffer.getBufferSize() - buffer.remainingCapacity());
+        }
+
+        private void recordBatch(List<? extends DefaultBatchElement<?, ?>> batch, long flushTimeNanos) {
+            batchSize.update(batch.size());
+            for (DefaultBatchElement<?, ?> element : batch) {
+                timeInQueue.update(flushTimeNanos - element.publishTimeNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        private void recordBatchDuration(long durationNanos) {
+            batchDuration.update(durationNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
     public static <T, R> DisruptorAutobatcher<T, R> create(Consumer<List<BatchElement<T, R>>> batchFunction) {
-        Disruptor<DefaultBatchElement<T, R>> disruptor =
-                new Disruptor<>(DefaultBatchElement::new, BUFFER_SIZE, threadFactory);
-        disruptor.handleEventsWith(new BatchingEventHandler<>(batchFunction));
+        return createInternal(batchFunction, AutobatcherConfig.defaultConfig(), threadFactory, Optional.empty(), "");
+    }
+
+    /**
+     * Creates an autobatcher with the given tuning parameters, registering its metrics under the given name.
+     */
+    public static <T, R> DisruptorAutobatcher<T, R> create(
+            String name,
+            MetricRegistry metricRegistry,
+            AutobatcherConfig config,
+            Consumer<List<BatchElement<T, R>>> batchFunction) {
+        ThreadFactory namedThreadFactory = new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setNameFormat("autobatcher-" + name + "-%d")
+                .build();
+        return createInternal(batchFunction, config, namedThreadFactory, Optional.of(metricRegistry), name);
+    }
+
+    private static <T, R> DisruptorAutobatcher<T, R> createInternal(
+            Consumer<List<BatchElement<T, R>>> batchFunction,
+            AutobatcherConfig config,
+            ThreadFactory factory,
+            Optional<MetricRegistry> metricRegistry,
+            String name) {
+        Disruptor<DefaultBatchElement<T, R>> disruptor = new Disruptor<>(
+                DefaultBatchElement::new,
+                config.bufferSize(),
+                factory,
+                ProducerType.MULTI,
+                config.waitStrategy().create());
+        RingBuffer<DefaultBatchElement<T, R>> buffer = disruptor.getRingBuffer();
+        Optional<AutobatcherMetrics> metrics = metricRegistry.map(
+                registry -> new AutobatcherMetrics(registry, name, buffer));
+        disruptor.handleEventsWith(new BatchingEventHandler<>(batchFunction, config, buffer, metrics));
         disruptor.start();
-        return new DisruptorAutobatcher<>(disruptor, disruptor.getRingBuffer());
+        return new DisruptorAutobatcher<>(disruptor, buffer);
     }
 }
@@ -0,0 +1,200 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.autobatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+
+public class DisruptorAutobatcherTest {
+    private static final String NAME = "test";
+
+    private final MetricRegistry metricRegistry = new MetricRegistry();
+    private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+    private final CountDownLatch firstBatchStarted = new CountDownLatch(1);
+    private final CountDownLatch releaseFirstBatch = new CountDownLatch(1);
+
+    private DisruptorAutobatcher<Integer, Integer> autobatcher;
+
+    @After
+    public void tearDown() {
+        if (autobatcher != null) {
+            autobatcher.close();
+        }
+    }
+
+    @Test
+    public void completesRequestsWithResultsOfBatchFunction() throws Exception {
+        autobatcher = DisruptorAutobatcher.create(this::doubleArguments);
+
+        List<ListenableFuture<Integer>> results = submit(10);
+
+        assertThat(Futures.allAsList(results).get(10, TimeUnit.SECONDS))
+                .containsExactlyElementsOf(IntStream.range(0, 10).map(i -> 2 * i).boxed().collect(Collectors.toList()));
+    }
+
+    @Test
+    public void failsAllRequestsInBatchIfBatchFunctionThrows() {
+        RuntimeException exception = new IllegalStateException("boo");
+        autobatcher = DisruptorAutobatcher.create(unused -> {
+            throw exception;
+        });
+
+        assertThatThrownBy(() -> autobatcher.apply(1).get(10, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCause(exception);
+    }
+
+    @Test
+    public void splitsBacklogIntoBatchesNoLargerThanMaximum() throws Exception {
+        autobatcher = DisruptorAutobatcher.create(NAME, metricRegistry,
+                ImmutableAutobatcherConfig.builder().maxBatchSize(3).build(),
+                blockingFirstBatch(this::doubleArguments));
+
+        ListenableFuture<Integer> first = autobatcher.apply(0);
+        assertThat(firstBatchStarted.await(10, TimeUnit.SECONDS)).isTrue();
+        List<ListenableFuture<Integer>> backlog = submit(10);
+        releaseFirstBatch.countDown();
+
+        first.get(10, TimeUnit.SECONDS);
+        Futures.allAsList(backlog).get(10, TimeUnit.SECONDS);
+        assertThat(batchSizes).allMatch(size -> size <= 3);
+        assertThat(batchSizes.stream().mapToInt(Integer::intValue).sum()).isEqualTo(11);
+    }
+
+    @Test
+    public void completesRequestsWithAdaptiveLingerEnabled() throws Exception {
+        autobatcher = DisruptorAutobatcher.create(NAME, metricRegistry,
+                ImmutableAutobatcherConfig.builder()
+                        .enableAdaptiveLinger(true)
+                        .maxLinger(Duration.ofMillis(5))
+                        .lingerFractionOfBatchDuration(1.0)
+                        .waitStrategy(AutobatcherConfig.WaitStrategyType.YIELDING)
+                        .build(),
+                this::doubleArgumentsSlowly);
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(autobatcher.apply(i).get(10, TimeUnit.SECONDS)).isEqualTo(2 * i);
+        }
+    }
+
+    @Test
+    public void completesRequestsCorrectlyWhenLingeringLetsProducersReuseRingBufferSlots() throws Exception {
+        autobatcher = DisruptorAutobatcher.create(NAME, metricRegistry,
+                ImmutableAutobatcherConfig.builder()
+                        .bufferSize(4)
+                        .enableAdaptiveLinger(true)
+                        .maxLinger(Duration.ofMillis(5))
+                        .lingerFractionOfBatchDuration(1.0)
+                        .build(),
+                this::doubleArgumentsSlowly);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Void>> producers = IntStream.range(0, 8)
+                    .mapToObj(producer -> executor.submit(() -> {
+                        for (int i = 0; i < 50; i++) {
+                            int argument = 1000 * producer + i;
+                            assertThat(autobatcher.apply(argument).get(10, TimeUnit.SECONDS))
+                                    .isEqualTo(2 * argument);
+                        }
+                        return (Void) null;
+                    }))
+                    .collect(Collectors.toList());
+            for (Future<Void> producer : producers) {
+                producer.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void registersMetrics() throws Exception {
+        autobatcher = DisruptorAutobatcher.create(NAME, metricRegistry, AutobatcherConfig.defaultConfig(),
+                this::doubleArguments);
+
+        Futures.allAsList(submit(5)).get(10, TimeUnit.SECONDS);
+
+        String prefix = MetricRegistry.name(DisruptorAutobatcher.class, NAME);
+        assertThat(metricRegistry.getHistograms().get(MetricRegistry.name(prefix, "batchSize")).getCount())
+                .isGreaterThan(0L);
+        assertThat(metricRegistry.getTimers().get(MetricRegistry.name(prefix, "timeInQueue")).getCount())
+                .isEqualTo(5L);
+        assertThat(metricRegistry.getTimers()).containsKey(MetricRegistry.name(prefix, "batchDuration"));
+        assertThat(metricRegistry.getGauges()).containsKey(MetricRegistry.name(prefix, "queueDepth"));
+    }
+
+    @Test
+    public void rejectsBufferSizesThatAreNotPowersOfTwo() {
+        assertThatThrownBy(() -> ImmutableAutobatcherConfig.builder().bufferSize(1000).build())
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private List<ListenableFuture<Integer>> submit(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(autobatcher::apply)
+                .collect(Collectors.toList());
+    }
+
+    private void doubleArguments(List<BatchElement<Integer, Integer>> batch) {
+        batchSizes.add(batch.size());
+        batch.forEach(element -> element.result().set(2 * element.argument()));
+    }
+
+    private void doubleArgumentsSlowly(List<BatchElement<Integer, Integer>> batch) {
+        try {
+            Thread.sleep(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        doubleArguments(batch);
+    }
+
+    private Consumer<List<BatchElement<Integer, Integer>>> blockingFirstBatch(
+            Consumer<List<BatchElement<Integer, Integer>>> batchFunction) {
+        return batch -> {
+            if (firstBatchStarted.getCount() > 0) {
+                firstBatchStarted.countDown();
+                try {
+                    releaseFirstBatch.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            batchFunction.accept(batch);
+        };
+    }
+}
@@ -32,6 +32,7 @@ import static com.palantir.atlasdb.keyvalue.cassandra.CassandraKeyValueServiceTe
 import static com.palantir.atlasdb.keyvalue.cassandra.CassandraKeyValueServiceTestUtils.clearOutMetadataTable;
 import static com.palantir.atlasdb.keyvalue.cassandra.CassandraKeyValueServiceTestUtils.insertGenericMetadataIntoLegacyCell;
 
+import java.net.InetSocketAddress;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.List;
@@ -42,6 +43,7 @@ import java.util.stream.Collectors;
 import org.apache.cassandra.thrift.CfDef;
 import org.apache.cassandra.thrift.Compression;
 import org.apache.cassandra.thrift.ConsistencyLevel;
+import org.apache.cassandra.thrift.CqlPreparedResult;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.apache.thrift.TException;
 import org.junit.ClassRule;
@@ -358,6 +360,20 @@ public class CassandraKeyValueServiceIntegrationTest extends AbstractKeyValueSer
         verify(logger, never()).error(anyString(), any(Object.class));
     }
 
+    @Test
+    public void dropTablesClearsPreparedStatementCache() {
+        TableReference tableRef = TableReference.createFromFullyQualifiedName("test.prepared_statement_cache");
+        keyValueService.createTable(tableRef, AtlasDbConstants.GENERIC_TABLE_METADATA);
+        CqlPreparedStatementCache preparedStatementCache =
+                ((CassandraKeyValueServiceImpl) keyValueService).getPreparedStatementCache();
+        InetSocketAddress host = new InetSocketAddress("localhost", 9160);
+        preparedStatementCache.put(host, "SELECT * FROM table;", new CqlPreparedResult());
+
+        keyValueService.dropTables(ImmutableSet.of(tableRef));
+
+        assertThat(preparedStatementCache.get(host, "SELECT * FROM table;").isPresent(), is(false));
+    }
+
     private CassandraKeyValueService createKvs(CassandraKeyValueServiceConfig config, Logger testLogger) {
         // Mutation provider is needed, because deletes/sentinels are to be written after writes
         return CassandraKeyValueServiceImpl.create(
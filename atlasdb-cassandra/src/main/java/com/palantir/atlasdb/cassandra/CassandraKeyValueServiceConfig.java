@@ -32,6 +32,7 @@ import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableMap;
 import com.palantir.atlasdb.AtlasDbConstants;
 import com.palantir.atlasdb.keyvalue.cassandra.CassandraConstants;
+import com.palantir.atlasdb.keyvalue.cassandra.pool.HostSelectionStrategy;
 import com.palantir.atlasdb.spi.KeyValueServiceConfig;
 import com.palantir.processors.AutoDelegate;
 import com.palantir.remoting.api.config.ssl.SslConfiguration;
@@ -97,6 +98,36 @@ public abstract class CassandraKeyValueServiceConfig implements KeyValueServiceC
         return 20;
     }
 
+    /**
+     * How a Cassandra host is chosen when a request may be served by several hosts. The default picks hosts weighted
+     * by their number of open requests; {@link HostSelectionStrategy#LATENCY_AWARE} additionally steers traffic away
+     * from hosts that have recently been responding slowly.
+     */
+    @Value.Default
+    public HostSelectionStrategy hostSelectionStrategy() {
+        return HostSelectionStrategy.OPEN_REQUESTS;
+    }
+
+    /**
+     * If true, rows requested in a single {@code getRows} call are grouped by the replicas that own them, and each
+     * group is read as concurrent multigets of at most {@link #fetchBatchCount()} rows, each sent to one live replica.
+     * A multiget that has not completed within the {@link #getRowsSpeculativeRetryPercentile()} of recent multiget
+     * latencies is speculatively re-issued to a second replica, and whichever response arrives first is used.
+     */
+    @Value.Default
+    public boolean replicaAwareGetRows() {
+        return false;
+    }
+
+    /**
+     * The percentile of recent {@code getRows} multiget latencies after which a request is speculatively retried
+     * against another replica. Only used if {@link #replicaAwareGetRows()} is enabled.
+     */
+    @Value.Default
+    public double getRowsSpeculativeRetryPercentile() {
+        return 0.99;
+    }
+
     /**
      * The period between refreshing the Cassandra client pools.
      * At every refresh, we check the health of the current blacklisted nodes — if they're healthy, we whitelist them.
@@ -315,5 +346,8 @@ public abstract class CassandraKeyValueServiceConfig implements KeyValueServiceC
         double evictionCheckProportion = proportionConnectionsToCheckPerEvictionRun();
         Preconditions.checkArgument(evictionCheckProportion > 0.01 && evictionCheckProportion <= 1,
                 "'proportionConnectionsToCheckPerEvictionRun' must be between 0.01 and 1");
+        double speculativeRetryPercentile = getRowsSpeculativeRetryPercentile();
+        Preconditions.checkArgument(speculativeRetryPercentile > 0 && speculativeRetryPercentile <= 1,
+                "'getRowsSpeculativeRetryPercentile' must be greater than 0 and at most 1");
     }
 }
@@ -82,7 +82,7 @@ public class Blacklist {
         return Sets.difference(ImmutableSet.copyOf(potentialHosts), blacklist.keySet());
     }
 
-    boolean contains(InetSocketAddress host) {
+    public boolean contains(InetSocketAddress host) {
         return blacklist.containsKey(host);
     }
 
@@ -16,6 +16,7 @@
 package com.palantir.atlasdb.keyvalue.cassandra;
 
 import java.net.InetSocketAddress;
+import java.util.List;
 import java.util.Map;
 
 import com.palantir.common.base.FunctionCheckedException;
@@ -32,6 +33,12 @@ public interface CassandraClientPool {
             FunctionCheckedException<CassandraClient, V, K> fn) throws K;
     <V, K extends Exception> V runWithRetry(FunctionCheckedException<CassandraClient, V, K> fn) throws K;
     InetSocketAddress getRandomHostForKey(byte[] key);
+
+    /**
+     * Returns the hosts that own the given key and are not currently blacklisted, in ring order. The list is empty if
+     * the token ring is not yet known or none of the owners are live.
+     */
+    List<InetSocketAddress> getLiveReplicasForKey(byte[] key);
     Map<InetSocketAddress, CassandraClientPoolingContainer> getCurrentPools();
     void shutdown();
 }
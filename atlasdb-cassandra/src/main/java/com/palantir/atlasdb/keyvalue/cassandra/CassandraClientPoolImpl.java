@@ -314,6 +314,11 @@ public class CassandraClientPoolImpl implements CassandraClientPool {
         return cassandra.getRandomHostForKey(key);
     }
 
+    @Override
+    public List<InetSocketAddress> getLiveReplicasForKey(byte[] key) {
+        return cassandra.getLiveReplicasForKey(key);
+    }
+
     @VisibleForTesting
     void runOneTimeStartupChecks() {
         try {
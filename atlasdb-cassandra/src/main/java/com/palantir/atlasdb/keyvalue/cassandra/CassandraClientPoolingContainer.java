@@ -39,6 +39,7 @@ import com.google.common.base.MoreObjects;
 import com.google.common.collect.ImmutableMap;
 import com.palantir.atlasdb.cassandra.CassandraKeyValueServiceConfig;
 import com.palantir.atlasdb.encoding.PtBytes;
+import com.palantir.atlasdb.keyvalue.cassandra.pool.HostLatencyEstimate;
 import com.palantir.atlasdb.util.MetricsManager;
 import com.palantir.common.base.FunctionCheckedException;
 import com.palantir.common.pooling.PoolingContainer;
@@ -53,6 +54,7 @@ public class CassandraClientPoolingContainer implements PoolingContainer<Cassand
     private final MetricsManager metricsManager;
     private final AtomicLong count = new AtomicLong();
     private final AtomicInteger openRequests = new AtomicInteger();
+    private final HostLatencyEstimate latencyEstimate = HostLatencyEstimate.create();
     private final GenericObjectPool<CassandraClient> clientPool;
     private final int poolNumber;
 
@@ -82,6 +84,14 @@ public class CassandraClientPoolingContainer implements PoolingContainer<Cassand
         return openRequests.get();
     }
 
+    /**
+     * Recent response times of requests to {@link #runWithPooledResource(FunctionCheckedException)}, including
+     * requests that failed.
+     */
+    public HostLatencyEstimate getLatencyEstimate() {
+        return latencyEstimate;
+    }
+
     // returns negative if not available; only expected use is debugging
     public int getActiveCheckouts() {
         return clientPool.getNumActive();
@@ -100,6 +110,7 @@ public class CassandraClientPoolingContainer implements PoolingContainer<Cassand
                 + " calling cassandra host " + host
                 + " started at " + DateTimeFormatter.ISO_INSTANT.format(Instant.now())
                 + " - " + count.getAndIncrement());
+        long startTimeNanos = System.nanoTime();
         try {
             openRequests.getAndIncrement();
             return runWithGoodResource(fn);
@@ -109,6 +120,7 @@ public class CassandraClientPoolingContainer implements PoolingContainer<Cassand
             throw t;
         } finally {
             openRequests.getAndDecrement();
+            latencyEstimate.recordLatency(System.nanoTime() - startTimeNanos);
             Thread.currentThread().setName(origName);
         }
     }
@@ -276,6 +288,8 @@ public class CassandraClientPoolingContainer implements PoolingContainer<Cassand
                 () -> ((double) pool.getDestroyedByEvictorCount()) / ((double) pool.getCreatedCount()));
         registerPoolMetric("proportionDestroyedByBorrower",
                 () -> ((double) pool.getDestroyedByBorrowValidationCount()) / ((double) pool.getCreatedCount()));
+        registerPoolMetric("latencyEstimateMillis",
+                () -> latencyEstimate.getEstimateNanos() / TimeUnit.MILLISECONDS.toNanos(1));
     }
 
     private void registerPoolMetric(String metricName, Gauge gauge) {
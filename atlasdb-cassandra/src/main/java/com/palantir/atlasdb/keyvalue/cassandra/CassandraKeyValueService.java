@@ -15,11 +15,12 @@
  */
 package com.palantir.atlasdb.keyvalue.cassandra;
 
+import com.palantir.atlasdb.keyvalue.api.AsyncKeyValueService;
 import com.palantir.atlasdb.keyvalue.api.KeyValueService;
 import com.palantir.processors.AutoDelegate;
 
 @AutoDelegate
-public interface CassandraKeyValueService extends KeyValueService {
+public interface CassandraKeyValueService extends KeyValueService, AsyncKeyValueService {
     CassandraTables getCassandraTables();
     TracingQueryRunner getTracingQueryRunner();
     CassandraClientPool getClientPool();
@@ -28,6 +28,7 @@ import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.stream.Collectors;
 
@@ -204,12 +205,14 @@ public class CassandraKeyValueServiceImpl extends AbstractKeyValueService implem
     private final CellLoader cellLoader;
     private final RangeLoader rangeLoader;
     private final TaskRunner taskRunner;
+    private final Optional<ReplicaAwareRowsLoader> replicaAwareRowsLoader;
     private final CellValuePutter cellValuePutter;
     private final CassandraTableMetadata tableMetadata;
     private final CassandraTableCreator cassandraTableCreator;
     private final CassandraTableDropper cassandraTableDropper;
     private final CassandraTableTruncator cassandraTableTruncator;
     private final CheckAndSetRunner checkAndSetRunner;
+    private final CqlPreparedStatementCache preparedStatementCache = new CqlPreparedStatementCache();
 
     private final CassandraTables cassandraTables;
 
@@ -367,6 +370,10 @@ public class CassandraKeyValueServiceImpl extends AbstractKeyValueService implem
         this.wrappingQueryRunner = new WrappingQueryRunner(queryRunner);
         this.cassandraTables = new CassandraTables(clientPool, config);
         this.taskRunner = new TaskRunner(executor);
+        this.replicaAwareRowsLoader = config.replicaAwareGetRows()
+                ? Optional.of(ReplicaAwareRowsLoader.create(
+                        metricsManager, clientPool, config.getRowsSpeculativeRetryPercentile()))
+                : Optional.empty();
         this.cellLoader = new CellLoader(clientPool, wrappingQueryRunner, taskRunner);
         this.rangeLoader = new RangeLoader(clientPool, queryRunner, metricsManager, readConsistency);
         this.cellValuePutter = new CellValuePutter(
@@ -530,6 +537,40 @@ public class CassandraKeyValueServiceImpl extends AbstractKeyValueService implem
             return getRowsForSpecificColumns(tableRef, rows, selection, startTs);
         }
 
+        List<Map<Cell, Value>> perHostResults = taskRunner.runAllTasksCancelOnFailure(
+                getRowsTasks(tableRef, rows, startTs));
+        return mergePerHostResults(perHostResults, Iterables.size(rows));
+    }
+
+    /**
+     * Asynchronous version of {@link #getRows(TableReference, Iterable, ColumnSelection, long)}. Requests to
+     * individual Cassandra hosts are issued concurrently on the key value service's executor, and the calling thread
+     * is not blocked. Each request is still a blocking Thrift call that occupies an executor thread until it returns.
+     */
+    @Override
+    public CompletableFuture<Map<Cell, Value>> getRowsAsync(
+            TableReference tableRef,
+            Iterable<byte[]> rows,
+            ColumnSelection selection,
+            long startTs) {
+        if (!selection.allColumnsSelected()) {
+            return getRowsForSpecificColumnsAsync(tableRef, rows, selection, startTs);
+        }
+
+        int expectedSize = Iterables.size(rows);
+        return taskRunner.runAllTasksAsync(getRowsTasks(tableRef, rows, startTs))
+                .thenApply(perHostResults -> mergePerHostResults(perHostResults, expectedSize));
+    }
+
+    private List<Callable<Map<Cell, Value>>> getRowsTasks(
+            TableReference tableRef,
+            Iterable<byte[]> rows,
+            long startTs) {
+        if (replicaAwareRowsLoader.isPresent()) {
+            return replicaAwareRowsLoader.get().getRowsTasks(tableRef, rows, config.fetchBatchCount(),
+                    (host, batch) -> getRowsBatchFromHost(host, tableRef, batch, startTs));
+        }
+
         Set<Entry<InetSocketAddress, List<byte[]>>> rowsByHost = HostPartitioner.partitionByHost(clientPool, rows,
                 Functions.identity()).entrySet();
         List<Callable<Map<Cell, Value>>> tasks = Lists.newArrayListWithCapacity(rowsByHost.size());
@@ -539,9 +580,12 @@ public class CassandraKeyValueServiceImpl extends AbstractKeyValueService implem
                             + " rows from " + tableRef + " on " + hostAndRows.getKey(),
                     () -> getRowsForSingleHost(hostAndRows.getKey(), tableRef, hostAndRows.getValue(), startTs)));
         }
-        List<Map<Cell, Value>> perHostResults = taskRunner.runAllTasksCancelOnFailure(tasks);
-        Map<Cell, Value> result = Maps.newHashMapWithExpectedSize(Iterables.size(rows));
-        for (Map<Cell, Value> perHostResult : perHostResults) {
+        return tasks;
+    }
+
+    private static <K, V> Map<K, V> mergePerHostResults(List<Map<K, V>> perHostResults, int expectedSize) {
+        Map<K, V> result = Maps.newHashMapWithExpectedSize(expectedSize);
+        for (Map<K, V> perHostResult : perHostResults) {
             result.putAll(perHostResult);
         }
         return result;
@@ -557,29 +601,7 @@ public class CassandraKeyValueServiceImpl extends AbstractKeyValueService implem
             int fetchBatchCount = config.fetchBatchCount();
             for (final List<byte[]> batch : Lists.partition(rows, fetchBatchCount)) {
                 rowCount += batch.size();
-                result.putAll(clientPool.runWithRetryOnHost(host,
-                        new FunctionCheckedException<CassandraClient, Map<Cell, Value>, Exception>() {
-                            @Override
-                            public Map<Cell, Value> apply(CassandraClient client) throws Exception {
-                                // We want to get all the columns in the row so set start and end to empty.
-                                SlicePredicate pred = SlicePredicates.create(Range.ALL, Limit.NO_LIMIT);
-
-                                List<ByteBuffer> rowNames = wrap(batch);
-
-                                Map<ByteBuffer, List<ColumnOrSuperColumn>> results = wrappingQueryRunner.multiget(
-                                        "getRows", client, tableRef, rowNames, pred, readConsistency);
-                                Map<Cell, Value> ret = Maps.newHashMapWithExpectedSize(batch.size());
-                                new ValueExtractor(metricsManager, ret)
-                                        .extractResults(results, startTs, ColumnSelection.all());
-                                return ret;
-                            }
-
-                            @Override
-                            public String toString() {
-                                return "multiget_slice(" + tableRef.getQualifiedName() + ", "
-                                        + batch.size() + " rows" + ")";
-                            }
-                        }));
+                result.putAll(getRowsBatchFromHost(host, tableRef, batch, startTs));
             }
             if (rowCount > fetchBatchCount) {
                 log.warn("Rebatched in getRows a call to {} that attempted to multiget {} rows; "
@@ -594,6 +616,35 @@ public class CassandraKeyValueServiceImpl extends AbstractKeyValueService implem
         }
     }
 
+    private Map<Cell, Value> getRowsBatchFromHost(InetSocketAddress host,
+                                                  TableReference tableRef,
+                                                  List<byte[]> batch,
+                                                  long startTs) throws Exception {
+        return clientPool.runWithRetryOnHost(host,
+                new FunctionCheckedException<CassandraClient, Map<Cell, Value>, Exception>() {
+                    @Override
+                    public Map<Cell, Value> apply(CassandraClient client) throws Exception {
+                        // We want to get all the columns in the row so set start and end to empty.
+                        SlicePredicate pred = SlicePredicates.create(Range.ALL, Limit.NO_LIMIT);
+
+                        List<ByteBuffer> rowNames = wrap(batch);
+
+                        Map<ByteBuffer, List<ColumnOrSuperColumn>> results = wrappingQueryRunner.multiget(
+                                "getRows", client, tableRef, rowNames, pred, readConsistency);
+                        Map<Cell, Value> ret = Maps.newHashMapWithExpectedSize(batch.size());
+                        new ValueExtractor(metricsManager, ret)
+                                .extractResults(results, startTs, ColumnSelection.all());
+                        return ret;
+                    }
+
+                    @Override
+                    public String toString() {
+                        return "multiget_slice(" + tableRef.getQualifiedName() + ", "
+                                + batch.size() + " rows" + ")";
+                    }
+                });
+    }
+
     private List<ByteBuffer> wrap(List<byte[]> arrays) {
         List<ByteBuffer> byteBuffers = Lists.newArrayListWithCapacity(arrays.size());
         for (byte[] r : arrays) {
@@ -606,6 +657,23 @@ public class CassandraKeyValueServiceImpl extends AbstractKeyValueService implem
                                                        final Iterable<byte[]> rows,
                                                        ColumnSelection selection,
                                                        final long startTs) {
+        Set<Cell> cells = getCellsForSpecificColumns(rows, selection);
+        StartTsResultsCollector collector = new StartTsResultsCollector(metricsManager, startTs);
+        cellLoader.loadWithTs("getRows", tableRef, cells, startTs, false, collector, readConsistency);
+        return collector.getCollectedResults();
+    }
+
+    private CompletableFuture<Map<Cell, Value>> getRowsForSpecificColumnsAsync(final TableReference tableRef,
+                                                                                final Iterable<byte[]> rows,
+                                                                                ColumnSelection selection,
+                                                                                final long startTs) {
+        Set<Cell> cells = getCellsForSpecificColumns(rows, selection);
+        StartTsResultsCollector collector = new StartTsResultsCollector(metricsManager, startTs);
+        return cellLoader.loadWithTsAsync("getRows", tableRef, cells, startTs, false, collector, readConsistency)
+                .thenApply(unused -> collector.getCollectedResults());
+    }
+
+    private static Set<Cell> getCellsForSpecificColumns(Iterable<byte[]> rows, ColumnSelection selection) {
         Preconditions.checkArgument(!selection.allColumnsSelected(), "Must select specific columns");
 
         Collection<byte[]> selectedColumns = selection.getSelectedColumns();
@@ -615,10 +683,7 @@ public class CassandraKeyValueServiceImpl extends AbstractKeyValueService implem
                 cells.add(Cell.create(row, col));
             }
         }
-
-        StartTsResultsCollector collector = new StartTsResultsCollector(metricsManager, startTs);
-        cellLoader.loadWithTs("getRows", tableRef, cells, startTs, false, collector, readConsistency);
-        return collector.getCollectedResults();
+        return cells;
     }
 
     /**
@@ -663,6 +728,35 @@ public class CassandraKeyValueServiceImpl extends AbstractKeyValueService implem
         }
     }
 
+    /**
+     * Asynchronous version of {@link #get(TableReference, Map)}. Cells requested at different timestamps are
+     * loaded concurrently rather than one timestamp after another.
+     */
+    @Override
+    public CompletableFuture<Map<Cell, Value>> getAsync(TableReference tableRef, Map<Cell, Long> timestampByCell) {
+        if (timestampByCell.isEmpty()) {
+            log.info("Attempted get on '{}' table with empty cells", LoggingArgs.tableRef(tableRef));
+            return CompletableFuture.completedFuture(ImmutableMap.of());
+        }
+
+        SetMultimap<Long, Cell> cellsByTs = Multimaps.invertFrom(
+                Multimaps.forMap(timestampByCell), HashMultimap.<Long, Cell>create());
+        List<CompletableFuture<Map<Cell, Value>>> perTimestampResults =
+                Lists.newArrayListWithCapacity(cellsByTs.keySet().size());
+        for (long ts : cellsByTs.keySet()) {
+            StartTsResultsCollector collector = new StartTsResultsCollector(metricsManager, ts);
+            perTimestampResults.add(cellLoader.loadWithTsAsync(
+                    "get", tableRef, cellsByTs.get(ts), ts, false, collector, readConsistency)
+                    .thenApply(unused -> collector.getCollectedResults()));
+        }
+        return CompletableFuture.allOf(perTimestampResults.toArray(new CompletableFuture<?>[0]))
+                .thenApply(unused -> {
+                    Builder<Cell, Value> builder = ImmutableMap.builder();
+                    perTimestampResults.forEach(future -> builder.putAll(future.join()));
+                    return builder.build();
+                });
+    }
+
     private Map<Cell, Value> get(String kvsMethodName, TableReference tableRef, Set<Cell> cells,
             long maxTimestampExclusive) {
         StartTsResultsCollector collector = new StartTsResultsCollector(metricsManager, maxTimestampExclusive);
@@ -691,6 +785,33 @@ public class CassandraKeyValueServiceImpl extends AbstractKeyValueService implem
                                                                   Iterable<byte[]> rows,
                                                                   BatchColumnRangeSelection batchColumnRangeSelection,
                                                                   long timestamp) {
+        List<Map<byte[], RowColumnRangeIterator>> perHostResults = taskRunner.runAllTasksCancelOnFailure(
+                getRowsColumnRangeTasks(tableRef, rows, batchColumnRangeSelection, timestamp));
+        return mergePerHostResults(perHostResults, Iterables.size(rows));
+    }
+
+    /**
+     * Asynchronous version of
+     * {@link #getRowsColumnRange(TableReference, Iterable, BatchColumnRangeSelection, long)}. The first page of
+     * every row is loaded concurrently across hosts; subsequent pages are loaded as the iterators are consumed.
+     */
+    @Override
+    public CompletableFuture<Map<byte[], RowColumnRangeIterator>> getRowsColumnRangeAsync(
+            TableReference tableRef,
+            Iterable<byte[]> rows,
+            BatchColumnRangeSelection batchColumnRangeSelection,
+            long timestamp) {
+        int expectedSize = Iterables.size(rows);
+        return taskRunner.runAllTasksAsync(
+                getRowsColumnRangeTasks(tableRef, rows, batchColumnRangeSelection, timestamp))
+                .thenApply(perHostResults -> mergePerHostResults(perHostResults, expectedSize));
+    }
+
+    private List<Callable<Map<byte[], RowColumnRangeIterator>>> getRowsColumnRangeTasks(
+            TableReference tableRef,
+            Iterable<byte[]> rows,
+            BatchColumnRangeSelection batchColumnRangeSelection,
+            long timestamp) {
         Set<Entry<InetSocketAddress, List<byte[]>>> rowsByHost = HostPartitioner.partitionByHost(clientPool, rows,
                 Functions.identity()).entrySet();
         List<Callable<Map<byte[], RowColumnRangeIterator>>> tasks = Lists.newArrayListWithCapacity(rowsByHost.size());
@@ -705,12 +826,7 @@ public class CassandraKeyValueServiceImpl extends AbstractKeyValueService implem
                             batchColumnRangeSelection,
                             timestamp)));
         }
-        List<Map<byte[], RowColumnRangeIterator>> perHostResults = taskRunner.runAllTasksCancelOnFailure(tasks);
-        Map<byte[], RowColumnRangeIterator> result = Maps.newHashMapWithExpectedSize(Iterables.size(rows));
-        for (Map<byte[], RowColumnRangeIterator> perHostResult : perHostResults) {
-            result.putAll(perHostResult);
-        }
-        return result;
+        return tasks;
     }
 
     private Map<byte[], RowColumnRangeIterator> getRowsColumnRangeIteratorForSingleHost(
@@ -982,6 +1098,22 @@ public class CassandraKeyValueServiceImpl extends AbstractKeyValueService implem
     @Override
     public void multiPut(Map<TableReference, ? extends Map<Cell, byte[]>> valuesByTable, long timestamp)
             throws KeyAlreadyExistsException {
+        taskRunner.runAllTasksCancelOnFailure(getMultiPutTasks(valuesByTable, timestamp));
+    }
+
+    /**
+     * Asynchronous version of {@link #multiPut(Map, long)}. Batches destined for different hosts are written
+     * concurrently on the key value service's executor, and the calling thread is not blocked. Each batch is still a
+     * blocking Thrift call that occupies an executor thread until it returns.
+     */
+    @Override
+    public CompletableFuture<Void> multiPutAsync(Map<TableReference, ? extends Map<Cell, byte[]>> valuesByTable,
+            long timestamp) {
+        return taskRunner.runAllTasksAsync(getMultiPutTasks(valuesByTable, timestamp)).thenApply(unused -> null);
+    }
+
+    private List<Callable<Void>> getMultiPutTasks(Map<TableReference, ? extends Map<Cell, byte[]>> valuesByTable,
+            long timestamp) {
         List<TableCellAndValue> flattened = Lists.newArrayList();
         for (Map.Entry<TableReference, ? extends Map<Cell, byte[]>> tableAndValues : valuesByTable.entrySet()) {
             for (Map.Entry<Cell, byte[]> entry : tableAndValues.getValue().entrySet()) {
@@ -995,7 +1127,7 @@ public class CassandraKeyValueServiceImpl extends AbstractKeyValueService implem
         for (Map.Entry<InetSocketAddress, List<TableCellAndValue>> entry : partitionedByHost.entrySet()) {
             callables.addAll(getMultiPutTasksForSingleHost(entry.getKey(), entry.getValue(), timestamp));
         }
-        taskRunner.runAllTasksCancelOnFailure(callables);
+        return callables;
     }
 
     private List<Callable<Void>> getMultiPutTasksForSingleHost(final InetSocketAddress host,
@@ -1214,10 +1346,15 @@ public class CassandraKeyValueServiceImpl extends AbstractKeyValueService implem
                 config);
     }
 
+    @VisibleForTesting
+    CqlPreparedStatementCache getPreparedStatementCache() {
+        return preparedStatementCache;
+    }
+
     private CqlExecutor newInstrumentedCqlExecutor() {
         return AtlasDbMetrics.instrument(metricsManager.getRegistry(),
                 CqlExecutor.class,
-                new CqlExecutorImpl(clientPool, ConsistencyLevel.ALL));
+                new CqlExecutorImpl(clientPool, ConsistencyLevel.ALL, preparedStatementCache));
     }
 
     /**
@@ -1257,6 +1394,7 @@ public class CassandraKeyValueServiceImpl extends AbstractKeyValueService implem
     @Override
     public void dropTables(final Set<TableReference> tablesToDrop) {
         cassandraTableDropper.dropTables(tablesToDrop);
+        preparedStatementCache.invalidateAll();
     }
 
     /**
@@ -1566,6 +1704,7 @@ public class CassandraKeyValueServiceImpl extends AbstractKeyValueService implem
      */
     @Override
     public void close() {
+        replicaAwareRowsLoader.ifPresent(ReplicaAwareRowsLoader::close);
         clientPool.shutdown();
         super.close();
     }
@@ -22,6 +22,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 
 import org.apache.cassandra.thrift.ColumnOrSuperColumn;
 import org.apache.cassandra.thrift.ColumnParent;
@@ -75,6 +76,29 @@ class CellLoader {
             boolean loadAllTs,
             CassandraKeyValueServices.ThreadSafeResultVisitor visitor,
             ConsistencyLevel consistency) {
+        taskRunner.runAllTasksCancelOnFailure(
+                getLoadWithTsTasks(kvsMethodName, tableRef, cells, startTs, loadAllTs, visitor, consistency));
+    }
+
+    CompletableFuture<Void> loadWithTsAsync(String kvsMethodName,
+            TableReference tableRef,
+            Set<Cell> cells,
+            long startTs,
+            boolean loadAllTs,
+            CassandraKeyValueServices.ThreadSafeResultVisitor visitor,
+            ConsistencyLevel consistency) {
+        return taskRunner.runAllTasksAsync(
+                getLoadWithTsTasks(kvsMethodName, tableRef, cells, startTs, loadAllTs, visitor, consistency))
+                .thenApply(unused -> null);
+    }
+
+    private List<Callable<Void>> getLoadWithTsTasks(String kvsMethodName,
+            TableReference tableRef,
+            Set<Cell> cells,
+            long startTs,
+            boolean loadAllTs,
+            CassandraKeyValueServices.ThreadSafeResultVisitor visitor,
+            ConsistencyLevel consistency) {
         Map<InetSocketAddress, List<Cell>> hostsAndCells = HostPartitioner.partitionByHost(clientPool, cells,
                 Cell::getRowName);
         int totalPartitions = hostsAndCells.keySet().size();
@@ -110,8 +134,7 @@ class CellLoader {
                     visitor,
                     consistency));
         }
-
-        taskRunner.runAllTasksCancelOnFailure(tasks);
+        return tasks;
     }
 
     // TODO(unknown): after cassandra api change: handle different column select per row
@@ -18,16 +18,12 @@ package com.palantir.atlasdb.keyvalue.cassandra;
 import java.net.InetSocketAddress;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
-import java.util.ArrayList;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.List;
-import java.util.Map;
-import java.util.Objects;
-import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
-import java.util.concurrent.RejectedExecutionException;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -36,6 +32,7 @@ import org.apache.cassandra.thrift.ConsistencyLevel;
 import org.apache.cassandra.thrift.CqlPreparedResult;
 import org.apache.cassandra.thrift.CqlResult;
 import org.apache.cassandra.thrift.CqlRow;
+import org.apache.cassandra.thrift.InvalidRequestException;
 import org.apache.cassandra.thrift.UnavailableException;
 import org.apache.thrift.TException;
 import org.slf4j.Logger;
@@ -44,14 +41,12 @@ import org.slf4j.LoggerFactory;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
-import com.google.common.collect.Maps;
 import com.palantir.atlasdb.encoding.PtBytes;
 import com.palantir.atlasdb.keyvalue.api.Cell;
 import com.palantir.atlasdb.keyvalue.api.InsufficientConsistencyException;
 import com.palantir.atlasdb.keyvalue.api.TableReference;
 import com.palantir.atlasdb.keyvalue.cassandra.sweep.CellWithTimestamp;
 import com.palantir.atlasdb.logging.LoggingArgs;
-import com.palantir.common.annotation.Output;
 import com.palantir.common.base.FunctionCheckedException;
 import com.palantir.common.base.Throwables;
 import com.palantir.logsafe.Arg;
@@ -59,18 +54,20 @@ import com.palantir.logsafe.SafeArg;
 import com.palantir.logsafe.UnsafeArg;
 
 public class CqlExecutorImpl implements CqlExecutor {
+    private static final Logger log = LoggerFactory.getLogger(CqlExecutor.class);
+
     private final QueryExecutor queryExecutor;
-    private Logger log = LoggerFactory.getLogger(CqlExecutor.class);
 
     public interface QueryExecutor {
         CqlResult execute(CqlQuery cqlQuery, byte[] rowHintForHostSelection);
-        CqlPreparedResult prepare(ByteBuffer query, byte[] rowHintForHostSelection, Compression compression);
-        CqlResult executePrepared(int queryId, List<ByteBuffer> values);
+        PreparedQuery prepare(ByteBuffer query, byte[] rowHintForHostSelection, Compression compression);
+        CqlResult executePrepared(PreparedQuery preparedQuery, List<ByteBuffer> values);
     }
 
     CqlExecutorImpl(CassandraClientPool clientPool,
-            ConsistencyLevel consistency) {
-        this.queryExecutor = new QueryExecutorImpl(clientPool, consistency);
+            ConsistencyLevel consistency,
+            CqlPreparedStatementCache preparedStatementCache) {
+        this.queryExecutor = new QueryExecutorImpl(clientPool, consistency, preparedStatementCache);
     }
 
     @VisibleForTesting
@@ -90,77 +87,35 @@ public class CqlExecutorImpl implements CqlExecutor {
                 limit);
         ByteBuffer queryBytes = ByteBuffer.wrap(preparedSelQuery.getBytes(StandardCharsets.UTF_8));
 
-        CqlPreparedResult preparedResult = queryExecutor.prepare(queryBytes, rowsAscending.get(0), Compression.NONE);
-        int queryId = preparedResult.getItemId();
+        PreparedQuery preparedQuery = queryExecutor.prepare(queryBytes, rowsAscending.get(0), Compression.NONE);
 
         List<CellWithTimestamp> result = Lists.newArrayList();
 
-        List<Future<CqlResult>> futures = new ArrayList<>(rowsAscending.size());
-        for (int i = 0; i < rowsAscending.size(); i++) {
-            futures.add(null);
-        }
-        AtomicInteger nextRowToQuery = new AtomicInteger(0);
-        for (int i = 0; i < executorThreads; i++) {
-            scheduleSweepRowTask(futures, queryId, nextRowToQuery.getAndIncrement(), nextRowToQuery, rowsAscending,
-                    executor);
-        }
-
+        // Rows are queried in order, with at most executorThreads queries in flight, and no more rows are queried
+        // once the limit has been reached.
+        Deque<Future<CqlResult>> queriesInFlight = new ArrayDeque<>(executorThreads);
+        int nextRowToQuery = 0;
         try {
-            for (int rowIndex = 0; result.size() < limit && rowIndex < rowsAscending.size(); rowIndex++) {
-                Future<CqlResult> future = futures.get(rowIndex);
-                CqlResult cqlResult = future.get();
-                result.addAll(CqlExecutorImpl.getCells(CqlExecutorImpl::getCellFromRow, cqlResult));
-
-                if (result.size() > limit) {
-                    cancelFutures(futures.subList(rowIndex, futures.size()));
-                    break;
+            while (result.size() < limit && (nextRowToQuery < rowsAscending.size() || !queriesInFlight.isEmpty())) {
+                while (queriesInFlight.size() < executorThreads && nextRowToQuery < rowsAscending.size()) {
+                    byte[] row = rowsAscending.get(nextRowToQuery++);
+                    queriesInFlight.add(executor.submit(() ->
+                            queryExecutor.executePrepared(preparedQuery, ImmutableList.of(ByteBuffer.wrap(row)))));
                 }
+                CqlResult cqlResult = queriesInFlight.remove().get();
+                result.addAll(CqlExecutorImpl.getCells(CqlExecutorImpl::getCellFromRow, cqlResult));
             }
         } catch (InterruptedException e) {
             throw Throwables.throwUncheckedException(e);
         } catch (ExecutionException e) {
             throw Throwables.throwUncheckedException(e.getCause());
+        } finally {
+            queriesInFlight.forEach(future -> future.cancel(true));
         }
 
         return result;
     }
 
-    private void scheduleSweepRowTask(@Output List<Future<CqlResult>> futures,
-            int queryId,
-            int rowIndex,
-            AtomicInteger nextRowToQuery,
-            List<byte[]> rows,
-            ExecutorService executor) {
-        if (rowIndex >= rows.size()) {
-            return;
-        }
-
-        byte[] row = rows.get(rowIndex);
-
-        Callable<CqlResult> task = () -> {
-            CqlResult cqlResult = queryExecutor.executePrepared(queryId, ImmutableList.of(ByteBuffer.wrap(row)));
-            if (!Thread.interrupted()) {
-                scheduleSweepRowTask(futures, queryId, nextRowToQuery.getAndIncrement(), nextRowToQuery, rows,
-                        executor);
-            }
-            return cqlResult;
-        };
-
-        try {
-            Future<CqlResult> future = executor.submit(task);
-            futures.set(rowIndex, future);
-        } catch (RejectedExecutionException e) {
-            // RejectedExecutionException are expected.
-            // The executor is shutdown when we already fetched all the values we were interested
-            // for the current iteration.
-            log.trace("Rejecting row {} because executor is closed", rows.get(rowIndex));
-        }
-    }
-
-    private void cancelFutures(List<Future<CqlResult>> futures) {
-        futures.stream().filter(Objects::nonNull).forEach(f -> f.cancel(true));
-    }
-
     /**
      * Returns a list of {@link CellWithTimestamp}s within the given {@code row}, starting at the (column, timestamp)
      * pair represented by ({@code startColumnInclusive}, {@code startTimestampExclusive}).
@@ -254,13 +209,14 @@ public class CqlExecutorImpl implements CqlExecutor {
     private static class QueryExecutorImpl implements QueryExecutor {
         private final CassandraClientPool clientPool;
         private final ConsistencyLevel consistency;
+        private final CqlPreparedStatementCache preparedStatementCache;
 
-        private Map<Integer, InetSocketAddress> hostsPerPreparedQuery;
-
-        QueryExecutorImpl(CassandraClientPool clientPool, ConsistencyLevel consistency) {
+        QueryExecutorImpl(CassandraClientPool clientPool,
+                ConsistencyLevel consistency,
+                CqlPreparedStatementCache preparedStatementCache) {
             this.clientPool = clientPool;
             this.consistency = consistency;
-            this.hostsPerPreparedQuery = Maps.newHashMap();
+            this.preparedStatementCache = preparedStatementCache;
         }
 
         @Override
@@ -269,15 +225,26 @@ public class CqlExecutorImpl implements CqlExecutor {
         }
 
         @Override
-        public CqlPreparedResult prepare(ByteBuffer query, byte[] rowHintForHostSelection, Compression compression) {
+        public PreparedQuery prepare(ByteBuffer query, byte[] rowHintForHostSelection, Compression compression) {
+            PreparedQuery preparedQuery = new PreparedQuery(getHostForRow(rowHintForHostSelection),
+                    StandardCharsets.UTF_8.decode(query.duplicate()).toString(), compression);
+            getOrPrepareOnHost(preparedQuery);
+            return preparedQuery;
+        }
+
+        private CqlPreparedResult getOrPrepareOnHost(PreparedQuery preparedQuery) {
+            return preparedStatementCache.get(preparedQuery.host, preparedQuery.query)
+                    .orElseGet(() -> prepareOnHost(preparedQuery));
+        }
+
+        private CqlPreparedResult prepareOnHost(PreparedQuery preparedQuery) {
+            ByteBuffer query = ByteBuffer.wrap(preparedQuery.query.getBytes(StandardCharsets.UTF_8));
             FunctionCheckedException<CassandraClient, CqlPreparedResult, TException> prepareFunction = client ->
-                    client.prepare_cql3_query(query, compression);
+                    client.prepare_cql3_query(query, preparedQuery.compression);
 
             try {
-                InetSocketAddress hostForRow = getHostForRow(rowHintForHostSelection);
-                CqlPreparedResult preparedResult = clientPool.runWithRetryOnHost(hostForRow,
-                        prepareFunction);
-                hostsPerPreparedQuery.put(preparedResult.getItemId(), hostForRow);
+                CqlPreparedResult preparedResult = clientPool.runWithRetryOnHost(preparedQuery.host, prepareFunction);
+                preparedStatementCache.put(preparedQuery.host, preparedQuery.query, preparedResult);
                 return preparedResult;
             } catch (TException e) {
                 throw Throwables.throwUncheckedException(e);
@@ -285,13 +252,30 @@ public class CqlExecutorImpl implements CqlExecutor {
         }
 
         @Override
-        public CqlResult executePrepared(int queryId, List<ByteBuffer> values) {
-            FunctionCheckedException<CassandraClient, CqlResult, TException> cqlFunction = client ->
-                    client.execute_prepared_cql3_query(queryId, values, consistency);
-
-            InetSocketAddress host = hostsPerPreparedQuery.getOrDefault(queryId, getHostForRow(values.get(0).array()));
+        public CqlResult executePrepared(PreparedQuery preparedQuery, List<ByteBuffer> values) {
+            // Cassandra assigns the same id to a statement on every host, so the id alone does not say which host
+            // the statement was prepared on; the query carries its host instead.
+            int queryId = getOrPrepareOnHost(preparedQuery).getItemId();
+            try {
+                return clientPool.runWithRetryOnHost(preparedQuery.host, createPreparedCqlFunction(queryId, values));
+            } catch (InvalidRequestException e) {
+                // The host may no longer know the statement, because it restarted or the table was dropped.
+                log.info("Failed to execute a cached prepared statement on host {}, so preparing it again.",
+                        SafeArg.of("host", CassandraLogHelper.host(preparedQuery.host)), e);
+                preparedStatementCache.invalidate(preparedQuery.host, preparedQuery.query);
+                int newQueryId = prepareOnHost(preparedQuery).getItemId();
+                return executeFunctionOnHost(createPreparedCqlFunction(newQueryId, values), preparedQuery.host);
+            } catch (UnavailableException e) {
+                throw wrapIfConsistencyAll(e);
+            } catch (TException e) {
+                throw Throwables.throwUncheckedException(e);
+            }
+        }
 
-            return executeFunctionOnHost(cqlFunction, host);
+        private FunctionCheckedException<CassandraClient, CqlResult, TException> createPreparedCqlFunction(
+                int queryId,
+                List<ByteBuffer> values) {
+            return client -> client.execute_prepared_cql3_query(queryId, values, consistency);
         }
 
         private InetSocketAddress getHostForRow(byte[] row) {
@@ -337,4 +321,20 @@ public class CqlExecutorImpl implements CqlExecutor {
         }
     }
 
+    /**
+     * A CQL statement, and the host that it is prepared and executed on.
+     */
+    public static final class PreparedQuery {
+        private final InetSocketAddress host;
+        private final String query;
+        private final Compression compression;
+
+        @VisibleForTesting
+        PreparedQuery(InetSocketAddress host, String query, Compression compression) {
+            this.host = host;
+            this.query = query;
+            this.compression = compression;
+        }
+    }
+
 }
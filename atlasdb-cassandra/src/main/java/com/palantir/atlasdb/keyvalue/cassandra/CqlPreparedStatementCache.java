@@ -0,0 +1,79 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.keyvalue.cassandra;
+
+import java.net.InetSocketAddress;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.cassandra.thrift.CqlPreparedResult;
+
+/**
+ * Caches the CQL statements prepared on each Cassandra host, so that a statement that is run many times, such as the
+ * per-row query that sweep uses to enumerate timestamps, is prepared once per host rather than once per use.
+ * <p>
+ * Cassandra forgets its prepared statements when it restarts, and those on a table when the table is dropped. Callers
+ * should invalidate a statement that fails to execute because its host no longer knows it, and prepare it again.
+ */
+final class CqlPreparedStatementCache {
+    private final ConcurrentMap<PreparedStatementKey, CqlPreparedResult> preparedStatements =
+            new ConcurrentHashMap<>();
+
+    Optional<CqlPreparedResult> get(InetSocketAddress host, String query) {
+        return Optional.ofNullable(preparedStatements.get(new PreparedStatementKey(host, query)));
+    }
+
+    void put(InetSocketAddress host, String query, CqlPreparedResult preparedResult) {
+        preparedStatements.put(new PreparedStatementKey(host, query), preparedResult);
+    }
+
+    void invalidate(InetSocketAddress host, String query) {
+        preparedStatements.remove(new PreparedStatementKey(host, query));
+    }
+
+    void invalidateAll() {
+        preparedStatements.clear();
+    }
+
+    private static final class PreparedStatementKey {
+        private final InetSocketAddress host;
+        private final String query;
+
+        private PreparedStatementKey(InetSocketAddress host, String query) {
+            this.host = host;
+            this.query = query;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (other == null || getClass() != other.getClass()) {
+                return false;
+            }
+            PreparedStatementKey that = (PreparedStatementKey) other;
+            return host.equals(that.host) && query.equals(that.query);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(host, query);
+        }
+    }
+}
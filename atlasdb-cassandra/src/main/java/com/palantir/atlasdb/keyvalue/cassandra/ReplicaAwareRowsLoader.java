@@ -0,0 +1,207 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.keyvalue.cassandra;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.Timer;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.TableReference;
+import com.palantir.atlasdb.keyvalue.api.Value;
+import com.palantir.atlasdb.util.AnnotatedCallable;
+import com.palantir.atlasdb.util.AnnotationType;
+import com.palantir.atlasdb.util.MetricsManager;
+import com.palantir.common.base.Throwables;
+import com.palantir.common.concurrent.PTExecutors;
+
+/**
+ * Splits a {@code getRows} request into tasks that can be run concurrently, for use when
+ * {@link com.palantir.atlasdb.cassandra.CassandraKeyValueServiceConfig#replicaAwareGetRows()} is enabled.
+ * <p>
+ * Rows are grouped by the live replicas that own them, and each group is split into batches of bounded size, so that
+ * a wide request is not served by a single large multiget to one host. Each batch is sent to one of its replicas; if
+ * it has not completed within a high percentile of recent batch latencies, it is also sent to a second replica and
+ * whichever response arrives first is used.
+ */
+final class ReplicaAwareRowsLoader implements AutoCloseable {
+    @VisibleForTesting
+    static final long MIN_SAMPLES_FOR_SPECULATIVE_RETRY = 100;
+
+    private final CassandraClientPool clientPool;
+    private final ExecutorService speculativeExecutor;
+    private final Timer batchLatency;
+    private final Meter speculativeRetries;
+    private final Supplier<Optional<Long>> speculativeRetryThresholdNanos;
+
+    interface RowsFetcher {
+        Map<Cell, Value> fetch(InetSocketAddress host, List<byte[]> rows) throws Exception;
+    }
+
+    @VisibleForTesting
+    ReplicaAwareRowsLoader(
+            CassandraClientPool clientPool,
+            ExecutorService speculativeExecutor,
+            Timer batchLatency,
+            Meter speculativeRetries,
+            double speculativeRetryPercentile) {
+        this.clientPool = clientPool;
+        this.speculativeExecutor = speculativeExecutor;
+        this.batchLatency = batchLatency;
+        this.speculativeRetries = speculativeRetries;
+        // Computing a snapshot of the timer is relatively expensive, so we don't do it for every batch.
+        this.speculativeRetryThresholdNanos = Suppliers.memoizeWithExpiration(
+                () -> getSpeculativeRetryThresholdNanos(speculativeRetryPercentile), 1, TimeUnit.SECONDS);
+    }
+
+    static ReplicaAwareRowsLoader create(
+            MetricsManager metricsManager,
+            CassandraClientPool clientPool,
+            double speculativeRetryPercentile) {
+        ExecutorService speculativeExecutor = PTExecutors.newCachedThreadPool(new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setNameFormat("Atlas Cassandra KVS getRows-%d")
+                .build());
+        return new ReplicaAwareRowsLoader(
+                clientPool,
+                speculativeExecutor,
+                metricsManager.registerOrGetTimer(ReplicaAwareRowsLoader.class, "batchLatency"),
+                metricsManager.registerOrGetMeter(ReplicaAwareRowsLoader.class, "speculativeRetries"),
+                speculativeRetryPercentile);
+    }
+
+    List<Callable<Map<Cell, Value>>> getRowsTasks(
+            TableReference tableRef,
+            Iterable<byte[]> rows,
+            int batchSize,
+            RowsFetcher fetcher) {
+        Map<List<InetSocketAddress>, List<byte[]>> rowsByReplicas = new LinkedHashMap<>();
+        for (byte[] row : rows) {
+            rowsByReplicas.computeIfAbsent(clientPool.getLiveReplicasForKey(row), unused -> new ArrayList<>())
+                    .add(row);
+        }
+
+        List<Callable<Map<Cell, Value>>> tasks = new ArrayList<>();
+        for (Map.Entry<List<InetSocketAddress>, List<byte[]>> replicasAndRows : rowsByReplicas.entrySet()) {
+            List<InetSocketAddress> replicas = replicasAndRows.getKey();
+            for (List<byte[]> batch : Lists.partition(replicasAndRows.getValue(), batchSize)) {
+                tasks.add(AnnotatedCallable.wrapWithThreadName(AnnotationType.PREPEND,
+                        "Atlas getRows " + batch.size() + " rows from " + tableRef + " on replicas " + replicas,
+                        () -> getRowsForBatch(replicas, batch, fetcher)));
+            }
+        }
+        return tasks;
+    }
+
+    private Map<Cell, Value> getRowsForBatch(
+            List<InetSocketAddress> replicas,
+            List<byte[]> batch,
+            RowsFetcher fetcher) throws Exception {
+        // All rows in the batch have the same owners, so this picks among the replicas for the batch.
+        InetSocketAddress primary = clientPool.getRandomHostForKey(batch.get(0));
+        Optional<InetSocketAddress> secondary = getOtherReplica(replicas, primary);
+        Optional<Long> thresholdNanos = speculativeRetryThresholdNanos.get();
+
+        if (!secondary.isPresent() || !thresholdNanos.isPresent()) {
+            return fetchAndRecordLatency(primary, batch, fetcher);
+        }
+        return fetchWithSpeculativeRetry(primary, secondary.get(), thresholdNanos.get(), batch, fetcher);
+    }
+
+    private Map<Cell, Value> fetchWithSpeculativeRetry(
+            InetSocketAddress primary,
+            InetSocketAddress secondary,
+            long thresholdNanos,
+            List<byte[]> batch,
+            RowsFetcher fetcher) {
+        CompletionService<Map<Cell, Value>> completionService =
+                new ExecutorCompletionService<>(speculativeExecutor);
+        List<Future<Map<Cell, Value>>> attempts = new ArrayList<>(2);
+        try {
+            attempts.add(completionService.submit(() -> fetchAndRecordLatency(primary, batch, fetcher)));
+            Future<Map<Cell, Value>> firstCompleted = completionService.poll(thresholdNanos, TimeUnit.NANOSECONDS);
+            if (firstCompleted != null) {
+                return firstCompleted.get();
+            }
+
+            speculativeRetries.mark();
+            attempts.add(completionService.submit(() -> fetchAndRecordLatency(secondary, batch, fetcher)));
+            firstCompleted = completionService.take();
+            try {
+                return firstCompleted.get();
+            } catch (ExecutionException e) {
+                // One attempt failing is not fatal while the other may still succeed.
+                return completionService.take().get();
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            throw Throwables.unwrapAndThrowAtlasDbDependencyException(e);
+        } finally {
+            // The losing attempt is left to finish rather than interrupted: interrupting a Thrift call would leave
+            // its pooled client in an unknown state, only for it to be returned to the pool and reused.
+            attempts.forEach(attempt -> attempt.cancel(false));
+        }
+    }
+
+    private Map<Cell, Value> fetchAndRecordLatency(
+            InetSocketAddress host,
+            List<byte[]> batch,
+            RowsFetcher fetcher) throws Exception {
+        try (Timer.Context ignored = batchLatency.time()) {
+            return fetcher.fetch(host, batch);
+        }
+    }
+
+    private Optional<Long> getSpeculativeRetryThresholdNanos(double percentile) {
+        if (batchLatency.getCount() < MIN_SAMPLES_FOR_SPECULATIVE_RETRY) {
+            return Optional.empty();
+        }
+        return Optional.of((long) batchLatency.getSnapshot().getValue(percentile));
+    }
+
+    private static Optional<InetSocketAddress> getOtherReplica(
+            List<InetSocketAddress> replicas,
+            InetSocketAddress primary) {
+        List<InetSocketAddress> others = new ArrayList<>(replicas);
+        others.remove(primary);
+        if (others.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(others.get(ThreadLocalRandom.current().nextInt(others.size())));
+    }
+
+    @Override
+    public void close() {
+        speculativeExecutor.shutdownNow();
+    }
+}
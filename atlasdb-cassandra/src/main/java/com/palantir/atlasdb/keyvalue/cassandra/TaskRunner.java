@@ -18,8 +18,10 @@ package com.palantir.atlasdb.keyvalue.cassandra;
 import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.stream.Collectors;
 
 import com.google.common.collect.Lists;
 import com.palantir.common.base.Throwables;
@@ -63,4 +65,51 @@ class TaskRunner {
             }
         }
     }
+
+    /*
+     * Asynchronous counterpart of runAllTasksCancelOnFailure. The tasks themselves still make blocking calls: each is
+     * submitted to the executor and occupies one of its threads until it completes, but the calling thread does not
+     * wait for them. The returned future completes with the results in the order the tasks were supplied. If any
+     * task fails, or the returned future is cancelled, all remaining tasks are cancelled, interrupting those that are
+     * already running, as in runAllTasksCancelOnFailure.
+     */
+    <V> CompletableFuture<List<V>> runAllTasksAsync(List<Callable<V>> tasks) {
+        List<CompletableFuture<V>> taskResults = Lists.newArrayListWithCapacity(tasks.size());
+        List<Future<?>> futures = Lists.newArrayListWithCapacity(tasks.size());
+        for (Callable<V> task : tasks) {
+            CompletableFuture<V> taskResult = new CompletableFuture<>();
+            taskResults.add(taskResult);
+            futures.add(executor.submit(() -> {
+                try {
+                    taskResult.complete(call(task));
+                } catch (Throwable t) {
+                    taskResult.completeExceptionally(t);
+                }
+            }));
+        }
+
+        CompletableFuture<List<V>> result = CompletableFuture.allOf(taskResults.toArray(new CompletableFuture<?>[0]))
+                .thenApply(unused -> taskResults.stream().map(CompletableFuture::join).collect(Collectors.toList()));
+        for (CompletableFuture<V> taskResult : taskResults) {
+            taskResult.whenComplete((value, throwable) -> {
+                if (throwable != null) {
+                    result.completeExceptionally(throwable);
+                }
+            });
+        }
+        result.whenComplete((value, throwable) -> {
+            if (throwable != null) {
+                futures.forEach(future -> future.cancel(true));
+            }
+        });
+        return result;
+    }
+
+    private static <V> V call(Callable<V> task) {
+        try {
+            return task.call();
+        } catch (Exception e) {
+            throw Throwables.unwrapAndThrowAtlasDbDependencyException(e);
+        }
+    }
 }
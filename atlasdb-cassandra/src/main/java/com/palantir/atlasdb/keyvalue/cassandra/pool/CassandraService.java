@@ -169,6 +169,14 @@ public class CassandraService implements AutoCloseable {
             Predicate<InetSocketAddress> predicate) {
         Map<InetSocketAddress, CassandraClientPoolingContainer> pools = currentPools;
 
+        if (config.hostSelectionStrategy() == HostSelectionStrategy.LATENCY_AWARE) {
+            CassandraClientPoolingContainer liveHost = LatencyAwareHosts.getRandomHost(pools.values(),
+                    address -> predicate.test(address) && !blacklist.contains(address));
+            if (liveHost != null) {
+                return Optional.of(liveHost);
+            }
+        }
+
         Set<InetSocketAddress> filteredHosts = pools.keySet().stream()
                 .filter(predicate)
                 .collect(Collectors.toSet());
@@ -184,7 +192,7 @@ public class CassandraService implements AutoCloseable {
             livingHosts = filteredHosts;
         }
 
-        Optional<InetSocketAddress> randomLivingHost = getRandomHostByActiveConnections(livingHosts);
+        Optional<InetSocketAddress> randomLivingHost = getRandomHostBySelectionStrategy(livingHosts);
         return randomLivingHost.flatMap(host -> Optional.ofNullable(pools.get(host)));
     }
 
@@ -205,7 +213,12 @@ public class CassandraService implements AutoCloseable {
         return currentPools;
     }
 
-    private Optional<InetSocketAddress> getRandomHostByActiveConnections(Set<InetSocketAddress> desiredHosts) {
+    private Optional<InetSocketAddress> getRandomHostBySelectionStrategy(Set<InetSocketAddress> desiredHosts) {
+        if (config.hostSelectionStrategy() == HostSelectionStrategy.LATENCY_AWARE) {
+            return Optional.ofNullable(LatencyAwareHosts.getRandomHost(currentPools.values(), desiredHosts::contains))
+                    .map(CassandraClientPoolingContainer::getHost);
+        }
+
         Map<InetSocketAddress, CassandraClientPoolingContainer> matchingPools = Maps.filterKeys(currentPools,
                 desiredHosts::contains);
         if (matchingPools.isEmpty()) {
@@ -249,7 +262,7 @@ public class CassandraService implements AutoCloseable {
         Set<InetSocketAddress> liveOwnerHosts = blacklist.filterBlacklistedHostsFrom(hostsForKey);
 
         if (!liveOwnerHosts.isEmpty()) {
-            Optional<InetSocketAddress> activeHost = getRandomHostByActiveConnections(liveOwnerHosts);
+            Optional<InetSocketAddress> activeHost = getRandomHostBySelectionStrategy(liveOwnerHosts);
             if (activeHost.isPresent()) {
                 return activeHost.get();
             }
@@ -265,6 +278,16 @@ public class CassandraService implements AutoCloseable {
         return getRandomGoodHost().getHost();
     }
 
+    public List<InetSocketAddress> getLiveReplicasForKey(byte[] key) {
+        List<InetSocketAddress> hostsForKey = getHostsFor(key);
+        if (hostsForKey == null) {
+            return ImmutableList.of();
+        }
+        return hostsForKey.stream()
+                .filter(host -> !blacklist.contains(host))
+                .collect(Collectors.toList());
+    }
+
     public void addPool(InetSocketAddress server) {
         int currentPoolNumber = cassandraHosts.indexOf(server) + 1;
         currentPools.put(server,
@@ -0,0 +1,75 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.keyvalue.cassandra.pool;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import com.google.common.annotations.VisibleForTesting;
+
+/**
+ * A time-decaying "peak" moving average of request latencies to a single host.
+ * <p>
+ * A latency higher than the current estimate replaces it immediately, so a host that starts stalling (for example
+ * because of a long GC pause) is penalised on its first slow response. Lower latencies are blended in with a weight
+ * that depends on how much time has passed since the last update, and in the absence of any requests the estimate
+ * decays towards zero. The latter ensures that a host that was once slow, and so stopped being picked, is eventually
+ * tried again.
+ * <p>
+ * Updates are not atomic with respect to each other; concurrent updates may occasionally be lost, which is acceptable
+ * for a load-balancing heuristic and keeps recording cheap on the request path.
+ */
+public final class HostLatencyEstimate {
+    private static final long DEFAULT_DECAY_TIME_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private final LongSupplier nanoClock;
+    private final double decayTimeNanos;
+
+    private volatile double estimateNanos = 0.0;
+    private volatile long lastUpdateNanos;
+
+    @VisibleForTesting
+    HostLatencyEstimate(LongSupplier nanoClock, long decayTimeNanos) {
+        this.nanoClock = nanoClock;
+        this.decayTimeNanos = decayTimeNanos;
+        this.lastUpdateNanos = nanoClock.getAsLong();
+    }
+
+    public static HostLatencyEstimate create() {
+        return new HostLatencyEstimate(System::nanoTime, DEFAULT_DECAY_TIME_NANOS);
+    }
+
+    public void recordLatency(long latencyNanos) {
+        long now = nanoClock.getAsLong();
+        double weight = weightOfPreviousEstimate(now);
+        double decayedEstimate = estimateNanos * weight;
+        if (latencyNanos > decayedEstimate) {
+            estimateNanos = latencyNanos;
+        } else {
+            estimateNanos = decayedEstimate + latencyNanos * (1.0 - weight);
+        }
+        lastUpdateNanos = now;
+    }
+
+    public double getEstimateNanos() {
+        return estimateNanos * weightOfPreviousEstimate(nanoClock.getAsLong());
+    }
+
+    private double weightOfPreviousEstimate(long now) {
+        long elapsedNanos = Math.max(now - lastUpdateNanos, 0L);
+        return Math.exp(-elapsedNanos / decayTimeNanos);
+    }
+}
@@ -0,0 +1,29 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.keyvalue.cassandra.pool;
+
+public enum HostSelectionStrategy {
+    /**
+     * Picks a random host, weighted inversely by the number of requests currently open against each host.
+     * See {@link WeightedHosts}.
+     */
+    OPEN_REQUESTS,
+    /**
+     * Samples two random hosts and picks the one with the lower expected cost, taking into account both recent
+     * response times and the number of open requests. See {@link LatencyAwareHosts}.
+     */
+    LATENCY_AWARE
+}
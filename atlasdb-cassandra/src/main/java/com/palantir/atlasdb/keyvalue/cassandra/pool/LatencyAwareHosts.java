@@ -0,0 +1,101 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.keyvalue.cassandra.pool;
+
+import java.net.InetSocketAddress;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Predicate;
+
+import javax.annotation.CheckForNull;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.palantir.atlasdb.keyvalue.cassandra.CassandraClientPoolingContainer;
+
+/**
+ * Selects hosts using the "power of two choices": two distinct candidate hosts are sampled uniformly at random, and
+ * the one with the lower cost is picked. The cost of a host is its {@link HostLatencyEstimate} scaled by the number
+ * of requests already open against it, so hosts that are slow but not yet blacklisted receive progressively less
+ * traffic, while an idle host is still occasionally sampled and so given the chance to recover.
+ * <p>
+ * Unlike {@link WeightedHosts}, selection makes a single pass over the pools and does not build any intermediate
+ * collections.
+ */
+public final class LatencyAwareHosts {
+    // Added to the latency estimate so that open requests still distinguish hosts we have no latency data for.
+    private static final double BASE_COST_NANOS = 1_000.0;
+
+    private LatencyAwareHosts() {
+        // utility
+    }
+
+    /**
+     * Returns a host amongst those in {@code pools} whose address matches {@code isCandidate}, or null if there is
+     * no such host.
+     */
+    @CheckForNull
+    public static CassandraClientPoolingContainer getRandomHost(
+            Iterable<CassandraClientPoolingContainer> pools,
+            Predicate<InetSocketAddress> isCandidate) {
+        return getRandomHost(pools, isCandidate, ThreadLocalRandom.current());
+    }
+
+    @VisibleForTesting
+    @CheckForNull
+    static CassandraClientPoolingContainer getRandomHost(
+            Iterable<CassandraClientPoolingContainer> pools,
+            Predicate<InetSocketAddress> isCandidate,
+            Random random) {
+        // Reservoir sampling of two distinct candidates, so every pair is equally likely to be compared.
+        CassandraClientPoolingContainer first = null;
+        CassandraClientPoolingContainer second = null;
+        int candidatesSeen = 0;
+        for (CassandraClientPoolingContainer pool : pools) {
+            if (!isCandidate.test(pool.getHost())) {
+                continue;
+            }
+            candidatesSeen++;
+            if (candidatesSeen == 1) {
+                first = pool;
+            } else if (candidatesSeen == 2) {
+                second = pool;
+            } else {
+                int slot = random.nextInt(candidatesSeen);
+                if (slot == 0) {
+                    first = pool;
+                } else if (slot == 1) {
+                    second = pool;
+                }
+            }
+        }
+
+        if (second == null) {
+            return first;
+        }
+        double firstCost = cost(first);
+        double secondCost = cost(second);
+        if (firstCost == secondCost) {
+            return random.nextBoolean() ? first : second;
+        }
+        return firstCost < secondCost ? first : second;
+    }
+
+    @VisibleForTesting
+    static double cost(CassandraClientPoolingContainer pool) {
+        int openRequests = Math.max(pool.getOpenRequests(), 0);
+        return (pool.getLatencyEstimate().getEstimateNanos() + BASE_COST_NANOS) * (openRequests + 1);
+    }
+}
@@ -15,28 +15,44 @@
  */
 package com.palantir.atlasdb.keyvalue.cassandra;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.net.InetSocketAddress;
 import java.nio.ByteBuffer;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
+import org.apache.cassandra.thrift.Column;
+import org.apache.cassandra.thrift.Compression;
+import org.apache.cassandra.thrift.ConsistencyLevel;
 import org.apache.cassandra.thrift.CqlPreparedResult;
 import org.apache.cassandra.thrift.CqlResult;
+import org.apache.cassandra.thrift.CqlRow;
+import org.apache.cassandra.thrift.InvalidRequestException;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.ArgumentMatcher;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.MoreExecutors;
 import com.google.common.util.concurrent.Uninterruptibles;
 import com.palantir.atlasdb.AtlasDbConstants;
 import com.palantir.atlasdb.encoding.PtBytes;
+import com.palantir.atlasdb.keyvalue.api.Cell;
 import com.palantir.atlasdb.keyvalue.api.Namespace;
 import com.palantir.atlasdb.keyvalue.api.TableReference;
+import com.palantir.atlasdb.keyvalue.cassandra.sweep.CellWithTimestamp;
+import com.palantir.common.base.FunctionCheckedException;
 import com.palantir.common.concurrent.PTExecutors;
 
 public class CqlExecutorTest {
@@ -52,6 +68,20 @@ public class CqlExecutorTest {
     private static final byte[] COLUMN = {0x03, 0x04};
     private static final long TIMESTAMP = 123L;
     private static final int LIMIT = 100;
+    private static final String PREPARED_SELECT = "SELECT key, column1, column2 FROM \"foo__bar\""
+            + " WHERE key = ? LIMIT 100;";
+    private static final InetSocketAddress HOST = new InetSocketAddress("localhost", 9160);
+    private static final InetSocketAddress OTHER_HOST = new InetSocketAddress("localhost", 9161);
+    private static final CqlExecutorImpl.PreparedQuery PREPARED_QUERY =
+            new CqlExecutorImpl.PreparedQuery(HOST, "query", Compression.NONE);
+    private static final int QUERY_ID = 1;
+    private static final int NEW_QUERY_ID = 2;
+
+    private final CassandraClientPool clientPool = mock(CassandraClientPool.class);
+    private final CassandraClient client = mock(CassandraClient.class);
+    private final CqlPreparedStatementCache preparedStatementCache = new CqlPreparedStatementCache();
+    private final CqlExecutor executorWithPreparedStatementCache =
+            new CqlExecutorImpl(clientPool, ConsistencyLevel.ALL, preparedStatementCache);
 
     @Before
     public void before() {
@@ -62,25 +92,89 @@ public class CqlExecutorTest {
             return result;
         });
 
-        CqlPreparedResult preparedResult = new CqlPreparedResult();
-        preparedResult.setItemId(1);
-        when(queryExecutor.prepare(any(), any(), any())).thenReturn(preparedResult);
-
-        when(queryExecutor.executePrepared(eq(1), any())).thenReturn(result);
+        when(queryExecutor.prepare(any(), any(), any())).thenReturn(PREPARED_QUERY);
+        when(queryExecutor.executePrepared(eq(PREPARED_QUERY), any())).thenReturn(result);
     }
 
     @Test
     public void getTimestampsForGivenRows() {
-        String expected = "SELECT key, column1, column2 FROM \"foo__bar\""
-                + " WHERE key = ? LIMIT 100;";
+        String expected = PREPARED_SELECT;
 
         int executorThreads = AtlasDbConstants.DEFAULT_SWEEP_CASSANDRA_READ_THREADS;
         executor.getTimestamps(TABLE_REF, ImmutableList.of(ROW, END_ROW), LIMIT,
                 PTExecutors.newFixedThreadPool(executorThreads), executorThreads);
 
         verify(queryExecutor).prepare(argThat(byteBufferMatcher(expected)), eq(ROW), any());
-        verify(queryExecutor).executePrepared(eq(1), eq(ImmutableList.of(ByteBuffer.wrap(ROW))));
-        verify(queryExecutor).executePrepared(eq(1), eq(ImmutableList.of(ByteBuffer.wrap(END_ROW))));
+        verify(queryExecutor).executePrepared(eq(PREPARED_QUERY), eq(ImmutableList.of(ByteBuffer.wrap(ROW))));
+        verify(queryExecutor).executePrepared(eq(PREPARED_QUERY), eq(ImmutableList.of(ByteBuffer.wrap(END_ROW))));
+    }
+
+    @Test
+    public void getTimestampsStopsQueryingRowsOnceLimitIsReached() {
+        CqlResult result = new CqlResult();
+        result.setRows(ImmutableList.of(cqlRow(ROW, COLUMN, TIMESTAMP)));
+        when(queryExecutor.executePrepared(eq(PREPARED_QUERY), any())).thenReturn(result);
+
+        List<CellWithTimestamp> timestamps = executor.getTimestamps(TABLE_REF, ImmutableList.of(ROW, END_ROW), 1,
+                MoreExecutors.newDirectExecutorService(), 1);
+
+        assertThat(timestamps).containsExactly(CellWithTimestamp.of(Cell.create(ROW, COLUMN), TIMESTAMP));
+        verify(queryExecutor).executePrepared(eq(PREPARED_QUERY), eq(ImmutableList.of(ByteBuffer.wrap(ROW))));
+        verify(queryExecutor, never())
+                .executePrepared(eq(PREPARED_QUERY), eq(ImmutableList.of(ByteBuffer.wrap(END_ROW))));
+    }
+
+    @Test
+    public void getTimestampsDoesNotPrepareStatementAgainOnSameHost() throws Exception {
+        setUpClientPool(HOST);
+
+        getTimestampsWithPreparedStatementCache();
+        getTimestampsWithPreparedStatementCache();
+
+        verify(client, times(1)).prepare_cql3_query(any(), any());
+        verify(client, times(4)).execute_prepared_cql3_query(eq(QUERY_ID), any(), any());
+    }
+
+    @Test
+    public void getTimestampsPreparesStatementOnEachHost() throws Exception {
+        setUpClientPool(HOST);
+        getTimestampsWithPreparedStatementCache();
+        when(clientPool.getRandomHostForKey(any())).thenReturn(OTHER_HOST);
+        getTimestampsWithPreparedStatementCache();
+
+        // Each call prepares the statement once and executes it for each of the two rows, all on its own host.
+        verify(clientPool, times(3)).runWithRetryOnHost(eq(HOST), any());
+        verify(clientPool, times(3)).runWithRetryOnHost(eq(OTHER_HOST), any());
+        verify(client, times(2)).prepare_cql3_query(any(), any());
+    }
+
+    @Test
+    public void getTimestampsPreparesStatementAgainAndRetriesOnceIfHostNoLongerKnowsIt() throws Exception {
+        setUpClientPool(HOST);
+        getTimestampsWithPreparedStatementCache();
+        when(client.execute_prepared_cql3_query(eq(QUERY_ID), any(), any()))
+                .thenThrow(new InvalidRequestException("unknown prepared statement"));
+        when(client.prepare_cql3_query(any(), any())).thenReturn(preparedResult(NEW_QUERY_ID));
+
+        getTimestampsWithPreparedStatementCache();
+
+        verify(client, times(2)).prepare_cql3_query(any(), any());
+        verify(client, times(2)).execute_prepared_cql3_query(eq(NEW_QUERY_ID), any(), any());
+        assertThat(preparedStatementCache.get(HOST, PREPARED_SELECT).map(CqlPreparedResult::getItemId))
+                .contains(NEW_QUERY_ID);
+    }
+
+    @Test
+    public void getTimestampsFailsIfStatementCannotBeExecutedAfterPreparingItAgain() throws Exception {
+        setUpClientPool(HOST);
+        when(client.execute_prepared_cql3_query(anyInt(), any(), any()))
+                .thenThrow(new InvalidRequestException("bad request"));
+
+        assertThatThrownBy(() -> executorWithPreparedStatementCache.getTimestamps(
+                TABLE_REF, ImmutableList.of(ROW), LIMIT, MoreExecutors.newDirectExecutorService(), 1))
+                .hasRootCauseInstanceOf(InvalidRequestException.class);
+        verify(client, times(2)).prepare_cql3_query(any(), any());
+        verify(client, times(2)).execute_prepared_cql3_query(anyInt(), any(), any());
     }
 
     @Test
@@ -93,6 +187,36 @@ public class CqlExecutorTest {
         verify(queryExecutor).execute(argThat(cqlQueryMatcher(expected)), eq(ROW));
     }
 
+    private void setUpClientPool(InetSocketAddress host) throws Exception {
+        when(clientPool.getRandomHostForKey(any())).thenReturn(host);
+        when(clientPool.runWithRetryOnHost(any(), any())).thenAnswer(invocation -> {
+            FunctionCheckedException<CassandraClient, ?, ?> function = invocation.getArgument(1);
+            return function.apply(client);
+        });
+        when(client.prepare_cql3_query(any(), any())).thenReturn(preparedResult(QUERY_ID));
+        CqlResult result = new CqlResult();
+        result.setRows(ImmutableList.of());
+        when(client.execute_prepared_cql3_query(anyInt(), any(), any())).thenReturn(result);
+    }
+
+    private void getTimestampsWithPreparedStatementCache() {
+        executorWithPreparedStatementCache.getTimestamps(
+                TABLE_REF, ImmutableList.of(ROW, END_ROW), LIMIT, MoreExecutors.newDirectExecutorService(), 1);
+    }
+
+    private static CqlPreparedResult preparedResult(int queryId) {
+        CqlPreparedResult preparedResult = new CqlPreparedResult();
+        preparedResult.setItemId(queryId);
+        return preparedResult;
+    }
+
+    private static CqlRow cqlRow(byte[] row, byte[] column, long timestamp) {
+        return new CqlRow(ByteBuffer.wrap(row), ImmutableList.of(
+                new Column().setValue(row),
+                new Column().setValue(column),
+                new Column().setValue(PtBytes.toBytes(~timestamp))));
+    }
+
     private ArgumentMatcher<ByteBuffer> byteBufferMatcher(String expected) {
         return argument -> {
             if (argument == null) {
@@ -0,0 +1,205 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.keyvalue.cassandra;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.Timer;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.palantir.atlasdb.encoding.PtBytes;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.TableReference;
+import com.palantir.atlasdb.keyvalue.api.Value;
+import com.palantir.common.exception.AtlasDbDependencyException;
+
+public class ReplicaAwareRowsLoaderTest {
+    private static final TableReference TABLE = TableReference.createFromFullyQualifiedName("test.table");
+    private static final InetSocketAddress HOST_1 = new InetSocketAddress(1);
+    private static final InetSocketAddress HOST_2 = new InetSocketAddress(2);
+    private static final InetSocketAddress HOST_3 = new InetSocketAddress(3);
+    private static final List<InetSocketAddress> REPLICAS_1_2 = ImmutableList.of(HOST_1, HOST_2);
+    private static final List<InetSocketAddress> REPLICAS_2_3 = ImmutableList.of(HOST_2, HOST_3);
+    private static final byte[] ROW_1 = PtBytes.toBytes("row1");
+    private static final byte[] ROW_2 = PtBytes.toBytes("row2");
+    private static final byte[] ROW_3 = PtBytes.toBytes("row3");
+    private static final byte[] ROW_4 = PtBytes.toBytes("row4");
+    private static final byte[] ROW_5 = PtBytes.toBytes("row5");
+    private static final Cell CELL = Cell.create(ROW_1, PtBytes.toBytes("col"));
+
+    private final CassandraClientPool clientPool = mock(CassandraClientPool.class);
+    private final ExecutorService speculativeExecutor = Executors.newCachedThreadPool();
+    private final Timer batchLatency = new Timer();
+    private final Meter speculativeRetries = new Meter();
+    private final ReplicaAwareRowsLoader loader = new ReplicaAwareRowsLoader(
+            clientPool, speculativeExecutor, batchLatency, speculativeRetries, 0.5);
+    private final List<InetSocketAddress> hostsQueried = new CopyOnWriteArrayList<>();
+
+    @Before
+    public void setUp() {
+        when(clientPool.getLiveReplicasForKey(ROW_1)).thenReturn(REPLICAS_1_2);
+        when(clientPool.getLiveReplicasForKey(ROW_2)).thenReturn(REPLICAS_1_2);
+        when(clientPool.getLiveReplicasForKey(ROW_3)).thenReturn(REPLICAS_1_2);
+        when(clientPool.getLiveReplicasForKey(ROW_4)).thenReturn(REPLICAS_2_3);
+        when(clientPool.getLiveReplicasForKey(ROW_5)).thenReturn(REPLICAS_2_3);
+        when(clientPool.getRandomHostForKey(any())).thenReturn(HOST_1);
+    }
+
+    @After
+    public void tearDown() {
+        loader.close();
+    }
+
+    @Test
+    public void groupsRowsByReplicasAndSplitsGroupsIntoBoundedBatches() throws Exception {
+        List<List<byte[]>> batchesFetched = new CopyOnWriteArrayList<>();
+
+        List<Callable<Map<Cell, Value>>> tasks = loader.getRowsTasks(TABLE,
+                ImmutableList.of(ROW_1, ROW_4, ROW_2, ROW_5, ROW_3), 2,
+                (host, rows) -> {
+                    batchesFetched.add(rows);
+                    return ImmutableMap.of();
+                });
+        for (Callable<Map<Cell, Value>> task : tasks) {
+            task.call();
+        }
+
+        assertThat(tasks).hasSize(3);
+        assertThat(batchesFetched).containsExactly(
+                ImmutableList.of(ROW_1, ROW_2), ImmutableList.of(ROW_3), ImmutableList.of(ROW_4, ROW_5));
+    }
+
+    @Test
+    public void doesNotSpeculativelyRetryWithoutEnoughLatencySamples() throws Exception {
+        Map<Cell, Value> result = getOnlyBatch((host, rows) -> {
+            hostsQueried.add(host);
+            Thread.sleep(20);
+            return resultFrom(host);
+        });
+
+        assertThat(result).isEqualTo(resultFrom(HOST_1));
+        assertThat(hostsQueried).containsExactly(HOST_1);
+        assertThat(speculativeRetries.getCount()).isEqualTo(0L);
+    }
+
+    @Test
+    public void speculativelyRetriesSlowBatchOnAnotherReplica() throws Exception {
+        recordFastBatches();
+        CountDownLatch primaryBlocked = new CountDownLatch(1);
+
+        Map<Cell, Value> result = getOnlyBatch((host, rows) -> {
+            hostsQueried.add(host);
+            if (host.equals(HOST_1)) {
+                primaryBlocked.await();
+            }
+            return resultFrom(host);
+        });
+        primaryBlocked.countDown();
+
+        assertThat(result).isEqualTo(resultFrom(HOST_2));
+        assertThat(hostsQueried).containsExactly(HOST_1, HOST_2);
+        assertThat(speculativeRetries.getCount()).isEqualTo(1L);
+    }
+
+    @Test
+    public void doesNotInterruptSlowAttemptAfterSpeculativeRetrySucceeds() throws Exception {
+        recordFastBatches();
+        CountDownLatch primaryBlocked = new CountDownLatch(1);
+        CountDownLatch primaryFinished = new CountDownLatch(1);
+        AtomicBoolean primaryInterrupted = new AtomicBoolean(false);
+
+        Map<Cell, Value> result = getOnlyBatch((host, rows) -> {
+            if (host.equals(HOST_1)) {
+                try {
+                    primaryBlocked.await();
+                } catch (InterruptedException e) {
+                    primaryInterrupted.set(true);
+                } finally {
+                    primaryFinished.countDown();
+                }
+            }
+            return resultFrom(host);
+        });
+        primaryBlocked.countDown();
+
+        assertThat(result).isEqualTo(resultFrom(HOST_2));
+        assertThat(primaryFinished.await(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(primaryInterrupted).isFalse();
+    }
+
+    @Test
+    public void usesSpeculativeResultIfFirstAttemptFailsAfterRetryIsIssued() throws Exception {
+        recordFastBatches();
+
+        Map<Cell, Value> result = getOnlyBatch((host, rows) -> {
+            if (host.equals(HOST_1)) {
+                Thread.sleep(50);
+                throw new IllegalStateException("slow and failed");
+            }
+            Thread.sleep(100);
+            return resultFrom(host);
+        });
+
+        assertThat(result).isEqualTo(resultFrom(HOST_2));
+    }
+
+    @Test
+    public void failsIfBothAttemptsFail() {
+        recordFastBatches();
+        RuntimeException exception = new IllegalStateException("fail");
+
+        assertThatThrownBy(() -> getOnlyBatch((host, rows) -> {
+            Thread.sleep(20);
+            throw exception;
+        })).isInstanceOf(AtlasDbDependencyException.class).hasCause(exception);
+    }
+
+    private Map<Cell, Value> getOnlyBatch(ReplicaAwareRowsLoader.RowsFetcher fetcher) throws Exception {
+        List<Callable<Map<Cell, Value>>> tasks = loader.getRowsTasks(TABLE, ImmutableList.of(ROW_1), 10, fetcher);
+        assertThat(tasks).hasSize(1);
+        return tasks.get(0).call();
+    }
+
+    private void recordFastBatches() {
+        for (int i = 0; i < ReplicaAwareRowsLoader.MIN_SAMPLES_FOR_SPECULATIVE_RETRY; i++) {
+            batchLatency.update(1, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private static Map<Cell, Value> resultFrom(InetSocketAddress host) {
+        return ImmutableMap.of(CELL, Value.create(PtBytes.toBytes(host.getPort()), 1L));
+    }
+}
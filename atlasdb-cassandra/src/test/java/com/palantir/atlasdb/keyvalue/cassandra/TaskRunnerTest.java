@@ -0,0 +1,104 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.keyvalue.cassandra;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.palantir.common.exception.AtlasDbDependencyException;
+
+public class TaskRunnerTest {
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final TaskRunner taskRunner = new TaskRunner(executor);
+
+    private final CountDownLatch blockingTaskStarted = new CountDownLatch(1);
+    private final CountDownLatch blockingTaskInterrupted = new CountDownLatch(1);
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void runAllTasksAsyncReturnsResultsInOrder() {
+        List<Integer> results = taskRunner.runAllTasksAsync(ImmutableList.<Callable<Integer>>of(
+                () -> 1, () -> 2, () -> 3)).join();
+
+        assertThat(results).containsExactly(1, 2, 3);
+    }
+
+    @Test
+    public void runAllTasksAsyncFailsWithDependencyExceptionIfAnyTaskFails() {
+        CompletableFuture<List<Integer>> result = taskRunner.runAllTasksAsync(ImmutableList.<Callable<Integer>>of(
+                () -> 1,
+                () -> {
+                    throw new IllegalStateException("boom");
+                }));
+
+        assertThatThrownBy(result::join)
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(AtlasDbDependencyException.class)
+                .hasRootCauseInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    public void runAllTasksAsyncInterruptsRunningTasksIfAnyTaskFails() throws InterruptedException {
+        CompletableFuture<List<Integer>> result = taskRunner.runAllTasksAsync(ImmutableList.<Callable<Integer>>of(
+                this::blockUntilInterrupted,
+                () -> {
+                    blockingTaskStarted.await();
+                    throw new IllegalStateException("boom");
+                }));
+
+        assertThatThrownBy(result::join).hasRootCauseInstanceOf(IllegalStateException.class);
+        assertThat(blockingTaskInterrupted.await(10, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    public void cancellingRunAllTasksAsyncInterruptsRunningTasks() throws InterruptedException {
+        CompletableFuture<List<Integer>> result = taskRunner.runAllTasksAsync(ImmutableList.<Callable<Integer>>of(
+                this::blockUntilInterrupted,
+                () -> 2));
+        blockingTaskStarted.await();
+
+        result.cancel(false);
+
+        assertThat(blockingTaskInterrupted.await(10, TimeUnit.SECONDS)).isTrue();
+    }
+
+    private Integer blockUntilInterrupted() {
+        blockingTaskStarted.countDown();
+        try {
+            new CountDownLatch(1).await();
+        } catch (InterruptedException e) {
+            blockingTaskInterrupted.countDown();
+        }
+        return 1;
+    }
+}
@@ -111,6 +111,30 @@ public class CassandraServiceTest {
         assertContainerHasHostOne(container);
     }
 
+    @Test
+    public void latencyAwareSelectionOnlyReturnsHostsMatchingPredicate() {
+        CassandraService cassandra = clientPoolWith(
+                ImmutableSet.of(HOST_1, HOST_2), ImmutableSet.of(HOST_1, HOST_2), HostSelectionStrategy.LATENCY_AWARE);
+
+        int numTrials = 50;
+        for (int i = 0; i < numTrials; i++) {
+            Optional<CassandraClientPoolingContainer> container
+                    = cassandra.getRandomGoodHostForPredicate(address -> address.equals(HOST_1));
+            assertContainerHasHostOne(container);
+        }
+    }
+
+    @Test
+    public void latencyAwareSelectionFallsBackToBlacklistedHostsMatchingPredicate() {
+        CassandraService cassandra = clientPoolWith(
+                ImmutableSet.of(HOST_1, HOST_2), ImmutableSet.of(HOST_1, HOST_2), HostSelectionStrategy.LATENCY_AWARE);
+        blacklist.add(HOST_1);
+
+        Optional<CassandraClientPoolingContainer> container
+                = cassandra.getRandomGoodHostForPredicate(address -> address.equals(HOST_1));
+        assertContainerHasHostOne(container);
+    }
+
     @SuppressWarnings({"OptionalUsedAsFieldOrParameterType", "ConstantConditions"})
     private void assertContainerHasHostOne(Optional<CassandraClientPoolingContainer> container) {
         assertThat(container.isPresent(), is(true));
@@ -128,9 +152,17 @@ public class CassandraServiceTest {
     private CassandraService clientPoolWith(
             ImmutableSet<InetSocketAddress> servers,
             ImmutableSet<InetSocketAddress> serversInPool) {
+        return clientPoolWith(servers, serversInPool, HostSelectionStrategy.OPEN_REQUESTS);
+    }
+
+    private CassandraService clientPoolWith(
+            ImmutableSet<InetSocketAddress> servers,
+            ImmutableSet<InetSocketAddress> serversInPool,
+            HostSelectionStrategy hostSelectionStrategy) {
         config = ImmutableCassandraKeyValueServiceConfig.builder()
                 .replicationFactor(3)
                 .addServers(servers.toArray(new InetSocketAddress[0]))
+                .hostSelectionStrategy(hostSelectionStrategy)
                 .build();
 
         blacklist = new Blacklist(config);
@@ -0,0 +1,71 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.keyvalue.cassandra.pool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+public class HostLatencyEstimateTest {
+    private static final long DECAY_TIME_NANOS = 1_000;
+
+    private final AtomicLong clock = new AtomicLong();
+    private final HostLatencyEstimate estimate = new HostLatencyEstimate(clock::get, DECAY_TIME_NANOS);
+
+    @Test
+    public void startsAtZero() {
+        assertThat(estimate.getEstimateNanos()).isEqualTo(0.0);
+    }
+
+    @Test
+    public void jumpsToPeakLatencyImmediately() {
+        estimate.recordLatency(100);
+        estimate.recordLatency(5_000);
+
+        assertThat(estimate.getEstimateNanos()).isEqualTo(5_000.0);
+    }
+
+    @Test
+    public void movesTowardsLowerLatenciesOverTime() {
+        estimate.recordLatency(5_000);
+
+        clock.addAndGet(DECAY_TIME_NANOS);
+        estimate.recordLatency(100);
+
+        double weight = Math.exp(-1);
+        assertThat(estimate.getEstimateNanos()).isCloseTo(5_000 * weight + 100 * (1 - weight), within(1e-6));
+    }
+
+    @Test
+    public void doesNotMoveTowardsLowerLatencyRecordedAtSameInstant() {
+        estimate.recordLatency(5_000);
+        estimate.recordLatency(100);
+
+        assertThat(estimate.getEstimateNanos()).isEqualTo(5_000.0);
+    }
+
+    @Test
+    public void decaysTowardsZeroWithoutRequests() {
+        estimate.recordLatency(5_000);
+
+        clock.addAndGet(10 * DECAY_TIME_NANOS);
+
+        assertThat(estimate.getEstimateNanos()).isLessThan(1.0);
+    }
+}
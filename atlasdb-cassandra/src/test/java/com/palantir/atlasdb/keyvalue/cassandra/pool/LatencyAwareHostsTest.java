@@ -0,0 +1,119 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.keyvalue.cassandra.pool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.palantir.atlasdb.keyvalue.cassandra.CassandraClientPoolingContainer;
+
+public class LatencyAwareHostsTest {
+    private static final int NUM_TRIALS = 1_000;
+
+    private final Random random = new Random(0);
+
+    @Test
+    public void returnsNullIfThereAreNoCandidates() {
+        List<CassandraClientPoolingContainer> pools = ImmutableList.of(pool(0, 0, 0), pool(1, 0, 0));
+
+        assertThat(LatencyAwareHosts.getRandomHost(pools, address -> false, random)).isNull();
+        assertThat(LatencyAwareHosts.getRandomHost(ImmutableList.of(), address -> true, random)).isNull();
+    }
+
+    @Test
+    public void returnsOnlyCandidateEvenIfSlow() {
+        CassandraClientPoolingContainer slowPool = pool(0, 1_000_000, 10);
+        List<CassandraClientPoolingContainer> pools = ImmutableList.of(slowPool, pool(1, 0, 0));
+
+        assertThat(LatencyAwareHosts.getRandomHost(pools, slowPool.getHost()::equals, random)).isEqualTo(slowPool);
+    }
+
+    @Test
+    public void onlyReturnsHostsMatchingPredicate() {
+        List<CassandraClientPoolingContainer> pools = IntStream.range(0, 10)
+                .mapToObj(port -> pool(port, 0, 0))
+                .collect(Collectors.toList());
+
+        Map<InetSocketAddress, Long> selections = select(pools, address -> address.getPort() % 2 == 0);
+
+        assertThat(selections.keySet()).allMatch(address -> address.getPort() % 2 == 0);
+        assertThat(selections).hasSize(5);
+    }
+
+    @Test
+    public void neverPicksTheSlowestOfSeveralHosts() {
+        CassandraClientPoolingContainer slowPool = pool(0, 50_000_000, 0);
+        List<CassandraClientPoolingContainer> pools = ImmutableList.of(
+                slowPool, pool(1, 1_000_000, 0), pool(2, 2_000_000, 0));
+
+        Map<InetSocketAddress, Long> selections = select(pools, address -> true);
+
+        assertThat(selections).doesNotContainKey(slowPool.getHost());
+        assertThat(selections).hasSize(2);
+    }
+
+    @Test
+    public void prefersHostsWithFewerOpenRequestsIfLatenciesAreEqual() {
+        CassandraClientPoolingContainer idlePool = pool(0, 1_000_000, 0);
+        CassandraClientPoolingContainer busyPool = pool(1, 1_000_000, 5);
+
+        assertThat(LatencyAwareHosts.getRandomHost(ImmutableList.of(busyPool, idlePool), address -> true, random))
+                .isEqualTo(idlePool);
+    }
+
+    @Test
+    public void weighsLatencyByOpenRequests() {
+        CassandraClientPoolingContainer fastButBusyPool = pool(0, 1_000_000, 9);
+        CassandraClientPoolingContainer slowButIdlePool = pool(1, 5_000_000, 0);
+
+        assertThat(LatencyAwareHosts.cost(fastButBusyPool)).isGreaterThan(LatencyAwareHosts.cost(slowButIdlePool));
+        assertThat(LatencyAwareHosts.getRandomHost(
+                ImmutableList.of(fastButBusyPool, slowButIdlePool), address -> true, random))
+                .isEqualTo(slowButIdlePool);
+    }
+
+    private Map<InetSocketAddress, Long> select(
+            List<CassandraClientPoolingContainer> pools,
+            Predicate<InetSocketAddress> isCandidate) {
+        return IntStream.range(0, NUM_TRIALS)
+                .mapToObj(unused -> LatencyAwareHosts.getRandomHost(pools, isCandidate, random).getHost())
+                .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
+    }
+
+    private static CassandraClientPoolingContainer pool(int port, long latencyNanos, int openRequests) {
+        HostLatencyEstimate latencyEstimate = new HostLatencyEstimate(() -> 0L, 1L);
+        latencyEstimate.recordLatency(latencyNanos);
+
+        CassandraClientPoolingContainer pool = mock(CassandraClientPoolingContainer.class);
+        when(pool.getHost()).thenReturn(new InetSocketAddress(port));
+        when(pool.getOpenRequests()).thenReturn(openRequests);
+        when(pool.getLatencyEstimate()).thenReturn(latencyEstimate);
+        return pool;
+    }
+}
@@ -310,30 +310,38 @@ public final class AllValueTypesTestTable implements
 
         @Override
         public byte[] persistToBytes() {
-            byte[] component0Bytes = EncodingUtils.encodeUnsignedVarLong(component0);
-            byte[] component1Bytes = EncodingUtils.encodeSignedVarLong(component1);
-            byte[] component2Bytes = PtBytes.toBytes(Long.MIN_VALUE ^ component2);
-            byte[] component3Bytes = EncodingUtils.encodeLittleEndian(component3);
             byte[] component4Bytes = component4.getBytes();
             byte[] component5Bytes = EncodingUtils.encodeVarString(component5);
             byte[] component8Bytes = EncodingUtils.encodeSizedBytes(component8);
             byte[] component9Bytes = EncodingUtils.encodeNullableFixedLong(component9);
             byte[] component10Bytes = EncodingUtils.encodeUUID(component10);
             byte[] blobComponentBytes = blobComponent;
-            return EncodingUtils.add(component0Bytes, component1Bytes, component2Bytes, component3Bytes, component4Bytes, component5Bytes, component8Bytes, component9Bytes, component10Bytes, blobComponentBytes);
+            byte[] __output = new byte[EncodingUtils.sizeOfUnsignedVarLong(component0) + EncodingUtils.sizeOfSignedVarLong(component1) + 8 + 8 + component4Bytes.length + component5Bytes.length + component8Bytes.length + component9Bytes.length + component10Bytes.length + blobComponentBytes.length];
+            int __index = 0;
+            __index = EncodingUtils.encodeUnsignedVarLong(component0, __output, __index);
+            __index = EncodingUtils.encodeSignedVarLong(component1, __output, __index);
+            __index = EncodingUtils.encodeFixedLong(Long.MIN_VALUE ^ component2, __output, __index);
+            __index = EncodingUtils.encodeLittleEndian(component3, __output, __index);
+            __index = EncodingUtils.copyInto(component4Bytes, __output, __index);
+            __index = EncodingUtils.copyInto(component5Bytes, __output, __index);
+            __index = EncodingUtils.copyInto(component8Bytes, __output, __index);
+            __index = EncodingUtils.copyInto(component9Bytes, __output, __index);
+            __index = EncodingUtils.copyInto(component10Bytes, __output, __index);
+            EncodingUtils.copyInto(blobComponentBytes, __output, __index);
+            return __output;
         }
 
         public static final Hydrator<AllValueTypesTestRow> BYTES_HYDRATOR = new Hydrator<AllValueTypesTestRow>() {
             @Override
             public AllValueTypesTestRow hydrateFromBytes(byte[] __input) {
                 int __index = 0;
-                Long component0 = EncodingUtils.decodeUnsignedVarLong(__input, __index);
+                long component0 = EncodingUtils.decodeUnsignedVarLong(__input, __index);
                 __index += EncodingUtils.sizeOfUnsignedVarLong(component0);
-                Long component1 = EncodingUtils.decodeSignedVarLong(__input, __index);
+                long component1 = EncodingUtils.decodeSignedVarLong(__input, __index);
                 __index += EncodingUtils.sizeOfSignedVarLong(component1);
-                Long component2 = Long.MIN_VALUE ^ PtBytes.toLong(__input, __index);
+                long component2 = Long.MIN_VALUE ^ PtBytes.toLong(__input, __index);
                 __index += 8;
-                Long component3 = EncodingUtils.decodeLittleEndian(__input, __index);
+                long component3 = EncodingUtils.decodeLittleEndian(__input, __index);
                 __index += 8;
                 Sha256Hash component4 = new Sha256Hash(EncodingUtils.get32Bytes(__input, __index));
                 __index += 32;
@@ -186,19 +186,22 @@ public final class HashComponentsTestTable implements
 
         @Override
         public byte[] persistToBytes() {
-            byte[] hashOfRowComponentsBytes = PtBytes.toBytes(Long.MIN_VALUE ^ hashOfRowComponents);
-            byte[] component1Bytes = EncodingUtils.encodeUnsignedVarLong(component1);
             byte[] component2Bytes = EncodingUtils.encodeVarString(component2);
-            return EncodingUtils.add(hashOfRowComponentsBytes, component1Bytes, component2Bytes);
+            byte[] __output = new byte[8 + EncodingUtils.sizeOfUnsignedVarLong(component1) + component2Bytes.length];
+            int __index = 0;
+            __index = EncodingUtils.encodeFixedLong(Long.MIN_VALUE ^ hashOfRowComponents, __output, __index);
+            __index = EncodingUtils.encodeUnsignedVarLong(component1, __output, __index);
+            EncodingUtils.copyInto(component2Bytes, __output, __index);
+            return __output;
         }
 
         public static final Hydrator<HashComponentsTestRow> BYTES_HYDRATOR = new Hydrator<HashComponentsTestRow>() {
             @Override
             public HashComponentsTestRow hydrateFromBytes(byte[] __input) {
                 int __index = 0;
-                Long hashOfRowComponents = Long.MIN_VALUE ^ PtBytes.toLong(__input, __index);
+                long hashOfRowComponents = Long.MIN_VALUE ^ PtBytes.toLong(__input, __index);
                 __index += 8;
-                Long component1 = EncodingUtils.decodeUnsignedVarLong(__input, __index);
+                long component1 = EncodingUtils.decodeUnsignedVarLong(__input, __index);
                 __index += EncodingUtils.sizeOfUnsignedVarLong(component1);
                 String component2 = EncodingUtils.decodeVarString(__input, __index);
                 __index += EncodingUtils.sizeOfVarString(component2);
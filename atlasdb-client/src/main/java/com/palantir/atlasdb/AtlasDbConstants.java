@@ -144,6 +144,8 @@ public final class AtlasDbConstants {
     public static final boolean DEFAULT_ENABLE_TARGETED_SWEEP = true;
     public static final int DEFAULT_SWEEP_QUEUE_SHARDS = 1;
     public static final int DEFAULT_TARGETED_SWEEP_THREADS = 1;
+    public static final int DEFAULT_TARGETED_SWEEP_DELETE_THREADS = 1;
+    public static final int MAX_TARGETED_SWEEP_DELETE_THREADS = 64;
     public static final int MAX_SWEEP_QUEUE_SHARDS = TargetedSweepMetadata.MAX_SHARDS;
 
     public static final int DEFAULT_STREAM_IN_MEMORY_THRESHOLD = 4 * 1024 * 1024;
@@ -0,0 +1,466 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.cache;
+
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+import java.util.stream.Collectors;
+
+import javax.annotation.Nullable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Supplier;
+
+/**
+ * An implementation of {@link TimestampCache} backed by open-addressing hash tables of primitive longs.
+ * <p>
+ * Each slot costs 17 bytes (two longs and a reference bit), and tables are kept between three eighths and three
+ * quarters full, so each entry costs roughly 23 to 45 bytes, compared with around 90 bytes for
+ * {@link DefaultTimestampCache}. Neither lookups nor insertions allocate, beyond the boxing required by the
+ * {@link TimestampCache} API, which {@link #getCommitTimestampOrDefault(long, long)} and
+ * {@link #put(long, long)} avoid.
+ * <p>
+ * The table is split into independently locked segments; lookups use optimistic reads and so never block on one
+ * another. Eviction is approximately LRU, using the CLOCK algorithm within each segment. Tables grow lazily, so
+ * memory is only used for entries that have actually been inserted.
+ * <p>
+ * Only positive start timestamps are cached; attempts to cache other start timestamps are ignored.
+ */
+public final class PrimitiveTimestampCache implements TimestampCache.Delegate {
+    private static final Logger log = LoggerFactory.getLogger(PrimitiveTimestampCache.class);
+
+    private static final int DEFAULT_CONCURRENCY_LEVEL = 64;
+    // Commit timestamps are either positive or TransactionConstants.FAILED_COMMIT_TS, so this is never cached.
+    private static final long ABSENT = Long.MIN_VALUE;
+
+    private final Supplier<Long> size;
+    private final Segment[] segments;
+    private final int segmentMask;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private volatile long maximumSize;
+
+    public PrimitiveTimestampCache(MetricRegistry metricRegistry, Supplier<Long> size) {
+        this(size, DEFAULT_CONCURRENCY_LEVEL);
+        registerMetrics(metricRegistry, MetricRegistry.name(TimestampCache.class, "startToCommitTimestamp"));
+    }
+
+    /**
+     * Creates a cache holding at most the given number of entries, which does not register any metrics.
+     */
+    public static PrimitiveTimestampCache createUninstrumented(long maximumSize) {
+        return new PrimitiveTimestampCache(() -> maximumSize, DEFAULT_CONCURRENCY_LEVEL);
+    }
+
+    @VisibleForTesting
+    PrimitiveTimestampCache(Supplier<Long> size, int concurrencyLevel) {
+        Preconditions.checkArgument(concurrencyLevel > 0 && Integer.bitCount(concurrencyLevel) == 1,
+                "Concurrency level must be a positive power of two, but was %s", concurrencyLevel);
+        this.size = size;
+        this.maximumSize = size.get();
+        this.segments = new Segment[concurrencyLevel];
+        this.segmentMask = concurrencyLevel - 1;
+        int maximumSizePerSegment = getMaximumSizePerSegment(maximumSize);
+        for (int i = 0; i < concurrencyLevel; i++) {
+            segments[i] = new Segment(maximumSizePerSegment, evictions);
+        }
+    }
+
+    @Override
+    @Nullable
+    public Long getCommitTimestampIfPresent(Long startTimestamp) {
+        long commitTimestamp = getCommitTimestampOrDefault(startTimestamp, ABSENT);
+        return commitTimestamp == ABSENT ? null : commitTimestamp;
+    }
+
+    /**
+     * As {@link #getCommitTimestampIfPresent(Long)}, but returning {@code valueIfAbsent} if the start timestamp is
+     * not cached, so that the lookup does not allocate.
+     */
+    public long getCommitTimestampOrDefault(long startTimestamp, long valueIfAbsent) {
+        resizeIfNecessary();
+        if (startTimestamp <= Segment.EMPTY_KEY) {
+            misses.increment();
+            return valueIfAbsent;
+        }
+        long hash = hash(startTimestamp);
+        long commitTimestamp = segmentFor(hash).get(startTimestamp, (int) hash, ABSENT);
+        if (commitTimestamp == ABSENT) {
+            misses.increment();
+            return valueIfAbsent;
+        }
+        hits.increment();
+        return commitTimestamp;
+    }
+
+    @Override
+    public void putAlreadyCommittedTransaction(Long startTimestamp, Long commitTimestamp) {
+        put(startTimestamp, commitTimestamp);
+    }
+
+    /**
+     * As {@link #putAlreadyCommittedTransaction(Long, Long)}, but without boxing.
+     */
+    public void put(long startTimestamp, long commitTimestamp) {
+        if (startTimestamp <= Segment.EMPTY_KEY || commitTimestamp == ABSENT) {
+            return;
+        }
+        long hash = hash(startTimestamp);
+        segmentFor(hash).put(startTimestamp, (int) hash, commitTimestamp);
+    }
+
+    @Override
+    public void clear() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    @VisibleForTesting
+    long estimatedSize() {
+        long estimatedSize = 0;
+        for (Segment segment : segments) {
+            estimatedSize += segment.size();
+        }
+        return estimatedSize;
+    }
+
+    private void resizeIfNecessary() {
+        long newMaximumSize = size.get();
+        if (newMaximumSize != maximumSize) {
+            synchronized (this) {
+                if (newMaximumSize != maximumSize) {
+                    int maximumSizePerSegment = getMaximumSizePerSegment(newMaximumSize);
+                    for (Segment segment : segments) {
+                        segment.setMaximumSize(maximumSizePerSegment);
+                    }
+                    maximumSize = newMaximumSize;
+                }
+            }
+        }
+    }
+
+    private int getMaximumSizePerSegment(long totalMaximumSize) {
+        Preconditions.checkArgument(totalMaximumSize >= 0, "Cache size must be non-negative");
+        long perSegment = (totalMaximumSize + segments.length - 1) / segments.length;
+        return (int) Math.min(perSegment, Segment.MAXIMUM_SEGMENT_SIZE);
+    }
+
+    private Segment segmentFor(long hash) {
+        return segments[(int) (hash >>> 32) & segmentMask];
+    }
+
+    /**
+     * Start timestamps are usually dense and sequential, so we spread them with the MurmurHash3 finalizer. The high
+     * bits select the segment, and the low bits the slot within that segment.
+     */
+    private static long hash(long key) {
+        long hash = key;
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private void registerMetrics(MetricRegistry metricRegistry, String metricsPrefix) {
+        Set<String> existingMetrics = metricRegistry.getMetrics().keySet().stream()
+                .filter(name -> name.startsWith(metricsPrefix))
+                .collect(Collectors.toSet());
+        if (!existingMetrics.isEmpty()) {
+            log.info("Not registering cache with prefix '{}' as metric registry already contains metrics: {}",
+                    metricsPrefix, existingMetrics);
+            return;
+        }
+        String cachePrefix = MetricRegistry.name(metricsPrefix, "cache");
+        metricRegistry.register(MetricRegistry.name(cachePrefix, "hit.count"), (Gauge<Long>) hits::sum);
+        metricRegistry.register(MetricRegistry.name(cachePrefix, "miss.count"), (Gauge<Long>) misses::sum);
+        metricRegistry.register(MetricRegistry.name(cachePrefix, "request.count"), (Gauge<Long>) this::requestCount);
+        metricRegistry.register(MetricRegistry.name(cachePrefix, "hit.ratio"),
+                (Gauge<Double>) () -> ratioOfRequests(hits.sum()));
+        metricRegistry.register(MetricRegistry.name(cachePrefix, "miss.ratio"),
+                (Gauge<Double>) () -> ratioOfRequests(misses.sum()));
+        metricRegistry.register(MetricRegistry.name(cachePrefix, "eviction.count"), (Gauge<Long>) evictions::sum);
+        metricRegistry.register(MetricRegistry.name(cachePrefix, "estimated.size"), (Gauge<Long>) this::estimatedSize);
+        metricRegistry.register(MetricRegistry.name(cachePrefix, "maximum.size"), (Gauge<Long>) () -> maximumSize);
+    }
+
+    private long requestCount() {
+        return hits.sum() + misses.sum();
+    }
+
+    private double ratioOfRequests(long count) {
+        long requests = requestCount();
+        return requests == 0 ? 0.0 : (double) count / requests;
+    }
+
+    /**
+     * A linear-probing hash table of start to commit timestamps, guarded by a {@link StampedLock}. Writers take the
+     * write lock; readers probe optimistically and retry under the read lock if a writer intervened.
+     */
+    private static final class Segment {
+        private static final long EMPTY_KEY = 0L;
+        private static final int INITIAL_CAPACITY = 16;
+        private static final int MAXIMUM_CAPACITY = 1 << 30;
+        private static final int MAXIMUM_SEGMENT_SIZE = MAXIMUM_CAPACITY / 4 * 3;
+
+        private final StampedLock lock = new StampedLock();
+        private final LongAdder evictions;
+
+        private volatile Table table;
+        private int maximumSize;
+        private int maximumCapacity;
+        private volatile int size;
+        private int clockHand;
+
+        Segment(int maximumSize, LongAdder evictions) {
+            this.evictions = evictions;
+            this.maximumSize = maximumSize;
+            this.maximumCapacity = capacityFor(maximumSize);
+            this.table = new Table(Math.min(INITIAL_CAPACITY, maximumCapacity));
+        }
+
+        long get(long key, int hash, long valueIfAbsent) {
+            long stamp = lock.tryOptimisticRead();
+            if (stamp != 0L) {
+                Table current = table;
+                int index = current.indexOf(key, hash);
+                long value = index < 0 ? 0L : current.values[index];
+                if (lock.validate(stamp)) {
+                    return markReferencedAndGet(current, index, value, valueIfAbsent);
+                }
+            }
+
+            stamp = lock.readLock();
+            try {
+                Table current = table;
+                int index = current.indexOf(key, hash);
+                return markReferencedAndGet(current, index, index < 0 ? 0L : current.values[index], valueIfAbsent);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        /**
+         * Setting the reference bit outside the write lock is a benign race: at worst, a concurrent eviction or
+         * rehash loses the hint, and the entry is slightly more likely to be evicted.
+         */
+        private static long markReferencedAndGet(Table current, int index, long value, long valueIfAbsent) {
+            if (index < 0) {
+                return valueIfAbsent;
+            }
+            current.referenced[index] = true;
+            return value;
+        }
+
+        void put(long key, int hash, long value) {
+            long stamp = lock.writeLock();
+            try {
+                if (maximumSize == 0) {
+                    return;
+                }
+                Table current = table;
+                int index = current.indexOf(key, hash);
+                if (index >= 0) {
+                    current.values[index] = value;
+                    current.referenced[index] = true;
+                    return;
+                }
+                if (size >= maximumSize) {
+                    evictOne(current);
+                } else if (size + 1 > current.threshold() && current.capacity() < maximumCapacity) {
+                    current = rehash(current.capacity() * 2);
+                }
+                current.insert(key, hash, value);
+                size++;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        void setMaximumSize(int newMaximumSize) {
+            long stamp = lock.writeLock();
+            try {
+                maximumSize = newMaximumSize;
+                maximumCapacity = capacityFor(newMaximumSize);
+                while (size > maximumSize) {
+                    evictOne(table);
+                }
+                if (table.capacity() > maximumCapacity) {
+                    rehash(maximumCapacity);
+                }
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        void clear() {
+            long stamp = lock.writeLock();
+            try {
+                table = new Table(Math.min(INITIAL_CAPACITY, maximumCapacity));
+                size = 0;
+                clockHand = 0;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        int size() {
+            return size;
+        }
+
+        /**
+         * Advances the clock hand, clearing reference bits, until it finds an unreferenced entry to evict. This
+         * terminates within two revolutions, as the first clears every reference bit.
+         */
+        private void evictOne(Table current) {
+            int mask = current.capacity() - 1;
+            while (true) {
+                int index = clockHand & mask;
+                clockHand = index + 1;
+                if (current.keys[index] == EMPTY_KEY) {
+                    continue;
+                }
+                if (current.referenced[index]) {
+                    current.referenced[index] = false;
+                    continue;
+                }
+                current.remove(index);
+                // Removal may shift a later entry into this slot, so it must be examined again.
+                clockHand = index;
+                size--;
+                evictions.increment();
+                return;
+            }
+        }
+
+        private Table rehash(int newCapacity) {
+            Table current = table;
+            Table resized = new Table(newCapacity);
+            for (int i = 0; i < current.capacity(); i++) {
+                long key = current.keys[i];
+                if (key != EMPTY_KEY) {
+                    int index = resized.insert(key, (int) hash(key), current.values[i]);
+                    resized.referenced[index] = current.referenced[i];
+                }
+            }
+            table = resized;
+            clockHand = 0;
+            return resized;
+        }
+
+        private static int capacityFor(int maximumSize) {
+            int minimumCapacity = (int) Math.min((long) maximumSize * 4 / 3 + 1, MAXIMUM_CAPACITY);
+            return Math.max(2, Integer.highestOneBit(minimumCapacity - 1) << 1);
+        }
+    }
+
+    private static final class Table {
+        private final long[] keys;
+        private final long[] values;
+        private final boolean[] referenced;
+
+        Table(int capacity) {
+            keys = new long[capacity];
+            values = new long[capacity];
+            referenced = new boolean[capacity];
+        }
+
+        int capacity() {
+            return keys.length;
+        }
+
+        int threshold() {
+            return keys.length / 4 * 3;
+        }
+
+        /**
+         * Returns the slot holding the given key, or -1 if absent. The probe is bounded by the table's capacity, as
+         * an optimistic reader may observe the table while a writer is shifting entries around.
+         */
+        int indexOf(long key, int hash) {
+            int mask = keys.length - 1;
+            int index = hash & mask;
+            for (int probes = 0; probes < keys.length; probes++) {
+                long candidate = keys[index];
+                if (candidate == key) {
+                    return index;
+                }
+                if (candidate == Segment.EMPTY_KEY) {
+                    return -1;
+                }
+                index = (index + 1) & mask;
+            }
+            return -1;
+        }
+
+        /**
+         * Inserts a key known to be absent. The caller must ensure there is a free slot.
+         */
+        int insert(long key, int hash, long value) {
+            int mask = keys.length - 1;
+            int index = hash & mask;
+            while (keys[index] != Segment.EMPTY_KEY) {
+                index = (index + 1) & mask;
+            }
+            values[index] = value;
+            referenced[index] = false;
+            keys[index] = key;
+            return index;
+        }
+
+        /**
+         * Removes the entry in the given slot using backward-shift deletion, so that no tombstones are needed and
+         * every remaining key stays reachable from its home slot.
+         */
+        void remove(int slot) {
+            int mask = keys.length - 1;
+            int hole = slot;
+            int index = slot;
+            while (true) {
+                index = (index + 1) & mask;
+                long key = keys[index];
+                if (key == Segment.EMPTY_KEY) {
+                    break;
+                }
+                int home = (int) hash(key) & mask;
+                boolean homeBetweenHoleAndIndex = hole <= index
+                        ? hole < home && home <= index
+                        : hole < home || home <= index;
+                if (homeBetweenHoleAndIndex) {
+                    continue;
+                }
+                keys[hole] = key;
+                values[hole] = values[index];
+                referenced[hole] = referenced[index];
+                hole = index;
+            }
+            keys[hole] = Segment.EMPTY_KEY;
+            referenced[hole] = false;
+        }
+    }
+}
@@ -18,40 +18,39 @@ package com.palantir.atlasdb.cache;
 import javax.annotation.Nullable;
 
 import com.codahale.metrics.MetricRegistry;
-import com.github.benmanes.caffeine.cache.Cache;
-import com.github.benmanes.caffeine.cache.Caffeine;
-import com.github.benmanes.caffeine.cache.Policy;
-import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Supplier;
-import com.palantir.atlasdb.util.AtlasDbMetrics;
 
+/**
+ * Caches the commit timestamps of transactions that are known to have committed, keyed by start timestamp.
+ * <p>
+ * The cache is backed by one of the implementations listed in {@link TimestampCacheType}, chosen with
+ * {@link #create(TimestampCacheType, MetricRegistry, Supplier)}. The public constructor creates a cache backed by
+ * Caffeine, as this class always did.
+ */
 public class TimestampCache {
-    private final Supplier<Long> size;
+    private final Delegate delegate;
 
-    private final Cache<Long, Long> startToCommitTimestampCache;
-    private final Policy.Eviction<Long, Long> evictionPolicy;
+    public TimestampCache(MetricRegistry metricRegistry, Supplier<Long> size) {
+        this(new DefaultTimestampCache(metricRegistry, size));
+    }
 
-    @VisibleForTesting
-    static Cache<Long, Long> createCache(long size) {
-        return Caffeine.newBuilder()
-                .maximumSize(size)
-                .recordStats()
-                .build();
+    TimestampCache(Delegate delegate) {
+        this.delegate = delegate;
     }
 
-    public TimestampCache(MetricRegistry metricRegistry, Supplier<Long> size) {
-        this.size = size;
-        startToCommitTimestampCache = createCache(size.get());
-        evictionPolicy = startToCommitTimestampCache.policy().eviction().get();
-        AtlasDbMetrics.registerCache(metricRegistry, startToCommitTimestampCache,
-                MetricRegistry.name(TimestampCache.class, "startToCommitTimestamp"));
+    public static TimestampCache create(TimestampCacheType type, MetricRegistry metricRegistry, Supplier<Long> size) {
+        switch (type) {
+            case CAFFEINE:
+                return new TimestampCache(new DefaultTimestampCache(metricRegistry, size));
+            case PRIMITIVE:
+                return new TimestampCache(new PrimitiveTimestampCache(metricRegistry, size));
+            default:
+                throw new IllegalArgumentException("Unknown timestamp cache type: " + type);
+        }
     }
 
-    @VisibleForTesting
-    TimestampCache(Cache<Long, Long> cache) {
-        this.evictionPolicy = cache.policy().eviction().get();
-        this.size = evictionPolicy::getMaximum;
-        this.startToCommitTimestampCache = cache;
+    public static TimestampCache createForTests() {
+        return new TimestampCache(new MetricRegistry(), () -> 1000L);
     }
 
     /**
@@ -62,14 +61,7 @@ public class TimestampCache {
      */
     @Nullable
     public Long getCommitTimestampIfPresent(Long startTimestamp) {
-        resizeIfNecessary();
-        return startToCommitTimestampCache.getIfPresent(startTimestamp);
-    }
-
-    private void resizeIfNecessary() {
-        if (evictionPolicy.getMaximum() != size.get()) {
-            evictionPolicy.setMaximum(size.get());
-        }
+        return delegate.getCommitTimestampIfPresent(startTimestamp);
     }
 
     /**
@@ -80,17 +72,26 @@ public class TimestampCache {
      * @param commitTimestamp transaction commit timestamp
      */
     public void putAlreadyCommittedTransaction(Long startTimestamp, Long commitTimestamp) {
-        startToCommitTimestampCache.put(startTimestamp, commitTimestamp);
+        delegate.putAlreadyCommittedTransaction(startTimestamp, commitTimestamp);
     }
 
     /**
      * Clear all values from the cache.
      */
     public void clear() {
-        startToCommitTimestampCache.invalidateAll();
+        delegate.clear();
     }
 
-    public static TimestampCache createForTests() {
-        return new TimestampCache(new MetricRegistry(), () -> 1000L);
+    /**
+     * The operations that each implementation of the cache provides; see the corresponding methods of
+     * {@link TimestampCache}.
+     */
+    interface Delegate {
+        @Nullable
+        Long getCommitTimestampIfPresent(Long startTimestamp);
+
+        void putAlreadyCommittedTransaction(Long startTimestamp, Long commitTimestamp);
+
+        void clear();
     }
 }
@@ -0,0 +1,28 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.cache;
+
+public enum TimestampCacheType {
+    /**
+     * A Caffeine cache of boxed longs, with near-LRU eviction. See {@link DefaultTimestampCache}.
+     */
+    CAFFEINE,
+    /**
+     * An open-addressing table of primitive longs, with CLOCK eviction. Uses considerably less memory per entry
+     * and does not allocate on insertion. See {@link PrimitiveTimestampCache}.
+     */
+    PRIMITIVE
+}
@@ -16,34 +16,85 @@
 package com.palantir.atlasdb.compress;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.xerial.snappy.Snappy;
 
+import com.github.luben.zstd.Zstd;
+import com.google.common.base.Preconditions;
 import com.palantir.atlasdb.table.description.ColumnValueDescription.Compression;
 import com.palantir.common.base.Throwables;
+import com.palantir.logsafe.SafeArg;
 
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Exception;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4SafeDecompressor;
+
+/**
+ * Compresses and decompresses the values of columns.
+ * <p>
+ * Values compressed with {@link Compression#LZ4} are prefixed with their uncompressed length, and values compressed
+ * with {@link Compression#ZSTD} are prefixed with the id of the dictionary they were compressed with, or
+ * {@link ZstdDictionaries#NO_DICTIONARY}, followed by their uncompressed length. Dictionaries are looked up by id in
+ * {@link ZstdDictionaries} when decompressing, so a value can be decompressed without knowing which table it belongs
+ * to.
+ */
 public final class CompressionUtils {
+    private static final int LENGTH_BYTES = Integer.BYTES;
+    private static final int ZSTD_HEADER_BYTES = 2 * Integer.BYTES;
+
+    private static final LZ4Compressor LZ4_COMPRESSOR = LZ4Factory.fastestInstance().fastCompressor();
+    private static final LZ4SafeDecompressor LZ4_DECOMPRESSOR = LZ4Factory.fastestInstance().safeDecompressor();
+
+    private static final Logger log = LoggerFactory.getLogger(CompressionUtils.class);
+    private static final Set<Integer> unregisteredDictionaryIdsWarnedAbout = ConcurrentHashMap.newKeySet();
+
     private CompressionUtils() {
         // empty
     }
 
     public static byte[] compress(byte[] bytes, Compression compressionType) {
-        if (compressionType == Compression.SNAPPY) {
-            return compressWithSnappy(bytes);
-        } else if (compressionType == Compression.NONE) {
-            return bytes;
-        } else {
-            throw new UnsupportedOperationException();
+        return compress(bytes, compressionType, ZstdDictionaries.NO_DICTIONARY);
+    }
+
+    /**
+     * Compresses the given bytes and, if the compression type is {@link Compression#ZSTD}, uses the registered
+     * dictionary with the given id. If no dictionary with that id is registered, the bytes are compressed without a
+     * dictionary, which gives the same result when decompressed, just less compressed.
+     */
+    public static byte[] compress(byte[] bytes, Compression compressionType, int zstdDictionaryId) {
+        switch (compressionType) {
+            case NONE:
+                return bytes;
+            case SNAPPY:
+                return compressWithSnappy(bytes);
+            case LZ4:
+                return compressWithLz4(bytes);
+            case ZSTD:
+                return compressWithZstd(bytes, zstdDictionaryId);
+            default:
+                throw new UnsupportedOperationException("Unsupported compression type: " + compressionType);
         }
     }
 
     public static byte[] decompress(byte[] bytes, Compression compressionType) {
-        if (compressionType == Compression.SNAPPY) {
-            return decompressWithSnappy(bytes);
-        } else if (compressionType == Compression.NONE) {
-            return bytes;
-        } else {
-            throw new UnsupportedOperationException();
+        switch (compressionType) {
+            case NONE:
+                return bytes;
+            case SNAPPY:
+                return decompressWithSnappy(bytes);
+            case LZ4:
+                return decompressWithLz4(bytes);
+            case ZSTD:
+                return decompressWithZstd(bytes);
+            default:
+                throw new UnsupportedOperationException("Unsupported compression type: " + compressionType);
         }
     }
 
@@ -65,4 +116,84 @@ public final class CompressionUtils {
             throw Throwables.throwUncheckedException(e);
         }
     }
+
+    public static byte[] compressWithLz4(byte[] bytes) {
+        byte[] compressed = new byte[LENGTH_BYTES + LZ4_COMPRESSOR.maxCompressedLength(bytes.length)];
+        ByteBuffer.wrap(compressed).putInt(bytes.length);
+        int compressedLength = LZ4_COMPRESSOR.compress(bytes, 0, bytes.length, compressed, LENGTH_BYTES);
+        return Arrays.copyOf(compressed, LENGTH_BYTES + compressedLength);
+    }
+
+    public static byte[] decompressWithLz4(byte[] bytes) {
+        int length = readLength(bytes, 0, "LZ4");
+        byte[] decompressed = new byte[length];
+        try {
+            int decompressedLength = LZ4_DECOMPRESSOR.decompress(
+                    bytes, LENGTH_BYTES, bytes.length - LENGTH_BYTES, decompressed, 0);
+            Preconditions.checkArgument(decompressedLength == length, "Cannot decompress these bytes using LZ4");
+        } catch (LZ4Exception e) {
+            throw new IllegalArgumentException("Cannot decompress these bytes using LZ4", e);
+        }
+        return decompressed;
+    }
+
+    /**
+     * Compresses bytes with Zstandard, using the registered dictionary with the given id. If no dictionary with that
+     * id is registered, the bytes are compressed without a dictionary, and a warning is logged the first time this
+     * happens for the id.
+     */
+    public static byte[] compressWithZstd(byte[] bytes, int dictionaryId) {
+        ZstdDictionaries.Dictionary dictionary = ZstdDictionaries.get(dictionaryId);
+        if (dictionary == null && dictionaryId != ZstdDictionaries.NO_DICTIONARY
+                && unregisteredDictionaryIdsWarnedAbout.add(dictionaryId)) {
+            log.warn("Compressing values without the Zstd dictionary {}, because it has not been registered."
+                    + " Dictionaries are registered when the schema of the table that uses them is created or its"
+                    + " metadata is read.", SafeArg.of("dictionaryId", dictionaryId));
+        }
+        byte[] frame = dictionary == null
+                ? Zstd.compress(bytes, ZstdDictionaries.COMPRESSION_LEVEL)
+                : Zstd.compress(bytes, dictionary.forCompression());
+        byte[] compressed = new byte[ZSTD_HEADER_BYTES + frame.length];
+        ByteBuffer.wrap(compressed)
+                .putInt(dictionary == null ? ZstdDictionaries.NO_DICTIONARY : dictionaryId)
+                .putInt(bytes.length)
+                .put(frame);
+        return compressed;
+    }
+
+    /**
+     * Decompresses bytes compressed with {@link #compressWithZstd}.
+     *
+     * @throws IllegalStateException if the bytes were compressed with a dictionary that is not registered
+     */
+    public static byte[] decompressWithZstd(byte[] bytes) {
+        Preconditions.checkArgument(bytes.length >= ZSTD_HEADER_BYTES, "Cannot decompress these bytes using Zstd");
+        int dictionaryId = ByteBuffer.wrap(bytes).getInt();
+        int length = readLength(bytes, Integer.BYTES, "Zstd");
+        ZstdDictionaries.Dictionary dictionary = null;
+        if (dictionaryId != ZstdDictionaries.NO_DICTIONARY) {
+            dictionary = ZstdDictionaries.get(dictionaryId);
+            Preconditions.checkState(dictionary != null, "These bytes were compressed using the Zstd dictionary %s,"
+                    + " which has not been registered. Dictionaries are registered when the schema of the table"
+                    + " that uses them is created or its metadata is read, or with ZstdDictionaries.registerAll.",
+                    dictionaryId);
+        }
+        byte[] frame = Arrays.copyOfRange(bytes, ZSTD_HEADER_BYTES, bytes.length);
+        try {
+            return dictionary == null
+                    ? Zstd.decompress(frame, length)
+                    : Zstd.decompress(frame, dictionary.forDecompression(), length);
+        } catch (RuntimeException e) {
+            // zstd-jni reports corrupt input with unchecked exceptions
+            throw new IllegalArgumentException("Cannot decompress these bytes using Zstd", e);
+        }
+    }
+
+    private static int readLength(byte[] bytes, int offset, String compressionType) {
+        Preconditions.checkArgument(bytes.length >= offset + LENGTH_BYTES,
+                "Cannot decompress these bytes using %s", compressionType);
+        int length = ByteBuffer.wrap(bytes, offset, LENGTH_BYTES).getInt();
+        Preconditions.checkArgument(length >= 0, "Cannot decompress these bytes using %s", compressionType);
+        return length;
+    }
 }
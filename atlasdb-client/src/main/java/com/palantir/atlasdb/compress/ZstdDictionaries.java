@@ -0,0 +1,204 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.compress;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.Nullable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdDictCompress;
+import com.github.luben.zstd.ZstdDictDecompress;
+import com.google.common.base.Preconditions;
+import com.google.protobuf.ByteString;
+import com.palantir.atlasdb.table.description.TableMetadata;
+import com.palantir.logsafe.SafeArg;
+
+/**
+ * Trains and registers the Zstandard dictionaries used to compress the values of tables with
+ * {@link com.palantir.atlasdb.table.description.ColumnValueDescription.Compression#ZSTD}.
+ * <p>
+ * A dictionary is trained from samples of a table's values and stored in the table's metadata. Small values that share
+ * a lot of structure with each other, such as protobuf or JSON messages, compress much better with a dictionary, since
+ * the structure they share is in the dictionary rather than repeated in every value. Dictionaries are identified by
+ * the id that Zstandard stores in their header, which is also stored in each value compressed with them.
+ */
+public final class ZstdDictionaries {
+    /**
+     * The dictionary id stored in values that were compressed without a dictionary.
+     */
+    public static final int NO_DICTIONARY = 0;
+
+    private static final Logger log = LoggerFactory.getLogger(ZstdDictionaries.class);
+
+    static final int COMPRESSION_LEVEL = 3;
+
+    private static final int DICTIONARY_MAGIC = 0xEC30A437;
+    private static final int HEADER_BYTES = 2 * Integer.BYTES;
+
+    private static final Map<Integer, Dictionary> dictionaries = new ConcurrentHashMap<>();
+
+    private ZstdDictionaries() {
+        // utility
+    }
+
+    /**
+     * Trains a dictionary of at most the given size from the given samples, which should be representative of the
+     * values it will be used to compress. Zstandard recommends dictionaries of around 100KB, trained from around 100
+     * times as much sample data.
+     *
+     * @throws IllegalArgumentException if a dictionary could not be trained, for example because there are too few
+     * samples
+     */
+    public static byte[] train(Collection<byte[]> samples, int maxDictionarySizeBytes) {
+        byte[] buffer = new byte[maxDictionarySizeBytes];
+        long size = Zstd.trainFromBuffer(samples.toArray(new byte[0][]), buffer);
+        if (Zstd.isError(size)) {
+            throw new IllegalArgumentException("Failed to train a Zstd dictionary: " + Zstd.getErrorName(size));
+        }
+        return Arrays.copyOf(buffer, (int) size);
+    }
+
+    /**
+     * Returns the id of the given dictionary, which must have been trained by Zstandard.
+     *
+     * @throws IllegalArgumentException if the bytes are not a trained Zstandard dictionary
+     */
+    public static int idOf(byte[] dictionary) {
+        Preconditions.checkArgument(dictionary.length > HEADER_BYTES,
+                "A Zstd dictionary must be trained, and so have a header");
+        ByteBuffer header = ByteBuffer.wrap(dictionary).order(ByteOrder.LITTLE_ENDIAN);
+        Preconditions.checkArgument(header.getInt() == DICTIONARY_MAGIC,
+                "A Zstd dictionary must be trained, and so start with the dictionary magic number");
+        int id = header.getInt();
+        Preconditions.checkArgument(id != NO_DICTIONARY, "A Zstd dictionary must not have the id %s", NO_DICTIONARY);
+        return id;
+    }
+
+    /**
+     * Registers the given dictionary, so that values can be compressed and decompressed with it, and returns its id.
+     * Registering a dictionary that is already registered has no effect.
+     *
+     * @throws IllegalArgumentException if the bytes are not a trained Zstandard dictionary, or a different dictionary
+     * with the same id is already registered
+     */
+    public static int register(byte[] dictionary) {
+        int id = idOf(dictionary);
+        Dictionary registered = dictionaries.computeIfAbsent(id, unused -> new Dictionary(dictionary.clone()));
+        Preconditions.checkArgument(registered.hasBytes(dictionary),
+                "A different Zstd dictionary with id %s is already registered", id);
+        return id;
+    }
+
+    /**
+     * Registers the current and previous dictionaries of the given table, so that its values can be compressed with
+     * its current dictionary and decompressed whichever of them they were compressed with. This is done for each
+     * table when its schema is created by {@link com.palantir.atlasdb.table.description.Schemas}, and, leniently, by
+     * {@link #registerAllIgnoringConflicts} whenever a table's metadata is hydrated.
+     *
+     * @throws IllegalArgumentException if one of the dictionaries has the same id as a different dictionary that is
+     * already registered
+     */
+    public static void registerAll(TableMetadata metadata) {
+        if (metadata.getZstdDictionary() != null) {
+            register(metadata.getZstdDictionary());
+        }
+        for (ByteString dictionary : metadata.getPreviousZstdDictionaries()) {
+            register(dictionary.toByteArray());
+        }
+    }
+
+    /**
+     * As {@link #registerAll}, but logs rather than throws if a dictionary has the same id as a different dictionary
+     * that is already registered, and skips it. This is used when hydrating table metadata, which must not fail
+     * because of a dictionary registered by another table.
+     */
+    public static void registerAllIgnoringConflicts(TableMetadata metadata) {
+        if (metadata.getZstdDictionary() != null) {
+            registerIgnoringConflicts(metadata.getZstdDictionary());
+        }
+        for (ByteString dictionary : metadata.getPreviousZstdDictionaries()) {
+            registerIgnoringConflicts(dictionary.toByteArray());
+        }
+    }
+
+    private static void registerIgnoringConflicts(byte[] dictionary) {
+        try {
+            register(dictionary);
+        } catch (IllegalArgumentException e) {
+            log.warn("Not registering a Zstd dictionary from table metadata, because it is not a valid dictionary or"
+                    + " a different dictionary with its id {} is already registered. Values compressed with it may"
+                    + " not be decompressed correctly.", SafeArg.of("dictionaryId", idOrNoDictionary(dictionary)), e);
+        }
+    }
+
+    private static int idOrNoDictionary(byte[] dictionary) {
+        try {
+            return idOf(dictionary);
+        } catch (IllegalArgumentException e) {
+            return NO_DICTIONARY;
+        }
+    }
+
+    @Nullable
+    static Dictionary get(int id) {
+        return id == NO_DICTIONARY ? null : dictionaries.get(id);
+    }
+
+    static final class Dictionary {
+        private final byte[] bytes;
+        private volatile ZstdDictCompress forCompression;
+        private volatile ZstdDictDecompress forDecompression;
+
+        private Dictionary(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        boolean hasBytes(byte[] other) {
+            return Arrays.equals(bytes, other);
+        }
+
+        ZstdDictCompress forCompression() {
+            if (forCompression == null) {
+                synchronized (this) {
+                    if (forCompression == null) {
+                        forCompression = new ZstdDictCompress(bytes, COMPRESSION_LEVEL);
+                    }
+                }
+            }
+            return forCompression;
+        }
+
+        ZstdDictDecompress forDecompression() {
+            if (forDecompression == null) {
+                synchronized (this) {
+                    if (forDecompression == null) {
+                        forDecompression = new ZstdDictDecompress(bytes);
+                    }
+                }
+            }
+            return forDecompression;
+        }
+    }
+}
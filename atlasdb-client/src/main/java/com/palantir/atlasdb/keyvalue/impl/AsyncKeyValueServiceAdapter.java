@@ -0,0 +1,81 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.keyvalue.impl;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import com.palantir.atlasdb.keyvalue.api.AsyncKeyValueService;
+import com.palantir.atlasdb.keyvalue.api.BatchColumnRangeSelection;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.ColumnSelection;
+import com.palantir.atlasdb.keyvalue.api.KeyValueService;
+import com.palantir.atlasdb.keyvalue.api.RowColumnRangeIterator;
+import com.palantir.atlasdb.keyvalue.api.TableReference;
+import com.palantir.atlasdb.keyvalue.api.Value;
+
+/**
+ * Exposes a synchronous {@link KeyValueService} as an {@link AsyncKeyValueService} by running each call on the
+ * supplied executor. This does not reduce the number of threads blocked on the underlying store, but it does
+ * free the calling thread; key value services with a native asynchronous implementation should be preferred, and
+ * {@link #create(KeyValueService, Executor)} will return those directly.
+ */
+public final class AsyncKeyValueServiceAdapter implements AsyncKeyValueService {
+    private final KeyValueService delegate;
+    private final Executor executor;
+
+    private AsyncKeyValueServiceAdapter(KeyValueService delegate, Executor executor) {
+        this.delegate = delegate;
+        this.executor = executor;
+    }
+
+    /**
+     * Returns {@code keyValueService} itself if it natively supports asynchronous operations, and otherwise an
+     * adapter that runs its synchronous methods on {@code executor}.
+     */
+    public static AsyncKeyValueService create(KeyValueService keyValueService, Executor executor) {
+        if (keyValueService instanceof AsyncKeyValueService) {
+            return (AsyncKeyValueService) keyValueService;
+        }
+        return new AsyncKeyValueServiceAdapter(keyValueService, executor);
+    }
+
+    @Override
+    public CompletableFuture<Map<Cell, Value>> getRowsAsync(TableReference tableRef, Iterable<byte[]> rows,
+            ColumnSelection columnSelection, long timestamp) {
+        return CompletableFuture.supplyAsync(
+                () -> delegate.getRows(tableRef, rows, columnSelection, timestamp), executor);
+    }
+
+    @Override
+    public CompletableFuture<Map<byte[], RowColumnRangeIterator>> getRowsColumnRangeAsync(TableReference tableRef,
+            Iterable<byte[]> rows, BatchColumnRangeSelection batchColumnRangeSelection, long timestamp) {
+        return CompletableFuture.supplyAsync(
+                () -> delegate.getRowsColumnRange(tableRef, rows, batchColumnRangeSelection, timestamp), executor);
+    }
+
+    @Override
+    public CompletableFuture<Map<Cell, Value>> getAsync(TableReference tableRef, Map<Cell, Long> timestampByCell) {
+        return CompletableFuture.supplyAsync(() -> delegate.get(tableRef, timestampByCell), executor);
+    }
+
+    @Override
+    public CompletableFuture<Void> multiPutAsync(Map<TableReference, ? extends Map<Cell, byte[]>> valuesByTable,
+            long timestamp) {
+        return CompletableFuture.runAsync(() -> delegate.multiPut(valuesByTable, timestamp), executor);
+    }
+}
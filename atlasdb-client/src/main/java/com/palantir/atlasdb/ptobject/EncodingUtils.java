@@ -79,21 +79,56 @@ public class EncodingUtils {
         return ret;
     }
 
+    /**
+     * Encodes the value as {@link #encodeUnsignedVarLong(long)} would into the given array, which must be zeroed
+     * where the value is written, starting at offset.
+     * @return the index just past the encoded value
+     */
+    public static int encodeUnsignedVarLong(long value, @Output byte[] output, int offset) {
+        int size = sizeOfVarLong(checkUnsigned(value));
+        encodeVarLongForSize(value, output, offset, size, size);
+        return offset + size;
+    }
+
+    /**
+     * Encodes the value as {@link #encodeSignedVarLong(long)} would into the given array, which must be zeroed
+     * where the value is written, starting at offset.
+     * @return the index just past the encoded value
+     */
+    public static int encodeSignedVarLong(long value, @Output byte[] output, int offset) {
+        final boolean negative = value<0;
+        int size = sizeOfSignedVarLong(value);
+        value ^= (value >> 63);
+        encodeVarLongForSize(value, output, offset, size, size+1);
+        if (negative) {
+            flipAllBitsInPlace(output, offset, size);
+        }
+        return offset + size;
+    }
+
     /**
      * There will be size-1 bits set before there is a zero.
      * All the bits of value will or-ed (|=) onto the the passed byte[].
      * @param size must be <= 17 (but will most likely be 10 or 11 at most)
      */
     private static void encodeVarLongForSize(long value, @Output byte[] ret, int size) {
-        int end = 0;
+        encodeVarLongForSize(value, ret, 0, ret.length, size);
+    }
+
+    /**
+     * As {@link #encodeVarLongForSize(long, byte[], int)}, but writing into the length bytes of ret starting at
+     * offset.
+     */
+    private static void encodeVarLongForSize(long value, @Output byte[] ret, int offset, int length, int size) {
+        int end = offset;
         if (size > 8) {
-            ret[0] = (byte)0xff;
-            end = 1;
+            ret[offset] = (byte)0xff;
+            end = offset + 1;
             size -= 8;
         }
         ret[end] = (byte)((0xff << (9-size)) & 0xff);
 
-        int index = ret.length;
+        int index = offset + length;
         while (index-- > end) {
             ret[index] |= (byte)((int)value & 0xff);
             value >>>= 8;
@@ -354,6 +389,15 @@ public class EncodingUtils {
         return result;
     }
 
+    /**
+     * Copies the bytes into the given array, starting at offset.
+     * @return the index just past the copied bytes
+     */
+    public static int copyInto(byte[] bytes, @Output byte[] output, int offset) {
+        System.arraycopy(bytes, 0, output, offset, bytes.length);
+        return offset + bytes.length;
+    }
+
     public static byte[] getBytesFromOffsetToEnd(byte[] b1, int offset) {
         if (offset == 0) {
             return b1;
@@ -377,6 +421,30 @@ public class EncodingUtils {
         return bytes;
     }
 
+    /**
+     * Encodes the value as {@link PtBytes#toBytes(long)} would into the given array, starting at offset.
+     * @return the index just past the encoded value
+     */
+    public static int encodeFixedLong(long val, @Output byte[] output, int offset) {
+        for (int i = PtBytes.SIZEOF_LONG - 1; i >= 0; i--) {
+            output[offset + i] = (byte) val;
+            val >>>= 8;
+        }
+        return offset + PtBytes.SIZEOF_LONG;
+    }
+
+    /**
+     * Encodes the value as {@link #encodeLittleEndian(long)} would into the given array, starting at offset.
+     * @return the index just past the encoded value
+     */
+    public static int encodeLittleEndian(long val, @Output byte[] output, int offset) {
+        for (int i = 0; i < PtBytes.SIZEOF_LONG; i++) {
+            output[offset + i] = (byte) val;
+            val >>>= 8;
+        }
+        return offset + PtBytes.SIZEOF_LONG;
+    }
+
     private static long checkUnsigned(long value) {
         if (value < 0) {
             throw new IllegalArgumentException("Expected unsigned value: " + value);
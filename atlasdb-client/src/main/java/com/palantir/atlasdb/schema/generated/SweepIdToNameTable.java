@@ -177,16 +177,19 @@ public final class SweepIdToNameTable implements
 
         @Override
         public byte[] persistToBytes() {
-            byte[] hashOfRowComponentsBytes = PtBytes.toBytes(Long.MIN_VALUE ^ hashOfRowComponents);
             byte[] singletonBytes = PtBytes.toBytes(singleton);
-            return EncodingUtils.add(hashOfRowComponentsBytes, singletonBytes);
+            byte[] __output = new byte[8 + singletonBytes.length];
+            int __index = 0;
+            __index = EncodingUtils.encodeFixedLong(Long.MIN_VALUE ^ hashOfRowComponents, __output, __index);
+            EncodingUtils.copyInto(singletonBytes, __output, __index);
+            return __output;
         }
 
         public static final Hydrator<SweepIdToNameRow> BYTES_HYDRATOR = new Hydrator<SweepIdToNameRow>() {
             @Override
             public SweepIdToNameRow hydrateFromBytes(byte[] __input) {
                 int __index = 0;
-                Long hashOfRowComponents = Long.MIN_VALUE ^ PtBytes.toLong(__input, __index);
+                long hashOfRowComponents = Long.MIN_VALUE ^ PtBytes.toLong(__input, __index);
                 __index += 8;
                 String singleton = PtBytes.toString(__input, __index, __input.length-__index);
                 __index += 0;
@@ -288,7 +291,7 @@ public final class SweepIdToNameTable implements
             @Override
             public SweepIdToNameColumn hydrateFromBytes(byte[] __input) {
                 int __index = 0;
-                Long tableId = EncodingUtils.decodeFlippedUnsignedVarLong(__input, __index);
+                long tableId = EncodingUtils.decodeFlippedUnsignedVarLong(__input, __index);
                 __index += EncodingUtils.sizeOfUnsignedVarLong(tableId);
                 return new SweepIdToNameColumn(tableId);
             }
@@ -179,16 +179,19 @@ public final class SweepNameToIdTable implements
 
         @Override
         public byte[] persistToBytes() {
-            byte[] hashOfRowComponentsBytes = PtBytes.toBytes(Long.MIN_VALUE ^ hashOfRowComponents);
             byte[] tableBytes = PtBytes.toBytes(table);
-            return EncodingUtils.add(hashOfRowComponentsBytes, tableBytes);
+            byte[] __output = new byte[8 + tableBytes.length];
+            int __index = 0;
+            __index = EncodingUtils.encodeFixedLong(Long.MIN_VALUE ^ hashOfRowComponents, __output, __index);
+            EncodingUtils.copyInto(tableBytes, __output, __index);
+            return __output;
         }
 
         public static final Hydrator<SweepNameToIdRow> BYTES_HYDRATOR = new Hydrator<SweepNameToIdRow>() {
             @Override
             public SweepNameToIdRow hydrateFromBytes(byte[] __input) {
                 int __index = 0;
-                Long hashOfRowComponents = Long.MIN_VALUE ^ PtBytes.toLong(__input, __index);
+                long hashOfRowComponents = Long.MIN_VALUE ^ PtBytes.toLong(__input, __index);
                 __index += 8;
                 String table = PtBytes.toString(__input, __index, __input.length-__index);
                 __index += 0;
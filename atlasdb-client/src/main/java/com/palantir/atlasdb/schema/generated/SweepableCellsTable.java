@@ -184,19 +184,22 @@ public final class SweepableCellsTable implements
 
         @Override
         public byte[] persistToBytes() {
-            byte[] hashOfRowComponentsBytes = PtBytes.toBytes(Long.MIN_VALUE ^ hashOfRowComponents);
-            byte[] timestampPartitionBytes = EncodingUtils.encodeUnsignedVarLong(timestampPartition);
             byte[] metadataBytes = metadata;
-            return EncodingUtils.add(hashOfRowComponentsBytes, timestampPartitionBytes, metadataBytes);
+            byte[] __output = new byte[8 + EncodingUtils.sizeOfUnsignedVarLong(timestampPartition) + metadataBytes.length];
+            int __index = 0;
+            __index = EncodingUtils.encodeFixedLong(Long.MIN_VALUE ^ hashOfRowComponents, __output, __index);
+            __index = EncodingUtils.encodeUnsignedVarLong(timestampPartition, __output, __index);
+            EncodingUtils.copyInto(metadataBytes, __output, __index);
+            return __output;
         }
 
         public static final Hydrator<SweepableCellsRow> BYTES_HYDRATOR = new Hydrator<SweepableCellsRow>() {
             @Override
             public SweepableCellsRow hydrateFromBytes(byte[] __input) {
                 int __index = 0;
-                Long hashOfRowComponents = Long.MIN_VALUE ^ PtBytes.toLong(__input, __index);
+                long hashOfRowComponents = Long.MIN_VALUE ^ PtBytes.toLong(__input, __index);
                 __index += 8;
-                Long timestampPartition = EncodingUtils.decodeUnsignedVarLong(__input, __index);
+                long timestampPartition = EncodingUtils.decodeUnsignedVarLong(__input, __index);
                 __index += EncodingUtils.sizeOfUnsignedVarLong(timestampPartition);
                 byte[] metadata = EncodingUtils.getBytesFromOffsetToEnd(__input, __index);
                 __index += 0;
@@ -299,18 +302,20 @@ public final class SweepableCellsTable implements
 
         @Override
         public byte[] persistToBytes() {
-            byte[] timestampModulusBytes = EncodingUtils.encodeUnsignedVarLong(timestampModulus);
-            byte[] writeIndexBytes = EncodingUtils.encodeSignedVarLong(writeIndex);
-            return EncodingUtils.add(timestampModulusBytes, writeIndexBytes);
+            byte[] __output = new byte[EncodingUtils.sizeOfUnsignedVarLong(timestampModulus) + EncodingUtils.sizeOfSignedVarLong(writeIndex)];
+            int __index = 0;
+            __index = EncodingUtils.encodeUnsignedVarLong(timestampModulus, __output, __index);
+            EncodingUtils.encodeSignedVarLong(writeIndex, __output, __index);
+            return __output;
         }
 
         public static final Hydrator<SweepableCellsColumn> BYTES_HYDRATOR = new Hydrator<SweepableCellsColumn>() {
             @Override
             public SweepableCellsColumn hydrateFromBytes(byte[] __input) {
                 int __index = 0;
-                Long timestampModulus = EncodingUtils.decodeUnsignedVarLong(__input, __index);
+                long timestampModulus = EncodingUtils.decodeUnsignedVarLong(__input, __index);
                 __index += EncodingUtils.sizeOfUnsignedVarLong(timestampModulus);
-                Long writeIndex = EncodingUtils.decodeSignedVarLong(__input, __index);
+                long writeIndex = EncodingUtils.decodeSignedVarLong(__input, __index);
                 __index += EncodingUtils.sizeOfSignedVarLong(writeIndex);
                 return new SweepableCellsColumn(timestampModulus, writeIndex);
             }
@@ -200,22 +200,25 @@ public final class SweepableTimestampsTable implements
 
         @Override
         public byte[] persistToBytes() {
-            byte[] hashOfRowComponentsBytes = PtBytes.toBytes(Long.MIN_VALUE ^ hashOfRowComponents);
-            byte[] shardBytes = EncodingUtils.encodeUnsignedVarLong(shard);
-            byte[] timestampPartitionBytes = EncodingUtils.encodeUnsignedVarLong(timestampPartition);
             byte[] sweepConservativeBytes = sweepConservative;
-            return EncodingUtils.add(hashOfRowComponentsBytes, shardBytes, timestampPartitionBytes, sweepConservativeBytes);
+            byte[] __output = new byte[8 + EncodingUtils.sizeOfUnsignedVarLong(shard) + EncodingUtils.sizeOfUnsignedVarLong(timestampPartition) + sweepConservativeBytes.length];
+            int __index = 0;
+            __index = EncodingUtils.encodeFixedLong(Long.MIN_VALUE ^ hashOfRowComponents, __output, __index);
+            __index = EncodingUtils.encodeUnsignedVarLong(shard, __output, __index);
+            __index = EncodingUtils.encodeUnsignedVarLong(timestampPartition, __output, __index);
+            EncodingUtils.copyInto(sweepConservativeBytes, __output, __index);
+            return __output;
         }
 
         public static final Hydrator<SweepableTimestampsRow> BYTES_HYDRATOR = new Hydrator<SweepableTimestampsRow>() {
             @Override
             public SweepableTimestampsRow hydrateFromBytes(byte[] __input) {
                 int __index = 0;
-                Long hashOfRowComponents = Long.MIN_VALUE ^ PtBytes.toLong(__input, __index);
+                long hashOfRowComponents = Long.MIN_VALUE ^ PtBytes.toLong(__input, __index);
                 __index += 8;
-                Long shard = EncodingUtils.decodeUnsignedVarLong(__input, __index);
+                long shard = EncodingUtils.decodeUnsignedVarLong(__input, __index);
                 __index += EncodingUtils.sizeOfUnsignedVarLong(shard);
-                Long timestampPartition = EncodingUtils.decodeUnsignedVarLong(__input, __index);
+                long timestampPartition = EncodingUtils.decodeUnsignedVarLong(__input, __index);
                 __index += EncodingUtils.sizeOfUnsignedVarLong(timestampPartition);
                 byte[] sweepConservative = EncodingUtils.getBytesFromOffsetToEnd(__input, __index);
                 __index += 0;
@@ -312,15 +315,17 @@ public final class SweepableTimestampsTable implements
 
         @Override
         public byte[] persistToBytes() {
-            byte[] timestampModulusBytes = EncodingUtils.encodeUnsignedVarLong(timestampModulus);
-            return EncodingUtils.add(timestampModulusBytes);
+            byte[] __output = new byte[EncodingUtils.sizeOfUnsignedVarLong(timestampModulus)];
+            int __index = 0;
+            EncodingUtils.encodeUnsignedVarLong(timestampModulus, __output, __index);
+            return __output;
         }
 
         public static final Hydrator<SweepableTimestampsColumn> BYTES_HYDRATOR = new Hydrator<SweepableTimestampsColumn>() {
             @Override
             public SweepableTimestampsColumn hydrateFromBytes(byte[] __input) {
                 int __index = 0;
-                Long timestampModulus = EncodingUtils.decodeUnsignedVarLong(__input, __index);
+                long timestampModulus = EncodingUtils.decodeUnsignedVarLong(__input, __index);
                 __index += EncodingUtils.sizeOfUnsignedVarLong(timestampModulus);
                 return new SweepableTimestampsColumn(timestampModulus);
             }
@@ -21,10 +21,19 @@ import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 import javax.annotation.CheckForNull;
@@ -41,6 +50,8 @@ import com.palantir.atlasdb.protos.generated.StreamPersistence.StreamMetadata;
 import com.palantir.atlasdb.transaction.api.Transaction;
 import com.palantir.atlasdb.transaction.api.TransactionManager;
 import com.palantir.common.base.Throwables;
+import com.palantir.common.concurrent.NamedThreadFactory;
+import com.palantir.common.concurrent.PTExecutors;
 import com.palantir.util.ByteArrayIOStream;
 
 public abstract class AbstractGenericStreamStore<T> implements GenericStreamStore<T> {
@@ -66,6 +77,21 @@ public abstract class AbstractGenericStreamStore<T> implements GenericStreamStor
 
     protected abstract long getInMemoryThreshold();
 
+    /**
+     * The number of batches of blocks that streams returned by {@link #loadStream} should load ahead of the reader,
+     * once the transaction that opened the stream has finished. Each batch holds up to the in memory threshold.
+     */
+    protected int getNumberOfBlockBatchesToReadAhead() {
+        return 0;
+    }
+
+    /**
+     * The number of blocks that {@link #loadStreamAsFile} should load and write to the file concurrently.
+     */
+    protected int getNumberOfConcurrentBlockLoadsForFiles() {
+        return 1;
+    }
+
     @Override
     public InputStream loadStream(Transaction transaction, final T id) {
         StreamMetadata metadata = getMetadata(transaction, id);
@@ -136,10 +162,17 @@ public abstract class AbstractGenericStreamStore<T> implements GenericStreamStor
             public int expectedBlockLength() {
                 return BLOCK_SIZE_IN_BYTES;
             }
+
+            @Override
+            public boolean supportsConcurrentGets() {
+                // Once the parent has finished, every get runs in its own read-only transaction.
+                return !parent.isUncommitted();
+            }
         };
 
         try {
-            return BlockConsumingInputStream.create(pageRefresher, totalBlocks, blocksInMemory);
+            return BlockConsumingInputStream.create(pageRefresher, totalBlocks, blocksInMemory,
+                    getNumberOfBlockBatchesToReadAhead(), BlockLoadExecutorHolder.EXECUTOR);
         } catch (IOException e) {
             throw Throwables.throwUncheckedException(e);
         }
@@ -211,12 +244,70 @@ public abstract class AbstractGenericStreamStore<T> implements GenericStreamStor
     protected void tryWriteStreamToFile(Transaction transaction, T id, StreamMetadata metadata, FileOutputStream fos)
             throws IOException {
         long numBlocks = getNumberOfBlocksFromMetadata(metadata);
-        for (long i = 0; i < numBlocks; i++) {
-            loadSingleBlockToOutputStream(transaction, id, i, fos);
+        FileChannel channel = fos.getChannel();
+        int numConcurrentLoads = (int) Math.min(numBlocks, getNumberOfConcurrentBlockLoadsForFiles());
+        if (numConcurrentLoads <= 1) {
+            for (long i = 0; i < numBlocks; i++) {
+                loadSingleBlockToFileChannel(transaction, id, i, channel);
+            }
+        } else {
+            loadBlocksToFileChannelConcurrently(transaction, id, numBlocks, channel, numConcurrentLoads);
         }
         fos.close();
     }
 
+    private void loadBlocksToFileChannelConcurrently(
+            Transaction transaction,
+            T id,
+            long numBlocks,
+            FileChannel channel,
+            int numConcurrentLoads) throws IOException {
+        // Each loader claims the next unclaimed block, so blocks are written out of order as they arrive.
+        AtomicLong nextBlock = new AtomicLong();
+        List<Future<?>> loaders = new ArrayList<>(numConcurrentLoads);
+        for (int i = 0; i < numConcurrentLoads; i++) {
+            loaders.add(BlockLoadExecutorHolder.EXECUTOR.submit(() -> {
+                try {
+                    for (long block = nextBlock.getAndIncrement(); block < numBlocks;
+                            block = nextBlock.getAndIncrement()) {
+                        loadSingleBlockToFileChannel(transaction, id, block, channel);
+                    }
+                    return null;
+                } catch (Throwable t) {
+                    // Stop the other loaders from claiming more blocks
+                    nextBlock.set(numBlocks);
+                    throw t;
+                }
+            }));
+        }
+
+        Throwable failure = null;
+        for (Future<?> loader : loaders) {
+            try {
+                loader.get();
+            } catch (InterruptedException e) {
+                nextBlock.set(numBlocks);
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while loading blocks to file");
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause();
+                }
+            }
+        }
+        if (failure instanceof IOException) {
+            throw (IOException) failure;
+        } else if (failure != null) {
+            throw Throwables.rewrapAndThrowUncheckedException("Error loading blocks to file.", failure);
+        }
+    }
+
+    private void loadSingleBlockToFileChannel(Transaction transaction, T id, long blockId, FileChannel channel) {
+        // Every block but the last is full, so each block's offset in the file is known up front.
+        OutputStream blockStream = new PositionalFileChannelOutputStream(channel, blockId * BLOCK_SIZE_IN_BYTES);
+        loadSingleBlockToOutputStream(transaction, id, blockId, blockStream);
+    }
+
     protected abstract File createTempFile(T id) throws IOException;
 
     protected abstract void loadSingleBlockToOutputStream(Transaction tx, T streamId, long blockId, OutputStream os);
@@ -230,4 +321,38 @@ public abstract class AbstractGenericStreamStore<T> implements GenericStreamStor
     private StreamMetadata getOnlyStreamMetadata(Map<T, StreamMetadata> idToMetadata) {
         return Iterables.getOnlyElement(idToMetadata.values());
     }
+
+    /**
+     * An output stream that writes to a file channel with positional writes, starting at a fixed offset. This lets
+     * blocks be written straight from the arrays they were loaded into, and in any order.
+     */
+    private static final class PositionalFileChannelOutputStream extends OutputStream {
+        private final FileChannel channel;
+        private long position;
+
+        PositionalFileChannelOutputStream(FileChannel channel, long position) {
+            this.channel = channel;
+            this.position = position;
+        }
+
+        @Override
+        public void write(int value) throws IOException {
+            write(new byte[] {(byte) value}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] bytes, int off, int len) throws IOException {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes, off, len);
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+        }
+    }
+
+    // Shared by all stream stores, so that the number of concurrent block loads stays bounded.
+    private static final class BlockLoadExecutorHolder {
+        private static final int NUM_THREADS = 16;
+        private static final ExecutorService EXECUTOR = PTExecutors.newFixedThreadPool(NUM_THREADS,
+                new NamedThreadFactory("stream-store-block-loader", true));
+    }
 }
@@ -17,9 +17,13 @@ package com.palantir.atlasdb.stream;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.security.DigestInputStream;
 import java.security.MessageDigest;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Supplier;
 
 import javax.annotation.Nullable;
@@ -41,11 +45,14 @@ import com.palantir.atlasdb.transaction.api.TransactionManager;
 import com.palantir.atlasdb.transaction.api.TransactionTask;
 import com.palantir.atlasdb.transaction.impl.TxTask;
 import com.palantir.common.base.Throwables;
+import com.palantir.common.concurrent.NamedThreadFactory;
+import com.palantir.common.concurrent.PTExecutors;
 import com.palantir.util.Pair;
 import com.palantir.util.crypto.Sha256Hash;
 
 public abstract class AbstractPersistentStreamStore extends AbstractGenericStreamStore<Long>
         implements PersistentStreamStore {
+    private final Supplier<StreamStorePersistenceConfiguration> persistenceConfiguration;
     private final StreamStoreBackoffStrategy backoffStrategy;
 
     protected AbstractPersistentStreamStore(TransactionManager txManager) {
@@ -55,9 +62,20 @@ public abstract class AbstractPersistentStreamStore extends AbstractGenericStrea
     protected AbstractPersistentStreamStore(TransactionManager txManager,
             Supplier<StreamStorePersistenceConfiguration> persistenceConfiguration) {
         super(txManager);
+        this.persistenceConfiguration = persistenceConfiguration;
         this.backoffStrategy = StandardPeriodicBackoffStrategy.create(persistenceConfiguration);
     }
 
+    @Override
+    protected int getNumberOfBlockBatchesToReadAhead() {
+        return persistenceConfiguration.get().numBlockBatchesToReadAhead();
+    }
+
+    @Override
+    protected int getNumberOfConcurrentBlockLoadsForFiles() {
+        return persistenceConfiguration.get().numConcurrentBlockLoadsForFiles();
+    }
+
     protected final void storeMetadataAndIndex(final long streamId, final StreamMetadata metadata) {
         Preconditions.checkNotNull(txnMgr, "Transaction manager must not be null");
         txnMgr.runTaskThrowOnConflict((TxTask) tx -> {
@@ -183,22 +201,23 @@ public abstract class AbstractPersistentStreamStore extends AbstractGenericStrea
     }
 
     private void storeBlocksFromStream(@Nullable Transaction tx, long id, InputStream stream) throws IOException {
+        int numConcurrentBlockWriters = persistenceConfiguration.get().numConcurrentBlockWriters();
+        if (!streamOperationIsTransactional(tx) && numConcurrentBlockWriters > 1) {
+            storeBlocksFromStreamConcurrently(id, stream, numConcurrentBlockWriters);
+            return;
+        }
+
         long blockNumber = 0;
 
         while (true) {
-            byte[] bytesToStore = new byte[BLOCK_SIZE_IN_BYTES];
-            int length = ByteStreams.read(stream, bytesToStore, 0, BLOCK_SIZE_IN_BYTES);
-            // Store only relevant data if it only filled a partial block
-            if (length == 0) {
+            byte[] bytesToStore = readBlock(stream);
+            if (bytesToStore.length == 0) {
                 break;
             }
-            if (length < BLOCK_SIZE_IN_BYTES) {
+            storeBlockWithNonNullTransaction(tx, id, blockNumber, bytesToStore);
+            if (bytesToStore.length < BLOCK_SIZE_IN_BYTES) {
                 // This is the last block.
-                storeBlockWithNonNullTransaction(tx, id, blockNumber, PtBytes.head(bytesToStore, length));
                 break;
-            } else {
-                // Store a full block.
-                storeBlockWithNonNullTransaction(tx, id, blockNumber, bytesToStore);
             }
             blockNumber++;
             if (!streamOperationIsTransactional(tx)) {
@@ -207,6 +226,72 @@ public abstract class AbstractPersistentStreamStore extends AbstractGenericStrea
         }
     }
 
+    /**
+     * Reads (and so hashes) the stream on this thread, while up to {@code numConcurrentBlockWriters} blocks are
+     * stored in parallel, each in its own transaction. Returns once every block has been stored, so the caller can
+     * then write the final metadata.
+     */
+    private void storeBlocksFromStreamConcurrently(long id, InputStream stream, int numConcurrentBlockWriters)
+            throws IOException {
+        Semaphore writePermits = new Semaphore(numConcurrentBlockWriters);
+        AtomicReference<Throwable> writeFailure = new AtomicReference<>();
+        try {
+            long blockNumber = 0;
+            while (true) {
+                byte[] bytesToStore = readBlock(stream);
+                if (bytesToStore.length == 0) {
+                    break;
+                }
+                acquire(writePermits, 1);
+                throwIfWriteFailed(writeFailure);
+
+                long blockToStore = blockNumber;
+                BlockWriteExecutorHolder.EXECUTOR.execute(() -> {
+                    try {
+                        storeBlockWithNonNullTransaction(null, id, blockToStore, bytesToStore);
+                    } catch (Throwable t) {
+                        writeFailure.compareAndSet(null, t);
+                    } finally {
+                        writePermits.release();
+                    }
+                });
+                if (bytesToStore.length < BLOCK_SIZE_IN_BYTES) {
+                    // This is the last block.
+                    break;
+                }
+                blockNumber++;
+                backoffStrategy.accept(blockNumber);
+            }
+        } finally {
+            // Even if reading failed, wait for the blocks already handed to writers.
+            writePermits.acquireUninterruptibly(numConcurrentBlockWriters);
+        }
+        throwIfWriteFailed(writeFailure);
+    }
+
+    private static byte[] readBlock(InputStream stream) throws IOException {
+        byte[] bytesToStore = new byte[BLOCK_SIZE_IN_BYTES];
+        int length = ByteStreams.read(stream, bytesToStore, 0, BLOCK_SIZE_IN_BYTES);
+        // Store only relevant data if it only filled a partial block
+        return length < BLOCK_SIZE_IN_BYTES ? PtBytes.head(bytesToStore, length) : bytesToStore;
+    }
+
+    private static void acquire(Semaphore semaphore, int permits) throws InterruptedIOException {
+        try {
+            semaphore.acquire(permits);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting to store a block");
+        }
+    }
+
+    private static void throwIfWriteFailed(AtomicReference<Throwable> writeFailure) {
+        Throwable failure = writeFailure.get();
+        if (failure != null) {
+            throw Throwables.rewrapAndThrowUncheckedException("Failed to store a block of the stream.", failure);
+        }
+    }
+
     private boolean streamOperationIsTransactional(@Nullable Transaction tx) {
         // TODO (jkong): I'm using tx == null as a proxy for whether the entire operation should be done
         // transactionally or not (null implies nontransactional).
@@ -240,4 +325,11 @@ public abstract class AbstractPersistentStreamStore extends AbstractGenericStrea
             throws StreamCleanedException;
 
     protected abstract void markStreamsAsUsedInternal(Transaction tx, final Map<Long, byte[]> streamIdsToReference);
+
+    // Shared by all stream stores, so that the number of concurrent block writes stays bounded.
+    private static final class BlockWriteExecutorHolder {
+        private static final int NUM_THREADS = 16;
+        private static final ExecutorService EXECUTOR = PTExecutors.newFixedThreadPool(NUM_THREADS,
+                new NamedThreadFactory("stream-store-block-writer", true));
+    }
 }
@@ -18,17 +18,36 @@ package com.palantir.atlasdb.stream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
 import com.palantir.atlasdb.schema.stream.StreamStoreDefinition;
 
+/**
+ * An input stream over a sequence of blocks, which loads up to {@code blocksInMemory} blocks at a time.
+ * <p>
+ * By default, a batch of blocks is only loaded once the previous batch has been consumed, so reading a stream costs
+ * one round trip per batch. If created with a positive number of batches to read ahead, batches are instead loaded
+ * on the supplied executor while the current batch is being consumed, as long as the {@link BlockGetter} supports
+ * concurrent gets. Up to {@code batchesToReadAhead + 1} batches may then be held in memory at once.
+ */
 public final class BlockConsumingInputStream extends InputStream {
     private final BlockGetter blockGetter;
     private final long numBlocks;
     private final int blocksInMemory;
+    private final int batchesToReadAhead;
+    private final ExecutorService readAheadExecutor;
+    private final Deque<Future<byte[]>> batchesInFlight = new ArrayDeque<>();
 
-    private long nextBlockToRead;
+    private long nextBlockToLoad;
+    private boolean closed;
 
     private byte[] buffer;
     private int positionInBuffer;
@@ -37,8 +56,22 @@ public final class BlockConsumingInputStream extends InputStream {
             BlockGetter blockGetter,
             long numBlocks,
             int blocksInMemory) throws IOException {
+        return create(blockGetter, numBlocks, blocksInMemory, 0, null);
+    }
+
+    public static BlockConsumingInputStream create(
+            BlockGetter blockGetter,
+            long numBlocks,
+            int blocksInMemory,
+            int batchesToReadAhead,
+            ExecutorService readAheadExecutor) throws IOException {
         ensureExpectedArraySizeDoesNotOverflow(blockGetter, blocksInMemory);
-        return new BlockConsumingInputStream(blockGetter, numBlocks, blocksInMemory);
+        Preconditions.checkArgument(batchesToReadAhead >= 0,
+                "Number of batches to read ahead must be non-negative, but was %s", batchesToReadAhead);
+        Preconditions.checkArgument(batchesToReadAhead == 0 || readAheadExecutor != null,
+                "An executor is required to read ahead");
+        return new BlockConsumingInputStream(
+                blockGetter, numBlocks, blocksInMemory, batchesToReadAhead, readAheadExecutor);
     }
 
     // we don't want to actually create a very large array in tests, as the external test VM would run out of memory.
@@ -57,11 +90,18 @@ public final class BlockConsumingInputStream extends InputStream {
                 expectedBufferSize);
     }
 
-    private BlockConsumingInputStream(BlockGetter blockGetter, long numBlocks, int blocksInMemory) {
+    private BlockConsumingInputStream(
+            BlockGetter blockGetter,
+            long numBlocks,
+            int blocksInMemory,
+            int batchesToReadAhead,
+            ExecutorService readAheadExecutor) {
         this.blockGetter = blockGetter;
         this.numBlocks = numBlocks;
         this.blocksInMemory = blocksInMemory;
-        this.nextBlockToRead = 0L;
+        this.batchesToReadAhead = batchesToReadAhead;
+        this.readAheadExecutor = readAheadExecutor;
+        this.nextBlockToLoad = 0L;
         this.positionInBuffer = 0;
         this.buffer = new byte[0];
     }
@@ -72,16 +112,12 @@ public final class BlockConsumingInputStream extends InputStream {
             return buffer[positionInBuffer++] & 0xff;
         }
 
-        if (nextBlockToRead < numBlocks) {
-            boolean reloaded = refillBuffer();
-            if (!reloaded) {
-                return -1;
-            }
-
-            return buffer[positionInBuffer++] & 0xff;
+        boolean reloaded = refillBuffer();
+        if (!reloaded) {
+            return -1;
         }
 
-        return -1;
+        return buffer[positionInBuffer++] & 0xff;
     }
 
     @Override
@@ -117,24 +153,85 @@ public final class BlockConsumingInputStream extends InputStream {
         return bytesRead;
     }
 
+    @Override
+    public void close() throws IOException {
+        // Loads already in progress will finish, but their results are discarded.
+        closed = true;
+        batchesInFlight.forEach(future -> future.cancel(false));
+        batchesInFlight.clear();
+        buffer = new byte[0];
+        positionInBuffer = 0;
+    }
+
     private boolean refillBuffer() throws IOException {
-        // since blocksInMemory is an int, the min is guaranteed to fit in an int
-        int numBlocksToGet = (int) Math.min(blocksLeft(), blocksInMemory);
-        if (numBlocksToGet <= 0) {
+        if (closed) {
             return false;
         }
 
-        int expectedLength = blockGetter.expectedBlockLength() * numBlocksToGet;
-        try (ByteArrayOutputStream outputStream = new ByteArrayOutputStream(expectedLength)) {
-            blockGetter.get(nextBlockToRead, numBlocksToGet, outputStream);
-            nextBlockToRead += numBlocksToGet;
-            buffer = outputStream.toByteArray();
+        if (batchesToReadAhead > 0 && blockGetter.supportsConcurrentGets()) {
+            // One batch to consume now, and the rest to load while it is consumed
+            readAhead(batchesToReadAhead + 1);
+        }
+
+        if (!batchesInFlight.isEmpty()) {
+            buffer = await(batchesInFlight.removeFirst());
             positionInBuffer = 0;
             return true;
         }
+
+        if (blocksLeftToLoad() <= 0) {
+            return false;
+        }
+        buffer = loadNextBatch();
+        positionInBuffer = 0;
+        return true;
+    }
+
+    private void readAhead(int batchesToKeepInFlight) {
+        while (batchesInFlight.size() < batchesToKeepInFlight && blocksLeftToLoad() > 0) {
+            long firstBlock = nextBlockToLoad;
+            int numBlocksToGet = numBlocksInNextBatch();
+            nextBlockToLoad += numBlocksToGet;
+            batchesInFlight.addLast(readAheadExecutor.submit(() -> loadBatch(firstBlock, numBlocksToGet)));
+        }
+    }
+
+    private byte[] loadNextBatch() throws IOException {
+        long firstBlock = nextBlockToLoad;
+        int numBlocksToGet = numBlocksInNextBatch();
+        byte[] batch = loadBatch(firstBlock, numBlocksToGet);
+        nextBlockToLoad += numBlocksToGet;
+        return batch;
+    }
+
+    private byte[] loadBatch(long firstBlock, int numBlocksToGet) throws IOException {
+        int expectedLength = blockGetter.expectedBlockLength() * numBlocksToGet;
+        try (ByteArrayOutputStream outputStream = new ByteArrayOutputStream(expectedLength)) {
+            blockGetter.get(firstBlock, numBlocksToGet, outputStream);
+            return outputStream.toByteArray();
+        }
+    }
+
+    private static byte[] await(Future<byte[]> batch) throws IOException {
+        try {
+            return batch.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for blocks to load");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            Throwables.throwIfInstanceOf(cause, IOException.class);
+            Throwables.throwIfUnchecked(cause);
+            throw new IOException("Failed to load blocks", cause);
+        }
+    }
+
+    private int numBlocksInNextBatch() {
+        // since blocksInMemory is an int, the min is guaranteed to fit in an int
+        return (int) Math.min(blocksLeftToLoad(), blocksInMemory);
     }
 
-    private long blocksLeft() {
-        return Math.max(0L, numBlocks - nextBlockToRead);
+    private long blocksLeftToLoad() {
+        return Math.max(0L, numBlocks - nextBlockToLoad);
     }
 }
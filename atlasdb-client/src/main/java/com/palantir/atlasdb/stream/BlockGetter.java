@@ -37,4 +37,13 @@ public interface BlockGetter {
      * @return expected length in bytes
      */
     int expectedBlockLength();
+
+    /**
+     * Whether {@link #get} may currently be called from threads other than the one consuming the blocks, and
+     * concurrently with other calls to {@link #get}. If so, {@link BlockConsumingInputStream} may load blocks ahead
+     * of the reader.
+     */
+    default boolean supportsConcurrentGets() {
+        return false;
+    }
 }
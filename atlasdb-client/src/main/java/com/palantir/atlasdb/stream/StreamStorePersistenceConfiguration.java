@@ -55,11 +55,59 @@ public interface StreamStorePersistenceConfiguration {
         return 0;
     }
 
+    /**
+     * The number of blocks that a nontransactional storeStream() may write concurrently, each in its own
+     * transaction, while the calling thread reads and hashes the rest of the input. A value of 1 writes blocks one
+     * at a time on the calling thread. Writes are run on a bounded pool shared by all stream stores, so values larger
+     * than that pool do not increase concurrency further. The stream's metadata is only marked as stored once every
+     * block has been written.
+     *
+     * This parameter is live reloadable. If live reloaded, streams stored afterwards will use the new value.
+     */
+    @Value.Default
+    default int numConcurrentBlockWriters() {
+        return 1;
+    }
+
+    /**
+     * The number of batches of blocks that streams returned by loadStream() load in the background, ahead of the
+     * reader. Each batch is as large as the stream store's in memory threshold, so up to this many batches, plus the
+     * one being read, may be held in memory per open stream. Read-ahead only starts once the transaction that
+     * loaded the stream has finished, and is disabled by default.
+     *
+     * This parameter is live reloadable. If live reloaded, streams loaded afterwards will use the new value.
+     */
+    @Value.Default
+    default int numBlockBatchesToReadAhead() {
+        return 0;
+    }
+
+    /**
+     * The number of blocks that loadStreamAsFile() loads concurrently, within the calling transaction. Blocks are
+     * written to the file at their own offsets as they arrive, so they may be written out of order. Loads are run on
+     * the same bounded pool as read-ahead. A value of 1 loads blocks one at a time on the calling thread.
+     *
+     * This only applies to stream stores without compression, because compressed streams must be decompressed in
+     * order.
+     *
+     * This parameter is live reloadable. If live reloaded, streams loaded afterwards will use the new value.
+     */
+    @Value.Default
+    default int numConcurrentBlockLoadsForFiles() {
+        return 1;
+    }
+
     @Value.Check
     default void check() {
         Preconditions.checkState(numBlocksToWriteBeforePause() > 0,
                 "Number of blocks to write before pausing must be positive");
         Preconditions.checkState(writePauseDurationMillis() >= 0,
                 "Pause duration between batches of writes must be non-negative");
+        Preconditions.checkState(numConcurrentBlockWriters() > 0,
+                "Number of concurrent block writers must be positive");
+        Preconditions.checkState(numConcurrentBlockLoadsForFiles() > 0,
+                "Number of concurrent block loads for files must be positive");
+        Preconditions.checkState(numBlockBatchesToReadAhead() >= 0,
+                "Number of block batches to read ahead must be non-negative");
     }
 }
@@ -24,6 +24,7 @@ import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
+import com.palantir.atlasdb.compress.ZstdDictionaries;
 import com.palantir.atlasdb.keyvalue.api.KeyValueService;
 import com.palantir.atlasdb.keyvalue.api.Namespace;
 import com.palantir.atlasdb.keyvalue.api.TableReference;
@@ -65,7 +66,9 @@ public final class Schemas {
     public static void createTables(KeyValueService kvs, Map<TableReference, TableDefinition>  tableRefToDefinition) {
         Map<TableReference, byte[]> tableRefToMetadata = Maps.newHashMapWithExpectedSize(tableRefToDefinition.size());
         for (Entry<TableReference, TableDefinition> tableEntry : tableRefToDefinition.entrySet()) {
-            tableRefToMetadata.put(tableEntry.getKey(), tableEntry.getValue().toTableMetadata().persistToBytes());
+            TableMetadata metadata = tableEntry.getValue().toTableMetadata();
+            ZstdDictionaries.registerAll(metadata);
+            tableRefToMetadata.put(tableEntry.getKey(), metadata.persistToBytes());
         }
         kvs.createTables(tableRefToMetadata);
     }
@@ -24,7 +24,9 @@ import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import com.google.protobuf.AbstractMessage;
+import com.google.protobuf.ByteString;
 import com.palantir.atlasdb.AtlasDbConstants;
+import com.palantir.atlasdb.compress.ZstdDictionaries;
 import com.palantir.atlasdb.persist.api.Persister;
 import com.palantir.atlasdb.protos.generated.TableMetadataPersistence.LogSafety;
 import com.palantir.atlasdb.protos.generated.TableMetadataPersistence.ValueByteOrder;
@@ -108,8 +110,50 @@ public class TableDefinition extends AbstractDefinition {
         namedComponentsSafeByDefault();
     }
 
+    /**
+     * Sets the compression of the values of the columns of this table that are defined after this is called, and do
+     * not specify their own compression. By default, values are not compressed.
+     *
+     * {@link Compression#LZ4} is faster than {@link Compression#SNAPPY} and compresses about as well.
+     * {@link Compression#ZSTD} is slower, but compresses considerably better, especially with a dictionary trained on
+     * the values of the table (see {@link #zstdDictionary(byte[])}).
+     */
+    public void valueCompression(Compression compression) {
+        Preconditions.checkState(state == State.NONE, "Specifying the compression of values should be done outside"
+                + " of the subscopes of TableDefinition.");
+        defaultValueCompression = compression;
+    }
+
+    /**
+     * Sets the Zstandard dictionary used to compress the values of the columns of this table that use
+     * {@link Compression#ZSTD}, which must have been trained with {@link ZstdDictionaries#train}. Values of small,
+     * similar protobuf or JSON messages typically compress several times better with a dictionary.
+     *
+     * The dictionary is stored in the table's metadata, and values record the id of the dictionary they were compressed
+     * with. To replace the dictionary of a table that already has values, pass the old dictionary to
+     * {@link #previousZstdDictionary(byte[])}, so that existing values can still be decompressed.
+     */
+    public void zstdDictionary(byte[] dictionary) {
+        Preconditions.checkState(state == State.NONE, "Specifying a compression dictionary should be done outside"
+                + " of the subscopes of TableDefinition.");
+        ZstdDictionaries.idOf(dictionary);
+        zstdDictionary = dictionary.clone();
+    }
+
+    /**
+     * Adds a Zstandard dictionary that this table used before its current {@link #zstdDictionary(byte[])}. It is
+     * stored in the table's metadata alongside the current dictionary, but only used to decompress existing values.
+     * Previous dictionaries must be kept for as long as values compressed with them may remain in the table.
+     */
+    public void previousZstdDictionary(byte[] dictionary) {
+        Preconditions.checkState(state == State.NONE, "Specifying a compression dictionary should be done outside"
+                + " of the subscopes of TableDefinition.");
+        ZstdDictionaries.idOf(dictionary);
+        previousZstdDictionaries.add(dictionary.clone());
+    }
+
     public void column(String columnName, String shortName, Class<?> protoOrPersistable) {
-        column(columnName, shortName, protoOrPersistable, Compression.NONE);
+        column(columnName, shortName, protoOrPersistable, defaultValueCompression);
     }
 
     public void column(String columnName, String shortName, Class<?> protoOrPersistable, Compression compression) {
@@ -281,7 +325,7 @@ public class TableDefinition extends AbstractDefinition {
     }
 
     public void value(Class<?> protoOrPersistable) {
-        value(protoOrPersistable, Compression.NONE);
+        value(protoOrPersistable, defaultValueCompression);
     }
 
     public void value(Class<?> protoOrPersistable, Compression compression) {
@@ -394,6 +438,10 @@ public class TableDefinition extends AbstractDefinition {
     private boolean noColumns = false;
     private LogSafety tableNameSafety = LogSafety.UNSAFE;
     private LogSafety defaultNamedComponentLogSafety = LogSafety.UNSAFE;
+    private Compression defaultValueCompression = Compression.NONE;
+    private byte[] zstdDictionary = null;
+    private final List<byte[]> previousZstdDictionaries = Lists.newArrayList();
+    private boolean immutable = false;
     private boolean v2TableEnabled = false;
 
     public TableMetadata toTableMetadata() {
@@ -407,6 +455,8 @@ public class TableDefinition extends AbstractDefinition {
             }
         }
 
+        checkZstdDictionaryIdsAreDistinct();
+
         return TableMetadata.builder()
                 .rowMetadata(NameMetadataDescription.create(rowNameComponents, numberOfComponentsHashed))
                 .columns(getColumnMetadataDescription())
@@ -418,9 +468,24 @@ public class TableDefinition extends AbstractDefinition {
                 .sweepStrategy(sweepStrategy)
                 .appendHeavyAndReadLight(appendHeavyAndReadLight)
                 .nameLogSafety(tableNameSafety)
+                .zstdDictionary(zstdDictionary)
+                .addAllPreviousZstdDictionaries(Lists.transform(previousZstdDictionaries, ByteString::copyFrom))
+                .immutable(immutable)
                 .build();
     }
 
+    private void checkZstdDictionaryIdsAreDistinct() {
+        Set<Integer> ids = Sets.newHashSet();
+        if (zstdDictionary != null) {
+            ids.add(ZstdDictionaries.idOf(zstdDictionary));
+        }
+        for (byte[] dictionary : previousZstdDictionaries) {
+            int id = ZstdDictionaries.idOf(dictionary);
+            Preconditions.checkState(ids.add(id), "The Zstd dictionaries of a table must have distinct ids,"
+                    + " but more than one has the id %s", id);
+        }
+    }
+
     private ColumnMetadataDescription getColumnMetadataDescription() {
         if (!fixedColumns.isEmpty()) {
             Preconditions.checkState(
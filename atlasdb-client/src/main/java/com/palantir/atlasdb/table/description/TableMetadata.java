@@ -17,10 +17,14 @@ package com.palantir.atlasdb.table.description;
 
 import java.util.List;
 
+import javax.annotation.Nullable;
+
 import org.immutables.value.Value;
 
 import com.google.common.collect.ImmutableList;
+import com.google.protobuf.ByteString;
 import com.google.protobuf.InvalidProtocolBufferException;
+import com.palantir.atlasdb.compress.ZstdDictionaries;
 import com.palantir.atlasdb.protos.generated.TableMetadataPersistence;
 import com.palantir.atlasdb.protos.generated.TableMetadataPersistence.CachePriority;
 import com.palantir.atlasdb.protos.generated.TableMetadataPersistence.LogSafety;
@@ -83,6 +87,28 @@ public abstract class TableMetadata implements Persistable {
         return LogSafety.UNSAFE;
     }
 
+    /**
+     * Whether cells of this table are never overwritten or deleted once written, so that values read from it may be
+     * cached across transactions.
+     */
+    @Value.Default
+    public boolean isImmutable() {
+        return false;
+    }
+
+    /**
+     * A trained Zstandard dictionary, used to compress the values of the columns of this table that use
+     * {@link ColumnValueDescription.Compression#ZSTD}.
+     */
+    @Nullable
+    public abstract byte[] getZstdDictionary();
+
+    /**
+     * Zstandard dictionaries that this table used before {@link #getZstdDictionary()}. They are no longer used to
+     * compress values, but are kept so that values compressed with them can still be decompressed.
+     */
+    public abstract List<ByteString> getPreviousZstdDictionaries();
+
     public static TableMetadata allDefault() {
         return builder().build();
     }
@@ -156,6 +182,13 @@ public abstract class TableMetadata implements Persistable {
         builder.setSweepStrategy(getSweepStrategy());
         builder.setAppendHeavyAndReadLight(isAppendHeavyAndReadLight());
         builder.setNameLogSafety(getNameLogSafety());
+        if (isImmutable()) {
+            builder.setImmutable(true);
+        }
+        if (getZstdDictionary() != null) {
+            builder.setZstdDictionary(ByteString.copyFrom(getZstdDictionary()));
+        }
+        builder.addAllPreviousZstdDictionaries(getPreviousZstdDictionaries());
         return builder;
     }
 
@@ -186,7 +219,17 @@ public abstract class TableMetadata implements Persistable {
         if (message.hasNameLogSafety()) {
             builder.nameLogSafety(message.getNameLogSafety());
         }
+        if (message.hasImmutable()) {
+            builder.immutable(message.getImmutable());
+        }
+        if (message.hasZstdDictionary()) {
+            builder.zstdDictionary(message.getZstdDictionary().toByteArray());
+        }
+        builder.addAllPreviousZstdDictionaries(message.getPreviousZstdDictionariesList());
 
-        return builder.build();
+        TableMetadata metadata = builder.build();
+        // Processes that only read a table still need its dictionaries to decompress its values.
+        ZstdDictionaries.registerAllIgnoringConflicts(metadata);
+        return metadata;
     }
 }
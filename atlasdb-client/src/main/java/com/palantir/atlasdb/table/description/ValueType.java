@@ -15,6 +15,7 @@
  */
 package com.palantir.atlasdb.table.description;
 
+import java.util.Optional;
 import java.util.UUID;
 
 import org.json.simple.JSONValue;
@@ -109,6 +110,12 @@ public enum ValueType {
             return "EncodingUtils.encodeUnsignedVarLong(" + variableName + ")";
         }
 
+        @Override
+        public Optional<String> getPersistIntoCode(String variableName, String outputName, String indexName) {
+            return Optional.of("EncodingUtils.encodeUnsignedVarLong(" + variableName
+                    + ", " + outputName + ", " + indexName + ")");
+        }
+
     },
     /**
      * This value type supports range scans. Neighboring number will be written next to each other.
@@ -190,6 +197,12 @@ public enum ValueType {
             return "EncodingUtils.encodeSignedVarLong(" + variableName + ")";
         }
 
+        @Override
+        public Optional<String> getPersistIntoCode(String variableName, String outputName, String indexName) {
+            return Optional.of("EncodingUtils.encodeSignedVarLong(" + variableName
+                    + ", " + outputName + ", " + indexName + ")");
+        }
+
     },
     /**
      * This value type supports range scans.  Sequential numbers will be written next to each other.
@@ -270,6 +283,12 @@ public enum ValueType {
             return "PtBytes.toBytes(Long.MIN_VALUE ^ " + variableName + ")";
         }
 
+        @Override
+        public Optional<String> getPersistIntoCode(String variableName, String outputName, String indexName) {
+            return Optional.of("EncodingUtils.encodeFixedLong(Long.MIN_VALUE ^ " + variableName
+                    + ", " + outputName + ", " + indexName + ")");
+        }
+
     },
     /**
      * This value type does NOT support range scans. This encoding is {@link PtBytes#toBytes(long)} but with
@@ -351,6 +370,12 @@ public enum ValueType {
             return "EncodingUtils.encodeLittleEndian(" + variableName + ")";
         }
 
+        @Override
+        public Optional<String> getPersistIntoCode(String variableName, String outputName, String indexName) {
+            return Optional.of("EncodingUtils.encodeLittleEndian(" + variableName
+                    + ", " + outputName + ", " + indexName + ")");
+        }
+
         @Override
         public boolean supportsRangeScans() {
             return false;
@@ -908,6 +933,16 @@ public enum ValueType {
     public abstract String getFlippedHydrateCode(String inputName, String indexName);
     public abstract String getHydrateSizeCode(String variableName);
 
+    /**
+     * Returns code that encodes the variable into the array {@code outputName}, starting at {@code indexName}, and
+     * evaluates to the index just past the encoded value, if this type supports it. The encoded size of such types
+     * is given by {@link #getHydrateSizeCode}, so generated row and column names can be encoded into one array of the
+     * right size instead of concatenating an array for each component.
+     */
+    public Optional<String> getPersistIntoCode(String variableName, String outputName, String indexName) {
+        return Optional.empty();
+    }
+
 
     public int getMaxValueSize() {
         return Integer.MAX_VALUE;
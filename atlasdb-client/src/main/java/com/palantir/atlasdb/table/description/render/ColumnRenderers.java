@@ -19,6 +19,8 @@ import java.util.SortedSet;
 
 import com.google.common.collect.ImmutableSortedSet;
 import com.google.common.collect.Ordering;
+import com.palantir.atlasdb.compress.ZstdDictionaries;
+import com.palantir.atlasdb.table.description.ColumnValueDescription.Compression;
 import com.palantir.atlasdb.table.description.NamedColumnDescription;
 import com.palantir.atlasdb.table.description.TableMetadata;
 
@@ -67,4 +69,21 @@ public final class ColumnRenderers {
                 Ordering.natural().onResultOf(NamedColumnDescription::getLongName),
                 table.getColumns().getNamedColumns());
     }
+
+    /**
+     * Returns code that compresses the bytes in the given variable, using the table's Zstandard dictionary if the
+     * compression is {@link Compression#ZSTD} and the table has one.
+     */
+    static String compressCode(String varName, Compression compression, int zstdDictionaryId) {
+        if (compression == Compression.ZSTD && zstdDictionaryId != ZstdDictionaries.NO_DICTIONARY) {
+            return "CompressionUtils.compress(" + varName + ", Compression.ZSTD, " + zstdDictionaryId + ")";
+        }
+        return "CompressionUtils.compress(" + varName + ", Compression." + compression.name() + ")";
+    }
+
+    static int zstdDictionaryId(TableMetadata table) {
+        return table.getZstdDictionary() == null
+                ? ZstdDictionaries.NO_DICTIONARY
+                : ZstdDictionaries.idOf(table.getZstdDictionary());
+    }
 }
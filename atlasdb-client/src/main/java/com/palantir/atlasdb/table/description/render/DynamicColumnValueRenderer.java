@@ -18,6 +18,7 @@ package com.palantir.atlasdb.table.description.render;
 import static com.palantir.atlasdb.table.description.render.ComponentRenderers.TypeName;
 import static com.palantir.atlasdb.table.description.render.ComponentRenderers.varName;
 
+import com.palantir.atlasdb.compress.ZstdDictionaries;
 import com.palantir.atlasdb.protos.generated.TableMetadataPersistence.ValueByteOrder;
 import com.palantir.atlasdb.table.description.ColumnValueDescription;
 import com.palantir.atlasdb.table.description.DynamicColumnDescription;
@@ -31,9 +32,16 @@ public class DynamicColumnValueRenderer extends Renderer {
     private final String Column;
     private final String ColumnValue;
     private final String Value;
+    private final int zstdDictionaryId;
 
     public DynamicColumnValueRenderer(Renderer parent, String tableName, DynamicColumnDescription dynamicCol) {
+        this(parent, tableName, dynamicCol, ZstdDictionaries.NO_DICTIONARY);
+    }
+
+    public DynamicColumnValueRenderer(Renderer parent, String tableName, DynamicColumnDescription dynamicCol,
+                                      int zstdDictionaryId) {
         super(parent);
+        this.zstdDictionaryId = zstdDictionaryId;
         this.col = dynamicCol.getColumnNameDesc();
         this.val = dynamicCol.getValue();
         this.Column = tableName + "Column";
@@ -148,7 +156,7 @@ public class DynamicColumnValueRenderer extends Renderer {
             default:
                 throw new UnsupportedOperationException("Unsupported value type: " + val.getFormat());
             }
-            line("return CompressionUtils.compress(bytes, Compression.", val.getCompression().name(), ");");
+            line("return ", ColumnRenderers.compressCode("bytes", val.getCompression(), zstdDictionaryId), ";");
         } line("}");
     }
 
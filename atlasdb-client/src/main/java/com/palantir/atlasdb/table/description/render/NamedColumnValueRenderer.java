@@ -19,6 +19,7 @@ import static com.palantir.atlasdb.table.description.render.ColumnRenderers.Type
 import static com.palantir.atlasdb.table.description.render.ColumnRenderers.long_name;
 import static com.palantir.atlasdb.table.description.render.ColumnRenderers.short_name;
 
+import com.palantir.atlasdb.compress.ZstdDictionaries;
 import com.palantir.atlasdb.table.description.NamedColumnDescription;
 
 @SuppressWarnings("checkstyle:all") // too many warnings to fix
@@ -26,12 +27,21 @@ public class NamedColumnValueRenderer extends Renderer {
     private final String tableName;
     private final String Name;
     private final NamedColumnDescription col;
+    private final int zstdDictionaryId;
 
     public NamedColumnValueRenderer(Renderer parent, String tableName, NamedColumnDescription col) {
+        this(parent, tableName, col, ZstdDictionaries.NO_DICTIONARY);
+    }
+
+    public NamedColumnValueRenderer(Renderer parent,
+                                    String tableName,
+                                    NamedColumnDescription col,
+                                    int zstdDictionaryId) {
         super(parent);
         this.tableName = tableName;
         this.Name = Renderers.CamelCase(col.getLongName());
         this.col = col;
+        this.zstdDictionaryId = zstdDictionaryId;
     }
 
     @Override
@@ -132,7 +142,9 @@ public class NamedColumnValueRenderer extends Renderer {
             default:
                 throw new UnsupportedOperationException("Unsupported value type: " + col.getValue().getFormat());
             }
-            line("return CompressionUtils.compress(bytes, Compression.", col.getValue().getCompression().name(), ");");
+            String compressCode = ColumnRenderers.compressCode(
+                    "bytes", col.getValue().getCompression(), zstdDictionaryId);
+            line("return ", compressCode, ";");
         } line("}");
     }
 
@@ -175,19 +175,48 @@ class RowOrDynamicColumnRenderer extends Renderer {
     private void persistToBytes() {
         line("@Override");
         line("public byte[] persistToBytes() {"); {
-            List<String> vars = Lists.newArrayList();
-            for (NameComponentDescription comp : desc.getRowParts()) {
-                String var = varName(comp) + "Bytes";
-                vars.add(var);
-                line("byte[] ", var, " = ", comp.getType().getPersistCode(varName(comp)), ";");
-                if (comp.getOrder() == ValueByteOrder.DESCENDING) {
-                    line("EncodingUtils.flipAllBitsInPlace(", var, ");");
+            List<NameComponentDescription> comps = desc.getRowParts();
+            if (comps.size() == 1 && !canPersistInto(comps.get(0))) {
+                // the bytes of the only component can be returned without copying them
+                line("return EncodingUtils.add(", renderPersistedComponentBytes(comps.get(0)), ");");
+            } else {
+                // encode every component into one array of the exact size, rather than concatenating an array for each
+                List<String> sizes = Lists.newArrayList();
+                for (NameComponentDescription comp : comps) {
+                    if (canPersistInto(comp)) {
+                        sizes.add(comp.getType().getHydrateSizeCode(varName(comp)));
+                    } else {
+                        sizes.add(renderPersistedComponentBytes(comp) + ".length");
+                    }
+                }
+                line("byte[] __output = new byte[", Joiner.on(" + ").join(sizes), "];");
+                line("int __index = 0;");
+                for (int i = 0; i < comps.size(); i++) {
+                    NameComponentDescription comp = comps.get(i);
+                    String write = canPersistInto(comp)
+                            ? comp.getType().getPersistIntoCode(varName(comp), "__output", "__index").get()
+                            : "EncodingUtils.copyInto(" + varName(comp) + "Bytes, __output, __index)";
+                    line(i < comps.size() - 1 ? "__index = " : "", write, ";");
                 }
+                line("return __output;");
             }
-            line("return EncodingUtils.add(", Joiner.on(", ").join(vars), ");");
         } line("}");
     }
 
+    private String renderPersistedComponentBytes(NameComponentDescription comp) {
+        String var = varName(comp) + "Bytes";
+        line("byte[] ", var, " = ", comp.getType().getPersistCode(varName(comp)), ";");
+        if (comp.getOrder() == ValueByteOrder.DESCENDING) {
+            line("EncodingUtils.flipAllBitsInPlace(", var, ");");
+        }
+        return var;
+    }
+
+    private static boolean canPersistInto(NameComponentDescription comp) {
+        return comp.getOrder() == ValueByteOrder.ASCENDING
+                && comp.getType().getPersistIntoCode(varName(comp), "__output", "__index").isPresent();
+    }
+
     private void bytesHydrator() {
         line("public static final Hydrator<", Name, "> BYTES_HYDRATOR = new Hydrator<", Name, ">() {"); {
             line("@Override");
@@ -198,9 +227,9 @@ class RowOrDynamicColumnRenderer extends Renderer {
                     String var = varName(comp);
                     vars.add(var);
                     if (comp.getOrder() == ValueByteOrder.ASCENDING) {
-                        line(TypeName(comp), " ", var, " = ", comp.getType().getHydrateCode("__input", "__index"), ";");
+                        line(typeName(comp), " ", var, " = ", comp.getType().getHydrateCode("__input", "__index"), ";");
                     } else {
-                        line(TypeName(comp), " ", var, " = ", comp.getType().getFlippedHydrateCode("__input", "__index"), ";");
+                        line(typeName(comp), " ", var, " = ", comp.getType().getFlippedHydrateCode("__input", "__index"), ";");
                     }
                     line("__index += ", comp.getType().getHydrateSizeCode(var), ";");
                 }
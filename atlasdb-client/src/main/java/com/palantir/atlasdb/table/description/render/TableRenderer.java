@@ -278,7 +278,7 @@ public class TableRenderer {
             line("public interface ", tableName, "NamedColumnValue<T> extends NamedColumnValue<T> { /* */ }");
             line();
             for (NamedColumnDescription col : ColumnRenderers.namedColumns(table)) {
-                new NamedColumnValueRenderer(this, tableName, col).run();
+                new NamedColumnValueRenderer(this, tableName, col, ColumnRenderers.zstdDictionaryId(table)).run();
                 line();
             }
             renderTrigger();
@@ -332,7 +332,8 @@ public class TableRenderer {
             line();
             renderTrigger();
             line();
-            new DynamicColumnValueRenderer(this, tableName, table.getColumns().getDynamicColumn()).run();
+            new DynamicColumnValueRenderer(this, tableName, table.getColumns().getDynamicColumn(),
+                    ColumnRenderers.zstdDictionaryId(table)).run();
             line();
             new DynamicRowResultRenderer(this, tableName, table.getColumns().getDynamicColumn().getValue()).run();
             line();
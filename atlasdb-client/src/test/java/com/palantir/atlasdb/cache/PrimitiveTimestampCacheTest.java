@@ -0,0 +1,148 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+
+import org.junit.Test;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+
+public class PrimitiveTimestampCacheTest {
+    private static final String METRIC_PREFIX =
+            MetricRegistry.name(TimestampCache.class, "startToCommitTimestamp", "cache");
+
+    private final AtomicLong size = new AtomicLong(100);
+    private final PrimitiveTimestampCache cache = new PrimitiveTimestampCache(size::get, 1);
+
+    @Test
+    public void returnsCachedCommitTimestamps() {
+        assertThat(cache.getCommitTimestampIfPresent(1L)).isNull();
+
+        cache.putAlreadyCommittedTransaction(1L, 2L);
+        cache.putAlreadyCommittedTransaction(3L, -1L);
+
+        assertThat(cache.getCommitTimestampIfPresent(1L)).isEqualTo(2L);
+        assertThat(cache.getCommitTimestampIfPresent(3L)).isEqualTo(-1L);
+        assertThat(cache.getCommitTimestampIfPresent(2L)).isNull();
+    }
+
+    @Test
+    public void clearRemovesAllEntries() {
+        putSequentially(1, 50);
+
+        cache.clear();
+
+        assertThat(cache.estimatedSize()).isEqualTo(0L);
+        assertThat(cache.getCommitTimestampIfPresent(1L)).isNull();
+    }
+
+    @Test
+    public void ignoresNonPositiveStartTimestamps() {
+        cache.putAlreadyCommittedTransaction(0L, 1L);
+        cache.putAlreadyCommittedTransaction(-5L, 1L);
+
+        assertThat(cache.getCommitTimestampIfPresent(0L)).isNull();
+        assertThat(cache.getCommitTimestampIfPresent(-5L)).isNull();
+        assertThat(cache.estimatedSize()).isEqualTo(0L);
+    }
+
+    @Test
+    public void evictsOnceFull() {
+        putSequentially(1, 1000);
+
+        assertThat(cache.estimatedSize()).isEqualTo(100L);
+        assertThat(LongStream.rangeClosed(901, 1000).filter(this::isPresent).count()).isGreaterThan(0L);
+    }
+
+    @Test
+    public void prefersEvictingEntriesThatHaveNotBeenRead() {
+        putSequentially(1, 100);
+        LongStream.rangeClosed(1, 50).forEach(cache::getCommitTimestampIfPresent);
+
+        putSequentially(101, 150);
+
+        assertThat(LongStream.rangeClosed(1, 50).allMatch(this::isPresent)).isTrue();
+        assertThat(cache.estimatedSize()).isEqualTo(100L);
+    }
+
+    @Test
+    public void retainsAllEntriesAcrossGrowth() {
+        size.set(10_000);
+        putSequentially(1, 10_000);
+
+        assertThat(cache.estimatedSize()).isEqualTo(10_000L);
+        assertThat(LongStream.rangeClosed(1, 10_000).allMatch(this::isPresent)).isTrue();
+    }
+
+    @Test
+    public void shrinksWhenSizeIsReduced() {
+        putSequentially(1, 100);
+
+        size.set(10);
+        cache.getCommitTimestampIfPresent(1L);
+
+        assertThat(cache.estimatedSize()).isEqualTo(10L);
+        putSequentially(101, 200);
+        assertThat(cache.estimatedSize()).isEqualTo(10L);
+    }
+
+    @Test
+    public void doesNotCacheAnythingWithZeroSize() {
+        size.set(0);
+        cache.getCommitTimestampIfPresent(1L);
+
+        putSequentially(1, 10);
+
+        assertThat(cache.estimatedSize()).isEqualTo(0L);
+    }
+
+    @Test
+    public void exposesMetrics() {
+        MetricRegistry metrics = new MetricRegistry();
+        TimestampCache timestampCache = TimestampCache.create(TimestampCacheType.PRIMITIVE, metrics, () -> 1000L);
+
+        timestampCache.getCommitTimestampIfPresent(1L);
+        timestampCache.putAlreadyCommittedTransaction(1L, 2L);
+        timestampCache.getCommitTimestampIfPresent(1L);
+        timestampCache.getCommitTimestampIfPresent(1L);
+        timestampCache.getCommitTimestampIfPresent(1L);
+
+        assertThat(gaugeValue(metrics, "hit.count")).isEqualTo(3L);
+        assertThat(gaugeValue(metrics, "miss.count")).isEqualTo(1L);
+        assertThat(gaugeValue(metrics, "request.count")).isEqualTo(4L);
+        assertThat(gaugeValue(metrics, "hit.ratio")).isEqualTo(0.75d);
+        assertThat(gaugeValue(metrics, "estimated.size")).isEqualTo(1L);
+    }
+
+    private void putSequentially(long inclusiveStart, long inclusiveEnd) {
+        LongStream.rangeClosed(inclusiveStart, inclusiveEnd)
+                .forEach(startTs -> cache.putAlreadyCommittedTransaction(startTs, startTs + 1));
+    }
+
+    private boolean isPresent(long startTimestamp) {
+        Long commitTimestamp = cache.getCommitTimestampIfPresent(startTimestamp);
+        return commitTimestamp != null && commitTimestamp == startTimestamp + 1;
+    }
+
+    private static Object gaugeValue(MetricRegistry metrics, String name) {
+        return ((Gauge<?>) metrics.getMetrics().get(MetricRegistry.name(METRIC_PREFIX, name))).getValue();
+    }
+}
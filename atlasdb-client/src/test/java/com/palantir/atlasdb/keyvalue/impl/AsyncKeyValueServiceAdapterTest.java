@@ -0,0 +1,108 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.keyvalue.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.palantir.atlasdb.encoding.PtBytes;
+import com.palantir.atlasdb.keyvalue.api.AsyncKeyValueService;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.ColumnSelection;
+import com.palantir.atlasdb.keyvalue.api.KeyValueService;
+import com.palantir.atlasdb.keyvalue.api.TableReference;
+import com.palantir.atlasdb.keyvalue.api.Value;
+
+public class AsyncKeyValueServiceAdapterTest {
+    private static final TableReference TABLE = TableReference.createFromFullyQualifiedName("test.table");
+    private static final byte[] ROW = PtBytes.toBytes("row");
+    private static final Cell CELL = Cell.create(ROW, PtBytes.toBytes("col"));
+    private static final Value VALUE = Value.create(PtBytes.toBytes("value"), 5L);
+    private static final long TIMESTAMP = 10L;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final KeyValueService delegate = mock(KeyValueService.class);
+    private final AsyncKeyValueService asyncKvs = AsyncKeyValueServiceAdapter.create(delegate, executor);
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void returnsNativelyAsyncKeyValueServicesUnwrapped() {
+        KeyValueService nativelyAsync = mock(KeyValueService.class,
+                withSettings().extraInterfaces(AsyncKeyValueService.class));
+        assertThat(AsyncKeyValueServiceAdapter.create(nativelyAsync, executor)).isSameAs(nativelyAsync);
+    }
+
+    @Test
+    public void getAsyncReturnsDelegateResult() {
+        Map<Cell, Long> request = ImmutableMap.of(CELL, TIMESTAMP);
+        when(delegate.get(TABLE, request)).thenReturn(ImmutableMap.of(CELL, VALUE));
+
+        assertThat(asyncKvs.getAsync(TABLE, request).join()).containsExactly(entry(CELL, VALUE));
+    }
+
+    @Test
+    public void getRowsAsyncReturnsDelegateResult() {
+        Iterable<byte[]> rows = ImmutableList.of(ROW);
+        when(delegate.getRows(TABLE, rows, ColumnSelection.all(), TIMESTAMP))
+                .thenReturn(ImmutableMap.of(CELL, VALUE));
+
+        assertThat(asyncKvs.getRowsAsync(TABLE, rows, ColumnSelection.all(), TIMESTAMP).join())
+                .containsExactly(entry(CELL, VALUE));
+    }
+
+    @Test
+    public void multiPutAsyncWritesThroughDelegate() {
+        Map<TableReference, Map<Cell, byte[]>> values = ImmutableMap.of(TABLE, ImmutableMap.of(CELL, ROW));
+
+        asyncKvs.multiPutAsync(values, TIMESTAMP).join();
+
+        verify(delegate).multiPut(values, TIMESTAMP);
+    }
+
+    @Test
+    public void failuresCompleteTheFutureExceptionally() {
+        Map<TableReference, Map<Cell, byte[]>> values = ImmutableMap.of(TABLE, ImmutableMap.of(CELL, ROW));
+        RuntimeException failure = new RuntimeException("boom");
+        doThrow(failure).when(delegate).multiPut(values, TIMESTAMP);
+
+        CompletableFuture<Void> result = asyncKvs.multiPutAsync(values, TIMESTAMP);
+
+        assertThatThrownBy(result::join)
+                .isInstanceOf(CompletionException.class)
+                .hasCause(failure);
+    }
+}
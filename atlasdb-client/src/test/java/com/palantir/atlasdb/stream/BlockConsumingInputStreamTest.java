@@ -29,11 +29,14 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mockito;
 
+import com.google.common.util.concurrent.MoreExecutors;
 import com.palantir.atlasdb.schema.stream.StreamStoreDefinition;
 
 @SuppressWarnings("ResultOfMethodCallIgnored")
@@ -91,6 +94,9 @@ public class BlockConsumingInputStreamTest {
         }
     };
 
+    private final AtomicInteger numGets = new AtomicInteger();
+    private final ExecutorService directExecutor = MoreExecutors.newDirectExecutorService();
+
     private BlockConsumingInputStream dataStream;
 
     @Before
@@ -221,6 +227,81 @@ public class BlockConsumingInputStreamTest {
         assertArrayEquals(Arrays.copyOf(data, dataSizeMinusOne), Arrays.copyOf(result, dataSizeMinusOne));
     }
 
+    @Test
+    public void canReadAllBlocksWithReadAhead() throws IOException {
+        BlockConsumingInputStream stream = BlockConsumingInputStream.create(
+                countingSingleByteConsumer(true), DATA_SIZE, 1, 2, directExecutor);
+        byte[] result = new byte[DATA_SIZE_PLUS_ONE];
+        int read = stream.read(result);
+        assertEquals(DATA_SIZE, read);
+        assertArrayEquals(data, Arrays.copyOf(result, DATA_SIZE));
+        assertEquals(-1, stream.read());
+    }
+
+    @Test
+    public void loadsBatchesAheadOfReader() throws IOException {
+        BlockConsumingInputStream stream = BlockConsumingInputStream.create(
+                countingSingleByteConsumer(true), DATA_SIZE, 1, 2, directExecutor);
+        assertEquals('d', stream.read());
+        assertEquals(3, numGets.get());
+
+        assertEquals('a', stream.read());
+        assertEquals(DATA_SIZE, numGets.get());
+    }
+
+    @Test
+    public void doesNotReadAheadIfGetterDoesNotSupportConcurrentGets() throws IOException {
+        BlockConsumingInputStream stream = BlockConsumingInputStream.create(
+                countingSingleByteConsumer(false), DATA_SIZE, 1, 2, directExecutor);
+        assertEquals('d', stream.read());
+        assertEquals(1, numGets.get());
+    }
+
+    @Test
+    public void readAheadFailuresAreThrownToReader() throws IOException {
+        RuntimeException failure = new RuntimeException("failed to load");
+        BlockGetter failingGetter = new BlockGetter() {
+            @Override
+            public void get(long offset, long numBlocks, OutputStream os) {
+                if (offset == 1) {
+                    throw failure;
+                }
+                singleByteConsumer.get(offset, numBlocks, os);
+            }
+
+            @Override
+            public int expectedBlockLength() {
+                return 1;
+            }
+
+            @Override
+            public boolean supportsConcurrentGets() {
+                return true;
+            }
+        };
+
+        BlockConsumingInputStream stream = BlockConsumingInputStream.create(
+                failingGetter, DATA_SIZE, 1, 2, directExecutor);
+        assertEquals('d', stream.read());
+        try {
+            stream.read();
+            fail();
+        } catch (RuntimeException e) {
+            assertEquals(failure, e);
+        }
+    }
+
+    @Test
+    public void closedStreamDoesNotLoadMoreBlocks() throws IOException {
+        BlockConsumingInputStream stream = BlockConsumingInputStream.create(
+                countingSingleByteConsumer(true), DATA_SIZE, 1, 2, directExecutor);
+        assertEquals('d', stream.read());
+        stream.close();
+
+        assertEquals(-1, stream.read());
+        assertEquals(3, numGets.get());
+    }
+
     @Test
     public void bufferLengthCanAlmostReachIntMaxValue() throws IOException {
         BlockGetter bigGetter = new BlockGetter() {
@@ -291,6 +372,26 @@ public class BlockConsumingInputStreamTest {
         verify(spiedGetter, times(1)).get(anyLong(), eq(1L), any());
     }
 
+    private BlockGetter countingSingleByteConsumer(boolean supportsConcurrentGets) {
+        return new BlockGetter() {
+            @Override
+            public void get(long offset, long numBlocks, OutputStream os) {
+                numGets.incrementAndGet();
+                singleByteConsumer.get(offset, numBlocks, os);
+            }
+
+            @Override
+            public int expectedBlockLength() {
+                return 1;
+            }
+
+            @Override
+            public boolean supportsConcurrentGets() {
+                return supportsConcurrentGets;
+            }
+        };
+    }
+
     private void expectNextBytesFromStream(BlockConsumingInputStream stream, String expectedOutput) throws IOException {
         byte[] chunk = new byte[2];
         int read = stream.read(chunk);
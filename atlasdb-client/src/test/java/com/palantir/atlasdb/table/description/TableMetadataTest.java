@@ -32,6 +32,7 @@ public class TableMetadataTest {
             .explicitCompressionBlockSizeKB(32)
             .appendHeavyAndReadLight(true)
             .nameLogSafety(LogSafety.SAFE)
+            .immutable(true)
             .build();
 
     @Test
@@ -39,6 +40,11 @@ public class TableMetadataTest {
         assertThat(DEFAULT_TABLE_METADATA.getNameLogSafety()).isEqualTo(LogSafety.UNSAFE);
     }
 
+    @Test
+    public void isNotImmutableByDefault() {
+        assertThat(DEFAULT_TABLE_METADATA.isImmutable()).isFalse();
+    }
+
     @Test
     public void canSerializeAndDeserializeDefaultMetadata() {
         assertCanSerializeAndDeserialize(DEFAULT_TABLE_METADATA);
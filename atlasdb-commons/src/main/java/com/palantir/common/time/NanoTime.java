@@ -66,6 +66,14 @@ public abstract class NanoTime implements Comparable<NanoTime> {
         return create(time() + duration.toNanos());
     }
 
+    /**
+     * Returns the number of nanoseconds from {@code earlier} to this time, which is negative if {@code earlier} is
+     * in fact later than this time.
+     */
+    public long nanosSince(NanoTime earlier) {
+        return nanosBetween(earlier, this);
+    }
+
     public boolean isBefore(NanoTime other) {
         return compareTo(other) < 0;
     }
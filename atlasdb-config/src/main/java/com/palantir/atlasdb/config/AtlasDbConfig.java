@@ -29,6 +29,7 @@ import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import com.palantir.atlasdb.AtlasDbConstants;
+import com.palantir.atlasdb.cache.TimestampCacheType;
 import com.palantir.atlasdb.memory.InMemoryAtlasDbConfig;
 import com.palantir.atlasdb.spi.KeyValueServiceConfig;
 import com.palantir.exception.NotInitializedException;
@@ -168,6 +169,50 @@ public abstract class AtlasDbConfig {
         return AtlasDbConstants.DEFAULT_INITIALIZE_ASYNC;
     }
 
+    /**
+     * The implementation of the cache of commit timestamps we have seen in previous reads. The size of the cache is
+     * configured by {@link AtlasDbRuntimeConfig#getTimestampCacheSize()}.
+     * <p>
+     * {@link TimestampCacheType#PRIMITIVE} uses a fraction of the heap of the default Caffeine based cache, and is
+     * worth considering for services that run with a large timestamp cache.
+     */
+    @Value.Default
+    public TimestampCacheType timestampCacheType() {
+        return TimestampCacheType.CAFFEINE;
+    }
+
+    /**
+     * If true, concurrent requests to start transactions are coalesced into batched calls to TimeLock, which lock the
+     * immutable timestamp once per batch rather than once per transaction. This requires every TimeLock server that
+     * this service may talk to to support starting transactions in batches, so should only be enabled once they have
+     * all been upgraded.
+     */
+    @Value.Default
+    public boolean enableBatchedTransactionStarts() {
+        return false;
+    }
+
+    /**
+     * If true, reads of commit timestamps from the transactions table are coalesced across concurrent transactions,
+     * so that lookups that arrive while a read is in flight are deduplicated into a single read. This helps services
+     * whose transactions frequently read the same recently written rows, at the cost of a hand-off to the batching
+     * thread on every lookup.
+     */
+    @Value.Default
+    public boolean enableBatchedCommitTimestampReads() {
+        return false;
+    }
+
+    /**
+     * If true, the batcher of commit timestamp writes to the transactions table waits briefly for more writes when
+     * it runs out of them, in proportion to how long recent batches took. This can build larger batches for services
+     * with high write throughput, at the cost of a small amount of commit latency.
+     */
+    @Value.Default
+    public boolean enableAdaptiveCommitTimestampWriteBatching() {
+        return false;
+    }
+
     /**
      * Install time configurations for targeted sweep.
      */
@@ -74,8 +74,9 @@ public abstract class AtlasDbRuntimeConfig {
 
     /**
      * The number of timestamps to cache that we have seen in previous reads.
-     * This will use somewhere around 90MB of heap memory per million timestamps because of various overheads
-     * from Java Objects and the cache's LRU tracking.
+     * With the default {@link AtlasDbConfig#timestampCacheType()}, this will use somewhere around 90MB of heap memory
+     * per million timestamps because of various overheads from Java Objects and the cache's LRU tracking; the
+     * primitive cache uses between 23MB and 45MB per million timestamps.
      *
      * Probably the only reason to configure away from the default would be a service that can afford the heap usage,
      * and has read patterns that deal with a very large working set of existing transactions.
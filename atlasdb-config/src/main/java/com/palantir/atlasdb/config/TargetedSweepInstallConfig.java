@@ -74,6 +74,26 @@ public class TargetedSweepInstallConfig {
                 thoroughThreads());
     }
 
+    /**
+     * The maximum number of partitions of cells that targeted sweep deletes concurrently, shared between all
+     * background targeted sweep threads. Each batch swept is split into partitions of cells of a single table, which
+     * are deleted concurrently up to this limit as long as the KVS reports all of its nodes as available, and
+     * sequentially otherwise. If this is 1, the partitions of each batch are always deleted sequentially.
+     */
+    @Value.Default
+    public int deleteThreads() {
+        return AtlasDbConstants.DEFAULT_TARGETED_SWEEP_DELETE_THREADS;
+    }
+
+    @Value.Check
+    void checkDeleteThreads() {
+        Preconditions.checkArgument(
+                deleteThreads() >= 1 && deleteThreads() <= AtlasDbConstants.MAX_TARGETED_SWEEP_DELETE_THREADS,
+                "Number of targeted sweep delete threads must be between 1 and %s inclusive, but is %s instead.",
+                AtlasDbConstants.MAX_TARGETED_SWEEP_DELETE_THREADS,
+                deleteThreads());
+    }
+
     public static TargetedSweepInstallConfig defaultTargetedSweepConfig() {
         return ImmutableTargetedSweepInstallConfig.builder().build();
     }
@@ -45,6 +45,17 @@ public abstract class TargetedSweepRuntimeConfig {
         return AtlasDbConstants.DEFAULT_SWEEP_QUEUE_SHARDS;
     }
 
+    /**
+     * If true, background targeted sweep threads schedule themselves based on the backlog of each shard. Shards are
+     * swept in decreasing order of their lag behind the sweep timestamp, a shard is swept again immediately while its
+     * last batch did not catch up with the sweep timestamp, and shards that have caught up are backed off from
+     * exponentially. If false, each thread sweeps one batch every five seconds, going round-robin over the shards.
+     */
+    @Value.Default
+    public boolean adaptiveScheduling() {
+        return false;
+    }
+
     @Value.Check
     void checkShardSize() {
         Preconditions.checkArgument(shards() >= 1 && shards() <= 256,
@@ -47,6 +47,7 @@ import com.palantir.atlasdb.http.UserAgents;
 import com.palantir.atlasdb.util.AtlasDbMetrics;
 import com.palantir.atlasdb.util.MetricsManager;
 import com.palantir.common.concurrent.PTExecutors;
+import com.palantir.common.persist.Persistable;
 import com.palantir.leader.AsyncLeadershipObserver;
 import com.palantir.leader.LeaderElectionService;
 import com.palantir.leader.LeadershipObserver;
@@ -61,6 +62,10 @@ import com.palantir.paxos.PaxosLearner;
 import com.palantir.paxos.PaxosLearnerImpl;
 import com.palantir.paxos.PaxosProposer;
 import com.palantir.paxos.PaxosProposerImpl;
+import com.palantir.paxos.PaxosStateLog;
+import com.palantir.paxos.PaxosStateLogImpl;
+import com.palantir.paxos.SegmentedPaxosStateLog;
+import com.palantir.paxos.Versionable;
 import com.palantir.remoting3.config.ssl.TrustContext;
 
 public final class Leaders {
@@ -122,10 +127,13 @@ public final class Leaders {
 
         PaxosAcceptor ourAcceptor = AtlasDbMetrics.instrument(metricsManager.getRegistry(),
                 PaxosAcceptor.class,
-                PaxosAcceptorImpl.newAcceptor(config.acceptorLogDir().getPath()));
+                PaxosAcceptorImpl.newAcceptor(
+                        createStateLog(config.acceptorLogDir().getPath(), config.useSegmentedPaxosStateLog())));
         PaxosLearner ourLearner = AtlasDbMetrics.instrument(metricsManager.getRegistry(),
                 PaxosLearner.class,
-                PaxosLearnerImpl.newLearner(config.learnerLogDir().getPath(), leadershipEventRecorder));
+                PaxosLearnerImpl.newLearner(
+                        createStateLog(config.learnerLogDir().getPath(), config.useSegmentedPaxosStateLog()),
+                        leadershipEventRecorder));
 
         Optional<TrustContext> trustContext =
                 ServiceCreator.createTrustContext(config.sslConfiguration());
@@ -242,6 +250,15 @@ public final class Leaders {
         return pingables;
     }
 
+    private static <V extends Persistable & Versionable> PaxosStateLog<V> createStateLog(
+            String logDirectory,
+            boolean useSegmentedStateLog) {
+        if (useSegmentedStateLog) {
+            return SegmentedPaxosStateLog.create(logDirectory);
+        }
+        return new PaxosStateLogImpl<>(logDirectory);
+    }
+
     @Value.Immutable
     public interface LocalPaxosServices {
         PaxosAcceptor ourAcceptor();
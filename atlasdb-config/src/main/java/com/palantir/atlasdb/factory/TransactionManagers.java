@@ -93,6 +93,7 @@ import com.palantir.atlasdb.sweep.AdjustableSweepBatchConfigSource;
 import com.palantir.atlasdb.sweep.BackgroundSweeperImpl;
 import com.palantir.atlasdb.sweep.BackgroundSweeperPerformanceLogger;
 import com.palantir.atlasdb.sweep.CellsSweeper;
+import com.palantir.atlasdb.sweep.CommitTsCache;
 import com.palantir.atlasdb.sweep.ImmutableSweepBatchConfig;
 import com.palantir.atlasdb.sweep.NoOpBackgroundSweeperPerformanceLogger;
 import com.palantir.atlasdb.sweep.PersistentLockManager;
@@ -339,8 +340,14 @@ public abstract class TransactionManagers {
         TransactionService transactionService = initializeCloseable(() -> AtlasDbMetrics.instrument(
                 metricsManager.getRegistry(),
                 TransactionService.class,
-                TransactionServices.createTransactionService(keyValueService, transactionSchemaManager)),
+                TransactionServices.createTransactionService(
+                        keyValueService,
+                        transactionSchemaManager,
+                        metricsManager,
+                        config().enableBatchedCommitTimestampReads(),
+                        config().enableAdaptiveCommitTimestampWriteBatching())),
                 closeables);
+        CommitTsCache commitTsCache = CommitTsCache.create(transactionService, keyValueService);
         TransactionSchemaInstaller schemaInstaller = initializeTransactionSchemaInstaller(
                 closeables, runtimeConfigSupplier, transactionSchemaManager);
         ConflictDetectionManager conflictManager = ConflictDetectionManagers.create(keyValueService);
@@ -363,7 +370,8 @@ public abstract class TransactionManagers {
 
         MultiTableSweepQueueWriter targetedSweep = initializeCloseable(
                 () -> uninitializedTargetedSweeper(metricsManager, config().targetedSweep(), follower,
-                        Suppliers.compose(AtlasDbRuntimeConfig::targetedSweep, runtimeConfigSupplier::get)),
+                        Suppliers.compose(AtlasDbRuntimeConfig::targetedSweep, runtimeConfigSupplier::get),
+                        commitTsCache),
                 closeables);
 
         Callback<TransactionManager> callbacks = new Callback.CallChain<>(
@@ -391,7 +399,9 @@ public abstract class TransactionManagers {
                         config().keyValueService().concurrentGetRangesThreadPoolSize(),
                         config().keyValueService().defaultGetRangesConcurrency(),
                         config().initializeAsync(),
-                        new TimestampCache(metricsManager.getRegistry(),
+                        TimestampCache.create(
+                                config().timestampCacheType(),
+                                metricsManager.getRegistry(),
                                 () -> runtimeConfigSupplier.get().getTimestampCacheSize()),
                         targetedSweep,
                         callbacks,
@@ -420,7 +430,7 @@ public abstract class TransactionManagers {
                         runtimeConfigSupplier,
                         registrar(),
                         keyValueService,
-                        transactionService,
+                        commitTsCache,
                         sweepStrategyManager,
                         follower,
                         instrumentedTransactionManager,
@@ -510,7 +520,7 @@ public abstract class TransactionManagers {
             Supplier<AtlasDbRuntimeConfig> runtimeConfigSupplier,
             Consumer<Object> env,
             KeyValueService kvs,
-            TransactionService transactionService,
+            CommitTsCache commitTsCache,
             SweepStrategyManager sweepStrategyManager,
             CleanupFollower follower,
             TransactionManager transactionManager,
@@ -527,7 +537,7 @@ public abstract class TransactionManagers {
                 kvs,
                 transactionManager::getUnreadableTimestamp,
                 transactionManager::getImmutableTimestamp,
-                transactionService,
+                commitTsCache,
                 sweepStrategyManager,
                 cellsSweeper,
                 sweepMetrics);
@@ -689,7 +699,7 @@ public abstract class TransactionManagers {
                 userAgent);
         return withMetrics(metricsManager,
                 withCorroboratingTimestampService(
-                        withRefreshingLockService(lockAndTimestampServices)));
+                        withRefreshingLockService(lockAndTimestampServices, config.enableBatchedTransactionStarts())));
     }
 
     private static LockAndTimestampServices withCorroboratingTimestampService(
@@ -706,8 +716,9 @@ public abstract class TransactionManagers {
     }
 
     private static LockAndTimestampServices withRefreshingLockService(
-            LockAndTimestampServices lockAndTimestampServices) {
-        TimeLockClient timeLockClient = TimeLockClient.createDefault(lockAndTimestampServices.timelock());
+            LockAndTimestampServices lockAndTimestampServices, boolean batchTransactionStarts) {
+        TimeLockClient timeLockClient = TimeLockClient.createDefault(
+                lockAndTimestampServices.timelock(), batchTransactionStarts);
         return ImmutableLockAndTimestampServices.builder()
                 .from(lockAndTimestampServices)
                 .timestamp(new TimelockTimestampServiceAdapter(timeLockClient))
@@ -982,7 +993,8 @@ public abstract class TransactionManagers {
             MetricsManager metricsManager,
             TargetedSweepInstallConfig config,
             Follower follower,
-            Supplier<TargetedSweepRuntimeConfig> runtime) {
+            Supplier<TargetedSweepRuntimeConfig> runtime,
+            CommitTsCache commitTsCache) {
         if (!config.enableSweepQueueWrites()) {
             return MultiTableSweepQueueWriter.NO_OP;
         }
@@ -990,9 +1002,12 @@ public abstract class TransactionManagers {
                 metricsManager,
                 Suppliers.compose(TargetedSweepRuntimeConfig::enabled, runtime::get),
                 Suppliers.compose(TargetedSweepRuntimeConfig::shards, runtime::get),
+                Suppliers.compose(TargetedSweepRuntimeConfig::adaptiveScheduling, runtime::get),
                 config.conservativeThreads(),
                 config.thoroughThreads(),
-                ImmutableList.of(follower));
+                config.deleteThreads(),
+                ImmutableList.of(follower),
+                commitTsCache);
     }
 
     @Value.Immutable
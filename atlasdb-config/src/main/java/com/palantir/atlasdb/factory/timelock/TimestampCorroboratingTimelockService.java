@@ -16,6 +16,7 @@
 
 package com.palantir.atlasdb.factory.timelock;
 
+import java.util.List;
 import java.util.concurrent.atomic.LongAccumulator;
 import java.util.function.Supplier;
 import java.util.function.ToLongFunction;
@@ -23,6 +24,7 @@ import java.util.function.ToLongFunction;
 import com.palantir.lock.v2.AutoDelegate_TimelockService;
 import com.palantir.lock.v2.IdentifiedTimeLockRequest;
 import com.palantir.lock.v2.StartAtlasDbTransactionResponse;
+import com.palantir.lock.v2.StartIdentifiedAtlasDbTransactionBatchRequest;
 import com.palantir.lock.v2.StartIdentifiedAtlasDbTransactionRequest;
 import com.palantir.lock.v2.StartIdentifiedAtlasDbTransactionResponse;
 import com.palantir.lock.v2.TimelockService;
@@ -78,6 +80,16 @@ public final class TimestampCorroboratingTimelockService implements AutoDelegate
                 r -> r.startTimestampAndPartition().timestamp());
     }
 
+    @Override
+    public List<StartIdentifiedAtlasDbTransactionResponse> startIdentifiedAtlasDbTransactionBatch(
+            StartIdentifiedAtlasDbTransactionBatchRequest request) {
+        return checkAndUpdateLowerBound(() -> delegate.startIdentifiedAtlasDbTransactionBatch(request),
+                r -> r.stream().mapToLong(response -> response.startTimestampAndPartition().timestamp()).min()
+                        .orElse(Long.MAX_VALUE),
+                r -> r.stream().mapToLong(response -> response.startTimestampAndPartition().timestamp()).max()
+                        .orElse(Long.MIN_VALUE));
+    }
+
     private <T> T checkAndUpdateLowerBound(Supplier<T> timestampContainerSupplier,
             ToLongFunction<T> lowerBoundExtractor,
             ToLongFunction<T> upperBoundExtractor) {
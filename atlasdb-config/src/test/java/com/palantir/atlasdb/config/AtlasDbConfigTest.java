@@ -85,6 +85,14 @@ public class AtlasDbConfigTest {
         assertThat(config, not(nullValue()));
     }
 
+    @Test
+    public void adaptiveCommitTimestampWriteBatchingIsDisabledByDefault() {
+        AtlasDbConfig config = ImmutableAtlasDbConfig.builder()
+                .keyValueService(KVS_CONFIG_WITH_NAMESPACE)
+                .build();
+        assertFalse(config.enableAdaptiveCommitTimestampWriteBatching());
+    }
+
     @Test(expected = IllegalStateException.class)
     public void kvsConfigIsRequired() {
         ImmutableAtlasDbConfig.builder().build();
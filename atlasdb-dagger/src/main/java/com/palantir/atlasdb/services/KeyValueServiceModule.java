@@ -90,9 +90,14 @@ public class KeyValueServiceModule {
     @Singleton
     public TransactionService provideTransactionService(
             @Named("kvs") KeyValueService kvs,
-            CoordinationService<InternalSchemaMetadata> coordinationService) {
+            CoordinationService<InternalSchemaMetadata> coordinationService,
+            ServicesConfig config,
+            MetricsManager metricsManager) {
         return TransactionServices.createTransactionService(kvs,
-                new TransactionSchemaManager(coordinationService));
+                new TransactionSchemaManager(coordinationService),
+                metricsManager,
+                config.atlasDbConfig().enableBatchedCommitTimestampReads(),
+                config.atlasDbConfig().enableAdaptiveCommitTimestampWriteBatching());
     }
 
     @Provides
@@ -104,7 +104,9 @@ public class TransactionManagerModule {
                 conflictManager,
                 sweepStrategyManager,
                 cleaner,
-                new TimestampCache(metricsManager.getRegistry(),
+                TimestampCache.create(
+                        config.atlasDbConfig().timestampCacheType(),
+                        metricsManager.getRegistry(),
                         () -> config.atlasDbRuntimeConfig().getTimestampCacheSize()),
                 config.allowAccessToHiddenTables(),
                 config.atlasDbConfig().keyValueService().concurrentGetRangesThreadPoolSize(),
@@ -15,14 +15,28 @@
  */
 package com.palantir.atlasdb.keyvalue.dbkvs;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
 import org.apache.commons.lang3.StringUtils;
 import org.junit.After;
 import org.junit.ClassRule;
 import org.junit.Test;
 
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+import com.google.common.primitives.Ints;
 import com.palantir.atlasdb.AtlasDbConstants;
+import com.palantir.atlasdb.encoding.PtBytes;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.KeyAlreadyExistsException;
 import com.palantir.atlasdb.keyvalue.api.Namespace;
 import com.palantir.atlasdb.keyvalue.api.TableReference;
+import com.palantir.atlasdb.keyvalue.api.Value;
 import com.palantir.atlasdb.keyvalue.dbkvs.impl.postgres.PostgresDdlTable;
 import com.palantir.atlasdb.keyvalue.impl.TestResourceManager;
 
@@ -34,6 +48,8 @@ public class DbkvsPostgresKeyValueServiceTest extends AbstractDbKvsKeyValueServi
     private static final String TEST_LONG_TABLE_NAME =
             "ThisShouldAlwaysBeAVeryLongTableNameThatExceedsPostgresLengthLimit";
     private static final int TWO_UNDERSCORES = 2;
+    private static final int NUM_CELLS_WRITTEN_USING_COPY = 1000;
+    private static final long WRITE_TIMESTAMP = 10L;
 
     public DbkvsPostgresKeyValueServiceTest() {
         super(TRM);
@@ -81,6 +97,36 @@ public class DbkvsPostgresKeyValueServiceTest extends AbstractDbKvsKeyValueServi
         createTwoTablesWithSamePrefix(TEST_LONG_TABLE_NAME);
     }
 
+    @Test
+    public void largePutsAreWrittenCompletely() {
+        Map<Cell, byte[]> values = valuesForCells(0, NUM_CELLS_WRITTEN_USING_COPY);
+        keyValueService.put(TEST_TABLE, values, WRITE_TIMESTAMP);
+
+        Map<Cell, Value> read = keyValueService.get(TEST_TABLE, Maps.transformValues(values, unused -> Long.MAX_VALUE));
+        assertThat(read).hasSize(NUM_CELLS_WRITTEN_USING_COPY);
+        values.forEach((cell, value) -> assertThat(read.get(cell)).isEqualTo(Value.create(value, WRITE_TIMESTAMP)));
+    }
+
+    @Test
+    public void largePutUnlessExistsWritesNothingIfAnyCellExists() {
+        Cell existingCell = cell(NUM_CELLS_WRITTEN_USING_COPY - 1);
+        keyValueService.putUnlessExists(TEST_TABLE, ImmutableMap.of(existingCell, PtBytes.toBytes("existing")));
+
+        assertThatThrownBy(() -> keyValueService.putUnlessExists(
+                TEST_TABLE, valuesForCells(0, NUM_CELLS_WRITTEN_USING_COPY)))
+                .isInstanceOf(KeyAlreadyExistsException.class);
+        assertThat(keyValueService.get(TEST_TABLE, ImmutableMap.of(cell(0), Long.MAX_VALUE))).isEmpty();
+    }
+
+    private static Map<Cell, byte[]> valuesForCells(int fromInclusive, int toExclusive) {
+        return IntStream.range(fromInclusive, toExclusive)
+                .boxed()
+                .collect(Collectors.toMap(DbkvsPostgresKeyValueServiceTest::cell, Ints::toByteArray));
+    }
+
+    private static Cell cell(int index) {
+        return Cell.create(PtBytes.toBytes("row" + index), PtBytes.toBytes("col"));
+    }
 
     private void createTwoTablesWithSamePrefix(String tableNamePrefix) {
         TableReference longTableName1 = TableReference.create(TEST_NAMESPACE, tableNamePrefix + "1");
@@ -42,6 +42,7 @@ import com.palantir.remoting.api.config.service.HumanReadableDuration;
 @SuiteClasses({
         DbkvsPostgresTargetedSweepIntegrationTest.class,
         DbkvsPostgresKeyValueServiceTest.class,
+        DbkvsPostgresAsyncKeyValueServiceTest.class,
         DbkvsPostgresSerializableTransactionTest.class,
         DbkvsPostgresSweepTaskRunnerTest.class,
         DbkvsBackgroundSweeperIntegrationTest.class,
@@ -51,4 +51,15 @@ public abstract class PostgresDdlConfig extends DdlConfig {
     public HumanReadableDuration compactInterval() {
         return HumanReadableDuration.seconds(0);
     }
+
+    /**
+     * Batches of at least this many cells are written using the binary COPY protocol into a staging table, and then
+     * merged into the target table with a single statement, instead of a batched INSERT. This avoids binding
+     * parameters for every row, which dominates the cost of large writes. Writes are batched according to
+     * {@link #mutationBatchCount()}, so setting this above that value disables COPY.
+     */
+    @Value.Default
+    public int copyWriteThresholdCells() {
+        return 500;
+    }
 }
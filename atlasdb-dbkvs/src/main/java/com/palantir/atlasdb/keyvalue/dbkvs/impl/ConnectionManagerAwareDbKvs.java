@@ -16,11 +16,20 @@
 package com.palantir.atlasdb.keyvalue.dbkvs.impl;
 
 import java.sql.Connection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Supplier;
 import com.google.common.collect.ImmutableList;
+import com.palantir.atlasdb.keyvalue.api.AsyncKeyValueService;
+import com.palantir.atlasdb.keyvalue.api.BatchColumnRangeSelection;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.ColumnSelection;
 import com.palantir.atlasdb.keyvalue.api.KeyValueService;
+import com.palantir.atlasdb.keyvalue.api.RowColumnRangeIterator;
+import com.palantir.atlasdb.keyvalue.api.TableReference;
+import com.palantir.atlasdb.keyvalue.api.Value;
 import com.palantir.atlasdb.keyvalue.dbkvs.DbKeyValueServiceConfig;
 import com.palantir.atlasdb.keyvalue.impl.ForwardingKeyValueService;
 import com.palantir.nexus.db.monitoring.timer.SqlTimer;
@@ -34,7 +43,7 @@ import com.palantir.nexus.db.sql.SqlConnection;
 import com.palantir.nexus.db.sql.SqlConnectionHelper;
 
 // This class should be removed and replaced by DbKvs when InDbTimestampStore depends directly on DbKvs
-public final class ConnectionManagerAwareDbKvs extends ForwardingKeyValueService {
+public final class ConnectionManagerAwareDbKvs extends ForwardingKeyValueService implements AsyncKeyValueService {
     private final DbKvs kvs;
     private final ConnectionManager connManager;
     private final SqlConnectionSupplier sqlConnectionSupplier;
@@ -106,6 +115,29 @@ public final class ConnectionManagerAwareDbKvs extends ForwardingKeyValueService
         return kvs;
     }
 
+    @Override
+    public CompletableFuture<Map<Cell, Value>> getRowsAsync(TableReference tableRef, Iterable<byte[]> rows,
+            ColumnSelection columnSelection, long timestamp) {
+        return kvs.getRowsAsync(tableRef, rows, columnSelection, timestamp);
+    }
+
+    @Override
+    public CompletableFuture<Map<byte[], RowColumnRangeIterator>> getRowsColumnRangeAsync(TableReference tableRef,
+            Iterable<byte[]> rows, BatchColumnRangeSelection batchColumnRangeSelection, long timestamp) {
+        return kvs.getRowsColumnRangeAsync(tableRef, rows, batchColumnRangeSelection, timestamp);
+    }
+
+    @Override
+    public CompletableFuture<Map<Cell, Value>> getAsync(TableReference tableRef, Map<Cell, Long> timestampByCell) {
+        return kvs.getAsync(tableRef, timestampByCell);
+    }
+
+    @Override
+    public CompletableFuture<Void> multiPutAsync(Map<TableReference, ? extends Map<Cell, byte[]>> valuesByTable,
+            long timestamp) {
+        return kvs.multiPutAsync(valuesByTable, timestamp);
+    }
+
     public ConnectionManager getConnectionManager() {
         return connManager;
     }
@@ -34,6 +34,7 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
@@ -71,6 +72,7 @@ import com.google.common.collect.Ordering;
 import com.google.common.collect.Sets;
 import com.google.common.util.concurrent.Atomics;
 import com.palantir.atlasdb.AtlasDbConstants;
+import com.palantir.atlasdb.keyvalue.api.AsyncKeyValueService;
 import com.palantir.atlasdb.keyvalue.api.BatchColumnRangeSelection;
 import com.palantir.atlasdb.keyvalue.api.CandidateCellForSweeping;
 import com.palantir.atlasdb.keyvalue.api.CandidateCellForSweepingRequest;
@@ -132,7 +134,7 @@ import com.palantir.util.paging.AbstractPagingIterable;
 import com.palantir.util.paging.SimpleTokenBackedResultsPage;
 import com.palantir.util.paging.TokenBackedBasicResultsPage;
 
-public final class DbKvs extends AbstractKeyValueService {
+public final class DbKvs extends AbstractKeyValueService implements AsyncKeyValueService {
     private static final Logger log = LoggerFactory.getLogger(DbKvs.class);
 
     public static final String ROW = "row_name";
@@ -218,7 +220,7 @@ public final class DbKvs extends AbstractKeyValueService {
                 new OracleDbTableFactory(oracleDdlConfig, tableNameGetter, prefixedTableNames, valueStyleCache,
                         PTExecutors.newSingleThreadScheduledExecutor()),
                 connections,
-                new ImmediateSingleBatchTaskRunner(),
+                new ImmediateSingleBatchTaskRunner(executor),
                 overflowValueLoader,
                 getRange,
                 new DbKvsGetCandidateCellsForSweeping(cellTsPageLoader));
@@ -302,6 +304,30 @@ public final class DbKvs extends AbstractKeyValueService {
                         table.getLatestCells(cellBatch, true)));
     }
 
+    @Override
+    public CompletableFuture<Map<Cell, Value>> getRowsAsync(
+            TableReference tableRef,
+            Iterable<byte[]> rows,
+            ColumnSelection columnSelection,
+            long timestamp) {
+        return batchingQueryRunner.runTaskAsync(
+                rows,
+                BatchingStrategies.forIterable(),
+                AccumulatorStrategies.forMap(),
+                rowBatch -> runReadAndExtractResults(tableRef, table ->
+                        table.getLatestRows(rowBatch, columnSelection, timestamp, true)));
+    }
+
+    @Override
+    public CompletableFuture<Map<Cell, Value>> getAsync(TableReference tableRef, Map<Cell, Long> timestampByCell) {
+        return batchingQueryRunner.runTaskAsync(
+                timestampByCell,
+                BatchingStrategies.forMap(),
+                AccumulatorStrategies.forMap(),
+                cellBatch -> runReadAndExtractResults(tableRef, table ->
+                        table.getLatestCells(cellBatch, true)));
+    }
+
     private Map<Cell, Value> getRowsBatching(TableReference tableRef,
                                              Iterable<byte[]> rows,
                                              ColumnSelection columnSelection,
@@ -391,6 +417,42 @@ public final class DbKvs extends AbstractKeyValueService {
     @Override
     public void multiPut(Map<TableReference, ? extends Map<Cell, byte[]>> valuesByTable, final long timestamp)
             throws KeyAlreadyExistsException {
+        List<Callable<Void>> callables = getMultiPutTasks(valuesByTable, timestamp);
+        List<Future<Void>> futures;
+        try {
+            futures = executor.invokeAll(callables);
+        } catch (InterruptedException e) {
+            throw Throwables.throwUncheckedException(e);
+        }
+        for (Future<Void> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                throw Throwables.throwUncheckedException(e);
+            } catch (ExecutionException e) {
+                throw Throwables.rewrapAndThrowUncheckedException(e.getCause());
+            }
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> multiPutAsync(Map<TableReference, ? extends Map<Cell, byte[]>> valuesByTable,
+            long timestamp) {
+        List<CompletableFuture<Void>> futures = Lists.newArrayList();
+        for (Callable<Void> callable : getMultiPutTasks(valuesByTable, timestamp)) {
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    return callable.call();
+                } catch (Exception e) {
+                    throw Throwables.rewrapAndThrowUncheckedException(e);
+                }
+            }, executor));
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]));
+    }
+
+    private List<Callable<Void>> getMultiPutTasks(Map<TableReference, ? extends Map<Cell, byte[]>> valuesByTable,
+            long timestamp) {
         List<Callable<Void>> callables = Lists.newArrayList();
         for (Entry<TableReference, ? extends Map<Cell, byte[]>> e : valuesByTable.entrySet()) {
             final TableReference table = e.getKey();
@@ -417,22 +479,7 @@ public final class DbKvs extends AbstractKeyValueService {
                 });
             }
         }
-
-        List<Future<Void>> futures;
-        try {
-            futures = executor.invokeAll(callables);
-        } catch (InterruptedException e) {
-            throw Throwables.throwUncheckedException(e);
-        }
-        for (Future<Void> future : futures) {
-            try {
-                future.get();
-            } catch (InterruptedException e) {
-                throw Throwables.throwUncheckedException(e);
-            } catch (ExecutionException e) {
-                throw Throwables.rewrapAndThrowUncheckedException(e.getCause());
-            }
-        }
+        return callables;
     }
 
     @Override
@@ -821,6 +868,19 @@ public final class DbKvs extends AbstractKeyValueService {
         return ret;
     }
 
+    @Override
+    public CompletableFuture<Map<byte[], RowColumnRangeIterator>> getRowsColumnRangeAsync(
+            TableReference tableRef,
+            Iterable<byte[]> rows,
+            BatchColumnRangeSelection batchColumnRangeSelection,
+            long timestamp) {
+        // The first page for all rows is loaded by a single query, so there is nothing to parallelise here beyond
+        // moving it off the calling thread.
+        return CompletableFuture.supplyAsync(
+                () -> getRowsColumnRange(tableRef, rows, batchColumnRangeSelection, timestamp),
+                executor);
+    }
+
     @Override
     public RowColumnRangeIterator getRowsColumnRange(TableReference tableRef,
                                                      Iterable<byte[]> rows,
@@ -16,6 +16,7 @@
 package com.palantir.atlasdb.keyvalue.dbkvs.impl.batch;
 
 import java.io.Closeable;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
 
 public interface BatchingTaskRunner extends Closeable {
@@ -34,6 +35,16 @@ public interface BatchingTaskRunner extends Closeable {
                              ResultAccumulatorStrategy<OutT> resultAccumulatingStrategy,
                              Function<InT, OutT> task);
 
+    /**
+     * Like {@link #runTask}, but does not block the calling thread. Batches are still run as blocking calls, on a
+     * background executor, and the returned future completes with the accumulated result once all batches have
+     * completed, or exceptionally as soon as any of them fails.
+     */
+    <InT, OutT> CompletableFuture<OutT> runTaskAsync(InT input,
+                                                     BatchingStrategy<InT> batchingStrategy,
+                                                     ResultAccumulatorStrategy<OutT> resultAccumulatingStrategy,
+                                                     Function<InT, OutT> task);
+
     @Override
     void close();
 }
@@ -15,9 +15,21 @@
  */
 package com.palantir.atlasdb.keyvalue.dbkvs.impl.batch;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.function.Function;
 
 public class ImmediateSingleBatchTaskRunner implements BatchingTaskRunner {
+    private final Executor asyncExecutor;
+
+    /**
+     * @param asyncExecutor executor used to run the single batch of {@link #runTaskAsync} calls. It is not owned by
+     *        this task runner and will not be shut down when it is closed.
+     */
+    public ImmediateSingleBatchTaskRunner(Executor asyncExecutor) {
+        this.asyncExecutor = asyncExecutor;
+    }
+
     @Override
     public <InT, OutT> OutT runTask(InT input,
                                     BatchingStrategy<InT> batchingStrategy,
@@ -26,6 +38,14 @@ public class ImmediateSingleBatchTaskRunner implements BatchingTaskRunner {
         return task.apply(input);
     }
 
+    @Override
+    public <InT, OutT> CompletableFuture<OutT> runTaskAsync(InT input,
+                                                            BatchingStrategy<InT> batchingStrategy,
+                                                            ResultAccumulatorStrategy<OutT> resultAccumulatingStrategy,
+                                                            Function<InT, OutT> task) {
+        return CompletableFuture.supplyAsync(() -> task.apply(input), asyncExecutor);
+    }
+
     @Override
     public void close() {
         // nothing to do
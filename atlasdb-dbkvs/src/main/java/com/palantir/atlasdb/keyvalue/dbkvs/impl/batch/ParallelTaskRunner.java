@@ -17,6 +17,7 @@ package com.palantir.atlasdb.keyvalue.dbkvs.impl.batch;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
@@ -52,6 +53,26 @@ public class ParallelTaskRunner implements BatchingTaskRunner {
         return result;
     }
 
+    @Override
+    public <InT, OutT> CompletableFuture<OutT> runTaskAsync(InT input,
+                                                            BatchingStrategy<InT> batchingStrategy,
+                                                            ResultAccumulatorStrategy<OutT> resultAccumulatingStrategy,
+                                                            Function<InT, OutT> task) {
+        Iterable<? extends InT> batches = batchingStrategy.partitionIntoBatches(input, batchSize);
+        List<CompletableFuture<OutT>> futures = new ArrayList<>();
+        for (InT batch : batches) {
+            futures.add(CompletableFuture.supplyAsync(() -> task.apply(batch), executor));
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]))
+                .thenApply(unused -> {
+                    OutT result = resultAccumulatingStrategy.createEmptyResult();
+                    for (CompletableFuture<OutT> future : futures) {
+                        resultAccumulatingStrategy.accumulateResult(result, future.join());
+                    }
+                    return result;
+                });
+    }
+
     private static <T> T getFutureUnchecked(Future<T> future) {
         try {
             return future.get();
@@ -0,0 +1,76 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.keyvalue.dbkvs.impl.postgres;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import com.palantir.atlasdb.keyvalue.api.Cell;
+
+/**
+ * Writes (row_name, col_name, ts, val) rows in the binary format of the Postgres COPY protocol.
+ *
+ * The stream consists of a fixed header, then for each row the number of fields followed by each field's length and
+ * raw bytes, then a trailer. Values are written in network byte order, which {@link DataOutputStream} uses.
+ */
+final class PostgresBinaryCopyWriter {
+    private static final byte[] SIGNATURE = {'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xff, '\r', '\n', 0};
+    private static final short FIELDS_PER_ROW = 4;
+    private static final int TIMESTAMP_LENGTH = Long.BYTES;
+    private static final short TRAILER = -1;
+
+    private final DataOutputStream out;
+
+    private PostgresBinaryCopyWriter(OutputStream out) {
+        this.out = new DataOutputStream(out);
+    }
+
+    static PostgresBinaryCopyWriter create(OutputStream out) throws IOException {
+        PostgresBinaryCopyWriter writer = new PostgresBinaryCopyWriter(out);
+        writer.writeHeader();
+        return writer;
+    }
+
+    private void writeHeader() throws IOException {
+        out.write(SIGNATURE);
+        // Flags field, followed by the length of the header extension area
+        out.writeInt(0);
+        out.writeInt(0);
+    }
+
+    void writeRow(Cell cell, long ts, byte[] val) throws IOException {
+        out.writeShort(FIELDS_PER_ROW);
+        writeBytes(cell.getRowName());
+        writeBytes(cell.getColumnName());
+        out.writeInt(TIMESTAMP_LENGTH);
+        out.writeLong(ts);
+        writeBytes(val);
+    }
+
+    private void writeBytes(byte[] bytes) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Writes the trailer and closes the underlying stream, which completes the COPY.
+     */
+    void finish() throws IOException {
+        out.writeShort(TRAILER);
+        out.close();
+    }
+}
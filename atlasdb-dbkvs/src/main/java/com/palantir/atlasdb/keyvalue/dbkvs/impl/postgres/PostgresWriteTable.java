@@ -15,18 +15,169 @@
  */
 package com.palantir.atlasdb.keyvalue.dbkvs.impl.postgres;
 
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.KeyAlreadyExistsException;
 import com.palantir.atlasdb.keyvalue.api.TableReference;
-import com.palantir.atlasdb.keyvalue.dbkvs.DdlConfig;
+import com.palantir.atlasdb.keyvalue.api.Value;
+import com.palantir.atlasdb.keyvalue.dbkvs.PostgresDdlConfig;
 import com.palantir.atlasdb.keyvalue.dbkvs.impl.AbstractDbWriteTable;
 import com.palantir.atlasdb.keyvalue.dbkvs.impl.ConnectionSupplier;
 import com.palantir.atlasdb.keyvalue.dbkvs.impl.PrefixedTableNames;
+import com.palantir.exception.PalantirSqlException;
+import com.palantir.nexus.db.sql.ExceptionCheck;
 
+/**
+ * Writes large batches of cells by streaming them into a temporary staging table with the binary COPY protocol, and
+ * then merging the staging table into the target table with a single INSERT. Smaller batches, and connections that
+ * are not backed by the Postgres JDBC driver, use the batched INSERT of {@link AbstractDbWriteTable}.
+ *
+ * The merge runs in the same transaction as the COPY, so a batch is written atomically and a primary key violation
+ * leaves the target table untouched, as with a batched INSERT.
+ */
 public class PostgresWriteTable extends AbstractDbWriteTable {
+    private static final Logger log = LoggerFactory.getLogger(PostgresWriteTable.class);
+
+    // Every AtlasDB table has the same columns, so one staging table per session can serve all of them. Its rows are
+    // removed when each write commits, or discarded if it rolls back.
+    private static final String STAGING_TABLE = "atlasdb_copy_staging";
+    private static final String CREATE_STAGING_TABLE = "CREATE TEMPORARY TABLE IF NOT EXISTS " + STAGING_TABLE + " ("
+            + "  row_name   BYTEA NOT NULL,"
+            + "  col_name   BYTEA NOT NULL,"
+            + "  ts         INT8 NOT NULL,"
+            + "  val        BYTEA"
+            + ") ON COMMIT DELETE ROWS";
+    private static final String COPY_INTO_STAGING_TABLE = "COPY " + STAGING_TABLE
+            + " (row_name, col_name, ts, val) FROM STDIN WITH (FORMAT BINARY)";
+    private static final int COPY_BUFFER_SIZE_BYTES = 64 * 1024;
+
+    private static final AtomicBoolean loggedCopyUnsupported = new AtomicBoolean(false);
+
+    private final int copyWriteThresholdCells;
+    private final PrefixedTableNames prefixedTableNames;
+
     public PostgresWriteTable(
-            DdlConfig config,
+            PostgresDdlConfig config,
             ConnectionSupplier conns,
             TableReference tableRef,
             PrefixedTableNames prefixedTableNames) {
         super(config, conns, tableRef, prefixedTableNames);
+        this.copyWriteThresholdCells = config.copyWriteThresholdCells();
+        this.prefixedTableNames = prefixedTableNames;
+    }
+
+    @Override
+    public void put(Collection<Map.Entry<Cell, byte[]>> data, long ts) {
+        if (data.size() < copyWriteThresholdCells || !copy(writer -> {
+            for (Map.Entry<Cell, byte[]> entry : data) {
+                writer.writeRow(entry.getKey(), ts, entry.getValue());
+            }
+        })) {
+            super.put(data, ts);
+        }
+    }
+
+    @Override
+    public void put(Collection<Map.Entry<Cell, Value>> data) {
+        if (data.size() < copyWriteThresholdCells || !copy(writer -> {
+            for (Map.Entry<Cell, Value> entry : data) {
+                writer.writeRow(entry.getKey(), entry.getValue().getTimestamp(), entry.getValue().getContents());
+            }
+        })) {
+            super.put(data);
+        }
+    }
+
+    /**
+     * Copies the rows written by {@code rows} into the target table. Returns false, having written nothing, if the
+     * connection does not support COPY, or is already part of a transaction. In the latter case the staging table
+     * would not be cleared between writes, and we would not be able to make the write atomic.
+     */
+    private boolean copy(CopyTask rows) {
+        Connection connection = conns.get().getUnderlyingConnection();
+        try {
+            if (!connection.isWrapperFor(PGConnection.class)) {
+                logCopyUnsupportedOnce();
+                return false;
+            }
+            if (!connection.getAutoCommit()) {
+                return false;
+            }
+            String prefixedTableName = prefixedTableNames.get(tableRef, conns);
+            runInTransaction(connection, () -> {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute(CREATE_STAGING_TABLE);
+                    copyIntoStagingTable(connection.unwrap(PGConnection.class), rows);
+                    statement.executeUpdate("/* COPY_MERGE (" + prefixedTableName + ") */"
+                            + " INSERT INTO " + prefixedTableName + " (row_name, col_name, ts, val)"
+                            + " SELECT row_name, col_name, ts, val FROM " + STAGING_TABLE);
+                }
+            });
+            return true;
+        } catch (SQLException | IOException e) {
+            PalantirSqlException sqlException = new PalantirSqlException(
+                    "Failed to write to " + tableRef + " using COPY", e);
+            if (ExceptionCheck.isUniqueConstraintViolation(sqlException)) {
+                throw new KeyAlreadyExistsException("primary key violation", sqlException);
+            }
+            throw sqlException;
+        }
+    }
+
+    private static void logCopyUnsupportedOnce() {
+        if (loggedCopyUnsupported.compareAndSet(false, true)) {
+            log.warn("Could not use COPY to write to Postgres, because the connection is not backed by the"
+                    + " Postgres JDBC driver. Falling back to batched inserts.");
+        }
+    }
+
+    private static void copyIntoStagingTable(PGConnection connection, CopyTask rows)
+            throws SQLException, IOException {
+        PGCopyOutputStream copyStream = new PGCopyOutputStream(
+                connection, COPY_INTO_STAGING_TABLE, COPY_BUFFER_SIZE_BYTES);
+        try {
+            PostgresBinaryCopyWriter writer = PostgresBinaryCopyWriter.create(copyStream);
+            rows.writeTo(writer);
+            writer.finish();
+        } finally {
+            if (copyStream.isActive()) {
+                copyStream.cancelCopy();
+            }
+        }
+    }
+
+    private static void runInTransaction(Connection connection, SqlTask task) throws SQLException, IOException {
+        connection.setAutoCommit(false);
+        try {
+            task.run();
+            connection.commit();
+        } catch (SQLException | IOException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    @FunctionalInterface
+    private interface CopyTask {
+        void writeTo(PostgresBinaryCopyWriter writer) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface SqlTask {
+        void run() throws SQLException, IOException;
     }
 }
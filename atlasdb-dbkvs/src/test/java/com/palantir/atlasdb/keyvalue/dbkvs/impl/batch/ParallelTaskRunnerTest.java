@@ -0,0 +1,92 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.keyvalue.dbkvs.impl.batch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class ParallelTaskRunnerTest {
+    private static final int BATCH_SIZE = 3;
+    private static final Map<Integer, Integer> INPUT = IntStream.range(0, 10).boxed()
+            .collect(Collectors.toMap(Function.identity(), Function.identity()));
+
+    private final ParallelTaskRunner taskRunner = new ParallelTaskRunner(Executors.newFixedThreadPool(4), BATCH_SIZE);
+    private final Set<String> threadNames = ConcurrentHashMap.newKeySet();
+
+    @After
+    public void tearDown() {
+        taskRunner.close();
+    }
+
+    @Test
+    public void runTaskAsyncAccumulatesResultsOfAllBatches() {
+        Map<Integer, Integer> result = taskRunner.runTaskAsync(
+                INPUT,
+                BatchingStrategies.forMap(),
+                AccumulatorStrategies.forMap(),
+                this::doubleValues).join();
+
+        assertThat(result).hasSize(10);
+        INPUT.forEach((key, value) -> assertThat(result).containsEntry(key, 2 * value));
+    }
+
+    @Test
+    public void runTaskAsyncRunsBatchesOnTheExecutor() {
+        taskRunner.runTaskAsync(
+                INPUT,
+                BatchingStrategies.forMap(),
+                AccumulatorStrategies.forMap(),
+                this::doubleValues).join();
+
+        assertThat(threadNames).isNotEmpty().doesNotContain(Thread.currentThread().getName());
+    }
+
+    @Test
+    public void runTaskAsyncFailsIfAnyBatchFails() {
+        CompletableFuture<Map<Integer, Integer>> result = taskRunner.runTaskAsync(
+                INPUT,
+                BatchingStrategies.forMap(),
+                AccumulatorStrategies.forMap(),
+                batch -> {
+                    if (batch.containsKey(9)) {
+                        throw new IllegalStateException("boom");
+                    }
+                    return doubleValues(batch);
+                });
+
+        assertThatThrownBy(result::join)
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(IllegalStateException.class);
+    }
+
+    private Map<Integer, Integer> doubleValues(Map<Integer, Integer> batch) {
+        threadNames.add(Thread.currentThread().getName());
+        return batch.entrySet().stream().collect(Collectors.toMap(Map.Entry::getKey, entry -> 2 * entry.getValue()));
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.keyvalue.dbkvs.impl.postgres;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import org.junit.Test;
+
+import com.google.common.io.BaseEncoding;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+
+public class PostgresBinaryCopyWriterTest {
+    private static final String HEADER = "5047434f50590aff0d0a00" + "00000000" + "00000000";
+    private static final String TRAILER = "ffff";
+
+    @Test
+    public void writesHeaderAndTrailerForNoRows() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PostgresBinaryCopyWriter.create(out).finish();
+
+        assertThat(hex(out)).isEqualTo(HEADER + TRAILER);
+    }
+
+    @Test
+    public void writesEachFieldWithItsLength() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PostgresBinaryCopyWriter writer = PostgresBinaryCopyWriter.create(out);
+        writer.writeRow(Cell.create(new byte[] {1, 2}, new byte[] {3}), 258L, new byte[0]);
+        writer.finish();
+
+        assertThat(hex(out)).isEqualTo(HEADER
+                + "0004"
+                + "00000002" + "0102"
+                + "00000001" + "03"
+                + "00000008" + "0000000000000102"
+                + "00000000"
+                + TRAILER);
+    }
+
+    private static String hex(ByteArrayOutputStream out) {
+        return BaseEncoding.base16().lowerCase().encode(out.toByteArray());
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.keyvalue.embedded;
+
+import java.util.Optional;
+
+import org.immutables.value.Value;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonTypeName;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.google.auto.service.AutoService;
+import com.google.common.base.Preconditions;
+import com.palantir.atlasdb.spi.KeyValueServiceConfig;
+
+/**
+ * Configuration for {@link EmbeddedKeyValueService}, a durable key value service stored in a local directory.
+ */
+@AutoService(KeyValueServiceConfig.class)
+@JsonDeserialize(as = ImmutableEmbeddedKeyValueConfig.class)
+@JsonSerialize(as = ImmutableEmbeddedKeyValueConfig.class)
+@JsonTypeName(EmbeddedKeyValueConfig.TYPE)
+@Value.Immutable
+public abstract class EmbeddedKeyValueConfig implements KeyValueServiceConfig {
+    public static final String TYPE = "embedded";
+
+    @Override
+    @JsonIgnore
+    @Value.Derived
+    public Optional<String> namespace() {
+        return Optional.empty();
+    }
+
+    @Override
+    public final String type() {
+        return TYPE;
+    }
+
+    /**
+     * The directory in which all data is stored. It is created if it does not exist, and may only be used by one
+     * key value service at a time.
+     */
+    public abstract String dataDirectory();
+
+    /**
+     * Once the writes held in memory for a table reach approximately this size, they are flushed to a new segment
+     * on disk in the background.
+     */
+    @Value.Default
+    public long memtableFlushThresholdBytes() {
+        return 64L * 1024 * 1024;
+    }
+
+    /**
+     * Segments of a table are compacted in the background once the table has more than this many segments.
+     */
+    @Value.Default
+    public int maxSegmentsPerTable() {
+        return 8;
+    }
+
+    /**
+     * The approximate size of the blocks in which segments are read from disk.
+     */
+    @Value.Default
+    public int blockSizeBytes() {
+        return 16 * 1024;
+    }
+
+    /**
+     * The false positive probability of the bloom filter of the cells in each segment, which lets lookups of cells
+     * skip segments that do not contain them.
+     */
+    @Value.Default
+    public double bloomFilterFalsePositiveProbability() {
+        return 0.01;
+    }
+
+    /**
+     * If true, every write is synced to disk before it returns, so that it survives a crash of the machine as well as
+     * of the process. If false, writes that were not yet written back by the operating system may be lost if the
+     * machine crashes.
+     */
+    @Value.Default
+    public boolean syncWrites() {
+        return true;
+    }
+
+    /**
+     * The number of threads used to flush and compact tables in the background.
+     */
+    @Value.Default
+    public int backgroundThreads() {
+        return 2;
+    }
+
+    @Override
+    @Value.Default
+    public int concurrentGetRangesThreadPoolSize() {
+        return 16;
+    }
+
+    @Value.Check
+    void check() {
+        Preconditions.checkArgument(memtableFlushThresholdBytes() > 0,
+                "memtableFlushThresholdBytes must be positive, but is %s", memtableFlushThresholdBytes());
+        Preconditions.checkArgument(maxSegmentsPerTable() > 1,
+                "maxSegmentsPerTable must be greater than 1, but is %s", maxSegmentsPerTable());
+        Preconditions.checkArgument(blockSizeBytes() > 0,
+                "blockSizeBytes must be positive, but is %s", blockSizeBytes());
+        Preconditions.checkArgument(bloomFilterFalsePositiveProbability() > 0.0
+                        && bloomFilterFalsePositiveProbability() < 1.0,
+                "bloomFilterFalsePositiveProbability must be between 0 and 1 exclusive, but is %s",
+                bloomFilterFalsePositiveProbability());
+        Preconditions.checkArgument(backgroundThreads() > 0,
+                "backgroundThreads must be positive, but is %s", backgroundThreads());
+    }
+}
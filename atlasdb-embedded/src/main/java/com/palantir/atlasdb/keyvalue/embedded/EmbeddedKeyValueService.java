@@ -0,0 +1,781 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.keyvalue.embedded;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Multimap;
+import com.google.common.collect.PeekingIterator;
+import com.google.common.collect.Sets;
+import com.google.common.io.MoreFiles;
+import com.google.common.io.RecursiveDeleteOption;
+import com.google.common.primitives.UnsignedBytes;
+import com.palantir.atlasdb.AtlasDbConstants;
+import com.palantir.atlasdb.keyvalue.api.BatchColumnRangeSelection;
+import com.palantir.atlasdb.keyvalue.api.CandidateCellForSweeping;
+import com.palantir.atlasdb.keyvalue.api.CandidateCellForSweepingRequest;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.CheckAndSetCompatibility;
+import com.palantir.atlasdb.keyvalue.api.CheckAndSetException;
+import com.palantir.atlasdb.keyvalue.api.CheckAndSetRequest;
+import com.palantir.atlasdb.keyvalue.api.ClusterAvailabilityStatus;
+import com.palantir.atlasdb.keyvalue.api.ColumnRangeSelection;
+import com.palantir.atlasdb.keyvalue.api.ColumnSelection;
+import com.palantir.atlasdb.keyvalue.api.KeyAlreadyExistsException;
+import com.palantir.atlasdb.keyvalue.api.Namespace;
+import com.palantir.atlasdb.keyvalue.api.RangeRequest;
+import com.palantir.atlasdb.keyvalue.api.RangeRequests;
+import com.palantir.atlasdb.keyvalue.api.RowColumnRangeIterator;
+import com.palantir.atlasdb.keyvalue.api.RowResult;
+import com.palantir.atlasdb.keyvalue.api.TableReference;
+import com.palantir.atlasdb.keyvalue.api.Value;
+import com.palantir.atlasdb.keyvalue.impl.AbstractKeyValueService;
+import com.palantir.atlasdb.keyvalue.impl.Cells;
+import com.palantir.atlasdb.keyvalue.impl.GetCandidateCellsForSweepingShim;
+import com.palantir.atlasdb.keyvalue.impl.KeyValueServices;
+import com.palantir.atlasdb.keyvalue.impl.LocalRowColumnRangeIterator;
+import com.palantir.common.annotation.Output;
+import com.palantir.common.base.ClosableIterator;
+import com.palantir.common.base.ClosableIterators;
+import com.palantir.common.base.Throwables;
+import com.palantir.common.concurrent.NamedThreadFactory;
+import com.palantir.common.concurrent.PTExecutors;
+import com.palantir.logsafe.SafeArg;
+import com.palantir.util.paging.TokenBackedBasicResultsPage;
+
+/**
+ * A durable key value service that stores its data in a local directory, for services that want to run AtlasDB on a
+ * single node without an external database.
+ * <p>
+ * Each table is stored in its own {@link LsmTree}, keyed by cell and timestamp, so writes are sequential appends and
+ * reads of recent data are served from memory. Only one key value service may use a data directory at a time, which
+ * is enforced with a file lock.
+ */
+@ThreadSafe
+public final class EmbeddedKeyValueService extends AbstractKeyValueService {
+    private static final Logger log = LoggerFactory.getLogger(EmbeddedKeyValueService.class);
+
+    private static final String LOCK_FILE_NAME = "LOCK";
+    private static final String TABLES_DIRECTORY_NAME = "tables";
+    private static final String TABLE_FILE_NAME = "TABLE";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final String DROPPED_SUFFIX = ".dropped";
+
+    private final EmbeddedKeyValueConfig config;
+    private final Path tablesDirectory;
+    private final FileLock directoryLock;
+    private final ExecutorService backgroundExecutor;
+    private final ConcurrentMap<TableReference, EmbeddedTable> tables = new ConcurrentHashMap<>();
+    private final Object tableLifecycleLock = new Object();
+    private final AtomicLong nextTableNumber = new AtomicLong();
+
+    private EmbeddedKeyValueService(EmbeddedKeyValueConfig config, Path tablesDirectory, FileLock directoryLock) {
+        super(createFixedThreadPool("Atlas Embedded KVS", config.concurrentGetRangesThreadPoolSize()));
+        this.config = config;
+        this.tablesDirectory = tablesDirectory;
+        this.directoryLock = directoryLock;
+        this.backgroundExecutor = PTExecutors.newFixedThreadPool(config.backgroundThreads(),
+                new NamedThreadFactory("embedded-kvs-background", true));
+    }
+
+    /**
+     * Opens the key value service stored in the configured data directory, creating it if it does not exist.
+     *
+     * @throws IllegalStateException if the data directory is already in use by another key value service
+     */
+    public static EmbeddedKeyValueService create(EmbeddedKeyValueConfig config) {
+        Path dataDirectory = Paths.get(config.dataDirectory());
+        Path tablesDirectory = dataDirectory.resolve(TABLES_DIRECTORY_NAME);
+        FileChannel lockChannel = null;
+        try {
+            Files.createDirectories(tablesDirectory);
+            lockChannel = FileChannel.open(dataDirectory.resolve(LOCK_FILE_NAME),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            FileLock directoryLock = tryLock(lockChannel);
+            if (directoryLock == null) {
+                throw new IllegalStateException("The data directory " + dataDirectory
+                        + " is already in use by another embedded key value service");
+            }
+            EmbeddedKeyValueService kvs = new EmbeddedKeyValueService(config, tablesDirectory, directoryLock);
+            try {
+                kvs.openTables();
+            } catch (IOException | RuntimeException e) {
+                kvs.close();
+                throw e;
+            }
+            return kvs;
+        } catch (IOException e) {
+            closeQuietly(lockChannel);
+            throw Throwables.rewrapAndThrowUncheckedException("Failed to open " + dataDirectory, e);
+        } catch (RuntimeException e) {
+            closeQuietly(lockChannel);
+            throw e;
+        }
+    }
+
+    @Nullable
+    private static FileLock tryLock(FileChannel lockChannel) throws IOException {
+        try {
+            return lockChannel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            // Held by another key value service in this process
+            return null;
+        }
+    }
+
+    private void openTables() throws IOException {
+        long maxTableNumber = -1L;
+        try (DirectoryStream<Path> directories = Files.newDirectoryStream(tablesDirectory)) {
+            for (Path directory : directories) {
+                String name = directory.getFileName().toString();
+                if (name.endsWith(TEMP_SUFFIX) || name.endsWith(DROPPED_SUFFIX)) {
+                    // Left behind by a table creation or drop that did not complete
+                    MoreFiles.deleteRecursively(directory, RecursiveDeleteOption.ALLOW_INSECURE);
+                    continue;
+                }
+                maxTableNumber = Math.max(maxTableNumber, Long.parseLong(name));
+                TableFile tableFile = TableFile.read(directory);
+                LsmTree tree = LsmTree.open(directory, config, backgroundExecutor);
+                tables.put(tableFile.tableRef, new EmbeddedTable(directory, tree, tableFile.metadata));
+            }
+        }
+        nextTableNumber.set(maxTableNumber + 1);
+        log.info("Opened {} tables in {}",
+                SafeArg.of("tables", tables.size()),
+                SafeArg.of("directory", tablesDirectory.toString()));
+    }
+
+    @Override
+    @SuppressWarnings("CheckReturnValue") // Consume all remaining values of iterator.
+    public Map<Cell, Value> getRows(TableReference tableRef, Iterable<byte[]> rows,
+            ColumnSelection columnSelection, long timestamp) {
+        LsmTree tree = getTable(tableRef).tree;
+        Map<Cell, Value> result = new HashMap<>();
+        for (byte[] row : rows) {
+            KeyRange range = KeyRange.closedOpen(
+                    new LsmKey(Cells.createSmallestCellForRow(row), Long.MIN_VALUE),
+                    new LsmKey(Cells.createLargestCellForRow(row), timestamp));
+            try (ClosableIterator<Map.Entry<LsmKey, byte[]>> scan = tree.scan(range, false, null)) {
+                PeekingIterator<Map.Entry<LsmKey, byte[]>> entries = Iterators.peekingIterator(scan);
+                while (entries.hasNext()) {
+                    LsmKey key = entries.peek().getKey();
+                    Iterator<Map.Entry<LsmKey, byte[]>> cellIter = takeCell(entries, key);
+                    if (columnSelection.contains(key.col)) {
+                        getLatestVersionOfCell(row, key, cellIter, timestamp, result);
+                    }
+                    Iterators.size(cellIter);
+                }
+            }
+        }
+        return result;
+    }
+
+    private static void getLatestVersionOfCell(byte[] row, LsmKey key, Iterator<Map.Entry<LsmKey, byte[]>> cellIter,
+            long timestamp, @Output Map<Cell, Value> result) {
+        Map.Entry<LsmKey, byte[]> lastEntry = null;
+        while (cellIter.hasNext()) {
+            Map.Entry<LsmKey, byte[]> curEntry = cellIter.next();
+            if (curEntry.getKey().ts >= timestamp) {
+                break;
+            }
+            lastEntry = curEntry;
+        }
+        if (lastEntry != null) {
+            long ts = lastEntry.getKey().ts;
+            result.put(Cell.create(row, key.col), Value.createWithCopyOfData(lastEntry.getValue(), ts));
+        }
+    }
+
+    @Override
+    public Map<Cell, Value> get(TableReference tableRef, Map<Cell, Long> timestampByCell) {
+        LsmTree tree = getTable(tableRef).tree;
+        Map<Cell, Value> result = new HashMap<>();
+        for (Map.Entry<Cell, Long> e : timestampByCell.entrySet()) {
+            Cell cell = e.getKey();
+            KeyRange range = KeyRange.closedOpen(new LsmKey(cell, Long.MIN_VALUE), new LsmKey(cell, e.getValue()));
+            try (ClosableIterator<Map.Entry<LsmKey, byte[]>> latest = tree.scan(range, true, cell)) {
+                if (latest.hasNext()) {
+                    Map.Entry<LsmKey, byte[]> entry = latest.next();
+                    result.put(cell, Value.createWithCopyOfData(entry.getValue(), entry.getKey().ts));
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Map<RangeRequest, TokenBackedBasicResultsPage<RowResult<Value>, byte[]>> getFirstBatchForRanges(
+            TableReference tableRef,
+            Iterable<RangeRequest> rangeRequests,
+            long timestamp) {
+        return KeyValueServices.getFirstBatchForRangesUsingGetRange(this, tableRef, rangeRequests, timestamp);
+    }
+
+    @Override
+    public ClosableIterator<RowResult<Value>> getRange(TableReference tableRef, RangeRequest range, long timestamp) {
+        boolean reversed = range.isReverse();
+        return getRangeInternal(tableRef, range, entries -> {
+            Map.Entry<LsmKey, byte[]> lastEntry = null;
+            while (entries.hasNext()) {
+                Map.Entry<LsmKey, byte[]> entry = entries.next();
+                if (reversed && entry.getKey().ts < timestamp) {
+                    lastEntry = entry;
+                    break;
+                } else if (!reversed && entry.getKey().ts >= timestamp) {
+                    break;
+                } else if (!reversed) {
+                    lastEntry = entry;
+                }
+            }
+            if (lastEntry != null) {
+                return Value.createWithCopyOfData(lastEntry.getValue(), lastEntry.getKey().ts);
+            } else {
+                return null;
+            }
+        });
+    }
+
+    @Override
+    public ClosableIterator<RowResult<Set<Long>>> getRangeOfTimestamps(
+            TableReference tableRef,
+            RangeRequest range,
+            long timestamp) {
+        return getRangeInternal(tableRef, range, entries -> {
+            Set<Long> timestamps = Sets.newTreeSet();
+            while (entries.hasNext()) {
+                long ts = entries.next().getKey().ts;
+                if (ts < timestamp) {
+                    timestamps.add(ts);
+                }
+            }
+            if (!timestamps.isEmpty()) {
+                return timestamps;
+            } else {
+                return null;
+            }
+        });
+    }
+
+    @Override
+    public ClosableIterator<List<CandidateCellForSweeping>> getCandidateCellsForSweeping(TableReference tableRef,
+            CandidateCellForSweepingRequest request) {
+        return new GetCandidateCellsForSweepingShim(this).getCandidateCellsForSweeping(tableRef, request);
+    }
+
+    private <T> ClosableIterator<RowResult<T>> getRangeInternal(TableReference tableRef,
+            RangeRequest range,
+            ResultProducer<T> resultProducer) {
+        LsmTree tree = getTable(tableRef).tree;
+        ClosableIterator<Map.Entry<LsmKey, byte[]>> scan = tree.scan(toKeyRange(range), range.isReverse(), null);
+        PeekingIterator<Map.Entry<LsmKey, byte[]>> it = Iterators.peekingIterator(scan);
+        return ClosableIterators.wrap(new AbstractIterator<RowResult<T>>() {
+            @Override
+            protected RowResult<T> computeNext() {
+                while (true) {
+                    if (!it.hasNext()) {
+                        return endOfData();
+                    }
+                    ImmutableSortedMap.Builder<byte[], T> result = ImmutableSortedMap.orderedBy(
+                            UnsignedBytes.lexicographicalComparator());
+                    LsmKey key = it.peek().getKey();
+                    byte[] row = key.row;
+                    Iterator<Map.Entry<LsmKey, byte[]>> cellIter = takeCell(it, key);
+                    collectValueForTimestamp(key.col, cellIter, result, range, resultProducer);
+
+                    while (it.hasNext()) {
+                        if (!it.peek().getKey().matchesRow(row)) {
+                            break;
+                        }
+                        key = it.peek().getKey();
+                        cellIter = takeCell(it, key);
+                        collectValueForTimestamp(key.col, cellIter, result, range, resultProducer);
+                    }
+                    SortedMap<byte[], T> columns = result.build();
+                    if (!columns.isEmpty()) {
+                        return RowResult.create(row, columns);
+                    }
+                }
+            }
+        }, scan);
+    }
+
+    private static KeyRange toKeyRange(RangeRequest range) {
+        byte[] start = range.getStartInclusive();
+        byte[] end = range.getEndExclusive();
+        if (range.isReverse()) {
+            LsmKey upper = start.length == 0 ? null : new LsmKey(Cells.createLargestCellForRow(start), Long.MIN_VALUE);
+            LsmKey lower = end.length == 0 ? null : new LsmKey(Cells.createLargestCellForRow(end), Long.MAX_VALUE);
+            return new KeyRange(lower, false, upper, true);
+        } else {
+            LsmKey lower = start.length == 0 ? null : new LsmKey(Cells.createSmallestCellForRow(start), Long.MIN_VALUE);
+            LsmKey upper = end.length == 0 ? null : new LsmKey(Cells.createSmallestCellForRow(end), Long.MAX_VALUE);
+            return new KeyRange(lower, true, upper, false);
+        }
+    }
+
+    private static Iterator<Map.Entry<LsmKey, byte[]>> takeCell(PeekingIterator<Map.Entry<LsmKey, byte[]>> it,
+            LsmKey key) {
+        return new AbstractIterator<Map.Entry<LsmKey, byte[]>>() {
+            @Override
+            protected Map.Entry<LsmKey, byte[]> computeNext() {
+                if (it.hasNext() && it.peek().getKey().matchesCell(key)) {
+                    return it.next();
+                }
+                return endOfData();
+            }
+        };
+    }
+
+    private interface ResultProducer<T> {
+        @Nullable T apply(Iterator<Map.Entry<LsmKey, byte[]>> timestampValues);
+    }
+
+    @SuppressWarnings("CheckReturnValue") // Consume all remaining values of iterator.
+    private static <T> void collectValueForTimestamp(byte[] col,
+            Iterator<Map.Entry<LsmKey, byte[]>> timestampValues,
+            @Output ImmutableSortedMap.Builder<byte[], T> results,
+            RangeRequest range,
+            ResultProducer<T> resultProducer) {
+        T result = null;
+        if (range.containsColumn(col)) {
+            result = resultProducer.apply(timestampValues);
+        }
+
+        // exhaust remaining entries
+        Iterators.size(timestampValues);
+        if (result != null) {
+            results.put(col, result);
+        }
+    }
+
+    @Override
+    public Map<byte[], RowColumnRangeIterator> getRowsColumnRange(TableReference tableRef,
+            Iterable<byte[]> rows,
+            BatchColumnRangeSelection batchColumnRangeSelection,
+            long timestamp) {
+        LsmTree tree = getTable(tableRef).tree;
+        ColumnRangeSelection columnRangeSelection = new ColumnRangeSelection(
+                batchColumnRangeSelection.getStartCol(),
+                batchColumnRangeSelection.getEndCol());
+        Map<byte[], RowColumnRangeIterator> result = new HashMap<>();
+        for (byte[] row : rows) {
+            result.put(row, getColumnRangeForSingleRow(tree, row, columnRangeSelection, timestamp));
+        }
+        return result;
+    }
+
+    @Override
+    public RowColumnRangeIterator getRowsColumnRange(TableReference tableRef,
+            Iterable<byte[]> rows,
+            ColumnRangeSelection columnRangeSelection,
+            int cellBatchHint,
+            long timestamp) {
+        LsmTree tree = getTable(tableRef).tree;
+        Iterator<RowColumnRangeIterator> rowColumnRanges = Iterators.transform(rows.iterator(),
+                row -> getColumnRangeForSingleRow(tree, row, columnRangeSelection, timestamp));
+        return new LocalRowColumnRangeIterator(Iterators.concat(rowColumnRanges));
+    }
+
+    private static RowColumnRangeIterator getColumnRangeForSingleRow(LsmTree tree,
+            byte[] row,
+            ColumnRangeSelection columnRangeSelection,
+            long timestamp) {
+        Cell rowBegin;
+        if (columnRangeSelection.getStartCol().length > 0) {
+            rowBegin = Cell.create(row, columnRangeSelection.getStartCol());
+        } else {
+            rowBegin = Cells.createSmallestCellForRow(row);
+        }
+        // Inclusive last cell.
+        Cell rowEnd;
+        if (columnRangeSelection.getEndCol().length > 0) {
+            rowEnd = Cell.create(row, RangeRequests.previousLexicographicName(columnRangeSelection.getEndCol()));
+        } else {
+            rowEnd = Cells.createLargestCellForRow(row);
+        }
+        KeyRange range = KeyRange.closedOpen(new LsmKey(rowBegin, Long.MIN_VALUE), new LsmKey(rowEnd, timestamp));
+        Map<Cell, Value> rowResults = new LinkedHashMap<>();
+        try (ClosableIterator<Map.Entry<LsmKey, byte[]>> scan = tree.scan(range, false, null)) {
+            PeekingIterator<Map.Entry<LsmKey, byte[]>> entries = Iterators.peekingIterator(scan);
+            while (entries.hasNext()) {
+                LsmKey key = entries.peek().getKey();
+                getLatestVersionOfCell(row, key, takeCell(entries, key), timestamp, rowResults);
+            }
+        }
+        return new LocalRowColumnRangeIterator(rowResults.entrySet().iterator());
+    }
+
+    @Override
+    public void multiPut(Map<TableReference, ? extends Map<Cell, byte[]>> valuesByTable, long timestamp) {
+        valuesByTable.forEach((tableRef, values) -> put(tableRef, values, timestamp));
+    }
+
+    @Override
+    public void put(TableReference tableRef, Map<Cell, byte[]> values, long timestamp) {
+        putInternal(tableRef, KeyValueServices.toConstantTimestampValues(values.entrySet(), timestamp), false);
+    }
+
+    @Override
+    public void putWithTimestamps(TableReference tableRef, Multimap<Cell, Value> values) {
+        putInternal(tableRef, values.entries(), false);
+    }
+
+    @Override
+    public void putUnlessExists(TableReference tableRef, Map<Cell, byte[]> values)
+            throws KeyAlreadyExistsException {
+        putInternal(tableRef,
+                KeyValueServices.toConstantTimestampValues(values.entrySet(), AtlasDbConstants.TRANSACTION_TS),
+                true);
+    }
+
+    private void putInternal(
+            TableReference tableRef,
+            Collection<Map.Entry<Cell, Value>> values,
+            boolean doNotOverwriteWithSameValue) {
+        LsmTree tree = getTable(tableRef).tree;
+        List<Map.Entry<Cell, Value>> cellValues = ImmutableList.copyOf(values);
+        List<Map.Entry<LsmKey, byte[]>> entries = new ArrayList<>(cellValues.size());
+        for (Map.Entry<Cell, Value> entry : cellValues) {
+            LsmKey key = new LsmKey(entry.getKey(), entry.getValue().getTimestamp());
+            entries.add(LsmEntries.entry(key, copyOf(entry.getValue().getContents())));
+        }
+
+        int written = 0;
+        while (written < entries.size()) {
+            LsmTree.ExistingValue existing = tree.putIfAbsent(entries.subList(written, entries.size()));
+            if (existing == null) {
+                return;
+            }
+            int index = written + existing.index;
+            if (doNotOverwriteWithSameValue || !Arrays.equals(existing.value, entries.get(index).getValue())) {
+                List<Cell> knownSuccessfullyCommittedKeys = new ArrayList<>(index);
+                for (int i = 0; i < index; i++) {
+                    knownSuccessfullyCommittedKeys.add(cellValues.get(i).getKey());
+                }
+                throw new KeyAlreadyExistsException("We already have a value for this timestamp",
+                        ImmutableList.of(cellValues.get(index).getKey()), knownSuccessfullyCommittedKeys);
+            }
+            written = index + 1;
+        }
+    }
+
+    @Override
+    public CheckAndSetCompatibility getCheckAndSetCompatibility() {
+        return CheckAndSetCompatibility.SUPPORTED_DETAIL_ON_FAILURE;
+    }
+
+    @Override
+    public void checkAndSet(CheckAndSetRequest request) throws CheckAndSetException {
+        TableReference tableRef = request.table();
+        LsmTree tree = getTable(tableRef).tree;
+        Cell cell = request.cell();
+        Optional<byte[]> oldValue = request.oldValue();
+        byte[] contents = copyOf(request.newValue());
+
+        LsmKey key = new LsmKey(cell, AtlasDbConstants.TRANSACTION_TS);
+        if (oldValue.isPresent()) {
+            if (!tree.replace(key, oldValue.get(), contents)) {
+                throwCheckAndSetException(cell, tableRef, oldValue.get(), tree.get(key));
+            }
+        } else {
+            LsmTree.ExistingValue existing = tree.putIfAbsent(ImmutableList.of(LsmEntries.entry(key, contents)));
+            if (existing != null) {
+                throwCheckAndSetException(cell, tableRef, null, existing.value);
+            }
+        }
+    }
+
+    private static void throwCheckAndSetException(Cell cell, TableReference tableRef, byte[] expected,
+            @Nullable byte[] actual) {
+        ImmutableList<byte[]> actuals = actual == null ? ImmutableList.of() : ImmutableList.of(actual);
+        throw new CheckAndSetException(cell, tableRef, expected, actuals);
+    }
+
+    @Override
+    public void delete(TableReference tableRef, Multimap<Cell, Long> keys) {
+        List<Map.Entry<LsmKey, byte[]>> tombstones = new ArrayList<>(keys.size());
+        for (Map.Entry<Cell, Long> e : keys.entries()) {
+            tombstones.add(LsmEntries.entry(new LsmKey(e.getKey(), e.getValue()), LsmEntries.TOMBSTONE));
+        }
+        getTable(tableRef).tree.write(tombstones);
+    }
+
+    @Override
+    public Multimap<Cell, Long> getAllTimestamps(TableReference tableRef, Set<Cell> cells, long ts) {
+        LsmTree tree = getTable(tableRef).tree;
+        Multimap<Cell, Long> multimap = HashMultimap.create();
+        for (Cell cell : cells) {
+            KeyRange range = KeyRange.closedOpen(new LsmKey(cell, Long.MIN_VALUE), new LsmKey(cell, ts));
+            try (ClosableIterator<Map.Entry<LsmKey, byte[]>> versions = tree.scan(range, false, cell)) {
+                versions.forEachRemaining(entry -> multimap.put(cell, entry.getKey().ts));
+            }
+        }
+        return multimap;
+    }
+
+    @Override
+    public void addGarbageCollectionSentinelValues(TableReference tableRef, Iterable<Cell> cells) {
+        List<Map.Entry<LsmKey, byte[]>> sentinels = new ArrayList<>();
+        for (Cell cell : cells) {
+            sentinels.add(LsmEntries.entry(new LsmKey(cell, Value.INVALID_VALUE_TIMESTAMP), new byte[0]));
+        }
+        getTable(tableRef).tree.write(sentinels);
+    }
+
+    @Override
+    public void createTable(TableReference tableRef, byte[] metadata) {
+        synchronized (tableLifecycleLock) {
+            if (tables.containsKey(tableRef)) {
+                putMetadataForTable(tableRef, metadata);
+                return;
+            }
+            long tableNumber = nextTableNumber.getAndIncrement();
+            Path creating = tablesDirectory.resolve(tableNumber + TEMP_SUFFIX);
+            Path directory = tablesDirectory.resolve(Long.toString(tableNumber));
+            try {
+                Files.createDirectory(creating);
+                new TableFile(tableRef, metadata).write(creating);
+                Files.move(creating, directory, StandardCopyOption.ATOMIC_MOVE);
+                Manifest.syncDirectory(tablesDirectory);
+                LsmTree tree = LsmTree.open(directory, config, backgroundExecutor);
+                tables.put(tableRef, new EmbeddedTable(directory, tree, metadata));
+            } catch (IOException e) {
+                throw Throwables.rewrapAndThrowUncheckedException("Failed to create table " + tableRef, e);
+            }
+        }
+    }
+
+    @Override
+    public void dropTable(TableReference tableRef) {
+        synchronized (tableLifecycleLock) {
+            EmbeddedTable table = tables.remove(tableRef);
+            if (table == null) {
+                return;
+            }
+            table.tree.close();
+            Path dropped = table.directory.resolveSibling(table.directory.getFileName() + DROPPED_SUFFIX);
+            try {
+                Files.move(table.directory, dropped, StandardCopyOption.ATOMIC_MOVE);
+                Manifest.syncDirectory(tablesDirectory);
+                MoreFiles.deleteRecursively(dropped, RecursiveDeleteOption.ALLOW_INSECURE);
+            } catch (IOException e) {
+                throw Throwables.rewrapAndThrowUncheckedException("Failed to drop table " + tableRef, e);
+            }
+        }
+    }
+
+    @Override
+    public void truncateTables(Set<TableReference> tableRefs) {
+        tableRefs.forEach(this::truncateTable);
+    }
+
+    @Override
+    public void truncateTable(TableReference tableRef) {
+        EmbeddedTable table = tables.get(tableRef);
+        if (table == null) {
+            throw new IllegalStateException(
+                    String.format("Truncate called on a table (%s) that did not exist", tableRef));
+        }
+        table.tree.clear();
+    }
+
+    @Override
+    public void putMetadataForTable(TableReference tableRef, byte[] metadata) {
+        synchronized (tableLifecycleLock) {
+            EmbeddedTable table = tables.get(tableRef);
+            if (table == null) {
+                throw new IllegalArgumentException("No such table " + tableRef);
+            }
+            try {
+                new TableFile(tableRef, metadata).write(table.directory);
+            } catch (IOException e) {
+                throw Throwables.rewrapAndThrowUncheckedException("Failed to write metadata of " + tableRef, e);
+            }
+            table.metadata = metadata;
+        }
+    }
+
+    @Override
+    public byte[] getMetadataForTable(TableReference tableRef) {
+        EmbeddedTable table = tables.get(tableRef);
+        if (table == null) {
+            return AtlasDbConstants.EMPTY_TABLE_METADATA;
+        }
+        return table.metadata;
+    }
+
+    @Override
+    public Set<TableReference> getAllTableNames() {
+        return ImmutableSet.copyOf(tables.keySet());
+    }
+
+    @Override
+    public void compactInternally(TableReference tableRef) {
+        getTable(tableRef).tree.compactFully();
+    }
+
+    @Override
+    public ClusterAvailabilityStatus getClusterAvailabilityStatus() {
+        return ClusterAvailabilityStatus.ALL_AVAILABLE;
+    }
+
+    @Override
+    public void close() {
+        synchronized (tableLifecycleLock) {
+            tables.values().forEach(table -> table.tree.close());
+            tables.clear();
+        }
+        backgroundExecutor.shutdown();
+        try {
+            backgroundExecutor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        super.close();
+        try {
+            directoryLock.release();
+        } catch (IOException e) {
+            log.warn("Failed to release the lock on {}", SafeArg.of("directory", tablesDirectory.toString()), e);
+        }
+        closeQuietly(directoryLock.channel());
+    }
+
+    private EmbeddedTable getTable(TableReference tableRef) {
+        EmbeddedTable table = tables.get(tableRef);
+        if (table == null) {
+            throw new IllegalArgumentException("table " + tableRef.getQualifiedName() + " does not exist");
+        }
+        return table;
+    }
+
+    private static byte[] copyOf(byte[] contents) {
+        return Arrays.copyOf(contents, contents.length);
+    }
+
+    private static void closeQuietly(@Nullable FileChannel channel) {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.warn("Failed to close the lock file of an embedded key value service", e);
+        }
+    }
+
+    private static final class EmbeddedTable {
+        private final Path directory;
+        private final LsmTree tree;
+        private volatile byte[] metadata;
+
+        EmbeddedTable(Path directory, LsmTree tree, byte[] metadata) {
+            this.directory = directory;
+            this.tree = tree;
+            this.metadata = metadata;
+        }
+    }
+
+    /**
+     * The name and metadata of a table, stored in the table's directory.
+     */
+    private static final class TableFile {
+        private final TableReference tableRef;
+        private final byte[] metadata;
+
+        TableFile(TableReference tableRef, byte[] metadata) {
+            this.tableRef = tableRef;
+            this.metadata = metadata;
+        }
+
+        static TableFile read(Path tableDirectory) throws IOException {
+            byte[] bytes = Files.readAllBytes(tableDirectory.resolve(TABLE_FILE_NAME));
+            try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+                String namespace = in.readUTF();
+                String tableName = in.readUTF();
+                byte[] metadata = new byte[in.readInt()];
+                in.readFully(metadata);
+                TableReference tableRef = namespace.isEmpty()
+                        ? TableReference.createWithEmptyNamespace(tableName)
+                        : TableReference.create(Namespace.create(namespace, Namespace.UNCHECKED_NAME), tableName);
+                return new TableFile(tableRef, metadata);
+            }
+        }
+
+        void write(Path tableDirectory) throws IOException {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (DataOutputStream out = new DataOutputStream(bytes)) {
+                out.writeUTF(tableRef.getNamespace().getName());
+                out.writeUTF(tableRef.getTablename());
+                out.writeInt(metadata.length);
+                out.write(metadata);
+            }
+            Path temp = tableDirectory.resolve(TABLE_FILE_NAME + TEMP_SUFFIX);
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            }
+            Files.move(temp, tableDirectory.resolve(TABLE_FILE_NAME),
+                    StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            Manifest.syncDirectory(tableDirectory);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.keyvalue.embedded;
+
+import java.util.Optional;
+
+import javax.annotation.concurrent.GuardedBy;
+
+import com.google.common.collect.ImmutableMap;
+import com.palantir.atlasdb.AtlasDbConstants;
+import com.palantir.atlasdb.encoding.PtBytes;
+import com.palantir.atlasdb.keyvalue.api.CheckAndSetException;
+import com.palantir.atlasdb.keyvalue.api.CheckAndSetRequest;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.Value;
+import com.palantir.timestamp.MultipleRunningTimestampServiceError;
+import com.palantir.timestamp.TimestampBoundStore;
+
+/**
+ * Stores the timestamp upper limit in a cell of the timestamp table of an {@link EmbeddedKeyValueService}, and
+ * updates it with check and set, so that a second timestamp service using the same key value service is detected.
+ */
+public final class EmbeddedTimestampBoundStore implements TimestampBoundStore {
+    private static final Cell BOUND_CELL = Cell.create(PtBytes.toBytes("ts"), PtBytes.toBytes("t"));
+    private static final long INITIAL_UPPER_LIMIT = 10000L;
+
+    private final EmbeddedKeyValueService kvs;
+
+    @GuardedBy("this")
+    private Optional<Long> currentLimit = Optional.empty();
+
+    private EmbeddedTimestampBoundStore(EmbeddedKeyValueService kvs) {
+        this.kvs = kvs;
+    }
+
+    public static EmbeddedTimestampBoundStore create(EmbeddedKeyValueService kvs) {
+        kvs.createTable(AtlasDbConstants.TIMESTAMP_TABLE, AtlasDbConstants.GENERIC_TABLE_METADATA);
+        return new EmbeddedTimestampBoundStore(kvs);
+    }
+
+    @Override
+    public synchronized long getUpperLimit() {
+        Value value = kvs.get(AtlasDbConstants.TIMESTAMP_TABLE, ImmutableMap.of(BOUND_CELL, Long.MAX_VALUE))
+                .get(BOUND_CELL);
+        if (value == null) {
+            storeUpperLimit(INITIAL_UPPER_LIMIT);
+            return INITIAL_UPPER_LIMIT;
+        }
+        currentLimit = Optional.of(PtBytes.toLong(value.getContents()));
+        return currentLimit.get();
+    }
+
+    @Override
+    public synchronized void storeUpperLimit(long limit) throws MultipleRunningTimestampServiceError {
+        CheckAndSetRequest request = currentLimit
+                .map(current -> CheckAndSetRequest.singleCell(AtlasDbConstants.TIMESTAMP_TABLE, BOUND_CELL,
+                        PtBytes.toBytes(current), PtBytes.toBytes(limit)))
+                .orElseGet(() -> CheckAndSetRequest.newCell(AtlasDbConstants.TIMESTAMP_TABLE, BOUND_CELL,
+                        PtBytes.toBytes(limit)));
+        try {
+            kvs.checkAndSet(request);
+        } catch (CheckAndSetException e) {
+            String limitInDb = e.getActualValues().stream()
+                    .map(actual -> String.valueOf(PtBytes.toLong(actual)))
+                    .findFirst()
+                    .orElse("none");
+            throw new MultipleRunningTimestampServiceError("Timestamp limit changed underneath us (limit in memory: "
+                    + currentLimit.map(String::valueOf).orElse("none") + ", limit in db: " + limitInDb
+                    + "). This may indicate that another timestamp service is running against this data directory!",
+                    e);
+        }
+        currentLimit = Optional.of(limit);
+    }
+}
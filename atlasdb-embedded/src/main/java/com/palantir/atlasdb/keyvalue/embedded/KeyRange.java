@@ -0,0 +1,71 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.keyvalue.embedded;
+
+import javax.annotation.Nullable;
+
+/**
+ * A range of {@link LsmKey}s, each end of which may be unbounded, inclusive or exclusive.
+ */
+final class KeyRange {
+    static final KeyRange ALL = new KeyRange(null, false, null, false);
+
+    @Nullable
+    final LsmKey lower;
+    final boolean lowerInclusive;
+    @Nullable
+    final LsmKey upper;
+    final boolean upperInclusive;
+
+    KeyRange(@Nullable LsmKey lower, boolean lowerInclusive, @Nullable LsmKey upper, boolean upperInclusive) {
+        this.lower = lower;
+        this.lowerInclusive = lowerInclusive;
+        this.upper = upper;
+        this.upperInclusive = upperInclusive;
+    }
+
+    /**
+     * The range from {@code lower}, inclusive, to {@code upper}, exclusive, like {@link java.util.SortedMap#subMap}.
+     */
+    static KeyRange closedOpen(LsmKey lower, LsmKey upper) {
+        return new KeyRange(lower, true, upper, false);
+    }
+
+    boolean isAboveLower(LsmKey key) {
+        if (lower == null) {
+            return true;
+        }
+        int comparison = key.compareTo(lower);
+        return comparison > 0 || (comparison == 0 && lowerInclusive);
+    }
+
+    boolean isBelowUpper(LsmKey key) {
+        if (upper == null) {
+            return true;
+        }
+        int comparison = key.compareTo(upper);
+        return comparison < 0 || (comparison == 0 && upperInclusive);
+    }
+
+    boolean contains(LsmKey key) {
+        return isAboveLower(key) && isBelowUpper(key);
+    }
+
+    @Override
+    public String toString() {
+        return (lowerInclusive ? "[" : "(") + lower + ", " + upper + (upperInclusive ? "]" : ")");
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.keyvalue.embedded;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Map;
+
+import com.google.common.collect.Maps;
+
+/**
+ * Encoding of the entries of an {@link LsmTree}, shared by its write-ahead logs and segments.
+ * <p>
+ * A deleted key is represented by an entry whose value is the {@link #TOMBSTONE} instance, which shadows any value of
+ * the same key in older segments. Tombstones are compared by identity, so they cannot be confused with empty values.
+ */
+final class LsmEntries {
+    static final byte[] TOMBSTONE = new byte[0];
+
+    private static final byte VALUE = 0;
+    private static final byte DELETED = 1;
+
+    private LsmEntries() {
+        // utility
+    }
+
+    static boolean isTombstone(byte[] value) {
+        return value == TOMBSTONE;
+    }
+
+    static Map.Entry<LsmKey, byte[]> entry(LsmKey key, byte[] value) {
+        return Maps.immutableEntry(key, value);
+    }
+
+    static void writeEntry(DataOutput out, LsmKey key, byte[] value) throws IOException {
+        writeKey(out, key);
+        if (isTombstone(value)) {
+            out.writeByte(DELETED);
+        } else {
+            out.writeByte(VALUE);
+            writeBytes(out, value);
+        }
+    }
+
+    static Map.Entry<LsmKey, byte[]> readEntry(DataInput in) throws IOException {
+        LsmKey key = readKey(in);
+        byte type = in.readByte();
+        switch (type) {
+            case VALUE:
+                return entry(key, readBytes(in));
+            case DELETED:
+                return entry(key, TOMBSTONE);
+            default:
+                throw new IOException("Unknown entry type " + type);
+        }
+    }
+
+    static void writeKey(DataOutput out, LsmKey key) throws IOException {
+        writeBytes(out, key.row);
+        writeBytes(out, key.col);
+        out.writeLong(key.ts);
+    }
+
+    static LsmKey readKey(DataInput in) throws IOException {
+        byte[] row = readBytes(in);
+        byte[] col = readBytes(in);
+        return new LsmKey(row, col, in.readLong());
+    }
+
+    private static void writeBytes(DataOutput out, byte[] bytes) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static byte[] readBytes(DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            throw new IOException("Negative length " + length);
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return bytes;
+    }
+}
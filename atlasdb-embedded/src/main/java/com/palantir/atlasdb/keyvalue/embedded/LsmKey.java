@@ -0,0 +1,111 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.keyvalue.embedded;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+import com.google.common.io.BaseEncoding;
+import com.google.common.primitives.Longs;
+import com.google.common.primitives.UnsignedBytes;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+
+/**
+ * A version of a cell, as stored in an {@link LsmTree}. Keys are ordered by row, then column, then timestamp, so that
+ * all versions of a cell are adjacent and in increasing order of timestamp.
+ */
+final class LsmKey implements Comparable<LsmKey> {
+    private static final Comparator<byte[]> BYTES_COMPARATOR = UnsignedBytes.lexicographicalComparator();
+
+    final byte[] row;
+    final byte[] col;
+    final long ts;
+
+    LsmKey(Cell cell, long ts) {
+        this(cell.getRowName(), cell.getColumnName(), ts);
+    }
+
+    LsmKey(byte[] row, byte[] col, long ts) {
+        this.row = row;
+        this.col = col;
+        this.ts = ts;
+    }
+
+    Cell toCell() {
+        return Cell.create(row, col);
+    }
+
+    boolean matchesRow(byte[] otherRow) {
+        return BYTES_COMPARATOR.compare(row, otherRow) == 0;
+    }
+
+    boolean matchesCell(Cell cell) {
+        return BYTES_COMPARATOR.compare(row, cell.getRowName()) == 0
+                && BYTES_COMPARATOR.compare(col, cell.getColumnName()) == 0;
+    }
+
+    boolean matchesCell(LsmKey key) {
+        return BYTES_COMPARATOR.compare(row, key.row) == 0
+                && BYTES_COMPARATOR.compare(col, key.col) == 0;
+    }
+
+    /**
+     * Approximate number of bytes of heap used by this key, for sizing memtables.
+     */
+    long approximateSizeInBytes() {
+        return row.length + col.length + 64;
+    }
+
+    @Override
+    public int compareTo(LsmKey other) {
+        int comparison = BYTES_COMPARATOR.compare(row, other.row);
+        if (comparison != 0) {
+            return comparison;
+        }
+        comparison = BYTES_COMPARATOR.compare(col, other.col);
+        if (comparison != 0) {
+            return comparison;
+        }
+        return Longs.compare(ts, other.ts);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        LsmKey other = (LsmKey) obj;
+        return ts == other.ts && Arrays.equals(row, other.row) && Arrays.equals(col, other.col);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Arrays.hashCode(row);
+        result = 31 * result + Arrays.hashCode(col);
+        result = 31 * result + Long.hashCode(ts);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "LsmKey [row=" + BaseEncoding.base16().lowerCase().encode(row)
+                + ", col=" + BaseEncoding.base16().lowerCase().encode(col)
+                + ", ts=" + ts + "]";
+    }
+}
@@ -0,0 +1,751 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.keyvalue.embedded;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.PeekingIterator;
+import com.google.common.util.concurrent.Futures;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.common.base.ClosableIterator;
+import com.palantir.common.base.Throwables;
+import com.palantir.logsafe.SafeArg;
+
+/**
+ * A durable, sorted map from {@link LsmKey} to value, stored in a single directory as a log-structured merge tree.
+ * <p>
+ * Writes are appended to a write-ahead log and then applied to an in-memory {@link Memtable}. Once the memtable is
+ * large enough, it is replaced by an empty one and flushed in the background to an immutable, sorted {@link Segment},
+ * after which its log is deleted. Reads merge the memtables and all segments, newest first. Once there are too many
+ * segments, a run of the newest segments of similar size is merged in the background into a single segment, dropping
+ * shadowed versions, and dropping deletions once the run includes the oldest segment.
+ * <p>
+ * Writes are serialized, so that conditional writes such as {@link #putIfAbsent} are atomic. Reads do not block on
+ * writes, flushes or compactions, and see a consistent set of segments for their duration.
+ */
+@ThreadSafe
+final class LsmTree implements Closeable {
+    private static final Logger log = LoggerFactory.getLogger(LsmTree.class);
+
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String LOG_SUFFIX = ".wal";
+    private static final int COMPACTION_SIZE_RATIO = 2;
+
+    private final Path directory;
+    private final EmbeddedKeyValueConfig config;
+    private final ExecutorService backgroundExecutor;
+    private final AtomicLong nextFileNumber;
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final ReentrantReadWriteLock versionLock = new ReentrantReadWriteLock();
+    private final ReentrantLock compactionLock = new ReentrantLock();
+    private final AtomicBoolean compactionScheduled = new AtomicBoolean(false);
+
+    // Guarded by writeLock
+    private WriteAheadLog writeAheadLog;
+    private Future<?> pendingFlush = Futures.immediateFuture(null);
+
+    // Only replaced while holding the write lock of versionLock
+    private volatile Version version;
+    private volatile boolean closed = false;
+
+    private LsmTree(Path directory, EmbeddedKeyValueConfig config, ExecutorService backgroundExecutor,
+            long nextFileNumber) {
+        this.directory = directory;
+        this.config = config;
+        this.backgroundExecutor = backgroundExecutor;
+        this.nextFileNumber = new AtomicLong(nextFileNumber);
+    }
+
+    /**
+     * Opens the tree stored in the given directory, creating it if it does not exist. Any writes that were only in
+     * write-ahead logs are recovered, and flushed to a new segment before this returns.
+     *
+     * @param backgroundExecutor executor on which flushes and compactions are run
+     */
+    static LsmTree open(Path directory, EmbeddedKeyValueConfig config, ExecutorService backgroundExecutor)
+            throws IOException {
+        Files.createDirectories(directory);
+        Optional<Manifest> manifest = Manifest.read(directory);
+        List<Long> liveSegmentNumbers = manifest.map(m -> m.segmentNumbers)
+                .orElse(ImmutableList.of());
+        long oldestLogNumber = manifest.map(m -> m.oldestLogNumber).orElse(0L);
+        long maxFileNumber = manifest.map(m -> m.nextFileNumber - 1).orElse(-1L);
+
+        Set<Long> liveSegments = new HashSet<>(liveSegmentNumbers);
+        List<Long> logsToReplay = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                Optional<Long> segmentNumber = fileNumber(name, SEGMENT_SUFFIX);
+                Optional<Long> logNumber = fileNumber(name, LOG_SUFFIX);
+                if (segmentNumber.isPresent()) {
+                    maxFileNumber = Math.max(maxFileNumber, segmentNumber.get());
+                    if (!liveSegments.contains(segmentNumber.get())) {
+                        // Left behind by a flush or compaction that did not complete, or not yet deleted
+                        Files.delete(file);
+                    }
+                } else if (logNumber.isPresent()) {
+                    maxFileNumber = Math.max(maxFileNumber, logNumber.get());
+                    if (logNumber.get() < oldestLogNumber) {
+                        Files.delete(file);
+                    } else {
+                        logsToReplay.add(logNumber.get());
+                    }
+                }
+            }
+        }
+        Collections.sort(logsToReplay);
+
+        LsmTree tree = new LsmTree(directory, config, backgroundExecutor, maxFileNumber + 1);
+        List<Segment> segments = new ArrayList<>();
+        try {
+            for (long segmentNumber : liveSegmentNumbers) {
+                segments.add(Segment.open(segmentNumber, tree.segmentPath(segmentNumber)));
+            }
+            tree.recover(segments, logsToReplay);
+        } catch (IOException | RuntimeException e) {
+            segments.forEach(Segment::release);
+            throw e;
+        }
+        return tree;
+    }
+
+    private void recover(List<Segment> liveSegments, List<Long> logsToReplay) throws IOException {
+        Memtable recovered = new Memtable(-1L);
+        for (long logNumber : logsToReplay) {
+            WriteAheadLog.replay(logPath(logNumber),
+                    entry -> recovered.put(entry.getKey(), entry.getValue()));
+        }
+
+        List<Segment> segments = new ArrayList<>(liveSegments);
+        if (!recovered.isEmpty()) {
+            log.info("Recovered {} entries from {} write-ahead logs in {}",
+                    SafeArg.of("entries", recovered.size()),
+                    SafeArg.of("logs", logsToReplay.size()),
+                    SafeArg.of("directory", directory.toString()));
+            segments.add(0, writeSegment(recovered.iterator(KeyRange.ALL, false), recovered.size(), false));
+        }
+
+        long logNumber = nextFileNumber.getAndIncrement();
+        writeAheadLog = WriteAheadLog.create(logPath(logNumber), config.syncWrites());
+        version = new Version(new Memtable(logNumber), null, segments);
+        writeManifest(version);
+        for (long replayed : logsToReplay) {
+            Files.deleteIfExists(logPath(replayed));
+        }
+    }
+
+    /**
+     * Returns the value of the given key, or null if it has no value.
+     */
+    @Nullable
+    byte[] get(LsmKey key) {
+        Version current = acquireVersion();
+        try {
+            byte[] value = current.active.get(key);
+            if (value == null && current.flushing != null) {
+                value = current.flushing.get(key);
+            }
+            for (int i = 0; value == null && i < current.segments.size(); i++) {
+                value = current.segments.get(i).get(key);
+            }
+            return value == null || LsmEntries.isTombstone(value) ? null : value;
+        } finally {
+            releaseVersion(current);
+        }
+    }
+
+    /**
+     * Returns the entries with keys in the given range, in increasing order of key or, if {@code reverse}, in
+     * decreasing order. The returned iterator must be closed, or exhausted, once it is no longer needed.
+     *
+     * @param cell if all keys in the range are versions of a single cell, that cell, which lets the scan skip segments
+     * that do not contain it; otherwise null
+     */
+    ClosableIterator<Map.Entry<LsmKey, byte[]>> scan(KeyRange range, boolean reverse, @Nullable Cell cell) {
+        Version current = acquireVersion();
+        List<Iterator<Map.Entry<LsmKey, byte[]>>> sources = new ArrayList<>();
+        sources.add(current.active.iterator(range, reverse));
+        if (current.flushing != null) {
+            sources.add(current.flushing.iterator(range, reverse));
+        }
+        for (Segment segment : current.segments) {
+            if (cell == null || segment.mightContain(cell)) {
+                sources.add(segment.iterator(range, reverse));
+            }
+        }
+        return new VersionReleasingIterator(new MergingIterator(sources, reverse, true), current);
+    }
+
+    /**
+     * Writes the given entries, in order, where a value of {@link LsmEntries#TOMBSTONE} deletes the key.
+     */
+    void write(List<Map.Entry<LsmKey, byte[]>> entries) {
+        writeLock.lock();
+        try {
+            writeInternal(entries);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Writes the given entries in order, up to but excluding the first entry whose key already has a value.
+     *
+     * @return the index of the first entry whose key already had a value, with that value, or null if every entry
+     * was written
+     */
+    @Nullable
+    ExistingValue putIfAbsent(List<Map.Entry<LsmKey, byte[]>> entries) {
+        writeLock.lock();
+        try {
+            List<Map.Entry<LsmKey, byte[]>> toWrite = new ArrayList<>(entries.size());
+            Map<LsmKey, byte[]> written = new HashMap<>();
+            for (int i = 0; i < entries.size(); i++) {
+                Map.Entry<LsmKey, byte[]> entry = entries.get(i);
+                byte[] existing = written.containsKey(entry.getKey())
+                        ? written.get(entry.getKey())
+                        : get(entry.getKey());
+                if (existing != null) {
+                    writeInternal(toWrite);
+                    return new ExistingValue(i, existing);
+                }
+                toWrite.add(entry);
+                written.put(entry.getKey(), entry.getValue());
+            }
+            writeInternal(toWrite);
+            return null;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Replaces the value of the given key with {@code newValue}, if its current value is {@code expectedValue}.
+     *
+     * @return whether the value was replaced
+     */
+    boolean replace(LsmKey key, byte[] expectedValue, byte[] newValue) {
+        writeLock.lock();
+        try {
+            if (!Arrays.equals(get(key), expectedValue)) {
+                return false;
+            }
+            writeInternal(ImmutableList.of(LsmEntries.entry(key, newValue)));
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Deletes every entry in the tree.
+     */
+    void clear() {
+        writeLock.lock();
+        try {
+            checkOpen();
+            long logNumber = nextFileNumber.getAndIncrement();
+            WriteAheadLog newLog = WriteAheadLog.create(logPath(logNumber), config.syncWrites());
+            Version cleared;
+            versionLock.writeLock().lock();
+            try {
+                cleared = version;
+                Version empty = new Version(new Memtable(logNumber), null, ImmutableList.of());
+                writeManifest(empty);
+                version = empty;
+            } finally {
+                versionLock.writeLock().unlock();
+            }
+            closeQuietly(writeAheadLog);
+            writeAheadLog = newLog;
+
+            // A flush of the previous memtable that is still running will find that it was cleared, and discard itself
+            Files.deleteIfExists(logPath(cleared.active.logNumber()));
+            if (cleared.flushing != null) {
+                Files.deleteIfExists(logPath(cleared.flushing.logNumber()));
+            }
+            cleared.segments.forEach(LsmTree::discard);
+        } catch (IOException e) {
+            throw Throwables.rewrapAndThrowUncheckedException("Failed to clear " + directory, e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Flushes the memtable, and then merges all segments into one, dropping all deletions and shadowed versions.
+     */
+    void compactFully() {
+        writeLock.lock();
+        try {
+            checkOpen();
+            awaitPendingFlush();
+            if (!version.active.isEmpty()) {
+                rotateMemtable();
+                awaitPendingFlush();
+            }
+        } finally {
+            writeLock.unlock();
+        }
+
+        compactionLock.lock();
+        try {
+            Version current = acquireVersion();
+            try {
+                if (!current.segments.isEmpty()) {
+                    compact(current.segments);
+                }
+            } finally {
+                releaseVersion(current);
+            }
+        } finally {
+            compactionLock.unlock();
+        }
+    }
+
+    @VisibleForTesting
+    int numberOfSegments() {
+        return version.segments.size();
+    }
+
+    /**
+     * Closes the tree. Writes that were not yet flushed are recovered from the write-ahead log when it is next opened.
+     */
+    @Override
+    public void close() {
+        writeLock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                pendingFlush.get();
+            } catch (ExecutionException e) {
+                log.info("The last flush before closing failed, so its memtable will be recovered from its log.", e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            closeQuietly(writeAheadLog);
+        } finally {
+            writeLock.unlock();
+        }
+
+        // Wait for any running compaction, which gives up once it sees that the tree is closed
+        compactionLock.lock();
+        try {
+            version.segments.forEach(Segment::release);
+        } finally {
+            compactionLock.unlock();
+        }
+    }
+
+    private void writeInternal(List<Map.Entry<LsmKey, byte[]>> entries) {
+        checkOpen();
+        if (entries.isEmpty()) {
+            return;
+        }
+        try {
+            writeAheadLog.append(entries);
+        } catch (IOException e) {
+            throw Throwables.rewrapAndThrowUncheckedException("Failed to append to write-ahead log", e);
+        }
+        Memtable active = version.active;
+        for (Map.Entry<LsmKey, byte[]> entry : entries) {
+            active.put(entry.getKey(), entry.getValue());
+        }
+        if (active.sizeInBytes() >= config.memtableFlushThresholdBytes()) {
+            // At most one memtable is flushed at a time, which applies back-pressure to writers if flushes fall behind
+            awaitPendingFlush();
+            rotateMemtable();
+        }
+    }
+
+    private void rotateMemtable() {
+        long logNumber = nextFileNumber.getAndIncrement();
+        WriteAheadLog newLog;
+        try {
+            newLog = WriteAheadLog.create(logPath(logNumber), config.syncWrites());
+        } catch (IOException e) {
+            throw Throwables.rewrapAndThrowUncheckedException("Failed to create write-ahead log", e);
+        }
+        Memtable toFlush;
+        versionLock.writeLock().lock();
+        try {
+            Version current = version;
+            Preconditions.checkState(current.flushing == null, "Only one memtable may be flushed at a time");
+            toFlush = current.active;
+            version = new Version(new Memtable(logNumber), toFlush, current.segments);
+        } finally {
+            versionLock.writeLock().unlock();
+        }
+        closeQuietly(writeAheadLog);
+        writeAheadLog = newLog;
+        pendingFlush = backgroundExecutor.submit(() -> flush(toFlush));
+    }
+
+    private void awaitPendingFlush() {
+        try {
+            pendingFlush.get();
+        } catch (ExecutionException e) {
+            log.warn("A background flush in {} failed, and will be retried.",
+                    SafeArg.of("directory", directory.toString()), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw Throwables.rewrapAndThrowUncheckedException("Interrupted while waiting for a flush", e);
+        }
+        Memtable flushing = version.flushing;
+        if (flushing != null) {
+            flush(flushing);
+        }
+    }
+
+    private void flush(Memtable memtable) {
+        Segment segment;
+        try {
+            segment = writeSegment(memtable.iterator(KeyRange.ALL, false), memtable.size(), false);
+        } catch (IOException e) {
+            throw Throwables.rewrapAndThrowUncheckedException("Failed to flush memtable in " + directory, e);
+        }
+
+        boolean installed = false;
+        versionLock.writeLock().lock();
+        try {
+            Version current = version;
+            if (current.flushing == memtable) {
+                Version flushed = new Version(current.active, null, ImmutableList.<Segment>builder()
+                        .add(segment)
+                        .addAll(current.segments)
+                        .build());
+                writeManifest(flushed);
+                version = flushed;
+                installed = true;
+            }
+        } catch (IOException e) {
+            throw Throwables.rewrapAndThrowUncheckedException("Failed to write manifest in " + directory, e);
+        } finally {
+            versionLock.writeLock().unlock();
+            if (!installed) {
+                discard(segment);
+            }
+        }
+        if (installed) {
+            deleteQuietly(logPath(memtable.logNumber()));
+            maybeScheduleCompaction();
+        }
+    }
+
+    private void maybeScheduleCompaction() {
+        if (closed || version.segments.size() <= config.maxSegmentsPerTable()
+                || !compactionScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        backgroundExecutor.execute(() -> {
+            compactionLock.lock();
+            try {
+                while (!closed && version.segments.size() > config.maxSegmentsPerTable()) {
+                    Version current = acquireVersion();
+                    try {
+                        if (!compact(chooseSegmentsToCompact(current.segments))) {
+                            return;
+                        }
+                    } finally {
+                        releaseVersion(current);
+                    }
+                }
+            } catch (RuntimeException e) {
+                log.warn("Background compaction in {} failed.", SafeArg.of("directory", directory.toString()), e);
+            } finally {
+                compactionLock.unlock();
+                compactionScheduled.set(false);
+            }
+        });
+    }
+
+    /**
+     * Chooses the run of newest segments to compact, growing it while the next segment is no more than a small
+     * multiple of the size of the run so far. This merges recently flushed segments with each other frequently, and
+     * into the large, old segments only occasionally, which bounds the number of times each entry is rewritten.
+     */
+    @VisibleForTesting
+    static List<Segment> chooseSegmentsToCompact(List<Segment> newestFirst) {
+        long runSize = newestFirst.get(0).sizeInBytes();
+        int runLength = 1;
+        while (runLength < newestFirst.size()
+                && newestFirst.get(runLength).sizeInBytes() <= COMPACTION_SIZE_RATIO * runSize) {
+            runSize += newestFirst.get(runLength).sizeInBytes();
+            runLength++;
+        }
+        return newestFirst.subList(0, Math.min(Math.max(runLength, 2), newestFirst.size()));
+    }
+
+    /**
+     * Merges the given run of adjacent segments, which must be retained by the caller, into a single segment.
+     *
+     * @return whether the merged segment replaced the run, which it does not if the run was concurrently cleared
+     */
+    private boolean compact(List<Segment> run) {
+        if (closed) {
+            return false;
+        }
+        List<Segment> liveSegments = version.segments;
+        boolean includesOldest = !liveSegments.isEmpty()
+                && run.get(run.size() - 1) == liveSegments.get(liveSegments.size() - 1);
+        List<Iterator<Map.Entry<LsmKey, byte[]>>> sources = run.stream()
+                .map(segment -> segment.iterator(KeyRange.ALL, false))
+                .collect(Collectors.toList());
+        PeekingIterator<Map.Entry<LsmKey, byte[]>> merged = Iterators.peekingIterator(
+                new MergingIterator(sources, false, includesOldest));
+        long expectedEntries = run.stream().mapToLong(Segment::entryCount).sum();
+
+        Segment compacted = null;
+        try {
+            if (merged.hasNext()) {
+                compacted = writeSegment(merged, expectedEntries, true);
+            }
+        } catch (IOException e) {
+            throw Throwables.rewrapAndThrowUncheckedException("Failed to compact segments in " + directory, e);
+        }
+
+        boolean installed = false;
+        versionLock.writeLock().lock();
+        try {
+            Version current = version;
+            int start = indexOfRun(current.segments, run);
+            if (start >= 0) {
+                ImmutableList.Builder<Segment> segments = ImmutableList.builder();
+                segments.addAll(current.segments.subList(0, start));
+                if (compacted != null) {
+                    segments.add(compacted);
+                }
+                segments.addAll(current.segments.subList(start + run.size(), current.segments.size()));
+                Version withCompacted = new Version(current.active, current.flushing, segments.build());
+                writeManifest(withCompacted);
+                version = withCompacted;
+                installed = true;
+            }
+        } catch (IOException e) {
+            throw Throwables.rewrapAndThrowUncheckedException("Failed to write manifest in " + directory, e);
+        } finally {
+            versionLock.writeLock().unlock();
+            if (!installed && compacted != null) {
+                discard(compacted);
+            }
+        }
+        if (installed) {
+            run.forEach(LsmTree::discard);
+            log.debug("Compacted {} segments in {}",
+                    SafeArg.of("segments", run.size()),
+                    SafeArg.of("directory", directory.toString()));
+        }
+        return installed;
+    }
+
+    private static int indexOfRun(List<Segment> segments, List<Segment> run) {
+        for (int start = 0; start + run.size() <= segments.size(); start++) {
+            if (segments.get(start) == run.get(0)) {
+                for (int i = 1; i < run.size(); i++) {
+                    if (segments.get(start + i) != run.get(i)) {
+                        return -1;
+                    }
+                }
+                return start;
+            }
+        }
+        return -1;
+    }
+
+    private Segment writeSegment(Iterator<Map.Entry<LsmKey, byte[]>> entries, long expectedEntries,
+            boolean isCompaction) throws IOException {
+        long segmentNumber = nextFileNumber.getAndIncrement();
+        Path path = segmentPath(segmentNumber);
+        try {
+            SegmentWriter.write(path, entries, expectedEntries, config.blockSizeBytes(),
+                    config.bloomFilterFalsePositiveProbability());
+            return Segment.open(segmentNumber, path);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to write {} segment {}",
+                    SafeArg.of("kind", isCompaction ? "compacted" : "flushed"),
+                    SafeArg.of("path", path.toString()), e);
+            deleteQuietly(path);
+            throw e;
+        }
+    }
+
+    private void writeManifest(Version newVersion) throws IOException {
+        List<Long> segmentNumbers = newVersion.segments.stream().map(Segment::number).collect(Collectors.toList());
+        new Manifest(nextFileNumber.get(), newVersion.oldestLogNumber(), segmentNumbers).write(directory);
+    }
+
+    private Version acquireVersion() {
+        versionLock.readLock().lock();
+        try {
+            Version current = version;
+            current.segments.forEach(Segment::retain);
+            return current;
+        } finally {
+            versionLock.readLock().unlock();
+        }
+    }
+
+    private static void releaseVersion(Version acquired) {
+        acquired.segments.forEach(Segment::release);
+    }
+
+    /**
+     * Releases the tree's reference to a segment that is no longer live, deleting it once it is no longer being read.
+     */
+    private static void discard(Segment segment) {
+        segment.markObsolete();
+        segment.release();
+    }
+
+    private void checkOpen() {
+        Preconditions.checkState(!closed, "Tree in %s is closed", directory);
+    }
+
+    private Path segmentPath(long number) {
+        return directory.resolve(number + SEGMENT_SUFFIX);
+    }
+
+    private Path logPath(long number) {
+        return directory.resolve(number + LOG_SUFFIX);
+    }
+
+    private static Optional<Long> fileNumber(String fileName, String suffix) {
+        if (!fileName.endsWith(suffix)) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(Long.parseLong(fileName.substring(0, fileName.length() - suffix.length())));
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static void closeQuietly(WriteAheadLog writeAheadLog) {
+        try {
+            writeAheadLog.close();
+        } catch (IOException e) {
+            log.warn("Failed to close write-ahead log {}", SafeArg.of("path", writeAheadLog.path().toString()), e);
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Failed to delete {}, which will be deleted when the tree is next opened",
+                    SafeArg.of("path", path.toString()), e);
+        }
+    }
+
+    static final class ExistingValue {
+        final int index;
+        final byte[] value;
+
+        ExistingValue(int index, byte[] value) {
+            this.index = index;
+            this.value = value;
+        }
+    }
+
+    /**
+     * The memtables and live segments of the tree at some point in time.
+     */
+    private static final class Version {
+        private final Memtable active;
+        @Nullable
+        private final Memtable flushing;
+        private final ImmutableList<Segment> segments;
+
+        Version(Memtable active, @Nullable Memtable flushing, List<Segment> newestFirst) {
+            this.active = active;
+            this.flushing = flushing;
+            this.segments = ImmutableList.copyOf(newestFirst);
+        }
+
+        /**
+         * The oldest log that must be replayed to recover writes that are not yet in any segment.
+         */
+        long oldestLogNumber() {
+            return flushing == null ? active.logNumber() : flushing.logNumber();
+        }
+    }
+
+    private static final class VersionReleasingIterator extends AbstractIterator<Map.Entry<LsmKey, byte[]>>
+            implements ClosableIterator<Map.Entry<LsmKey, byte[]>> {
+        private final Iterator<Map.Entry<LsmKey, byte[]>> delegate;
+        private final Version acquired;
+        private final AtomicBoolean released = new AtomicBoolean(false);
+
+        VersionReleasingIterator(Iterator<Map.Entry<LsmKey, byte[]>> delegate, Version acquired) {
+            this.delegate = delegate;
+            this.acquired = acquired;
+        }
+
+        @Override
+        protected Map.Entry<LsmKey, byte[]> computeNext() {
+            if (!released.get() && delegate.hasNext()) {
+                return delegate.next();
+            }
+            close();
+            return endOfData();
+        }
+
+        @Override
+        public void close() {
+            if (released.compareAndSet(false, true)) {
+                releaseVersion(acquired);
+            }
+        }
+    }
+}
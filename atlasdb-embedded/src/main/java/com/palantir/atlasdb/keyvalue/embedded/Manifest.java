@@ -0,0 +1,130 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.keyvalue.embedded;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.CRC32;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.ByteArrayDataOutput;
+import com.google.common.io.ByteStreams;
+
+/**
+ * The persisted state of an {@link LsmTree}: which segments are live, from newest to oldest, and which write-ahead
+ * logs hold writes that are not yet in any of them. Every change to the set of live segments writes a new manifest,
+ * atomically replacing the previous one, before any file that it no longer references is deleted.
+ */
+final class Manifest {
+    static final String FILE_NAME = "MANIFEST";
+    private static final String TEMP_FILE_NAME = FILE_NAME + ".tmp";
+    private static final int MAGIC = 0x4c534d31;
+
+    final long nextFileNumber;
+    final long oldestLogNumber;
+    final ImmutableList<Long> segmentNumbers;
+
+    /**
+     * @param nextFileNumber a number greater than that of every segment and log written so far
+     * @param oldestLogNumber the number of the oldest write-ahead log that must be replayed on recovery; older logs
+     * only hold writes that are already in the live segments
+     * @param segmentNumbers the numbers of the live segments, from newest to oldest
+     */
+    Manifest(long nextFileNumber, long oldestLogNumber, List<Long> segmentNumbers) {
+        this.nextFileNumber = nextFileNumber;
+        this.oldestLogNumber = oldestLogNumber;
+        this.segmentNumbers = ImmutableList.copyOf(segmentNumbers);
+    }
+
+    static Optional<Manifest> read(Path directory) throws IOException {
+        Path path = directory.resolve(FILE_NAME);
+        if (!Files.exists(path)) {
+            return Optional.empty();
+        }
+        byte[] bytes = Files.readAllBytes(path);
+        if (bytes.length < Integer.BYTES) {
+            throw new IOException("Manifest " + path + " is truncated");
+        }
+        int contentLength = bytes.length - Integer.BYTES;
+        if (checksum(bytes, contentLength) != ByteBuffer.wrap(bytes, contentLength, Integer.BYTES).getInt()) {
+            throw new IOException("Manifest " + path + " is corrupt");
+        }
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, 0, contentLength));
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Manifest " + path + " does not start with the expected magic number");
+        }
+        long nextFileNumber = in.readLong();
+        long oldestLogNumber = in.readLong();
+        int numSegments = in.readInt();
+        List<Long> segmentNumbers = new ArrayList<>(numSegments);
+        for (int i = 0; i < numSegments; i++) {
+            segmentNumbers.add(in.readLong());
+        }
+        return Optional.of(new Manifest(nextFileNumber, oldestLogNumber, segmentNumbers));
+    }
+
+    void write(Path directory) throws IOException {
+        ByteArrayDataOutput out = ByteStreams.newDataOutput();
+        out.writeInt(MAGIC);
+        out.writeLong(nextFileNumber);
+        out.writeLong(oldestLogNumber);
+        out.writeInt(segmentNumbers.size());
+        for (long segmentNumber : segmentNumbers) {
+            out.writeLong(segmentNumber);
+        }
+        byte[] content = out.toByteArray();
+        out.writeInt(checksum(content, content.length));
+
+        Path tempPath = directory.resolve(TEMP_FILE_NAME);
+        try (FileChannel channel = FileChannel.open(tempPath, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.wrap(out.toByteArray());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(tempPath, directory.resolve(FILE_NAME), StandardCopyOption.ATOMIC_MOVE);
+        syncDirectory(directory);
+    }
+
+    /**
+     * Makes the creation, renaming and deletion of files in the directory durable, where the platform supports it.
+     */
+    static void syncDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Directories cannot be opened or synced on all platforms, in which case there is nothing more we can do.
+        }
+    }
+
+    private static int checksum(byte[] bytes, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, length);
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.keyvalue.embedded;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nullable;
+
+/**
+ * The mutable, in-memory part of an {@link LsmTree}, holding the most recent writes until they are flushed to a
+ * {@link Segment}. Every write to a memtable has already been appended to the write-ahead log with the same number.
+ */
+final class Memtable {
+    private final long logNumber;
+    private final ConcurrentSkipListMap<LsmKey, byte[]> entries = new ConcurrentSkipListMap<>();
+    private final AtomicLong sizeInBytes = new AtomicLong();
+
+    Memtable(long logNumber) {
+        this.logNumber = logNumber;
+    }
+
+    long logNumber() {
+        return logNumber;
+    }
+
+    void put(LsmKey key, byte[] value) {
+        entries.put(key, value);
+        sizeInBytes.addAndGet(key.approximateSizeInBytes() + value.length);
+    }
+
+    /**
+     * Returns the value of the given key, which may be {@link LsmEntries#TOMBSTONE}, or null if this memtable does
+     * not have the key.
+     */
+    @Nullable
+    byte[] get(LsmKey key) {
+        return entries.get(key);
+    }
+
+    Iterator<Map.Entry<LsmKey, byte[]>> iterator(KeyRange range, boolean reverse) {
+        NavigableMap<LsmKey, byte[]> view = entries;
+        if (range.lower != null) {
+            view = view.tailMap(range.lower, range.lowerInclusive);
+        }
+        if (range.upper != null) {
+            view = view.headMap(range.upper, range.upperInclusive);
+        }
+        if (reverse) {
+            view = view.descendingMap();
+        }
+        return view.entrySet().iterator();
+    }
+
+    boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    long sizeInBytes() {
+        return sizeInBytes.get();
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.keyvalue.embedded;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.PeekingIterator;
+
+/**
+ * Merges sorted iterators of entries from a memtable and segments into a single sorted iterator with one entry per
+ * key. Sources are given newest first, and where several sources have the same key, the entry from the newest wins.
+ */
+final class MergingIterator extends AbstractIterator<Map.Entry<LsmKey, byte[]>> {
+    private final PriorityQueue<Source> sources;
+    private final boolean skipTombstones;
+
+    /**
+     * @param newestFirst iterators over the sources, each sorted in the same direction as {@code reverse}
+     * @param skipTombstones whether to leave out keys whose newest entry is a tombstone
+     */
+    MergingIterator(List<Iterator<Map.Entry<LsmKey, byte[]>>> newestFirst, boolean reverse, boolean skipTombstones) {
+        Comparator<LsmKey> keyOrder = reverse ? Comparator.reverseOrder() : Comparator.naturalOrder();
+        Comparator<Source> sourceOrder = Comparator.<Source, LsmKey>comparing(source -> source.entries.peek().getKey(),
+                keyOrder).thenComparingInt(source -> source.age);
+        this.sources = new PriorityQueue<>(Math.max(newestFirst.size(), 1), sourceOrder);
+        this.skipTombstones = skipTombstones;
+        for (int age = 0; age < newestFirst.size(); age++) {
+            PeekingIterator<Map.Entry<LsmKey, byte[]>> entries = Iterators.peekingIterator(newestFirst.get(age));
+            if (entries.hasNext()) {
+                sources.add(new Source(entries, age));
+            }
+        }
+    }
+
+    @Override
+    protected Map.Entry<LsmKey, byte[]> computeNext() {
+        while (!sources.isEmpty()) {
+            Source newest = sources.poll();
+            Map.Entry<LsmKey, byte[]> entry = newest.entries.next();
+            advance(newest);
+            // Older versions of the same key are shadowed by the newest one
+            while (!sources.isEmpty() && sources.peek().entries.peek().getKey().equals(entry.getKey())) {
+                Source shadowed = sources.poll();
+                shadowed.entries.next();
+                advance(shadowed);
+            }
+            if (!(skipTombstones && LsmEntries.isTombstone(entry.getValue()))) {
+                return entry;
+            }
+        }
+        return endOfData();
+    }
+
+    private void advance(Source source) {
+        if (source.entries.hasNext()) {
+            sources.add(source);
+        }
+    }
+
+    private static final class Source {
+        private final PeekingIterator<Map.Entry<LsmKey, byte[]>> entries;
+        private final int age;
+
+        Source(PeekingIterator<Map.Entry<LsmKey, byte[]>> entries, int age) {
+            this.entries = entries;
+            this.age = age;
+        }
+    }
+}
@@ -0,0 +1,308 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.keyvalue.embedded;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Nullable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnel;
+import com.google.common.hash.PrimitiveSink;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.common.base.Throwables;
+import com.palantir.logsafe.SafeArg;
+
+/**
+ * An immutable, sorted file of entries of an {@link LsmTree}, written by {@link SegmentWriter}.
+ * <p>
+ * Only the block index and the bloom filter are held in memory; blocks are read from the file as they are needed, so
+ * that point lookups of cells that are not in the segment usually do not touch the disk at all.
+ * <p>
+ * Segments are reference counted. The tree holds one reference for as long as the segment is live, and each read
+ * holds another while it runs, so that a segment that is replaced by compaction while it is being read is only closed
+ * and deleted once the read has finished.
+ */
+final class Segment {
+    private static final Logger log = LoggerFactory.getLogger(Segment.class);
+
+    private final long number;
+    private final Path path;
+    private final FileChannel channel;
+    private final List<SegmentWriter.BlockHandle> blocks;
+    private final BloomFilter<Cell> bloomFilter;
+    private final long entryCount;
+    private final long sizeInBytes;
+    private final AtomicInteger references = new AtomicInteger(1);
+
+    private volatile boolean obsolete = false;
+
+    private Segment(long number, Path path, FileChannel channel, List<SegmentWriter.BlockHandle> blocks,
+            BloomFilter<Cell> bloomFilter, long entryCount, long sizeInBytes) {
+        this.number = number;
+        this.path = path;
+        this.channel = channel;
+        this.blocks = blocks;
+        this.bloomFilter = bloomFilter;
+        this.entryCount = entryCount;
+        this.sizeInBytes = sizeInBytes;
+    }
+
+    static Segment open(long number, Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if (size < SegmentWriter.FOOTER_BYTES) {
+                throw new IOException("Segment " + path + " is too short to be valid");
+            }
+            ByteBuffer footer = read(channel, size - SegmentWriter.FOOTER_BYTES, SegmentWriter.FOOTER_BYTES);
+            long indexOffset = footer.getLong();
+            long bloomFilterOffset = footer.getLong();
+            long entryCount = footer.getLong();
+            if (footer.getLong() != SegmentWriter.MAGIC) {
+                throw new IOException("Segment " + path + " does not end with the expected magic number");
+            }
+
+            DataInputStream index = stream(read(channel, indexOffset, (int) (bloomFilterOffset - indexOffset)));
+            int numBlocks = index.readInt();
+            List<SegmentWriter.BlockHandle> blocks = new ArrayList<>(numBlocks);
+            for (int i = 0; i < numBlocks; i++) {
+                LsmKey firstKey = LsmEntries.readKey(index);
+                blocks.add(new SegmentWriter.BlockHandle(firstKey, index.readLong(), index.readInt(), index.readInt()));
+            }
+
+            BloomFilter<Cell> bloomFilter = BloomFilter.readFrom(
+                    stream(read(channel, bloomFilterOffset,
+                            (int) (size - SegmentWriter.FOOTER_BYTES - bloomFilterOffset))),
+                    CellFunnel.INSTANCE);
+            return new Segment(number, path, channel, blocks, bloomFilter, entryCount, size);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    long number() {
+        return number;
+    }
+
+    long entryCount() {
+        return entryCount;
+    }
+
+    long sizeInBytes() {
+        return sizeInBytes;
+    }
+
+    boolean mightContain(Cell cell) {
+        return bloomFilter.mightContain(cell);
+    }
+
+    /**
+     * Returns the value of the given key, which may be {@link LsmEntries#TOMBSTONE}, or null if this segment does
+     * not have the key.
+     */
+    @Nullable
+    byte[] get(LsmKey key) {
+        if (!mightContain(key.toCell())) {
+            return null;
+        }
+        int block = lastBlockStartingAtOrBefore(key);
+        if (block < 0) {
+            return null;
+        }
+        for (Map.Entry<LsmKey, byte[]> entry : readBlock(block)) {
+            int comparison = entry.getKey().compareTo(key);
+            if (comparison == 0) {
+                return entry.getValue();
+            } else if (comparison > 0) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the entries of this segment in the given range, in increasing order of key or, if {@code reverse}, in
+     * decreasing order. Tombstones are included.
+     */
+    Iterator<Map.Entry<LsmKey, byte[]>> iterator(KeyRange range, boolean reverse) {
+        int startBlock;
+        if (reverse) {
+            startBlock = range.upper == null ? blocks.size() - 1 : lastBlockStartingAtOrBefore(range.upper);
+        } else {
+            startBlock = range.lower == null ? 0 : Math.max(lastBlockStartingAtOrBefore(range.lower), 0);
+        }
+        return new SegmentIterator(range, reverse, startBlock);
+    }
+
+    /**
+     * Takes a reference to this segment, which must be released once it is no longer being read. This must only be
+     * called while the caller knows that some other reference is held, which for reads is the tree's own reference.
+     */
+    void retain() {
+        int previous = references.getAndIncrement();
+        Preconditions.checkState(previous > 0, "Segment %s was retained after being closed", number);
+    }
+
+    void release() {
+        if (references.decrementAndGet() == 0) {
+            close();
+        }
+    }
+
+    /**
+     * Marks this segment as no longer part of the tree, so that its file is deleted once it is no longer being read.
+     * This does not release the tree's reference.
+     */
+    void markObsolete() {
+        obsolete = true;
+    }
+
+    private void close() {
+        try {
+            channel.close();
+            if (obsolete) {
+                Files.deleteIfExists(path);
+            }
+        } catch (IOException e) {
+            log.warn("Failed to close or delete segment {}", SafeArg.of("path", path.toString()), e);
+        }
+    }
+
+    private int lastBlockStartingAtOrBefore(LsmKey key) {
+        int low = 0;
+        int high = blocks.size() - 1;
+        int result = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (blocks.get(mid).firstKey.compareTo(key) <= 0) {
+                result = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return result;
+    }
+
+    private List<Map.Entry<LsmKey, byte[]>> readBlock(int block) {
+        SegmentWriter.BlockHandle handle = blocks.get(block);
+        try {
+            DataInputStream in = stream(read(channel, handle.offset, handle.length));
+            List<Map.Entry<LsmKey, byte[]>> entries = new ArrayList<>(handle.entryCount);
+            for (int i = 0; i < handle.entryCount; i++) {
+                entries.add(LsmEntries.readEntry(in));
+            }
+            return entries;
+        } catch (IOException e) {
+            throw Throwables.rewrapAndThrowUncheckedException("Failed to read block " + block + " of segment " + path,
+                    e);
+        }
+    }
+
+    private static ByteBuffer read(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of segment file");
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private static DataInputStream stream(ByteBuffer buffer) {
+        return new DataInputStream(new ByteArrayInputStream(buffer.array(), buffer.position(), buffer.remaining()));
+    }
+
+    private final class SegmentIterator extends AbstractIterator<Map.Entry<LsmKey, byte[]>> {
+        private final KeyRange range;
+        private final boolean reverse;
+        private int nextBlock;
+        private List<Map.Entry<LsmKey, byte[]>> entries = Collections.emptyList();
+        private int position = 0;
+
+        SegmentIterator(KeyRange range, boolean reverse, int startBlock) {
+            this.range = range;
+            this.reverse = reverse;
+            this.nextBlock = startBlock;
+        }
+
+        @Override
+        protected Map.Entry<LsmKey, byte[]> computeNext() {
+            while (true) {
+                if (position < 0 || position >= entries.size()) {
+                    if (nextBlock < 0 || nextBlock >= blocks.size()) {
+                        return endOfData();
+                    }
+                    entries = readBlock(nextBlock);
+                    position = reverse ? entries.size() - 1 : 0;
+                    nextBlock += reverse ? -1 : 1;
+                    continue;
+                }
+                Map.Entry<LsmKey, byte[]> entry = entries.get(position);
+                position += reverse ? -1 : 1;
+                LsmKey key = entry.getKey();
+                if (reverse) {
+                    if (!range.isBelowUpper(key)) {
+                        continue;
+                    }
+                    if (!range.isAboveLower(key)) {
+                        return endOfData();
+                    }
+                } else {
+                    if (!range.isAboveLower(key)) {
+                        continue;
+                    }
+                    if (!range.isBelowUpper(key)) {
+                        return endOfData();
+                    }
+                }
+                return entry;
+            }
+        }
+    }
+
+    enum CellFunnel implements Funnel<Cell> {
+        INSTANCE;
+
+        @Override
+        public void funnel(Cell cell, PrimitiveSink into) {
+            into.putInt(cell.getRowName().length);
+            into.putBytes(cell.getRowName());
+            into.putBytes(cell.getColumnName());
+        }
+    }
+}
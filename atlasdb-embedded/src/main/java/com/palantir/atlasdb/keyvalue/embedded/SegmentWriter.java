@@ -0,0 +1,147 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.keyvalue.embedded;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.hash.BloomFilter;
+import com.google.common.io.CountingOutputStream;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+
+/**
+ * Writes the sorted entries of a memtable, or of several segments being compacted, to a new {@link Segment} file.
+ * <p>
+ * The file consists of blocks of entries of roughly the configured block size, followed by an index holding the first
+ * key, position and size of each block, a bloom filter of the cells in the segment, and a fixed size footer locating
+ * the index and bloom filter.
+ */
+final class SegmentWriter {
+    static final long MAGIC = 0x61746c61734c534dL;
+    static final int FOOTER_BYTES = 4 * Long.BYTES;
+
+    private SegmentWriter() {
+        // utility
+    }
+
+    /**
+     * Writes the given entries, which must be in increasing order of key, to a new file at the given path, and syncs
+     * it to disk.
+     *
+     * @param expectedEntries an upper bound on the number of entries, used to size the bloom filter
+     */
+    static void write(
+            Path path,
+            Iterator<Map.Entry<LsmKey, byte[]>> entries,
+            long expectedEntries,
+            int blockSizeBytes,
+            double bloomFilterFalsePositiveProbability) throws IOException {
+        BloomFilter<Cell> bloomFilter = BloomFilter.create(
+                Segment.CellFunnel.INSTANCE, Math.max(expectedEntries, 1L), bloomFilterFalsePositiveProbability);
+        List<BlockHandle> blocks = new ArrayList<>();
+        long entryCount = 0;
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            CountingOutputStream counting = new CountingOutputStream(
+                    new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16));
+            DataOutputStream out = new DataOutputStream(counting);
+
+            ByteArrayOutputStream block = new ByteArrayOutputStream(blockSizeBytes);
+            DataOutputStream blockOut = new DataOutputStream(block);
+            int blockEntries = 0;
+            LsmKey blockFirstKey = null;
+            LsmKey previousKey = null;
+            while (entries.hasNext()) {
+                Map.Entry<LsmKey, byte[]> entry = entries.next();
+                LsmKey key = entry.getKey();
+                if (previousKey != null && previousKey.compareTo(key) >= 0) {
+                    throw new IllegalArgumentException("Entries must be in strictly increasing order of key, but "
+                            + previousKey + " was followed by " + key);
+                }
+                if (blockFirstKey == null) {
+                    blockFirstKey = key;
+                }
+                LsmEntries.writeEntry(blockOut, key, entry.getValue());
+                blockEntries++;
+                if (previousKey == null || !previousKey.matchesCell(key)) {
+                    bloomFilter.put(key.toCell());
+                }
+                previousKey = key;
+                entryCount++;
+
+                if (block.size() >= blockSizeBytes) {
+                    blocks.add(writeBlock(out, counting, block, blockFirstKey, blockEntries));
+                    block.reset();
+                    blockEntries = 0;
+                    blockFirstKey = null;
+                }
+            }
+            if (blockEntries > 0) {
+                blocks.add(writeBlock(out, counting, block, blockFirstKey, blockEntries));
+            }
+
+            long indexOffset = counting.getCount();
+            out.writeInt(blocks.size());
+            for (BlockHandle handle : blocks) {
+                LsmEntries.writeKey(out, handle.firstKey);
+                out.writeLong(handle.offset);
+                out.writeInt(handle.length);
+                out.writeInt(handle.entryCount);
+            }
+
+            long bloomFilterOffset = counting.getCount();
+            bloomFilter.writeTo(out);
+
+            out.writeLong(indexOffset);
+            out.writeLong(bloomFilterOffset);
+            out.writeLong(entryCount);
+            out.writeLong(MAGIC);
+            out.flush();
+            channel.force(true);
+        }
+    }
+
+    private static BlockHandle writeBlock(DataOutputStream out, CountingOutputStream counting,
+            ByteArrayOutputStream block, LsmKey firstKey, int entryCount) throws IOException {
+        long offset = counting.getCount();
+        block.writeTo(out);
+        return new BlockHandle(firstKey, offset, block.size(), entryCount);
+    }
+
+    static final class BlockHandle {
+        final LsmKey firstKey;
+        final long offset;
+        final int length;
+        final int entryCount;
+
+        BlockHandle(LsmKey firstKey, long offset, int length, int entryCount) {
+            this.firstKey = firstKey;
+            this.offset = offset;
+            this.length = length;
+            this.entryCount = entryCount;
+        }
+    }
+}
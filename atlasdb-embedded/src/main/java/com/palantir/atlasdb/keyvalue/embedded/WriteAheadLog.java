@@ -0,0 +1,161 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.keyvalue.embedded;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.io.ByteArrayDataOutput;
+import com.google.common.io.ByteStreams;
+import com.palantir.logsafe.SafeArg;
+
+/**
+ * An append-only log of the writes made to a {@link Memtable}, from which the memtable can be rebuilt after a crash.
+ * <p>
+ * Each call to {@link #append} writes a single record, containing its length, a CRC32 of its contents and then its
+ * entries, so that a batch of writes is either recovered entirely or not at all. A record that was only partially
+ * written when the process stopped fails its checksum, and it and anything after it are ignored on replay.
+ */
+final class WriteAheadLog implements Closeable {
+    private static final Logger log = LoggerFactory.getLogger(WriteAheadLog.class);
+    private static final int HEADER_BYTES = 2 * Integer.BYTES;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final boolean syncWrites;
+
+    private WriteAheadLog(Path path, FileChannel channel, boolean syncWrites) {
+        this.path = path;
+        this.channel = channel;
+        this.syncWrites = syncWrites;
+    }
+
+    static WriteAheadLog create(Path path, boolean syncWrites) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        return new WriteAheadLog(path, channel, syncWrites);
+    }
+
+    Path path() {
+        return path;
+    }
+
+    /**
+     * Appends the given entries as a single record. If this log syncs writes, the record is durable once this
+     * returns; otherwise it has only been handed to the operating system.
+     */
+    void append(List<Map.Entry<LsmKey, byte[]>> entries) throws IOException {
+        ByteArrayDataOutput payload = ByteStreams.newDataOutput();
+        payload.writeInt(entries.size());
+        for (Map.Entry<LsmKey, byte[]> entry : entries) {
+            LsmEntries.writeEntry(payload, entry.getKey(), entry.getValue());
+        }
+        byte[] payloadBytes = payload.toByteArray();
+
+        ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + payloadBytes.length);
+        record.putInt(payloadBytes.length);
+        record.putInt(checksum(payloadBytes, payloadBytes.length));
+        record.put(payloadBytes);
+        record.flip();
+        while (record.hasRemaining()) {
+            channel.write(record);
+        }
+        if (syncWrites) {
+            channel.force(false);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Passes every entry of every complete record in the log at the given path to the consumer, in the order in
+     * which they were appended.
+     */
+    static void replay(Path path, Consumer<Map.Entry<LsmKey, byte[]>> consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long position = 0;
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            while (true) {
+                header.clear();
+                if (!readFully(channel, header, position)) {
+                    if (header.position() > 0) {
+                        logIncompleteRecord(path, position);
+                    }
+                    return;
+                }
+                header.flip();
+                int length = header.getInt();
+                int expectedChecksum = header.getInt();
+                if (length < 0 || position + HEADER_BYTES + length > channel.size()) {
+                    logIncompleteRecord(path, position);
+                    return;
+                }
+                ByteBuffer payload = ByteBuffer.allocate(length);
+                readFully(channel, payload, position + HEADER_BYTES);
+                if (checksum(payload.array(), length) != expectedChecksum) {
+                    logIncompleteRecord(path, position);
+                    return;
+                }
+                DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload.array()));
+                int count = in.readInt();
+                for (int i = 0; i < count; i++) {
+                    consumer.accept(LsmEntries.readEntry(in));
+                }
+                position += HEADER_BYTES + length;
+            }
+        } catch (EOFException e) {
+            throw new IOException("Write-ahead log " + path + " contains a malformed record", e);
+        }
+    }
+
+    private static boolean readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int checksum(byte[] bytes, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, length);
+        return (int) crc.getValue();
+    }
+
+    private static void logIncompleteRecord(Path path, long position) {
+        log.warn("Ignoring an incomplete record at position {} of write-ahead log {}, which was probably being"
+                        + " written when the process stopped.",
+                SafeArg.of("position", position),
+                SafeArg.of("path", path.toString()));
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.keyvalue.embedded;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+
+import org.junit.ClassRule;
+
+import com.palantir.atlasdb.keyvalue.impl.AbstractKeyValueServiceTest;
+import com.palantir.atlasdb.keyvalue.impl.TestResourceManager;
+
+public class EmbeddedKeyValueServiceTest extends AbstractKeyValueServiceTest {
+    @ClassRule
+    public static final TestResourceManager TRM = new TestResourceManager(() -> {
+        try {
+            return EmbeddedKeyValueService.create(ImmutableEmbeddedKeyValueConfig.builder()
+                    .dataDirectory(Files.createTempDirectory("embedded-kvs").toString())
+                    .memtableFlushThresholdBytes(64 * 1024)
+                    .maxSegmentsPerTable(2)
+                    .build());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    });
+
+    public EmbeddedKeyValueServiceTest() {
+        super(TRM);
+    }
+}
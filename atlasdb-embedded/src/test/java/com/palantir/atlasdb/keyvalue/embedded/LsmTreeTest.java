@@ -0,0 +1,188 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.keyvalue.embedded;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.palantir.atlasdb.encoding.PtBytes;
+import com.palantir.common.base.ClosableIterator;
+
+public class LsmTreeTest {
+    private static final int KEYS = 1_000;
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private final ExecutorService executor = MoreExecutors.newDirectExecutorService();
+    private final EmbeddedKeyValueConfig config = ImmutableEmbeddedKeyValueConfig.builder()
+            .dataDirectory("unused")
+            .memtableFlushThresholdBytes(4 * 1024)
+            .maxSegmentsPerTable(4)
+            .blockSizeBytes(512)
+            .syncWrites(false)
+            .build();
+
+    private LsmTree tree;
+
+    @Before
+    public void setUp() throws IOException {
+        tree = open();
+    }
+
+    @After
+    public void tearDown() {
+        tree.close();
+    }
+
+    @Test
+    public void readsWritesFromMemtableAndSegments() {
+        writeKeys(0, KEYS, "value");
+
+        assertThat(tree.numberOfSegments()).isGreaterThan(0);
+        for (int i = 0; i < KEYS; i++) {
+            assertThat(tree.get(key(i))).isEqualTo(value(i, "value"));
+        }
+        assertThat(tree.get(key(KEYS))).isNull();
+    }
+
+    @Test
+    public void compactsSegmentsInTheBackground() {
+        writeKeys(0, KEYS, "value");
+
+        assertThat(tree.numberOfSegments()).isLessThanOrEqualTo(config.maxSegmentsPerTable());
+        assertThat(scanAll()).hasSize(KEYS);
+    }
+
+    @Test
+    public void newerValuesShadowOlderValuesAcrossSegments() {
+        writeKeys(0, KEYS, "old");
+        writeKeys(0, KEYS, "new");
+        delete(0);
+
+        assertThat(tree.get(key(0))).isNull();
+        assertThat(tree.get(key(1))).isEqualTo(value(1, "new"));
+        List<Map.Entry<LsmKey, byte[]>> entries = scanAll();
+        assertThat(entries).hasSize(KEYS - 1);
+        assertThat(entries.get(0).getValue()).isEqualTo(value(1, "new"));
+    }
+
+    @Test
+    public void scansInReverse() {
+        writeKeys(0, 10, "value");
+
+        try (ClosableIterator<Map.Entry<LsmKey, byte[]>> scan = tree.scan(KeyRange.ALL, true, null)) {
+            assertThat(scan.next().getKey()).isEqualTo(key(9));
+        }
+    }
+
+    @Test
+    public void compactFullyDropsDeletions() {
+        writeKeys(0, KEYS, "value");
+        for (int i = 0; i < KEYS; i += 2) {
+            delete(i);
+        }
+
+        tree.compactFully();
+
+        assertThat(tree.numberOfSegments()).isEqualTo(1);
+        assertThat(scanAll()).hasSize(KEYS / 2);
+    }
+
+    @Test
+    public void recoversWritesAfterReopening() throws IOException {
+        writeKeys(0, KEYS, "value");
+        delete(0);
+
+        tree.close();
+        tree = open();
+
+        assertThat(tree.get(key(0))).isNull();
+        assertThat(tree.get(key(KEYS - 1))).isEqualTo(value(KEYS - 1, "value"));
+        assertThat(scanAll()).hasSize(KEYS - 1);
+    }
+
+    @Test
+    public void putIfAbsentWritesUpToFirstExistingKey() {
+        writeKeys(1, 2, "existing");
+
+        LsmTree.ExistingValue existing = tree.putIfAbsent(ImmutableList.of(
+                LsmEntries.entry(key(0), value(0, "new")),
+                LsmEntries.entry(key(1), value(1, "new")),
+                LsmEntries.entry(key(2), value(2, "new"))));
+
+        assertThat(existing.index).isEqualTo(1);
+        assertThat(existing.value).isEqualTo(value(1, "existing"));
+        assertThat(tree.get(key(0))).isEqualTo(value(0, "new"));
+        assertThat(tree.get(key(2))).isNull();
+    }
+
+    @Test
+    public void clearDeletesEverythingDurably() throws IOException {
+        writeKeys(0, KEYS, "value");
+
+        tree.clear();
+        assertThat(scanAll()).isEmpty();
+
+        tree.close();
+        tree = open();
+        assertThat(scanAll()).isEmpty();
+        assertThat(tree.numberOfSegments()).isEqualTo(0);
+    }
+
+    private LsmTree open() throws IOException {
+        return LsmTree.open(folder.getRoot().toPath(), config, executor);
+    }
+
+    private void writeKeys(int start, int end, String prefix) {
+        for (int i = start; i < end; i++) {
+            tree.write(ImmutableList.of(LsmEntries.entry(key(i), value(i, prefix))));
+        }
+    }
+
+    private void delete(int i) {
+        tree.write(ImmutableList.of(LsmEntries.entry(key(i), LsmEntries.TOMBSTONE)));
+    }
+
+    private List<Map.Entry<LsmKey, byte[]>> scanAll() {
+        List<Map.Entry<LsmKey, byte[]>> entries = new ArrayList<>();
+        try (ClosableIterator<Map.Entry<LsmKey, byte[]>> scan = tree.scan(KeyRange.ALL, false, null)) {
+            scan.forEachRemaining(entries::add);
+        }
+        return entries;
+    }
+
+    private static LsmKey key(int i) {
+        return new LsmKey(PtBytes.toBytes(String.format("row%05d", i)), PtBytes.toBytes("col"), 1L);
+    }
+
+    private static byte[] value(int i, String prefix) {
+        return PtBytes.toBytes(prefix + i);
+    }
+}
@@ -175,15 +175,17 @@ public final class LatestSnapshotTable implements
 
         @Override
         public byte[] persistToBytes() {
-            byte[] keyBytes = PtBytes.toBytes(Long.MIN_VALUE ^ key);
-            return EncodingUtils.add(keyBytes);
+            byte[] __output = new byte[8];
+            int __index = 0;
+            EncodingUtils.encodeFixedLong(Long.MIN_VALUE ^ key, __output, __index);
+            return __output;
         }
 
         public static final Hydrator<LatestSnapshotRow> BYTES_HYDRATOR = new Hydrator<LatestSnapshotRow>() {
             @Override
             public LatestSnapshotRow hydrateFromBytes(byte[] __input) {
                 int __index = 0;
-                Long key = Long.MIN_VALUE ^ PtBytes.toLong(__input, __index);
+                long key = Long.MIN_VALUE ^ PtBytes.toLong(__input, __index);
                 __index += 8;
                 return new LatestSnapshotRow(key);
             }
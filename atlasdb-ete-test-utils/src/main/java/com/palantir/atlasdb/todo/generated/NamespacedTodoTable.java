@@ -265,15 +265,17 @@ public final class NamespacedTodoTable implements
 
         @Override
         public byte[] persistToBytes() {
-            byte[] todoIdBytes = PtBytes.toBytes(Long.MIN_VALUE ^ todoId);
-            return EncodingUtils.add(todoIdBytes);
+            byte[] __output = new byte[8];
+            int __index = 0;
+            EncodingUtils.encodeFixedLong(Long.MIN_VALUE ^ todoId, __output, __index);
+            return __output;
         }
 
         public static final Hydrator<NamespacedTodoColumn> BYTES_HYDRATOR = new Hydrator<NamespacedTodoColumn>() {
             @Override
             public NamespacedTodoColumn hydrateFromBytes(byte[] __input) {
                 int __index = 0;
-                Long todoId = Long.MIN_VALUE ^ PtBytes.toLong(__input, __index);
+                long todoId = Long.MIN_VALUE ^ PtBytes.toLong(__input, __index);
                 __index += 8;
                 return new NamespacedTodoColumn(todoId);
             }
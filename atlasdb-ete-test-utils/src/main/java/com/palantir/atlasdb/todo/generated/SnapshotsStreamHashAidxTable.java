@@ -265,15 +265,17 @@ public final class SnapshotsStreamHashAidxTable implements
 
         @Override
         public byte[] persistToBytes() {
-            byte[] streamIdBytes = PtBytes.toBytes(Long.MIN_VALUE ^ streamId);
-            return EncodingUtils.add(streamIdBytes);
+            byte[] __output = new byte[8];
+            int __index = 0;
+            EncodingUtils.encodeFixedLong(Long.MIN_VALUE ^ streamId, __output, __index);
+            return __output;
         }
 
         public static final Hydrator<SnapshotsStreamHashAidxColumn> BYTES_HYDRATOR = new Hydrator<SnapshotsStreamHashAidxColumn>() {
             @Override
             public SnapshotsStreamHashAidxColumn hydrateFromBytes(byte[] __input) {
                 int __index = 0;
-                Long streamId = Long.MIN_VALUE ^ PtBytes.toLong(__input, __index);
+                long streamId = Long.MIN_VALUE ^ PtBytes.toLong(__input, __index);
                 __index += 8;
                 return new SnapshotsStreamHashAidxColumn(streamId);
             }
@@ -175,15 +175,17 @@ public final class SnapshotsStreamMetadataTable implements
 
         @Override
         public byte[] persistToBytes() {
-            byte[] idBytes = PtBytes.toBytes(Long.MIN_VALUE ^ id);
-            return EncodingUtils.add(idBytes);
+            byte[] __output = new byte[8];
+            int __index = 0;
+            EncodingUtils.encodeFixedLong(Long.MIN_VALUE ^ id, __output, __index);
+            return __output;
         }
 
         public static final Hydrator<SnapshotsStreamMetadataRow> BYTES_HYDRATOR = new Hydrator<SnapshotsStreamMetadataRow>() {
             @Override
             public SnapshotsStreamMetadataRow hydrateFromBytes(byte[] __input) {
                 int __index = 0;
-                Long id = Long.MIN_VALUE ^ PtBytes.toLong(__input, __index);
+                long id = Long.MIN_VALUE ^ PtBytes.toLong(__input, __index);
                 __index += 8;
                 return new SnapshotsStreamMetadataRow(id);
             }
@@ -265,15 +265,17 @@ public final class HotspottyDataStreamHashAidxTable implements
 
         @Override
         public byte[] persistToBytes() {
-            byte[] streamIdBytes = EncodingUtils.encodeSignedVarLong(streamId);
-            return EncodingUtils.add(streamIdBytes);
+            byte[] __output = new byte[EncodingUtils.sizeOfSignedVarLong(streamId)];
+            int __index = 0;
+            EncodingUtils.encodeSignedVarLong(streamId, __output, __index);
+            return __output;
         }
 
         public static final Hydrator<HotspottyDataStreamHashAidxColumn> BYTES_HYDRATOR = new Hydrator<HotspottyDataStreamHashAidxColumn>() {
             @Override
             public HotspottyDataStreamHashAidxColumn hydrateFromBytes(byte[] __input) {
                 int __index = 0;
-                Long streamId = EncodingUtils.decodeSignedVarLong(__input, __index);
+                long streamId = EncodingUtils.decodeSignedVarLong(__input, __index);
                 __index += EncodingUtils.sizeOfSignedVarLong(streamId);
                 return new HotspottyDataStreamHashAidxColumn(streamId);
             }
@@ -173,15 +173,17 @@ public final class HotspottyDataStreamIdxTable implements
 
         @Override
         public byte[] persistToBytes() {
-            byte[] idBytes = EncodingUtils.encodeSignedVarLong(id);
-            return EncodingUtils.add(idBytes);
+            byte[] __output = new byte[EncodingUtils.sizeOfSignedVarLong(id)];
+            int __index = 0;
+            EncodingUtils.encodeSignedVarLong(id, __output, __index);
+            return __output;
         }
 
         public static final Hydrator<HotspottyDataStreamIdxRow> BYTES_HYDRATOR = new Hydrator<HotspottyDataStreamIdxRow>() {
             @Override
             public HotspottyDataStreamIdxRow hydrateFromBytes(byte[] __input) {
                 int __index = 0;
-                Long id = EncodingUtils.decodeSignedVarLong(__input, __index);
+                long id = EncodingUtils.decodeSignedVarLong(__input, __index);
                 __index += EncodingUtils.sizeOfSignedVarLong(id);
                 return new HotspottyDataStreamIdxRow(id);
             }
@@ -175,15 +175,17 @@ public final class HotspottyDataStreamMetadataTable implements
 
         @Override
         public byte[] persistToBytes() {
-            byte[] idBytes = EncodingUtils.encodeSignedVarLong(id);
-            return EncodingUtils.add(idBytes);
+            byte[] __output = new byte[EncodingUtils.sizeOfSignedVarLong(id)];
+            int __index = 0;
+            EncodingUtils.encodeSignedVarLong(id, __output, __index);
+            return __output;
         }
 
         public static final Hydrator<HotspottyDataStreamMetadataRow> BYTES_HYDRATOR = new Hydrator<HotspottyDataStreamMetadataRow>() {
             @Override
             public HotspottyDataStreamMetadataRow hydrateFromBytes(byte[] __input) {
                 int __index = 0;
-                Long id = EncodingUtils.decodeSignedVarLong(__input, __index);
+                long id = EncodingUtils.decodeSignedVarLong(__input, __index);
                 __index += EncodingUtils.sizeOfSignedVarLong(id);
                 return new HotspottyDataStreamMetadataRow(id);
             }
@@ -108,12 +108,14 @@ public class DefaultCleanerBuilder {
 
     private Puncher buildPuncher() {
         PuncherStore keyValuePuncherStore = KeyValueServicePuncherStore.create(keyValueService, initalizeAsync);
-        PuncherStore cachingPuncherStore = CachingPuncherStore.create(
+        PuncherStore indexedPuncherStore = IndexedPuncherStore.create(
+                keyValueService,
                 keyValuePuncherStore,
-                punchIntervalMillis * 3);
+                punchIntervalMillis,
+                transactionReadTimeout * 2);
         Clock clock = GlobalClock.create(timelockService);
         SimplePuncher simplePuncher = SimplePuncher.create(
-                cachingPuncherStore,
+                indexedPuncherStore,
                 clock,
                 Suppliers.ofInstance(transactionReadTimeout));
         return AsyncPuncher.create(simplePuncher, punchIntervalMillis);
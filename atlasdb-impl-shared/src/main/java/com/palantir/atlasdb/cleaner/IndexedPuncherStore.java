@@ -0,0 +1,120 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.cleaner;
+
+import java.util.OptionalLong;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.palantir.atlasdb.keyvalue.api.KeyValueService;
+import com.palantir.common.time.Clock;
+
+/**
+ * A {@link PuncherStore} that answers lookups from an in-memory {@link PunchIndex} of the recent punches in the punch
+ * table, rather than with a range scan of the punch table per lookup.
+ * <p>
+ * The index is first loaded with the punches made in the last {@code historyMillis}, and thereafter its tail is
+ * refreshed with the punches made since the latest one it has, at most once every {@code refreshIntervalMillis}, while
+ * punches older than {@code historyMillis} are dropped from its head. Lookups that the index cannot answer, because
+ * they precede all of its punches, are passed on to the delegate.
+ * <p>
+ * A punch made after the index was refreshed past its time, for instance by a client whose clock is behind, is not
+ * picked up. Lookups may then return an earlier punch than the delegate would, which is conservative for scrubbing.
+ */
+public final class IndexedPuncherStore implements PuncherStore {
+    private final KeyValueService keyValueService;
+    private final PuncherStore delegate;
+    private final Clock clock;
+    private final long refreshIntervalMillis;
+    private final long historyMillis;
+
+    private volatile PunchIndex index = null;
+    private volatile long lastRefreshMillis;
+    private long latestLoadedMillis;
+
+    public static IndexedPuncherStore create(
+            KeyValueService keyValueService,
+            PuncherStore delegate,
+            long refreshIntervalMillis,
+            long historyMillis) {
+        return new IndexedPuncherStore(
+                keyValueService, delegate, System::currentTimeMillis, refreshIntervalMillis, historyMillis);
+    }
+
+    @VisibleForTesting
+    IndexedPuncherStore(
+            KeyValueService keyValueService,
+            PuncherStore delegate,
+            Clock clock,
+            long refreshIntervalMillis,
+            long historyMillis) {
+        this.keyValueService = keyValueService;
+        this.delegate = delegate;
+        this.clock = clock;
+        this.refreshIntervalMillis = refreshIntervalMillis;
+        this.historyMillis = historyMillis;
+    }
+
+    @Override
+    public boolean isInitialized() {
+        return delegate.isInitialized();
+    }
+
+    @Override
+    public void put(long timestamp, long timeMillis) {
+        delegate.put(timestamp, timeMillis);
+    }
+
+    @Override
+    public Long get(Long timeMillis) {
+        if (!delegate.isInitialized()) {
+            return delegate.get(timeMillis);
+        }
+        OptionalLong timestamp = getRefreshedIndex().getTimestamp(timeMillis);
+        return timestamp.isPresent() ? timestamp.getAsLong() : delegate.get(timeMillis);
+    }
+
+    @Override
+    public long getMillisForTimestamp(long timestamp) {
+        if (!delegate.isInitialized()) {
+            return delegate.getMillisForTimestamp(timestamp);
+        }
+        OptionalLong millis = getRefreshedIndex().getMillis(timestamp);
+        return millis.isPresent() ? millis.getAsLong() : delegate.getMillisForTimestamp(timestamp);
+    }
+
+    private PunchIndex getRefreshedIndex() {
+        PunchIndex current = index;
+        if (current != null && clock.getTimeMillis() - lastRefreshMillis < refreshIntervalMillis) {
+            return current;
+        }
+        synchronized (this) {
+            long now = clock.getTimeMillis();
+            if (index != null && now - lastRefreshMillis < refreshIntervalMillis) {
+                return index;
+            }
+            long retainFromMillis = now - historyMillis;
+            if (index == null) {
+                latestLoadedMillis = retainFromMillis - 1;
+                index = PunchIndex.EMPTY;
+            }
+            PunchIndex tail = KeyValueServicePuncherStore.loadPunchesAfter(keyValueService, latestLoadedMillis);
+            latestLoadedMillis = tail.getLatestMillis(latestLoadedMillis);
+            index = index.append(tail, retainFromMillis);
+            lastRefreshMillis = now;
+            return index;
+        }
+    }
+}
@@ -33,6 +33,8 @@ import com.palantir.atlasdb.table.description.TableMetadata;
 import com.palantir.atlasdb.table.description.ValueType;
 import com.palantir.common.base.ClosableIterator;
 
+import gnu.trove.list.array.TLongArrayList;
+
 /**
  * A PuncherStore implemented as a table in the KeyValueService.
  *
@@ -122,6 +124,43 @@ public final class KeyValueServicePuncherStore implements PuncherStore {
         return getMillisForTimestamp(keyValueService, timestamp);
     }
 
+    /**
+     * Loads the latest punch for each time strictly after the given time into a {@link PunchIndex}.
+     *
+     * @param kvs the KVS to query.
+     * @param timeMillisExclusive only punches made after this time are loaded; if negative, all punches are loaded.
+     */
+    static PunchIndex loadPunchesAfter(KeyValueService kvs, long timeMillisExclusive) {
+        byte[] startRow = EncodingUtils.encodeUnsignedVarLong(Long.MAX_VALUE);
+        EncodingUtils.flipAllBitsInPlace(startRow);
+        RangeRequest.Builder rangeRequest = RangeRequest.builder()
+                .startRowInclusive(startRow)
+                .retainColumns(ImmutableList.of(COLUMN))
+                .batchHint(1000);
+        if (timeMillisExclusive >= 0) {
+            byte[] endRow = EncodingUtils.encodeUnsignedVarLong(timeMillisExclusive);
+            EncodingUtils.flipAllBitsInPlace(endRow);
+            rangeRequest.endRowExclusive(endRow);
+        }
+
+        // rows are in decreasing order of time
+        TLongArrayList millis = new TLongArrayList();
+        TLongArrayList timestamps = new TLongArrayList();
+        try (ClosableIterator<RowResult<Value>> result = kvs.getRange(AtlasDbConstants.PUNCH_TABLE,
+                rangeRequest.build(), Long.MAX_VALUE)) {
+            while (result.hasNext()) {
+                RowResult<Value> row = result.next();
+                byte[] encodedMillis = row.getRowName();
+                EncodingUtils.flipAllBitsInPlace(encodedMillis);
+                millis.add(EncodingUtils.decodeUnsignedVarLong(encodedMillis));
+                timestamps.add(EncodingUtils.decodeUnsignedVarLong(row.getColumns().get(COLUMN).getContents()));
+            }
+        }
+        millis.reverse();
+        timestamps.reverse();
+        return new PunchIndex(millis.toArray(), timestamps.toArray());
+    }
+
     /**
      * Returns the real time in milliseconds corresponding to the given timestamp.
      *
@@ -0,0 +1,105 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.cleaner;
+
+import java.util.Arrays;
+import java.util.OptionalLong;
+
+/**
+ * An immutable, sorted index of punches, held in primitive arrays in increasing order of wall clock time.
+ * <p>
+ * Punches need not be in the same order by timestamp as by time, since they may be made by clients with skewed
+ * clocks. To find the latest punch at or before a timestamp by binary search regardless, the index also keeps, for
+ * each punch, the least timestamp of it and all later punches.
+ */
+final class PunchIndex {
+    static final PunchIndex EMPTY = new PunchIndex(new long[0], new long[0]);
+
+    private final long[] millis;
+    private final long[] timestamps;
+    private final long[] minTimestampsFrom;
+
+    /**
+     * Creates an index of the given punches, which must be in strictly increasing order of time.
+     */
+    PunchIndex(long[] millis, long[] timestamps) {
+        this.millis = millis;
+        this.timestamps = timestamps;
+        this.minTimestampsFrom = new long[timestamps.length];
+        long minTimestamp = Long.MAX_VALUE;
+        for (int i = timestamps.length - 1; i >= 0; i--) {
+            minTimestamp = Math.min(minTimestamp, timestamps[i]);
+            minTimestampsFrom[i] = minTimestamp;
+        }
+    }
+
+    int size() {
+        return millis.length;
+    }
+
+    /**
+     * Returns the time of the latest punch in the index, or the given default if the index is empty.
+     */
+    long getLatestMillis(long defaultMillis) {
+        return millis.length == 0 ? defaultMillis : millis[millis.length - 1];
+    }
+
+    /**
+     * Returns the timestamp of the latest punch at or before the given time, if the index has one.
+     */
+    OptionalLong getTimestamp(long timeMillis) {
+        int insertionPoint = Arrays.binarySearch(millis, timeMillis);
+        int index = insertionPoint >= 0 ? insertionPoint : -insertionPoint - 2;
+        return index >= 0 ? OptionalLong.of(timestamps[index]) : OptionalLong.empty();
+    }
+
+    /**
+     * Returns the time of the latest punch whose timestamp is at or before the given timestamp, if the index has one.
+     */
+    OptionalLong getMillis(long timestamp) {
+        // minTimestampsFrom is non-decreasing, and the last position at which it is at most the given timestamp is the
+        // latest punch at or before that timestamp
+        int low = 0;
+        int high = minTimestampsFrom.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (minTimestampsFrom[mid] <= timestamp) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low > 0 ? OptionalLong.of(millis[low - 1]) : OptionalLong.empty();
+    }
+
+    /**
+     * Returns an index of the punches of this index made at or after the given time, followed by those of the given
+     * index, all of which must be later than those of this index.
+     */
+    PunchIndex append(PunchIndex later, long retainFromMillis) {
+        int insertionPoint = Arrays.binarySearch(millis, retainFromMillis);
+        int firstRetained = insertionPoint >= 0 ? insertionPoint : -insertionPoint - 1;
+        if (firstRetained == 0 && later.size() == 0) {
+            return this;
+        }
+        int retained = millis.length - firstRetained;
+        long[] newMillis = Arrays.copyOfRange(millis, firstRetained, millis.length + later.size());
+        long[] newTimestamps = Arrays.copyOfRange(timestamps, firstRetained, timestamps.length + later.size());
+        System.arraycopy(later.millis, 0, newMillis, retained, later.size());
+        System.arraycopy(later.timestamps, 0, newTimestamps, retained, later.size());
+        return new PunchIndex(newMillis, newTimestamps);
+    }
+}
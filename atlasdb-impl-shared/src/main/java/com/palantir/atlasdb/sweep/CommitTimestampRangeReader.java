@@ -0,0 +1,142 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.sweep;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.collect.ImmutableList;
+import com.palantir.atlasdb.encoding.PtBytes;
+import com.palantir.atlasdb.keyvalue.api.BatchColumnRangeSelection;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.CheckAndSetCompatibility;
+import com.palantir.atlasdb.keyvalue.api.ColumnSelection;
+import com.palantir.atlasdb.keyvalue.api.KeyValueService;
+import com.palantir.atlasdb.keyvalue.api.RangeRequest;
+import com.palantir.atlasdb.keyvalue.api.RowColumnRangeIterator;
+import com.palantir.atlasdb.keyvalue.api.RowResult;
+import com.palantir.atlasdb.keyvalue.api.Value;
+import com.palantir.atlasdb.transaction.encoding.TicketsEncodingStrategy;
+import com.palantir.atlasdb.transaction.encoding.V1EncodingStrategy;
+import com.palantir.atlasdb.transaction.impl.TransactionConstants;
+import com.palantir.common.base.ClosableIterator;
+
+/**
+ * Reads the commit timestamps of all transactions whose start timestamps lie in a given range with range scans of the
+ * transactions tables, rather than looking up each start timestamp individually.
+ * <p>
+ * Rows of {@link TransactionConstants#TRANSACTION_TABLE} are ordered by start timestamp, so a single range scan
+ * suffices. {@link TransactionConstants#TRANSACTIONS2_TABLE} spreads the start timestamps of each partitioning quantum
+ * over {@link TicketsEncodingStrategy#ROWS_PER_QUANTUM} rows, but within each row the columns are again ordered by
+ * start timestamp, so one column range scan of each of those rows suffices. The latter table is only read if the key
+ * value service supports the transaction service that writes to it.
+ * <p>
+ * Transactions that have not yet committed or been rolled back are not reported.
+ */
+final class CommitTimestampRangeReader {
+    private static final int BATCH_SIZE = 1000;
+    // All entries in the transactions tables are written at timestamp 0
+    private static final long READ_TIMESTAMP = 1L;
+
+    interface CommitTimestampVisitor {
+        void visit(long startTimestamp, long commitTimestamp);
+    }
+
+    private final KeyValueService kvs;
+
+    CommitTimestampRangeReader(KeyValueService kvs) {
+        this.kvs = kvs;
+    }
+
+    void read(long startTsInclusive, long endTsExclusive, CommitTimestampVisitor visitor) {
+        if (startTsInclusive >= endTsExclusive) {
+            return;
+        }
+        readDirectlyEncoded(startTsInclusive, endTsExclusive, visitor);
+        if (kvs.getCheckAndSetCompatibility() == CheckAndSetCompatibility.SUPPORTED_DETAIL_ON_FAILURE) {
+            readTicketsEncoded(startTsInclusive, endTsExclusive, visitor);
+        }
+    }
+
+    private void readDirectlyEncoded(long startTsInclusive, long endTsExclusive, CommitTimestampVisitor visitor) {
+        RangeRequest request = RangeRequest.builder()
+                .startRowInclusive(TransactionConstants.getValueForTimestamp(startTsInclusive))
+                .endRowExclusive(TransactionConstants.getValueForTimestamp(endTsExclusive))
+                .retainColumns(ColumnSelection.create(ImmutableList.of(TransactionConstants.COMMIT_TS_COLUMN)))
+                .batchHint(BATCH_SIZE)
+                .build();
+        try (ClosableIterator<RowResult<Value>> rows =
+                kvs.getRange(TransactionConstants.TRANSACTION_TABLE, request, READ_TIMESTAMP)) {
+            while (rows.hasNext()) {
+                for (Map.Entry<Cell, Value> entry : rows.next().getCells()) {
+                    long startTs = V1EncodingStrategy.INSTANCE.decodeCellAsStartTimestamp(entry.getKey());
+                    visitor.visit(startTs, V1EncodingStrategy.INSTANCE.decodeValueAsCommitTimestamp(
+                            startTs, entry.getValue().getContents()));
+                }
+            }
+        }
+    }
+
+    private void readTicketsEncoded(long startTsInclusive, long endTsExclusive, CommitTimestampVisitor visitor) {
+        long quantum = TicketsEncodingStrategy.PARTITIONING_QUANTUM;
+        for (long quantumStart = startTsInclusive - startTsInclusive % quantum;
+                quantumStart < endTsExclusive;
+                quantumStart += quantum) {
+            long rangeStart = Math.max(startTsInclusive, quantumStart);
+            long rangeEnd = Math.min(endTsExclusive, quantumStart + quantum);
+            readTicketsEncodedWithinQuantum(quantumStart, rangeStart, rangeEnd, visitor);
+        }
+    }
+
+    /**
+     * Within a quantum, the start timestamp {@code quantumStart + column * ROWS_PER_QUANTUM + row} is stored in the
+     * given row and column, so the start timestamps in the range are stored in the same range of columns of every row.
+     * The first and last of these columns may also hold start timestamps just outside the range, which are skipped.
+     */
+    private void readTicketsEncodedWithinQuantum(long quantumStart, long rangeStart, long rangeEnd,
+            CommitTimestampVisitor visitor) {
+        int rowsPerQuantum = TicketsEncodingStrategy.ROWS_PER_QUANTUM;
+        List<byte[]> rows = new ArrayList<>(rowsPerQuantum);
+        for (int row = 0; row < rowsPerQuantum; row++) {
+            rows.add(TicketsEncodingStrategy.INSTANCE.encodeStartTimestampAsCell(quantumStart + row).getRowName());
+        }
+
+        long firstColumnStart = rangeStart - (rangeStart - quantumStart) % rowsPerQuantum;
+        long nextColumnStart = rangeEnd - 1 - (rangeEnd - 1 - quantumStart) % rowsPerQuantum + rowsPerQuantum;
+        byte[] startColumn = TicketsEncodingStrategy.INSTANCE.encodeStartTimestampAsCell(firstColumnStart)
+                .getColumnName();
+        byte[] endColumn = nextColumnStart >= quantumStart + TicketsEncodingStrategy.PARTITIONING_QUANTUM
+                ? PtBytes.EMPTY_BYTE_ARRAY
+                : TicketsEncodingStrategy.INSTANCE.encodeStartTimestampAsCell(nextColumnStart).getColumnName();
+
+        Map<byte[], RowColumnRangeIterator> results = kvs.getRowsColumnRange(
+                TransactionConstants.TRANSACTIONS2_TABLE,
+                rows,
+                BatchColumnRangeSelection.create(startColumn, endColumn, BATCH_SIZE),
+                READ_TIMESTAMP);
+        for (RowColumnRangeIterator iterator : results.values()) {
+            while (iterator.hasNext()) {
+                Map.Entry<Cell, Value> entry = iterator.next();
+                long startTs = TicketsEncodingStrategy.INSTANCE.decodeCellAsStartTimestamp(entry.getKey());
+                if (rangeStart <= startTs && startTs < rangeEnd) {
+                    visitor.visit(startTs, TicketsEncodingStrategy.INSTANCE.decodeValueAsCommitTimestamp(
+                            startTs, entry.getValue().getContents()));
+                }
+            }
+        }
+    }
+}
@@ -16,33 +16,88 @@
 package com.palantir.atlasdb.sweep;
 
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.ExecutionException;
+import java.util.Set;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Range;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.palantir.atlasdb.cache.PrimitiveTimestampCache;
+import com.palantir.atlasdb.keyvalue.api.KeyValueService;
 import com.palantir.atlasdb.transaction.service.TransactionService;
-import com.palantir.common.base.Throwables;
+import com.palantir.common.concurrent.NamedThreadFactory;
+import com.palantir.common.concurrent.PTExecutors;
+import com.palantir.logsafe.SafeArg;
 
+/**
+ * Caches the commit timestamps of transactions for sweep, rolling back transactions that have not yet committed when
+ * their commit timestamp is loaded.
+ * <p>
+ * Commit timestamps are held as primitive longs in a {@link PrimitiveTimestampCache}. Batches of start timestamps can
+ * be loaded asynchronously, and if the cache was created with a key value service, whole ranges of start timestamps
+ * can be prefilled with range scans of the transactions tables, which is much cheaper than looking up each of them.
+ * <p>
+ * A single cache may be shared between targeted and legacy sweep.
+ */
 public final class CommitTsCache {
-    private static final Long ONE_MILLION = 1_000_000L;
-    private LoadingCache<Long, Long> cache;
+    private static final Logger log = LoggerFactory.getLogger(CommitTsCache.class);
+
+    private static final long ONE_MILLION = 1_000_000L;
+    private static final long NOT_CACHED = Long.MIN_VALUE;
+    private static final int MAX_PREFILLED_RANGES_TRACKED = 1024;
 
-    private CommitTsCache(TransactionService transactionService, long maxSize) {
-        cache = CacheBuilder.newBuilder().maximumSize(maxSize).build(new AbortingCommitTsLoader(transactionService));
+    private final PrimitiveTimestampCache cache;
+    private final AbortingCommitTsLoader loader;
+    private final Optional<CommitTimestampRangeReader> rangeReader;
+    private final ListeningExecutorService executor;
+    private final Cache<Range<Long>, ListenableFuture<?>> prefills = CacheBuilder.newBuilder()
+            .maximumSize(MAX_PREFILLED_RANGES_TRACKED)
+            .build();
+
+    private CommitTsCache(TransactionService transactionService, Optional<CommitTimestampRangeReader> rangeReader,
+            ListeningExecutorService executor, long maxSize) {
+        this.cache = PrimitiveTimestampCache.createUninstrumented(maxSize);
+        this.loader = new AbortingCommitTsLoader(transactionService);
+        this.rangeReader = rangeReader;
+        this.executor = executor;
     }
 
     public static CommitTsCache create(TransactionService transactionService) {
-        return new CommitTsCache(transactionService, ONE_MILLION);
+        return new CommitTsCache(transactionService, Optional.empty(), LoaderExecutorHolder.EXECUTOR, ONE_MILLION);
+    }
+
+    /**
+     * Creates a cache that can also be prefilled from the transactions tables of the given key value service, which
+     * must be the one backing the transaction service.
+     */
+    public static CommitTsCache create(TransactionService transactionService, KeyValueService kvs) {
+        return new CommitTsCache(transactionService, Optional.of(new CommitTimestampRangeReader(kvs)),
+                LoaderExecutorHolder.EXECUTOR, ONE_MILLION);
     }
 
     public Optional<Long> loadIfCached(long startTs) {
-        return Optional.ofNullable(cache.getIfPresent(startTs));
+        long commitTs = cache.getCommitTimestampOrDefault(startTs, NOT_CACHED);
+        return commitTs == NOT_CACHED ? Optional.empty() : Optional.of(commitTs);
     }
 
     public long load(long startTs) {
-        return cache.getUnchecked(startTs);
+        long commitTs = cache.getCommitTimestampOrDefault(startTs, NOT_CACHED);
+        if (commitTs == NOT_CACHED) {
+            commitTs = loader.load(startTs);
+            cache.put(startTs, commitTs);
+        }
+        return commitTs;
     }
 
     /**
@@ -50,10 +105,66 @@ public final class CommitTsCache {
      * does batched lookups for non-cached start timestamps.
      */
     public Map<Long, Long> loadBatch(Collection<Long> timestamps) {
+        Map<Long, Long> result = new HashMap<>();
+        Set<Long> missing = new LinkedHashSet<>();
+        for (Long startTs : timestamps) {
+            long commitTs = cache.getCommitTimestampOrDefault(startTs, NOT_CACHED);
+            if (commitTs == NOT_CACHED) {
+                missing.add(startTs);
+            } else {
+                result.put(startTs, commitTs);
+            }
+        }
+        if (!missing.isEmpty()) {
+            Map<Long, Long> loaded = loader.loadAll(missing);
+            loaded.forEach(cache::put);
+            result.putAll(loaded);
+        }
+        return result;
+    }
+
+    /**
+     * As {@link #loadBatch(Collection)}, but loading the non-cached start timestamps on a background thread.
+     */
+    public ListenableFuture<Map<Long, Long>> loadBatchAsync(Collection<Long> timestamps) {
+        Collection<Long> timestampsToLoad = ImmutableList.copyOf(timestamps);
+        return executor.submit(() -> loadBatch(timestampsToLoad));
+    }
+
+    /**
+     * Caches, on a background thread, the commit timestamps of all transactions with start timestamps in the given
+     * range that have already committed or been rolled back. This is a no-op if the cache was not created with a key
+     * value service, or if the same range was prefilled recently, in which case the returned future is the one for
+     * that prefill.
+     * <p>
+     * Prefilling is only an optimisation: failures are logged, and the returned future always completes successfully.
+     * The range should be one in which most transactions have already finished, as those which have not will still
+     * need to be loaded individually.
+     */
+    public ListenableFuture<?> prefillAsync(long startTsInclusive, long endTsExclusive) {
+        if (!rangeReader.isPresent() || startTsInclusive >= endTsExclusive) {
+            return Futures.immediateFuture(null);
+        }
+        Range<Long> range = Range.closedOpen(startTsInclusive, endTsExclusive);
+        return prefills.asMap().computeIfAbsent(range, unused -> executor.submit(() -> prefill(range)));
+    }
+
+    private void prefill(Range<Long> range) {
         try {
-            return cache.getAll(timestamps);
-        } catch (ExecutionException e) {
-            throw Throwables.rewrapAndThrowUncheckedException(e);
+            rangeReader.get().read(range.lowerEndpoint(), range.upperEndpoint(), cache::put);
+        } catch (RuntimeException e) {
+            prefills.invalidate(range);
+            log.warn("Failed to prefill the commit timestamps of transactions with start timestamps between {} and"
+                    + " {}. They will be loaded individually instead.",
+                    SafeArg.of("startTsInclusive", range.lowerEndpoint()),
+                    SafeArg.of("endTsExclusive", range.upperEndpoint()),
+                    e);
         }
     }
+
+    private static final class LoaderExecutorHolder {
+        private static final int NUM_THREADS = 8;
+        private static final ListeningExecutorService EXECUTOR = MoreExecutors.listeningDecorator(
+                PTExecutors.newFixedThreadPool(NUM_THREADS, new NamedThreadFactory("commit-ts-cache-loader", true)));
+    }
 }
@@ -88,12 +88,33 @@ public class SweepTaskRunner {
             SweepStrategyManager sweepStrategyManager,
             CellsSweeper cellsSweeper,
             LegacySweepMetrics metricsManager) {
+        this(keyValueService,
+                unreadableTsSupplier,
+                immutableTsSupplier,
+                CommitTsCache.create(transactionService),
+                sweepStrategyManager,
+                cellsSweeper,
+                metricsManager);
+    }
+
+    /**
+     * Creates a sweep task runner that looks up commit timestamps through the given cache, which may be shared with
+     * targeted sweep.
+     */
+    public SweepTaskRunner(
+            KeyValueService keyValueService,
+            LongSupplier unreadableTsSupplier,
+            LongSupplier immutableTsSupplier,
+            CommitTsCache commitTsCache,
+            SweepStrategyManager sweepStrategyManager,
+            CellsSweeper cellsSweeper,
+            LegacySweepMetrics metricsManager) {
         this.keyValueService = keyValueService;
         this.specialTimestampsSupplier = new SpecialTimestampsSupplier(unreadableTsSupplier, immutableTsSupplier);
         this.sweepStrategyManager = sweepStrategyManager;
         this.cellsSweeper = cellsSweeper;
         this.metricsManager = Optional.ofNullable(metricsManager);
-        this.commitTsCache = CommitTsCache.create(transactionService);
+        this.commitTsCache = commitTsCache;
     }
 
     /**
@@ -18,6 +18,7 @@ package com.palantir.atlasdb.sweep.metrics;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.function.Supplier;
@@ -102,6 +103,14 @@ public class TargetedSweepMetrics {
         getMetrics(shardStrategy).updateProgressForShard(shardStrategy.shard(), lastSweptTs);
     }
 
+    /**
+     * Updates the number of timestamps the given shard and strategy still has to sweep before it reaches the sweep
+     * timestamp. Unlike the other metrics, this is reported separately for each shard.
+     */
+    public void updateLagForShard(ShardAndStrategy shardStrategy, long lagTimestamps) {
+        getMetrics(shardStrategy).updateLagForShard(shardStrategy.shard(), lagTimestamps);
+    }
+
     public void registerOccurrenceOf(SweepOutcome outcome) {
         outcomeMetrics.registerOccurrenceOf(outcome);
     }
@@ -116,6 +125,8 @@ public class TargetedSweepMetrics {
 
     private static final class MetricsForStrategy {
         private final MetricsManager manager;
+        private final String strategy;
+        private final Map<Integer, CurrentValueMetric<Long>> lagForShards = new ConcurrentHashMap<>();
         private final AccumulatingValueMetric enqueuedWrites;
         private final AccumulatingValueMetric entriesRead;
         private final AccumulatingValueMetric tombstonesPut;
@@ -127,6 +138,7 @@ public class TargetedSweepMetrics {
                 Clock wallClock, long recomputeMillis) {
             Map<String, String> tag = ImmutableMap.of(AtlasDbMetricNames.TAG_STRATEGY, strategy);
             this.manager = manager;
+            this.strategy = strategy;
             enqueuedWrites = registerAccumulating(AtlasDbMetricNames.ENQUEUED_WRITES, tag);
             entriesRead = registerAccumulating(AtlasDbMetricNames.ENTRIES_READ, tag);
             tombstonesPut = registerAccumulating(AtlasDbMetricNames.TOMBSTONES_PUT, tag);
@@ -193,5 +205,16 @@ public class TargetedSweepMetrics {
         private void updateProgressForShard(int shard, long sweptTs) {
             lastSweptTs.update(shard, sweptTs);
         }
+
+        private void updateLagForShard(int shard, long lagTimestamps) {
+            lagForShards.computeIfAbsent(shard, this::registerLagForShard).setValue(lagTimestamps);
+        }
+
+        private CurrentValueMetric<Long> registerLagForShard(int shard) {
+            Map<String, String> tags = ImmutableMap.of(
+                    AtlasDbMetricNames.TAG_STRATEGY, strategy,
+                    AtlasDbMetricNames.TAG_SHARD, Integer.toString(shard));
+            return register(AtlasDbMetricNames.SHARD_LAG_TIMESTAMPS, new CurrentValueMetric<>(), tags);
+        }
     }
 }
@@ -0,0 +1,110 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.sweep.queue;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import com.palantir.common.time.Clock;
+
+/**
+ * Decides which shards the background targeted sweep threads for one sweep strategy should try next, and how long
+ * they should wait before trying again.
+ * <p>
+ * Shards are tried in decreasing order of their lag behind the sweep timestamp, as of the last time they were swept,
+ * and shards that have not yet been swept are tried first. A shard whose last batch caught up with the sweep timestamp
+ * is not tried again until its backoff has passed. The backoff starts at {@link #MIN_BACKOFF_MILLIS} and doubles
+ * each time the shard is found caught up, up to {@link #MAX_BACKOFF_MILLIS}, and is reset as soon as the shard is
+ * found with a backlog again.
+ */
+class AdaptiveShardScheduler {
+    static final long MIN_BACKOFF_MILLIS = TimeUnit.SECONDS.toMillis(5);
+    static final long MAX_BACKOFF_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    private final Clock clock;
+    private final Map<Integer, ShardState> shardStates = new ConcurrentHashMap<>();
+    private final AtomicLong roundRobinOffset = new AtomicLong();
+
+    AdaptiveShardScheduler(Clock clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Returns the shards that are not backing off, in the order in which they should be tried. Shards with equal lag
+     * are rotated between calls, so that no shard is starved by another with the same lag.
+     */
+    List<Integer> shardsToTry(int numShards) {
+        long now = clock.getTimeMillis();
+        int offset = (int) (roundRobinOffset.getAndIncrement() % numShards);
+        return IntStream.range(0, numShards)
+                .filter(shard -> stateOf(shard).eligibleAtMillis <= now)
+                .boxed()
+                .sorted(Comparator.<Integer>comparingLong(shard -> stateOf(shard).lag).reversed()
+                        .thenComparingInt(shard -> Math.floorMod(shard - offset, numShards)))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Records that a batch of the given shard was swept, leaving it {@code lag} timestamps behind the sweep
+     * timestamp.
+     */
+    void recordSwept(int shard, long lag) {
+        long now = clock.getTimeMillis();
+        shardStates.compute(shard, (unused, state) -> {
+            if (lag > 0) {
+                return new ShardState(lag, 0L, now);
+            }
+            long previousBackoff = state == null ? 0L : state.backoffMillis;
+            long backoff = Math.min(Math.max(2 * previousBackoff, MIN_BACKOFF_MILLIS), MAX_BACKOFF_MILLIS);
+            return new ShardState(0L, backoff, now + backoff);
+        });
+    }
+
+    /**
+     * Returns how long to wait until some shard will stop backing off, which is zero if one already has.
+     */
+    long millisUntilNextShardIsEligible(int numShards) {
+        long now = clock.getTimeMillis();
+        return IntStream.range(0, numShards)
+                .mapToLong(shard -> Math.max(0L, stateOf(shard).eligibleAtMillis - now))
+                .min()
+                .orElse(0L);
+    }
+
+    private ShardState stateOf(int shard) {
+        return shardStates.getOrDefault(shard, ShardState.NEVER_SWEPT);
+    }
+
+    private static final class ShardState {
+        private static final ShardState NEVER_SWEPT = new ShardState(Long.MAX_VALUE, 0L, Long.MIN_VALUE);
+
+        private final long lag;
+        private final long backoffMillis;
+        private final long eligibleAtMillis;
+
+        private ShardState(long lag, long backoffMillis, long eligibleAtMillis) {
+            this.lag = lag;
+            this.backoffMillis = backoffMillis;
+            this.eligibleAtMillis = eligibleAtMillis;
+        }
+    }
+}
@@ -25,6 +25,7 @@ import org.slf4j.LoggerFactory;
 import com.google.common.base.Suppliers;
 import com.palantir.atlasdb.keyvalue.api.KeyValueService;
 import com.palantir.atlasdb.schema.TargetedSweepSchema;
+import com.palantir.atlasdb.sweep.CommitTsCache;
 import com.palantir.atlasdb.sweep.Sweeper;
 import com.palantir.atlasdb.sweep.metrics.SweepOutcome;
 import com.palantir.atlasdb.sweep.metrics.TargetedSweepMetrics;
@@ -46,11 +47,11 @@ public final class SweepQueue implements MultiTableSweepQueueWriter {
     private final Supplier<Integer> numShards;
     private final TargetedSweepMetrics metrics;
 
-    private SweepQueue(SweepQueueFactory factory, TargetedSweepFollower follower) {
+    private SweepQueue(SweepQueueFactory factory, TargetedSweepFollower follower, int deleteThreads) {
         this.progress = factory.progress;
         this.writer = factory.createWriter();
         this.reader = factory.createReader();
-        this.deleter = factory.createDeleter(follower);
+        this.deleter = factory.createDeleter(follower, deleteThreads);
         this.cleaner = factory.createCleaner();
         this.numShards = factory.numShards;
         this.metrics = factory.metrics;
@@ -61,9 +62,11 @@ public final class SweepQueue implements MultiTableSweepQueueWriter {
             KeyValueService kvs,
             TimelockService timelock,
             Supplier<Integer> shardsConfig,
-            TransactionService transaction,
-            TargetedSweepFollower follower) {
-        return new SweepQueue(SweepQueueFactory.create(metrics, kvs, timelock, shardsConfig, transaction), follower);
+            CommitTsCache commitTsCache,
+            TargetedSweepFollower follower,
+            int deleteThreads) {
+        return new SweepQueue(SweepQueueFactory.create(metrics, kvs, timelock, shardsConfig, commitTsCache), follower,
+                deleteThreads);
     }
 
     /**
@@ -106,13 +109,15 @@ public final class SweepQueue implements MultiTableSweepQueueWriter {
      *
      * @param shardStrategy shard and strategy to use
      * @param sweepTs sweep timestamp, the upper limit to the start timestamp of writes to sweep
+     * @return the number of timestamps that remain to be swept for the shard and strategy, up to sweepTs
      */
-    public void sweepNextBatch(ShardAndStrategy shardStrategy, long sweepTs) {
+    public long sweepNextBatch(ShardAndStrategy shardStrategy, long sweepTs) {
         metrics.updateSweepTimestamp(shardStrategy, sweepTs);
         long lastSweptTs = progress.getLastSweptTimestamp(shardStrategy);
 
         if (lastSweptTs + 1 >= sweepTs) {
-            return;
+            metrics.updateLagForShard(shardStrategy, 0L);
+            return 0L;
         }
 
         log.debug("Beginning iteration of targeted sweep for {}, and sweep timestamp {}. Last previously swept "
@@ -141,6 +146,10 @@ public final class SweepQueue implements MultiTableSweepQueueWriter {
         } else {
             metrics.registerOccurrenceOf(SweepOutcome.SUCCESS);
         }
+
+        long lag = Math.max(0L, sweepTs - 1 - sweepBatch.lastSweptTimestamp());
+        metrics.updateLagForShard(shardStrategy, lag);
+        return lag;
     }
 
     /**
@@ -150,6 +159,11 @@ public final class SweepQueue implements MultiTableSweepQueueWriter {
         return numShards.get();
     }
 
+    @Override
+    public void close() {
+        deleter.close();
+    }
+
     private static final class SweepQueueFactory {
         private final ShardProgress progress;
         private final Supplier<Integer> numShards;
@@ -183,7 +197,7 @@ public final class SweepQueue implements MultiTableSweepQueueWriter {
                     kvs,
                     new TimelockTimestampServiceAdapter(timelock),
                     false);
-            return create(metrics, kvs, timelock, shardsConfig, transaction);
+            return create(metrics, kvs, timelock, shardsConfig, CommitTsCache.create(transaction));
         }
 
         static SweepQueueFactory create(
@@ -191,13 +205,13 @@ public final class SweepQueue implements MultiTableSweepQueueWriter {
                 KeyValueService kvs,
                 TimelockService timelock,
                 Supplier<Integer> shardsConfig,
-                TransactionService transaction) {
+                CommitTsCache commitTsCache) {
             Schemas.createTablesAndIndexes(TargetedSweepSchema.INSTANCE.getLatestSchema(), kvs);
             ShardProgress shardProgress = new ShardProgress(kvs);
             Supplier<Integer> shards = createProgressUpdatingSupplier(shardsConfig, shardProgress,
                     SweepQueueUtils.REFRESH_TIME);
             WriteInfoPartitioner partitioner = new WriteInfoPartitioner(kvs, shards);
-            SweepableCells cells = new SweepableCells(kvs, partitioner, metrics, transaction);
+            SweepableCells cells = new SweepableCells(kvs, partitioner, metrics, commitTsCache);
             SweepableTimestamps timestamps = new SweepableTimestamps(kvs, partitioner);
             return new SweepQueueFactory(shardProgress, shards, cells, timestamps, metrics, kvs, timelock);
         }
@@ -210,8 +224,9 @@ public final class SweepQueue implements MultiTableSweepQueueWriter {
             return new SweepQueueReader(timestamps, cells);
         }
 
-        private SweepQueueDeleter createDeleter(TargetedSweepFollower follower) {
-            return new SweepQueueDeleter(kvs, follower, new DefaultTableClearer(kvs, timelock::getImmutableTimestamp));
+        private SweepQueueDeleter createDeleter(TargetedSweepFollower follower, int deleteThreads) {
+            return new SweepQueueDeleter(kvs, follower, new DefaultTableClearer(kvs, timelock::getImmutableTimestamp),
+                    deleteThreads);
         }
 
         private SweepQueueCleaner createCleaner() {
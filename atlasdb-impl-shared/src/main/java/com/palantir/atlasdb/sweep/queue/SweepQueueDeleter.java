@@ -15,40 +15,83 @@
  */
 package com.palantir.atlasdb.sweep.queue;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.base.Preconditions;
+import com.google.common.base.Suppliers;
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import com.palantir.atlasdb.AtlasDbConstants;
 import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.ClusterAvailabilityStatus;
 import com.palantir.atlasdb.keyvalue.api.KeyValueService;
 import com.palantir.atlasdb.keyvalue.api.TableReference;
 import com.palantir.atlasdb.logging.LoggingArgs;
 import com.palantir.atlasdb.sweep.Sweeper;
+import com.palantir.common.concurrent.NamedThreadFactory;
+import com.palantir.common.concurrent.PTExecutors;
 
-public class SweepQueueDeleter {
+public class SweepQueueDeleter implements AutoCloseable {
     private static final Logger log = LoggerFactory.getLogger(SweepQueueDeleter.class);
+    private static final long HEALTH_CHECK_INTERVAL_MILLIS = TimeUnit.SECONDS.toMillis(30);
 
     private final KeyValueService kvs;
     private final TargetedSweepFollower follower;
     private final TargetedSweepFilter filter;
+    private final ExecutorService deleteExecutor;
+    private final Supplier<Boolean> kvsIsFullyAvailable;
 
     SweepQueueDeleter(KeyValueService kvs, TargetedSweepFollower follower,
             TargetedSweepFilter filter) {
+        this(kvs, follower, filter, 1);
+    }
+
+    /**
+     * @param deleteThreads the maximum number of partitions of cells to delete concurrently, across all callers of
+     * {@link #sweep(Collection, Sweeper)}. If this is one, all deletes are run sequentially by the calling thread.
+     */
+    SweepQueueDeleter(KeyValueService kvs, TargetedSweepFollower follower,
+            TargetedSweepFilter filter, int deleteThreads) {
+        Preconditions.checkArgument(deleteThreads > 0, "Number of delete threads must be positive, but is %s.",
+                deleteThreads);
         this.kvs = kvs;
         this.follower = follower;
         this.filter = filter;
+        this.deleteExecutor = deleteThreads == 1
+                ? null
+                : PTExecutors.newFixedThreadPool(deleteThreads, new NamedThreadFactory("targeted-sweep-deleter", true));
+        this.kvsIsFullyAvailable = Suppliers.memoizeWithExpiration(
+                this::checkKvsIsFullyAvailable, HEALTH_CHECK_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
     }
 
     /**
      * Executes targeted sweep, by inserting ranged tombstones corresponding to the given writes, using the sweep
      * strategy determined by the sweeper.
+     * <p>
+     * The writes are split into partitions of at most {@link SweepQueueUtils#BATCH_SIZE_KVS} cells of a single table.
+     * If this deleter was created with more than one delete thread, and the KVS was fully available when last checked,
+     * the partitions are deleted concurrently; otherwise they are deleted sequentially, so that sweep does not add to
+     * the load of a degraded KVS. In either case, this method only returns once all partitions have been deleted.
      *
      * @param unfilteredWrites individual writes to sweep for. Depending on the strategy, we will insert a ranged
      * tombstone for each write at either the write's timestamp - 1, or at its timestamp.
@@ -58,29 +101,115 @@ public class SweepQueueDeleter {
     public void sweep(Collection<WriteInfo> unfilteredWrites, Sweeper sweeper) {
         Collection<WriteInfo> writes = filter.filter(unfilteredWrites);
         Map<TableReference, Map<Cell, Long>> maxTimestampByCell = writesPerTable(writes, sweeper);
+        Set<TableReference> droppedTables = ConcurrentHashMap.newKeySet();
+        List<Runnable> deletes = new ArrayList<>();
         for (Map.Entry<TableReference, Map<Cell, Long>> entry : maxTimestampByCell.entrySet()) {
-            try {
-                Iterables.partition(entry.getValue().keySet(), SweepQueueUtils.BATCH_SIZE_KVS)
-                        .forEach(cells -> {
-                            Map<Cell, Long> maxTimestampByCellPartition = cells.stream()
-                                    .collect(Collectors.toMap(Function.identity(), entry.getValue()::get));
-                            follower.run(entry.getKey(), maxTimestampByCellPartition.keySet());
-                            if (sweeper.shouldAddSentinels()) {
-                                kvs.addGarbageCollectionSentinelValues(entry.getKey(),
-                                        maxTimestampByCellPartition.keySet());
-                                kvs.deleteAllTimestamps(entry.getKey(), maxTimestampByCellPartition, false);
-                            } else {
-                                kvs.deleteAllTimestamps(entry.getKey(), maxTimestampByCellPartition, true);
-                            }
-                        });
-            } catch (Exception e) {
-                if (tableWasDropped(entry.getKey())) {
-                    log.info("The table {} has been deleted.", LoggingArgs.tableRef(entry.getKey()), e);
-                } else {
-                    throw e;
+            Iterables.partition(entry.getValue().keySet(), SweepQueueUtils.BATCH_SIZE_KVS)
+                    .forEach(cells -> {
+                        Map<Cell, Long> maxTimestampByCellPartition = cells.stream()
+                                .collect(Collectors.toMap(Function.identity(), entry.getValue()::get));
+                        deletes.add(() -> sweepPartition(
+                                entry.getKey(), maxTimestampByCellPartition, sweeper, droppedTables));
+                    });
+        }
+
+        if (deletes.size() > 1 && deleteExecutor != null && !deleteExecutor.isShutdown() && kvsIsFullyAvailable.get()) {
+            runConcurrently(deletes);
+        } else {
+            deletes.forEach(Runnable::run);
+        }
+    }
+
+    /**
+     * Shuts down the threads used to delete partitions concurrently. Sweeps that are still running, or that start
+     * afterwards, delete sequentially on the calling thread instead.
+     */
+    @Override
+    public void close() {
+        if (deleteExecutor != null) {
+            deleteExecutor.shutdown();
+        }
+    }
+
+    private void sweepPartition(TableReference tableRef, Map<Cell, Long> maxTimestampByCellPartition,
+            Sweeper sweeper, Set<TableReference> droppedTables) {
+        if (droppedTables.contains(tableRef)) {
+            return;
+        }
+        try {
+            follower.run(tableRef, maxTimestampByCellPartition.keySet());
+            if (sweeper.shouldAddSentinels()) {
+                kvs.addGarbageCollectionSentinelValues(tableRef, maxTimestampByCellPartition.keySet());
+                kvs.deleteAllTimestamps(tableRef, maxTimestampByCellPartition, false);
+            } else {
+                kvs.deleteAllTimestamps(tableRef, maxTimestampByCellPartition, true);
+            }
+        } catch (Exception e) {
+            if (tableWasDropped(tableRef)) {
+                if (droppedTables.add(tableRef)) {
+                    log.info("The table {} has been deleted.", LoggingArgs.tableRef(tableRef), e);
                 }
+            } else {
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Waits for every delete to finish, even if some fail, so that no delete is still running once we have rethrown
+     * the first failure. If the executor is shut down by {@link #close()} while we are submitting, the deletes it
+     * rejects are run sequentially on the calling thread instead.
+     */
+    private void runConcurrently(List<Runnable> deletes) {
+        List<Future<?>> futures = new ArrayList<>(deletes.size());
+        List<Runnable> rejected = ImmutableList.of();
+        for (int i = 0; i < deletes.size(); i++) {
+            try {
+                futures.add(deleteExecutor.submit(deletes.get(i)));
+            } catch (RejectedExecutionException e) {
+                log.info("The targeted sweep delete executor was shut down while deleting, so the remaining deletes"
+                        + " will run sequentially.");
+                rejected = deletes.subList(i, deletes.size());
+                break;
             }
         }
+        Throwable failure = null;
+        for (Runnable delete : rejected) {
+            try {
+                delete.run();
+            } catch (RuntimeException | Error e) {
+                failure = addFailure(failure, e);
+            }
+        }
+        for (Future<?> future : futures) {
+            try {
+                Futures.getUnchecked(future);
+            } catch (UncheckedExecutionException | ExecutionError e) {
+                failure = addFailure(failure, e.getCause());
+            }
+        }
+        if (failure != null) {
+            Throwables.throwIfUnchecked(failure);
+            throw new RuntimeException(failure);
+        }
+    }
+
+    private static Throwable addFailure(Throwable failure, Throwable newFailure) {
+        if (failure == null) {
+            return newFailure;
+        }
+        failure.addSuppressed(newFailure);
+        return failure;
+    }
+
+    private boolean checkKvsIsFullyAvailable() {
+        try {
+            return kvs.getClusterAvailabilityStatus() == ClusterAvailabilityStatus.ALL_AVAILABLE;
+        } catch (Exception e) {
+            log.info("Could not determine the availability of the KVS, so targeted sweep will delete sequentially.",
+                    e);
+            return false;
+        }
     }
 
     private boolean tableWasDropped(TableReference tableRef) {
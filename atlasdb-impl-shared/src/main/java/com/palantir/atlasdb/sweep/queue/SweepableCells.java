@@ -40,6 +40,8 @@ import com.google.common.collect.Lists;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.PeekingIterator;
 import com.google.common.collect.Streams;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 import com.palantir.atlasdb.keyvalue.api.Cell;
 import com.palantir.atlasdb.keyvalue.api.CellReference;
 import com.palantir.atlasdb.keyvalue.api.ColumnRangeSelection;
@@ -76,8 +78,16 @@ public class SweepableCells extends SweepQueueTable {
             WriteInfoPartitioner partitioner,
             TargetedSweepMetrics metrics,
             TransactionService transactionService) {
+        this(kvs, partitioner, metrics, CommitTsCache.create(transactionService, kvs));
+    }
+
+    public SweepableCells(
+            KeyValueService kvs,
+            WriteInfoPartitioner partitioner,
+            TargetedSweepMetrics metrics,
+            CommitTsCache commitTsCache) {
         super(kvs, TargetedSweepTableFactory.of().getSweepableCellsTable(null).getTableRef(), partitioner, metrics);
-        this.commitTsCache = CommitTsCache.create(transactionService);
+        this.commitTsCache = commitTsCache;
         this.writeReferencePersister = new WriteReferencePersister(new SweepTableIndices(kvs));
     }
 
@@ -158,6 +168,7 @@ public class SweepableCells extends SweepQueueTable {
 
     SweepBatch getBatchForPartition(ShardAndStrategy shardStrategy, long partitionFine, long minTsExclusive,
             long sweepTs) {
+        ListenableFuture<?> prefill = prefillCommitTimestampsIfSettled(partitionFine, sweepTs);
         SweepableCellsRow row = computeRow(partitionFine, shardStrategy);
         RowColumnRangeIterator resultIterator = getRowColumnRange(row, partitionFine, minTsExclusive, sweepTs);
         PeekingIterator<Map.Entry<Cell, Value>> peekingResultIterator = Iterators.peekingIterator(resultIterator);
@@ -165,6 +176,7 @@ public class SweepableCells extends SweepQueueTable {
         Multimap<Long, WriteInfo> writesByStartTs = writeBatch.writesByStartTs;
         maybeMetrics.ifPresent(metrics -> metrics.updateEntriesRead(shardStrategy, writesByStartTs.size()));
         log.debug("Read {} entries from the sweep queue.", SafeArg.of("number", writesByStartTs.size()));
+        Futures.getUnchecked(prefill);
         TimestampsToSweep tsToSweep = getTimestampsToSweepDescendingAndCleanupAborted(
                 shardStrategy, minTsExclusive, sweepTs, writesByStartTs);
         Collection<WriteInfo> writes = getWritesToSweep(writesByStartTs, tsToSweep.timestampsDescending());
@@ -173,6 +185,19 @@ public class SweepableCells extends SweepQueueTable {
         return SweepBatch.of(writes, filteredDedicatedRows, lastSweptTs);
     }
 
+    /**
+     * Once the sweep timestamp has passed a fine partition, almost all of its transactions will have finished, so we
+     * load all their commit timestamps with one range scan while reading the sweep queue, instead of looking them up
+     * individually afterwards. The prefill is shared by all shards sweeping the same partition.
+     */
+    private ListenableFuture<?> prefillCommitTimestampsIfSettled(long partitionFine, long sweepTs) {
+        long maxTsForPartition = SweepQueueUtils.maxTsForFinePartition(partitionFine);
+        if (maxTsForPartition >= sweepTs) {
+            return Futures.immediateFuture(null);
+        }
+        return commitTsCache.prefillAsync(SweepQueueUtils.minTsForFinePartition(partitionFine), maxTsForPartition + 1);
+    }
+
     private DedicatedRows getDedicatedRowsToClear(List<SweepableCellsRow> rows, TimestampsToSweep tsToSweep) {
         return DedicatedRows.of(rows.stream()
             .filter(row -> {
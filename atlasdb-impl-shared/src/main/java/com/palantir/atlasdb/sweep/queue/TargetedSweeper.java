@@ -17,6 +17,8 @@ package com.palantir.atlasdb.sweep.queue;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
@@ -34,6 +36,7 @@ import com.palantir.atlasdb.keyvalue.api.InsufficientConsistencyException;
 import com.palantir.atlasdb.keyvalue.api.KeyValueService;
 import com.palantir.atlasdb.protos.generated.TableMetadataPersistence;
 import com.palantir.atlasdb.sweep.BackgroundSweeper;
+import com.palantir.atlasdb.sweep.CommitTsCache;
 import com.palantir.atlasdb.sweep.Sweeper;
 import com.palantir.atlasdb.sweep.metrics.SweepOutcome;
 import com.palantir.atlasdb.sweep.metrics.TargetedSweepMetrics;
@@ -50,10 +53,16 @@ import com.palantir.logsafe.SafeArg;
 @SuppressWarnings({"FinalClass", "Not final for mocking in tests"})
 public class TargetedSweeper implements MultiTableSweepQueueWriter, BackgroundSweeper {
     private static final Logger log = LoggerFactory.getLogger(TargetedSweeper.class);
+    private static final long INITIAL_DELAY_MILLIS = TimeUnit.SECONDS.toMillis(1);
+    private static final long FIXED_DELAY_MILLIS = TimeUnit.SECONDS.toMillis(5);
+
     private final Supplier<Boolean> runSweep;
     private final Supplier<Integer> shardsConfig;
+    private final Supplier<Boolean> adaptiveScheduling;
+    private final int deleteThreads;
     private final List<Follower> followers;
     private final MetricsManager metricsManager;
+    private final Optional<CommitTsCache> sharedCommitTsCache;
 
     private TargetedSweepMetrics metrics;
     private SweepQueue queue;
@@ -65,15 +74,19 @@ public class TargetedSweeper implements MultiTableSweepQueueWriter, BackgroundSw
     private volatile boolean isInitialized = false;
 
     private TargetedSweeper(MetricsManager metricsManager, Supplier<Boolean> runSweep, Supplier<Integer> shardsConfig,
-            int conservativeThreads, int thoroughThreads, List<Follower> followers) {
+            Supplier<Boolean> adaptiveScheduling, int conservativeThreads, int thoroughThreads, int deleteThreads,
+            List<Follower> followers, Optional<CommitTsCache> sharedCommitTsCache) {
         this.metricsManager = metricsManager;
         this.runSweep = runSweep;
         this.shardsConfig = shardsConfig;
+        this.adaptiveScheduling = adaptiveScheduling;
+        this.deleteThreads = deleteThreads;
         this.conservativeScheduler = new BackgroundSweepScheduler(conservativeThreads,
                 TableMetadataPersistence.SweepStrategy.CONSERVATIVE);
         this.thoroughScheduler = new BackgroundSweepScheduler(thoroughThreads,
                 TableMetadataPersistence.SweepStrategy.THOROUGH);
         this.followers = followers;
+        this.sharedCommitTsCache = sharedCommitTsCache;
     }
 
     /**
@@ -92,7 +105,37 @@ public class TargetedSweeper implements MultiTableSweepQueueWriter, BackgroundSw
      */
     public static TargetedSweeper createUninitialized(MetricsManager metrics, Supplier<Boolean> enabled,
             Supplier<Integer> shardsConfig, int conservativeThreads, int thoroughThreads, List<Follower> followers) {
-        return new TargetedSweeper(metrics, enabled, shardsConfig, conservativeThreads, thoroughThreads, followers);
+        return createUninitialized(metrics, enabled, shardsConfig, () -> false, conservativeThreads, thoroughThreads,
+                1, followers);
+    }
+
+    /**
+     * As {@link #createUninitialized(MetricsManager, Supplier, Supplier, int, int, List)}, but additionally allowing
+     * the background threads to schedule themselves adaptively, and to delete the cells of each batch concurrently.
+     *
+     * @param adaptiveScheduling live reloadable config controlling whether background threads should prioritise
+     * shards by their lag and sweep them again immediately while they have a backlog, backing off from shards that
+     * have caught up. If false, each thread sweeps one batch every five seconds, going round-robin over the shards.
+     * @param deleteThreads maximum number of partitions of cells, shared between all background threads, to delete
+     * concurrently while the KVS is fully available. If one, each batch is deleted sequentially.
+     */
+    public static TargetedSweeper createUninitialized(MetricsManager metrics, Supplier<Boolean> enabled,
+            Supplier<Integer> shardsConfig, Supplier<Boolean> adaptiveScheduling, int conservativeThreads,
+            int thoroughThreads, int deleteThreads, List<Follower> followers) {
+        return new TargetedSweeper(metrics, enabled, shardsConfig, adaptiveScheduling, conservativeThreads,
+                thoroughThreads, deleteThreads, followers, Optional.empty());
+    }
+
+    /**
+     * As {@link #createUninitialized(MetricsManager, Supplier, Supplier, Supplier, int, int, int, List)}, but looking
+     * up commit timestamps through the given cache, so that it can be shared with legacy sweep. The cache must be
+     * backed by the same transaction service and key value service as the targeted sweeper is initialized with.
+     */
+    public static TargetedSweeper createUninitialized(MetricsManager metrics, Supplier<Boolean> enabled,
+            Supplier<Integer> shardsConfig, Supplier<Boolean> adaptiveScheduling, int conservativeThreads,
+            int thoroughThreads, int deleteThreads, List<Follower> followers, CommitTsCache commitTsCache) {
+        return new TargetedSweeper(metrics, enabled, shardsConfig, adaptiveScheduling, conservativeThreads,
+                thoroughThreads, deleteThreads, followers, Optional.of(commitTsCache));
     }
 
     @VisibleForTesting
@@ -140,7 +183,8 @@ public class TargetedSweeper implements MultiTableSweepQueueWriter, BackgroundSw
         Preconditions.checkState(kvs.isInitialized(),
                 "Attempted to initialize targeted sweeper with an uninitialized backing KVS.");
         metrics = TargetedSweepMetrics.create(metricsManager, timelockService, kvs, SweepQueueUtils.REFRESH_TIME);
-        queue = SweepQueue.create(metrics, kvs, timelockService, shardsConfig, transaction, follower);
+        CommitTsCache commitTsCache = sharedCommitTsCache.orElseGet(() -> CommitTsCache.create(transaction, kvs));
+        queue = SweepQueue.create(metrics, kvs, timelockService, shardsConfig, commitTsCache, follower, deleteThreads);
         timestampsSupplier = timestamps;
         timeLock = timelockService;
         isInitialized = true;
@@ -168,19 +212,30 @@ public class TargetedSweeper implements MultiTableSweepQueueWriter, BackgroundSw
     @SuppressWarnings("checkstyle:RegexpMultiline") // Suppress VisibleForTesting warning
     @VisibleForTesting
     public void sweepNextBatch(ShardAndStrategy shardStrategy) {
+        sweepNextBatchAndGetLag(shardStrategy);
+    }
+
+    /**
+     * As {@link #sweepNextBatch(ShardAndStrategy)}, returning the number of timestamps that remain to be swept for
+     * the shard and strategy, or empty if targeted sweep is disabled.
+     */
+    private OptionalLong sweepNextBatchAndGetLag(ShardAndStrategy shardStrategy) {
         assertInitialized();
         if (!runSweep.get()) {
             metrics.registerOccurrenceOf(SweepOutcome.DISABLED);
-            return;
+            return OptionalLong.empty();
         }
         long maxTsExclusive = Sweeper.of(shardStrategy).getSweepTimestamp(timestampsSupplier);
-        queue.sweepNextBatch(shardStrategy, maxTsExclusive);
+        return OptionalLong.of(queue.sweepNextBatch(shardStrategy, maxTsExclusive));
     }
 
     @Override
     public void close() {
         conservativeScheduler.close();
         thoroughScheduler.close();
+        if (queue != null) {
+            queue.close();
+        }
     }
 
     @Override
@@ -198,6 +253,7 @@ public class TargetedSweeper implements MultiTableSweepQueueWriter, BackgroundSw
         private final int numThreads;
         private final TableMetadataPersistence.SweepStrategy sweepStrategy;
         private final AtomicLong counter = new AtomicLong(0);
+        private final AdaptiveShardScheduler shardScheduler = new AdaptiveShardScheduler(System::currentTimeMillis);
 
         private ScheduledExecutorService executorService;
 
@@ -211,12 +267,31 @@ public class TargetedSweeper implements MultiTableSweepQueueWriter, BackgroundSw
                 executorService = PTExecutors
                         .newScheduledThreadPoolExecutor(numThreads, new NamedThreadFactory("Targeted Sweep", true));
                 for (int i = 0; i < numThreads; i++) {
-                    executorService.scheduleWithFixedDelay(this::runOneIteration, 1, 5, TimeUnit.SECONDS);
+                    scheduleNextIteration(INITIAL_DELAY_MILLIS);
+                }
+            }
+        }
+
+        private void runAndScheduleNextIteration() {
+            long delayMillis = FIXED_DELAY_MILLIS;
+            try {
+                delayMillis = adaptiveScheduling.get() ? runOneAdaptiveIteration() : runOneIteration();
+            } finally {
+                scheduleNextIteration(delayMillis);
+            }
+        }
+
+        private void scheduleNextIteration(long delayMillis) {
+            try {
+                executorService.schedule(this::runAndScheduleNextIteration, delayMillis, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                if (!executorService.isShutdown()) {
+                    throw e;
                 }
             }
         }
 
-        private void runOneIteration() {
+        private long runOneIteration() {
             Optional<TargetedSweeperLock> maybeLock = Optional.empty();
             try {
                 maybeLock = tryToAcquireLockForNextShardAndStrategy();
@@ -228,12 +303,62 @@ public class TargetedSweeper implements MultiTableSweepQueueWriter, BackgroundSw
                 metrics.registerOccurrenceOf(SweepOutcome.ERROR);
                 logException(th, maybeLock);
             } finally {
-                try {
-                    maybeLock.ifPresent(TargetedSweeperLock::unlock);
-                } catch (Throwable th) {
-                    logUnlockException(th, maybeLock);
+                unlock(maybeLock);
+            }
+            return FIXED_DELAY_MILLIS;
+        }
+
+        /**
+         * Sweeps a batch of the most lagged shard that is not backing off and can be locked, and returns how long to
+         * wait before the next iteration: no time at all if that shard still has a backlog, or else until some shard
+         * stops backing off, but never longer than the fixed delay.
+         */
+        private long runOneAdaptiveIteration() {
+            Optional<TargetedSweeperLock> maybeLock = Optional.empty();
+            try {
+                int numShards = queue.getNumShards();
+                maybeLock = tryToAcquireLockForMostLaggedShard(numShards);
+                if (!maybeLock.isPresent()) {
+                    long untilEligible = shardScheduler.millisUntilNextShardIsEligible(numShards);
+                    // If every eligible shard is locked by other threads or nodes, wait as long as we used to.
+                    return untilEligible == 0 ? FIXED_DELAY_MILLIS : Math.min(untilEligible, FIXED_DELAY_MILLIS);
                 }
+
+                ShardAndStrategy shardStrategy = maybeLock.get().getShardAndStrategy();
+                OptionalLong lag = sweepNextBatchAndGetLag(shardStrategy);
+                if (!lag.isPresent()) {
+                    return FIXED_DELAY_MILLIS;
+                }
+                shardScheduler.recordSwept(shardStrategy.shard(), lag.getAsLong());
+                return lag.getAsLong() > 0
+                        ? 0L
+                        : Math.min(shardScheduler.millisUntilNextShardIsEligible(numShards), FIXED_DELAY_MILLIS);
+            } catch (InsufficientConsistencyException e) {
+                metrics.registerOccurrenceOf(SweepOutcome.NOT_ENOUGH_DB_NODES_ONLINE);
+                logException(e, maybeLock);
+            } catch (Throwable th) {
+                metrics.registerOccurrenceOf(SweepOutcome.ERROR);
+                logException(th, maybeLock);
+            } finally {
+                unlock(maybeLock);
             }
+            return FIXED_DELAY_MILLIS;
+        }
+
+        private void unlock(Optional<TargetedSweeperLock> maybeLock) {
+            try {
+                maybeLock.ifPresent(TargetedSweeperLock::unlock);
+            } catch (Throwable th) {
+                logUnlockException(th, maybeLock);
+            }
+        }
+
+        private Optional<TargetedSweeperLock> tryToAcquireLockForMostLaggedShard(int numShards) {
+            return shardScheduler.shardsToTry(numShards).stream()
+                    .map(shard -> TargetedSweeperLock.tryAcquire(shard, sweepStrategy, timeLock))
+                    .filter(Optional::isPresent)
+                    .map(Optional::get)
+                    .findFirst();
         }
 
         private Optional<TargetedSweeperLock> tryToAcquireLockForNextShardAndStrategy() {
@@ -35,4 +35,16 @@ public abstract class TransactionConfig {
     public int getThresholdForLoggingLargeNumberOfTransactionLookups() {
         return AtlasDbConstants.THRESHOLD_FOR_LOGGING_LARGE_NUMBER_OF_TRANSACTION_LOOKUPS;
     }
+
+    /**
+     * If enabled, transactions overlap commit stages that do not depend on each other: write/write conflict checking
+     * runs alongside the sweep queue write, though it still completes before the key value service write, and the
+     * user pre-commit condition is evaluated alongside the read/write conflict and lock checks. The ordering
+     * invariants of the commit protocol are unchanged, but pre-commit conditions will be evaluated on a different
+     * thread from the one committing.
+     */
+    @Value.Default
+    public boolean enablePipelinedCommit() {
+        return false;
+    }
 }
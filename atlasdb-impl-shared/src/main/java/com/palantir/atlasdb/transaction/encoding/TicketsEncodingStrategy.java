@@ -101,8 +101,10 @@ public enum TicketsEncodingStrategy implements TimestampEncodingStrategy {
     }
 
     private static long decodeRowName(byte[] rowName) {
-        ArrayUtils.reverse(rowName);
-        return (long) ValueType.VAR_LONG.convertToJava(rowName, 0);
+        // The row name may be shared with the cell it came from, so we must not reverse it in place
+        byte[] reversedRowName = rowName.clone();
+        ArrayUtils.reverse(reversedRowName);
+        return (long) ValueType.VAR_LONG.convertToJava(reversedRowName, 0);
     }
 
     private static long decodeColumnName(byte[] columnName) {
@@ -0,0 +1,125 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.transaction.impl;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableMap;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.KeyValueService;
+import com.palantir.atlasdb.keyvalue.api.TableReference;
+import com.palantir.atlasdb.table.description.TableMetadata;
+
+/**
+ * Caches, across transactions, the values read from tables whose metadata declares them immutable, that is whose
+ * cells are never overwritten or deleted once written.
+ * <p>
+ * A value is cached along with the start timestamp of the transaction that read it, which is after the value was
+ * committed. Since the cell can never change, the value is the one visible to any transaction that starts at or after
+ * that timestamp, so it is served to those without reading the key value service or looking up commit timestamps.
+ * Absent cells are not cached, since they may yet be written. Each table has its own cache, bounded by number of
+ * cells, and like {@link ConflictDetectionManager}, whether a table is immutable is read from its metadata once.
+ */
+final class ImmutableTableCache {
+    static final long DEFAULT_MAX_CELLS_PER_TABLE = 100_000;
+    private static final int MAX_TABLES = 10_000;
+
+    private final LoadingCache<TableReference, Optional<Cache<Cell, CachedValue>>> tableCaches;
+
+    @VisibleForTesting
+    ImmutableTableCache(Predicate<TableReference> isImmutable, long maxCellsPerTable) {
+        this.tableCaches = Caffeine.newBuilder()
+                .maximumSize(MAX_TABLES)
+                .build(tableRef -> isImmutable.test(tableRef)
+                        ? Optional.of(Caffeine.newBuilder().maximumSize(maxCellsPerTable).build())
+                        : Optional.empty());
+    }
+
+    static ImmutableTableCache create(KeyValueService kvs) {
+        return new ImmutableTableCache(tableRef -> isDeclaredImmutable(kvs, tableRef), DEFAULT_MAX_CELLS_PER_TABLE);
+    }
+
+    static ImmutableTableCache createDisabled() {
+        return new ImmutableTableCache(tableRef -> false, 0);
+    }
+
+    boolean isImmutable(TableReference tableRef) {
+        return tableCaches.get(tableRef).isPresent();
+    }
+
+    /**
+     * Returns the cached values of those of the given cells that are visible to a transaction with the given start
+     * timestamp.
+     */
+    Map<Cell, byte[]> getCachedValues(TableReference tableRef, Set<Cell> cells, long startTimestamp) {
+        Optional<Cache<Cell, CachedValue>> cache = tableCaches.get(tableRef);
+        if (!cache.isPresent()) {
+            return ImmutableMap.of();
+        }
+        ImmutableMap.Builder<Cell, byte[]> cachedValues = ImmutableMap.builder();
+        for (Cell cell : cells) {
+            CachedValue cached = cache.get().getIfPresent(cell);
+            if (cached != null && cached.readTimestamp <= startTimestamp) {
+                cachedValues.put(cell, cached.value);
+            }
+        }
+        return cachedValues.build();
+    }
+
+    /**
+     * Caches values that were read from the key value service by a transaction with the given start timestamp. The
+     * values must not include the transaction's own writes.
+     */
+    void cacheReadValues(TableReference tableRef, Map<Cell, byte[]> values, long startTimestamp) {
+        Optional<Cache<Cell, CachedValue>> cache = tableCaches.get(tableRef);
+        if (!cache.isPresent()) {
+            return;
+        }
+        for (Map.Entry<Cell, byte[]> entry : values.entrySet()) {
+            if (entry.getValue().length == 0) {
+                continue;
+            }
+            // keep the earliest read, which is visible to the most transactions
+            cache.get().asMap().merge(entry.getKey(), new CachedValue(entry.getValue(), startTimestamp),
+                    (existing, read) -> existing.readTimestamp <= read.readTimestamp ? existing : read);
+        }
+    }
+
+    private static boolean isDeclaredImmutable(KeyValueService kvs, TableReference tableRef) {
+        return Optional.ofNullable(kvs.getMetadataForTable(tableRef))
+                .filter(metadata -> metadata.length != 0)
+                .map(TableMetadata.BYTES_HYDRATOR::hydrateFromBytes)
+                .map(TableMetadata::isImmutable)
+                .orElse(false);
+    }
+
+    private static final class CachedValue {
+        private final byte[] value;
+        private final long readTimestamp;
+
+        private CachedValue(byte[] value, long readTimestamp) {
+            this.value = value;
+            this.readTimestamp = readTimestamp;
+        }
+    }
+}
@@ -15,6 +15,7 @@
  */
 package com.palantir.atlasdb.transaction.impl;
 
+import java.util.List;
 import java.util.Set;
 import java.util.function.Supplier;
 
@@ -27,6 +28,7 @@ import com.palantir.lock.v2.LockRequest;
 import com.palantir.lock.v2.LockResponse;
 import com.palantir.lock.v2.LockToken;
 import com.palantir.lock.v2.StartAtlasDbTransactionResponse;
+import com.palantir.lock.v2.StartIdentifiedAtlasDbTransactionBatchRequest;
 import com.palantir.lock.v2.StartIdentifiedAtlasDbTransactionRequest;
 import com.palantir.lock.v2.StartIdentifiedAtlasDbTransactionResponse;
 import com.palantir.lock.v2.TimelockService;
@@ -77,6 +79,12 @@ public class InstrumentedTimelockService implements TimelockService {
         return executeWithRecord(() -> timelockService.startIdentifiedAtlasDbTransaction(request));
     }
 
+    @Override
+    public List<StartIdentifiedAtlasDbTransactionResponse> startIdentifiedAtlasDbTransactionBatch(
+            StartIdentifiedAtlasDbTransactionBatchRequest request) {
+        return executeWithRecord(() -> timelockService.startIdentifiedAtlasDbTransactionBatch(request));
+    }
+
     @Override
     public long getImmutableTimestamp() {
         return executeWithRecord(() -> timelockService.getImmutableTimestamp());
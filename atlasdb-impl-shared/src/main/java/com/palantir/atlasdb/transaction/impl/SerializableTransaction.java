@@ -132,7 +132,9 @@ public class SerializableTransaction extends SnapshotTransaction {
                                    ExecutorService deleteExecutor,
                                    CommitProfileProcessor commitProfileProcessor,
                                    boolean validateLocksOnReads,
-                                   Supplier<TransactionConfig> transactionConfig) {
+                                   Supplier<TransactionConfig> transactionConfig,
+                                   ExecutorService commitStageExecutor,
+                                   ImmutableTableCache immutableTableCache) {
         super(metricsManager,
               keyValueService,
               timelockService,
@@ -155,7 +157,9 @@ public class SerializableTransaction extends SnapshotTransaction {
               deleteExecutor,
               commitProfileProcessor,
               validateLocksOnReads,
-              transactionConfig);
+              transactionConfig,
+              commitStageExecutor,
+              immutableTableCache);
     }
 
     @Override
@@ -709,7 +713,11 @@ public class SerializableTransaction extends SnapshotTransaction {
                 deleteExecutor,
                 commitProfileProcessor,
                 validateLocksOnReads,
-                transactionConfig) {
+                transactionConfig,
+                commitStageExecutor,
+                // This transaction treats our own writes as committed, which they may never be, so it must neither
+                // populate nor be served from the cache shared with other transactions.
+                ImmutableTableCache.createDisabled()) {
             @Override
             protected Map<Long, Long> getCommitTimestamps(TableReference tableRef,
                                                           Iterable<Long> startTimestamps,
@@ -405,7 +405,9 @@ public class SerializableTransactionManager extends SnapshotTransactionManager {
                 deleteExecutor,
                 commitProfileProcessor,
                 validateLocksOnReads,
-                transactionConfig);
+                transactionConfig,
+                commitStageExecutor,
+                immutableTableCache);
     }
 
     @VisibleForTesting
@@ -22,6 +22,7 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 
 import com.google.common.base.Supplier;
+import com.google.common.util.concurrent.MoreExecutors;
 import com.palantir.atlasdb.cache.TimestampCache;
 import com.palantir.atlasdb.cleaner.NoOpCleaner;
 import com.palantir.atlasdb.keyvalue.api.KeyValueService;
@@ -102,7 +103,9 @@ public class ShouldNotDeleteAndRollbackTransaction extends SnapshotTransaction {
                 IGNORING_EXECUTOR,
                 CommitProfileProcessor.createNonLogging(metricsManager),
                 true,
-                transactionConfig);
+                transactionConfig,
+                MoreExecutors.newDirectExecutorService(),
+                ImmutableTableCache.createDisabled());
     }
 
     @Override
@@ -26,6 +26,8 @@ import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Set;
 import java.util.SortedMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ConcurrentNavigableMap;
 import java.util.concurrent.ConcurrentSkipListMap;
@@ -127,6 +129,7 @@ import com.palantir.common.base.BatchingVisitables;
 import com.palantir.common.base.ClosableIterator;
 import com.palantir.common.base.ClosableIterators;
 import com.palantir.common.base.ForwardingClosableIterator;
+import com.palantir.common.base.Throwables;
 import com.palantir.common.collect.IterableUtils;
 import com.palantir.common.collect.IteratorUtils;
 import com.palantir.common.collect.MapEntries;
@@ -218,6 +221,8 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
     protected final TransactionOutcomeMetrics transactionOutcomeMetrics;
     protected final boolean validateLocksOnReads;
     protected final Supplier<TransactionConfig> transactionConfig;
+    protected final ExecutorService commitStageExecutor;
+    protected final ImmutableTableCache immutableTableCache;
 
     protected volatile boolean hasReads;
 
@@ -225,6 +230,9 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
      * @param immutableTimestamp If we find a row written before the immutableTimestamp we don't need to
      *                           grab a read lock for it because we know that no writers exist.
      * @param preCommitCondition This check must pass for this transaction to commit.
+     * @param commitStageExecutor Used to run independent commit stages concurrently when pipelined commit is
+     *                            enabled in the {@link TransactionConfig}.
+     * @param immutableTableCache Values read from tables declared immutable, shared across transactions.
      */
     /* package */ SnapshotTransaction(
             MetricsManager metricsManager,
@@ -249,7 +257,9 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
             ExecutorService deleteExecutor,
             CommitProfileProcessor commitProfileProcessor,
             boolean validateLocksOnReads,
-            Supplier<TransactionConfig> transactionConfig) {
+            Supplier<TransactionConfig> transactionConfig,
+            ExecutorService commitStageExecutor,
+            ImmutableTableCache immutableTableCache) {
         this.metricsManager = metricsManager;
         this.transactionTimerContext = getTimer("transactionMillis").time();
         this.keyValueService = keyValueService;
@@ -276,6 +286,8 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
         this.transactionOutcomeMetrics = TransactionOutcomeMetrics.create(metricsManager);
         this.validateLocksOnReads = validateLocksOnReads;
         this.transactionConfig = transactionConfig;
+        this.commitStageExecutor = commitStageExecutor;
+        this.immutableTableCache = immutableTableCache;
     }
 
     @Override
@@ -315,9 +327,16 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
         }
         hasReads = true;
         ImmutableMap.Builder<Cell, byte[]> result = ImmutableSortedMap.naturalOrder();
-        Map<Cell, Value> rawResults = Maps.newHashMap(
-                keyValueService.getRows(tableRef, rows, columnSelection, getStartTimestamp()));
         SortedMap<Cell, byte[]> writes = writesByTable.get(tableRef);
+        boolean useImmutableTableCache = writes == null
+                && !columnSelection.allColumnsSelected()
+                && immutableTableCache.isImmutable(tableRef);
+        Iterable<byte[]> rowsToRead = useImmutableTableCache
+                ? getRowsNotFullyCached(tableRef, rows, columnSelection, result)
+                : rows;
+        Map<Cell, Value> rawResults = Iterables.isEmpty(rowsToRead)
+                ? Maps.newHashMap()
+                : Maps.newHashMap(keyValueService.getRows(tableRef, rowsToRead, columnSelection, getStartTimestamp()));
         if (writes != null) {
             for (byte[] row : rows) {
                 extractLocalWritesForRow(result, writes, row, columnSelection);
@@ -328,6 +347,11 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
         rawResults.keySet().removeAll(result.build().keySet());
 
         SortedMap<byte[], RowResult<byte[]>> results = filterRowResults(tableRef, rawResults, result);
+        if (useImmutableTableCache) {
+            // With no local writes, every value returned was either cached or read from the key value service.
+            immutableTableCache.cacheReadValues(
+                    tableRef, Cells.convertRowResultsToCells(results.values()), getStartTimestamp());
+        }
         long getRowsMillis = TimeUnit.NANOSECONDS.toMillis(timer.stop());
         if (perfLogger.isDebugEnabled()) {
             perfLogger.debug("getRows({}, {} rows) found {} rows, took {} ms",
@@ -545,6 +569,31 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
         }
     }
 
+    /**
+     * Puts into the result the cached values of the rows whose selected columns are all cached, and returns the
+     * remaining rows, which have to be read from the key value service.
+     */
+    private List<byte[]> getRowsNotFullyCached(
+            TableReference tableRef,
+            Iterable<byte[]> rows,
+            ColumnSelection columnSelection,
+            @Output ImmutableMap.Builder<Cell, byte[]> result) {
+        List<byte[]> rowsToRead = Lists.newArrayList();
+        for (byte[] row : rows) {
+            Set<Cell> cells = Sets.newHashSetWithExpectedSize(columnSelection.getSelectedColumns().size());
+            for (byte[] column : columnSelection.getSelectedColumns()) {
+                cells.add(Cell.create(row, column));
+            }
+            Map<Cell, byte[]> cachedValues = immutableTableCache.getCachedValues(tableRef, cells, getStartTimestamp());
+            if (cachedValues.size() == cells.size()) {
+                result.putAll(cachedValues);
+            } else {
+                rowsToRead.add(row);
+            }
+        }
+        return rowsToRead;
+    }
+
     @Override
     public Map<Cell, byte[]> get(TableReference tableRef, Set<Cell> cells) {
         Timer.Context timer = getTimer("get").time();
@@ -596,11 +645,25 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
      * this will be included here and needs to be filtered out.
      */
     private Map<Cell, byte[]> getFromKeyValueService(TableReference tableRef, Set<Cell> cells) {
-        ImmutableMap.Builder<Cell, byte[]> result = ImmutableMap.builderWithExpectedSize(cells.size());
-        Map<Cell, Long> toRead = Cells.constantValueMap(cells, getStartTimestamp());
+        Map<Cell, byte[]> cachedValues = immutableTableCache.getCachedValues(tableRef, cells, getStartTimestamp());
+        Set<Cell> cellsToRead = cachedValues.isEmpty() ? cells : Sets.difference(cells, cachedValues.keySet());
+        if (cellsToRead.isEmpty()) {
+            return cachedValues;
+        }
+
+        ImmutableMap.Builder<Cell, byte[]> result = ImmutableMap.builderWithExpectedSize(cellsToRead.size());
+        Map<Cell, Long> toRead = Cells.constantValueMap(cellsToRead, getStartTimestamp());
         Map<Cell, Value> rawResults = keyValueService.get(tableRef, toRead);
         getWithPostFiltering(tableRef, rawResults, result, Value.GET_VALUE);
-        return result.build();
+        Map<Cell, byte[]> loadedValues = result.build();
+        immutableTableCache.cacheReadValues(tableRef, loadedValues, getStartTimestamp());
+        if (cachedValues.isEmpty()) {
+            return loadedValues;
+        }
+        return ImmutableMap.<Cell, byte[]>builderWithExpectedSize(cachedValues.size() + loadedValues.size())
+                .putAll(cachedValues)
+                .putAll(loadedValues)
+                .build();
     }
 
     private static byte[] getNextStartRowName(
@@ -1381,20 +1444,45 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
         LockToken commitLocksToken = acquireLocksForCommit();
         long microsForRowLocks = TimeUnit.NANOSECONDS.toMicros(acquireLocksTimer.stop());
         try {
-            // Conflict checking. We can actually do this later without compromising correctness, but there is
-            // no reason to postpone this check - we waste resources writing unnecessarily if these are going to fail.
-            long microsCheckingForConflicts = runAndReportTimeAndGetDurationMicros(
-                    () -> throwIfConflictOnCommit(commitLocksToken, transactionService),
-                    "commitCheckingForConflicts");
-
-            // Write to the targeted sweep queue. We must do this before writing to the key value service -
-            // otherwise we may have hanging values that targeted sweep won't know about.
-            long microsWritingToTargetedSweepQueue =
-                    runAndReportTimeAndGetDurationMicros(() -> sweepQueue.enqueue(writesByTable, getStartTimestamp()),
-                            "writingToSweepQueue");
+            boolean pipelined = transactionConfig.get().enablePipelinedCommit();
+
+            // Conflict checking. This must complete before we write to the key value service: the write/write
+            // check reads the latest timestamps of the cells we write, and would otherwise see our own writes,
+            // mistake them for those of a failed transaction, and miss genuine conflicts that they hide.
+            // When pipelining, we overlap the check only with the write to the targeted sweep queue, which touches
+            // none of the cells the check reads.
+            Optional<CompletableFuture<Long>> pipelinedConflictCheck = Optional.empty();
+            long microsCheckingForConflicts = 0L;
+            if (pipelined) {
+                pipelinedConflictCheck = Optional.of(runAsyncAndReportTimeAndGetDurationMicros(
+                        () -> throwIfConflictOnCommit(commitLocksToken, transactionService),
+                        "commitCheckingForConflicts"));
+            } else {
+                microsCheckingForConflicts = runAndReportTimeAndGetDurationMicros(
+                        () -> throwIfConflictOnCommit(commitLocksToken, transactionService),
+                        "commitCheckingForConflicts");
+            }
+
+            long microsWritingToTargetedSweepQueue;
+            try {
+                // Write to the targeted sweep queue. We must do this before writing to the key value service -
+                // otherwise we may have hanging values that targeted sweep won't know about.
+                microsWritingToTargetedSweepQueue = runAndReportTimeAndGetDurationMicros(
+                        () -> sweepQueue.enqueue(writesByTable, getStartTimestamp()),
+                        "writingToSweepQueue");
+            } catch (RuntimeException e) {
+                // A conflict is the more useful failure to report, and we must not leave the check running after
+                // we release our commit locks.
+                pipelinedConflictCheck.ifPresent(conflictCheck -> throwIfCommitStageFailed(conflictCheck, e));
+                throw e;
+            }
+            if (pipelinedConflictCheck.isPresent()) {
+                microsCheckingForConflicts = getCommitStageDurationMicros(pipelinedConflictCheck.get());
+            }
 
             // Write to the key value service. We must do this before getting the commit timestamp - otherwise
-            // we risk another transaction starting at a timestamp after our commit timestamp not seeing our writes.
+            // we risk another transaction starting at a timestamp after our commit timestamp not seeing our
+            // writes. For the same reason, the commit timestamp must not be prefetched while this is in flight.
             long microsForWrites = runAndReportTimeAndGetDurationMicros(
                     () -> keyValueService.multiPut(writesByTable, getStartTimestamp()), "commitWrite");
 
@@ -1415,19 +1503,36 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
                     () -> cleaner.punch(commitTimestamp),
                     "microsForPunch");
 
-            // Serializable transactions need to check their reads haven't changed, by reading again at commitTs + 1.
-            // This must happen before the lock check for thorough tables, because the lock check verifies the
-            // immutable timestamp hasn't moved forward - thorough sweep might sweep a conflict out from underneath us.
-            long microsForReadWriteConflictCheck = runAndReportTimeAndGetDurationMicros(
-                    () -> throwIfReadWriteConflictForSerializable(commitTimestamp),
-                    "readWriteConflictCheck");
-
-            // Verify that our locks and pre-commit conditions are still valid before we actually commit;
-            // this throwIfPreCommitRequirementsNotMet is required by the transaction protocol for correctness.
-            long microsForPreCommitLockCheck = runAndReportTimeAndGetDurationMicros(
-                    () -> throwIfImmutableTsOrCommitLocksExpired(commitLocksToken), "preCommitLockCheck");
-            long microsForUserPreCommitCondition = runAndReportTimeAndGetDurationMicros(
-                    () -> throwIfPreCommitConditionInvalid(commitTimestamp), "userPreCommitCondition");
+            // The user pre-commit condition only needs to hold at our commit timestamp, and so is independent of
+            // the read/write conflict and lock checks below. When pipelining, we evaluate it concurrently with them.
+            Optional<CompletableFuture<Long>> pipelinedUserPreCommitCondition = pipelined
+                    ? Optional.of(runAsyncAndReportTimeAndGetDurationMicros(
+                            () -> throwIfPreCommitConditionInvalid(commitTimestamp), "userPreCommitCondition"))
+                    : Optional.empty();
+
+            long microsForReadWriteConflictCheck;
+            long microsForPreCommitLockCheck;
+            try {
+                // Serializable transactions need to check their reads haven't changed, by reading again at
+                // commitTs + 1. This must happen before the lock check for thorough tables, because the lock check
+                // verifies the immutable timestamp hasn't moved forward - thorough sweep might sweep a conflict out
+                // from underneath us.
+                microsForReadWriteConflictCheck = runAndReportTimeAndGetDurationMicros(
+                        () -> throwIfReadWriteConflictForSerializable(commitTimestamp),
+                        "readWriteConflictCheck");
+
+                // Verify that our locks and pre-commit conditions are still valid before we actually commit;
+                // this throwIfPreCommitRequirementsNotMet is required by the transaction protocol for correctness.
+                microsForPreCommitLockCheck = runAndReportTimeAndGetDurationMicros(
+                        () -> throwIfImmutableTsOrCommitLocksExpired(commitLocksToken), "preCommitLockCheck");
+            } catch (RuntimeException e) {
+                pipelinedUserPreCommitCondition.ifPresent(condition -> throwIfCommitStageFailed(condition, e));
+                throw e;
+            }
+            long microsForUserPreCommitCondition = pipelinedUserPreCommitCondition.isPresent()
+                    ? getCommitStageDurationMicros(pipelinedUserPreCommitCondition.get())
+                    : runAndReportTimeAndGetDurationMicros(
+                            () -> throwIfPreCommitConditionInvalid(commitTimestamp), "userPreCommitCondition");
 
             long microsForPutCommitTs = runAndReportTimeAndGetDurationMicros(
                     () -> putCommitTimestamp(commitTimestamp, commitLocksToken, transactionService),
@@ -1471,6 +1576,36 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
         return TimeUnit.NANOSECONDS.toMicros(timer.stop());
     }
 
+    private CompletableFuture<Long> runAsyncAndReportTimeAndGetDurationMicros(Runnable runnable, String timerName) {
+        return CompletableFuture.supplyAsync(
+                () -> runAndReportTimeAndGetDurationMicros(runnable, timerName), commitStageExecutor);
+    }
+
+    /**
+     * Waits for a pipelined commit stage, rethrowing its failure (if any) on the committing thread.
+     */
+    private static long getCommitStageDurationMicros(CompletableFuture<Long> commitStage) {
+        try {
+            return commitStage.join();
+        } catch (CompletionException e) {
+            Throwables.throwIfUncheckedException(e.getCause());
+            throw Throwables.rewrapAndThrowUncheckedException(e.getCause());
+        }
+    }
+
+    /**
+     * Waits for a pipelined commit stage after another stage has already failed with {@code otherFailure}. If the
+     * pipelined stage also failed, its failure is thrown instead, with {@code otherFailure} attached as suppressed.
+     */
+    private static void throwIfCommitStageFailed(CompletableFuture<Long> commitStage, RuntimeException otherFailure) {
+        try {
+            getCommitStageDurationMicros(commitStage);
+        } catch (RuntimeException | Error e) {
+            e.addSuppressed(otherFailure);
+            throw e;
+        }
+    }
+
     protected void throwIfReadWriteConflictForSerializable(long commitTimestamp) {
         // This is for overriding to get serializable transactions
     }
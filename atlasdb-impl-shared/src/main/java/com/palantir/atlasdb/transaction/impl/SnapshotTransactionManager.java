@@ -55,6 +55,8 @@ import com.palantir.atlasdb.transaction.impl.logging.CommitProfileProcessor;
 import com.palantir.atlasdb.transaction.service.TransactionService;
 import com.palantir.atlasdb.util.MetricsManager;
 import com.palantir.common.base.Throwables;
+import com.palantir.common.concurrent.NamedThreadFactory;
+import com.palantir.common.concurrent.PTExecutors;
 import com.palantir.lock.LockService;
 import com.palantir.lock.v2.LockToken;
 import com.palantir.lock.v2.StartIdentifiedAtlasDbTransactionRequest;
@@ -80,6 +82,8 @@ import com.palantir.timestamp.TimestampService;
     final boolean allowHiddenTableAccess;
     final ExecutorService getRangesExecutor;
     final ExecutorService deleteExecutor;
+    final ExecutorService commitStageExecutor;
+    final ImmutableTableCache immutableTableCache;
     final int defaultGetRangesConcurrency;
     final MultiTableSweepQueueWriter sweepQueueWriter;
     final boolean validateLocksOnReads;
@@ -129,6 +133,9 @@ import com.palantir.timestamp.TimestampService;
         this.defaultGetRangesConcurrency = defaultGetRangesConcurrency;
         this.sweepQueueWriter = sweepQueueWriter;
         this.deleteExecutor = deleteExecutor;
+        this.commitStageExecutor = PTExecutors.newCachedThreadPool(
+                new NamedThreadFactory(getClass().getSimpleName() + "-commit-stages", true));
+        this.immutableTableCache = ImmutableTableCache.create(keyValueService);
         this.commitProfileProcessor = CommitProfileProcessor.createDefault(metricsManager);
         this.validateLocksOnReads = validateLocksOnReads;
         this.transactionConfig = transactionConfig;
@@ -249,7 +256,9 @@ import com.palantir.timestamp.TimestampService;
                 deleteExecutor,
                 commitProfileProcessor,
                 validateLocksOnReads,
-                transactionConfig);
+                transactionConfig,
+                commitStageExecutor,
+                immutableTableCache);
     }
 
     @Override
@@ -280,7 +289,9 @@ import com.palantir.timestamp.TimestampService;
                 deleteExecutor,
                 commitProfileProcessor,
                 validateLocksOnReads,
-                transactionConfig);
+                transactionConfig,
+                commitStageExecutor,
+                immutableTableCache);
         try {
             return runTaskThrowOnConflict(txn -> task.execute(txn, condition),
                     new ReadTransaction(transaction, sweepStrategyManager));
@@ -312,6 +323,7 @@ import com.palantir.timestamp.TimestampService;
             keyValueService.close();
             shutdownExecutor(deleteExecutor);
             shutdownExecutor(getRangesExecutor);
+            shutdownExecutor(commitStageExecutor);
             closeLockServiceIfPossible();
 
             List<Throwable> suppressedExceptions = new ArrayList<>();
@@ -0,0 +1,136 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.transaction.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+
+import javax.annotation.CheckForNull;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.palantir.atlasdb.autobatch.AutobatcherConfig;
+import com.palantir.atlasdb.autobatch.BatchElement;
+import com.palantir.atlasdb.autobatch.DisruptorAutobatcher;
+import com.palantir.atlasdb.keyvalue.api.KeyAlreadyExistsException;
+import com.palantir.atlasdb.util.MetricsManager;
+
+/**
+ * This class coalesces read (that is, get) requests to an underlying {@link TransactionService}, such that there is
+ * at most one read in flight at a given time. Requests that arrive while a read is in flight are merged, with
+ * duplicate start timestamps removed, into a single read for the next batch. Write requests (put-unless-exists) are
+ * passed straight through to the delegate.
+ *
+ * Each batch is only read once all of its requests have been submitted, so a get that begins after a
+ * put-unless-exists has completed is guaranteed to observe it.
+ */
+public final class ReadBatchingTransactionService implements TransactionService {
+    private final TransactionService delegate;
+    private final DisruptorAutobatcher<Set<Long>, Map<Long, Long>> autobatcher;
+
+    private ReadBatchingTransactionService(
+            TransactionService delegate, DisruptorAutobatcher<Set<Long>, Map<Long, Long>> autobatcher) {
+        this.delegate = delegate;
+        this.autobatcher = autobatcher;
+    }
+
+    public static TransactionService create(TransactionService delegate) {
+        DisruptorAutobatcher<Set<Long>, Map<Long, Long>> autobatcher = DisruptorAutobatcher.create(
+                elements -> processBatch(delegate, elements));
+        return new ReadBatchingTransactionService(delegate, autobatcher);
+    }
+
+    public static TransactionService create(TransactionService delegate, MetricsManager metricsManager) {
+        DisruptorAutobatcher<Set<Long>, Map<Long, Long>> autobatcher = DisruptorAutobatcher.create(
+                ReadBatchingTransactionService.class.getSimpleName(),
+                metricsManager.getRegistry(),
+                AutobatcherConfig.defaultConfig(),
+                elements -> processBatch(delegate, elements));
+        return new ReadBatchingTransactionService(delegate, autobatcher);
+    }
+
+    @CheckForNull
+    @Override
+    public Long get(long startTimestamp) {
+        return getViaBatch(ImmutableSet.of(startTimestamp)).get(startTimestamp);
+    }
+
+    @Override
+    public Map<Long, Long> get(Iterable<Long> startTimestamps) {
+        Set<Long> requestedTimestamps = ImmutableSet.copyOf(startTimestamps);
+        if (requestedTimestamps.isEmpty()) {
+            return Maps.newHashMap();
+        }
+        return getViaBatch(requestedTimestamps);
+    }
+
+    @Override
+    public void putUnlessExists(long startTimestamp, long commitTimestamp) throws KeyAlreadyExistsException {
+        delegate.putUnlessExists(startTimestamp, commitTimestamp);
+    }
+
+    @Override
+    public void close() {
+        autobatcher.close();
+        delegate.close();
+    }
+
+    private Map<Long, Long> getViaBatch(Set<Long> startTimestamps) {
+        try {
+            return autobatcher.apply(startTimestamps).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new RuntimeException(cause);
+        }
+    }
+
+    /**
+     * Semantics for batch processing:
+     *
+     * - The start timestamps of all requests in the batch are deduplicated and read from the delegate in a single
+     *   call; each request then receives the commit timestamps for exactly the start timestamps it asked for.
+     * - If the read from the delegate fails, every request in the batch fails with the same exception.
+     */
+    @VisibleForTesting
+    static void processBatch(
+            TransactionService delegate, List<BatchElement<Set<Long>, Map<Long, Long>>> batchElements) {
+        Set<Long> distinctStartTimestamps = Sets.newHashSet();
+        batchElements.forEach(element -> distinctStartTimestamps.addAll(element.argument()));
+
+        Map<Long, Long> commitTimestamps = delegate.get(distinctStartTimestamps);
+
+        for (BatchElement<Set<Long>, Map<Long, Long>> element : batchElements) {
+            Map<Long, Long> result = Maps.newHashMapWithExpectedSize(element.argument().size());
+            for (Long startTimestamp : element.argument()) {
+                Long commitTimestamp = commitTimestamps.get(startTimestamp);
+                if (commitTimestamp != null) {
+                    result.put(startTimestamp, commitTimestamp);
+                }
+            }
+            element.result().set(result);
+        }
+    }
+}
@@ -15,7 +15,12 @@
  */
 package com.palantir.atlasdb.transaction.service;
 
+import java.util.Optional;
+
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableMap;
+import com.palantir.atlasdb.autobatch.AutobatcherConfig;
+import com.palantir.atlasdb.autobatch.ImmutableAutobatcherConfig;
 import com.palantir.atlasdb.coordination.CoordinationService;
 import com.palantir.atlasdb.internalschema.InternalSchemaMetadata;
 import com.palantir.atlasdb.internalschema.ReadOnlyTransactionSchemaManager;
@@ -24,6 +29,7 @@ import com.palantir.atlasdb.internalschema.persistence.CoordinationServices;
 import com.palantir.atlasdb.keyvalue.api.CheckAndSetCompatibility;
 import com.palantir.atlasdb.keyvalue.api.KeyValueService;
 import com.palantir.atlasdb.transaction.impl.TransactionConstants;
+import com.palantir.atlasdb.util.MetricsManager;
 import com.palantir.logsafe.exceptions.SafeIllegalStateException;
 import com.palantir.timestamp.TimestampService;
 
@@ -34,33 +40,88 @@ public final class TransactionServices {
 
     public static TransactionService createTransactionService(
             KeyValueService keyValueService, TransactionSchemaManager transactionSchemaManager) {
+        return createTransactionService(
+                keyValueService, transactionSchemaManager, Optional.empty(), false, AutobatcherConfig.defaultConfig());
+    }
+
+    /**
+     * As {@link #createTransactionService(KeyValueService, TransactionSchemaManager)}, but reports metrics about the
+     * batching of transaction table writes to the given {@link MetricsManager}. If enableReadBatching is true, reads
+     * of commit timestamps are also coalesced across threads by a {@link ReadBatchingTransactionService}. If
+     * enableAdaptiveWriteBatching is true, the batcher of transaction table writes lingers briefly for more writes
+     * in proportion to how long recent batches took.
+     */
+    public static TransactionService createTransactionService(
+            KeyValueService keyValueService,
+            TransactionSchemaManager transactionSchemaManager,
+            MetricsManager metricsManager,
+            boolean enableReadBatching,
+            boolean enableAdaptiveWriteBatching) {
+        return createTransactionService(
+                keyValueService,
+                transactionSchemaManager,
+                Optional.of(metricsManager),
+                enableReadBatching,
+                writeBatchingAutobatcherConfig(enableAdaptiveWriteBatching));
+    }
+
+    @VisibleForTesting
+    static AutobatcherConfig writeBatchingAutobatcherConfig(boolean enableAdaptiveLinger) {
+        return ImmutableAutobatcherConfig.builder().enableAdaptiveLinger(enableAdaptiveLinger).build();
+    }
+
+    private static TransactionService createTransactionService(
+            KeyValueService keyValueService,
+            TransactionSchemaManager transactionSchemaManager,
+            Optional<MetricsManager> metricsManager,
+            boolean enableReadBatching,
+            AutobatcherConfig writeBatchingConfig) {
         if (keyValueService.getCheckAndSetCompatibility() == CheckAndSetCompatibility.SUPPORTED_DETAIL_ON_FAILURE) {
-            return createSplitKeyTransactionService(keyValueService, transactionSchemaManager);
+            return createSplitKeyTransactionService(keyValueService,
+                    transactionSchemaManager, metricsManager, enableReadBatching, writeBatchingConfig);
         }
-        return createV1TransactionService(keyValueService);
+        TransactionService delegate = SimpleTransactionService.createV1(keyValueService);
+        return new PreStartHandlingTransactionService(
+                enableReadBatching ? createReadBatchingTransactionService(delegate, metricsManager) : delegate);
     }
 
     private static TransactionService createSplitKeyTransactionService(
             KeyValueService keyValueService,
-            TransactionSchemaManager transactionSchemaManager) {
+            TransactionSchemaManager transactionSchemaManager,
+            Optional<MetricsManager> metricsManager,
+            boolean enableReadBatching,
+            AutobatcherConfig writeBatchingConfig) {
         // TODO (jkong): Is there a way to disallow DIRECT -> V2 transaction service in the map?
+        TransactionService delegate = new SplitKeyDelegatingTransactionService<>(
+                transactionSchemaManager::getTransactionsSchemaVersion,
+                ImmutableMap.of(
+                        TransactionConstants.DIRECT_ENCODING_TRANSACTIONS_SCHEMA_VERSION,
+                        createV1TransactionService(keyValueService),
+                        TransactionConstants.TICKETS_ENCODING_TRANSACTIONS_SCHEMA_VERSION,
+                        createV2TransactionService(keyValueService, metricsManager, writeBatchingConfig)));
         return new PreStartHandlingTransactionService(
-                new SplitKeyDelegatingTransactionService<>(
-                        transactionSchemaManager::getTransactionsSchemaVersion,
-                        ImmutableMap.of(
-                                TransactionConstants.DIRECT_ENCODING_TRANSACTIONS_SCHEMA_VERSION,
-                                createV1TransactionService(keyValueService),
-                                TransactionConstants.TICKETS_ENCODING_TRANSACTIONS_SCHEMA_VERSION,
-                                createV2TransactionService(keyValueService))));
+                enableReadBatching ? createReadBatchingTransactionService(delegate, metricsManager) : delegate);
     }
 
     public static TransactionService createV1TransactionService(KeyValueService keyValueService) {
         return new PreStartHandlingTransactionService(SimpleTransactionService.createV1(keyValueService));
     }
 
-    private static TransactionService createV2TransactionService(KeyValueService keyValueService) {
-        return new PreStartHandlingTransactionService(WriteBatchingTransactionService.create(
-                        SimpleTransactionService.createV2(keyValueService)));
+    private static TransactionService createV2TransactionService(
+            KeyValueService keyValueService,
+            Optional<MetricsManager> metricsManager,
+            AutobatcherConfig writeBatchingConfig) {
+        EncodingTransactionService delegate = SimpleTransactionService.createV2(keyValueService);
+        return new PreStartHandlingTransactionService(metricsManager
+                .map(manager -> WriteBatchingTransactionService.create(delegate, manager, writeBatchingConfig))
+                .orElseGet(() -> WriteBatchingTransactionService.create(delegate)));
+    }
+
+    private static TransactionService createReadBatchingTransactionService(
+            TransactionService delegate, Optional<MetricsManager> metricsManager) {
+        return metricsManager
+                .map(manager -> ReadBatchingTransactionService.create(delegate, manager))
+                .orElseGet(() -> ReadBatchingTransactionService.create(delegate));
     }
 
     /**
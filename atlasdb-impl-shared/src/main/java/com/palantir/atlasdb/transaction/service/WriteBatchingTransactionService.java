@@ -30,10 +30,12 @@ import org.immutables.value.Value;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.Maps;
 import com.google.common.util.concurrent.SettableFuture;
+import com.palantir.atlasdb.autobatch.AutobatcherConfig;
 import com.palantir.atlasdb.autobatch.BatchElement;
 import com.palantir.atlasdb.autobatch.DisruptorAutobatcher;
 import com.palantir.atlasdb.keyvalue.api.Cell;
 import com.palantir.atlasdb.keyvalue.api.KeyAlreadyExistsException;
+import com.palantir.atlasdb.util.MetricsManager;
 import com.palantir.common.annotation.Output;
 import com.palantir.lock.v2.StartIdentifiedAtlasDbTransactionRequest;
 import com.palantir.lock.v2.TimelockService;
@@ -65,6 +67,29 @@ public final class WriteBatchingTransactionService implements TransactionService
         return new WriteBatchingTransactionService(delegate, autobatcher);
     }
 
+    /**
+     * Creates a write batching transaction service whose autobatcher reports metrics to the given registry, and is
+     * otherwise configured as one created by {@link #create(EncodingTransactionService)}.
+     */
+    public static TransactionService create(EncodingTransactionService delegate, MetricsManager metricsManager) {
+        return create(delegate, metricsManager, AutobatcherConfig.defaultConfig());
+    }
+
+    /**
+     * As {@link #create(EncodingTransactionService, MetricsManager)}, but with the given autobatcher config. Each
+     * batch is a check-and-set round trip to the key value service, so enabling adaptive linger in the config may
+     * build larger batches under high write throughput.
+     */
+    public static TransactionService create(
+            EncodingTransactionService delegate, MetricsManager metricsManager, AutobatcherConfig autobatcherConfig) {
+        DisruptorAutobatcher<TimestampPair, Void> autobatcher = DisruptorAutobatcher.create(
+                WriteBatchingTransactionService.class.getSimpleName(),
+                metricsManager.getRegistry(),
+                autobatcherConfig,
+                elements -> processBatch(delegate, elements));
+        return new WriteBatchingTransactionService(delegate, autobatcher);
+    }
+
     @CheckForNull
     @Override
     public Long get(long startTimestamp) {
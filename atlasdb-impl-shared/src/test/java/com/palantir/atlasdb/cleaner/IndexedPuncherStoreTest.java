@@ -0,0 +1,107 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.cleaner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.palantir.atlasdb.AtlasDbConstants;
+import com.palantir.atlasdb.keyvalue.api.KeyValueService;
+import com.palantir.atlasdb.keyvalue.api.RangeRequest;
+import com.palantir.atlasdb.keyvalue.impl.InMemoryKeyValueService;
+
+public class IndexedPuncherStoreTest {
+    private static final long REFRESH_INTERVAL_MILLIS = 1_000L;
+    private static final long HISTORY_MILLIS = 10_000L;
+
+    private final KeyValueService kvs = spy(new InMemoryKeyValueService(false));
+    private final PuncherStore kvsPuncherStore = KeyValueServicePuncherStore.create(kvs);
+
+    private long currentTimeMillis = 100_000L;
+    private final IndexedPuncherStore puncherStore = new IndexedPuncherStore(
+            kvs, kvsPuncherStore, () -> currentTimeMillis, REFRESH_INTERVAL_MILLIS, HISTORY_MILLIS);
+
+    @Before
+    public void setUp() {
+        puncherStore.put(10L, 95_000L);
+        puncherStore.put(20L, 96_000L);
+        puncherStore.put(30L, 97_000L);
+    }
+
+    @Test
+    public void answersLookupsLikeTheKeyValueServicePuncherStore() {
+        for (long timeMillis = 94_000L; timeMillis <= 98_000L; timeMillis += 500L) {
+            assertThat(puncherStore.get(timeMillis)).isEqualTo(kvsPuncherStore.get(timeMillis));
+        }
+        for (long timestamp = 0L; timestamp <= 40L; timestamp += 5L) {
+            assertThat(puncherStore.getMillisForTimestamp(timestamp))
+                    .isEqualTo(kvsPuncherStore.getMillisForTimestamp(timestamp));
+        }
+    }
+
+    @Test
+    public void handlesPunchesNotInOrderOfTimestamp() {
+        puncherStore.put(25L, 98_000L);
+
+        assertThat(puncherStore.get(98_000L)).isEqualTo(25L);
+        assertThat(puncherStore.getMillisForTimestamp(25L)).isEqualTo(98_000L);
+        assertThat(puncherStore.getMillisForTimestamp(24L)).isEqualTo(96_000L);
+        assertThat(puncherStore.getMillisForTimestamp(30L)).isEqualTo(98_000L);
+    }
+
+    @Test
+    public void readsPunchTableOnlyOncePerRefreshInterval() {
+        puncherStore.get(96_500L);
+        puncherStore.get(97_500L);
+        puncherStore.getMillisForTimestamp(25L);
+
+        verify(kvs, times(1)).getRange(eq(AtlasDbConstants.PUNCH_TABLE), any(RangeRequest.class), anyLong());
+    }
+
+    @Test
+    public void picksUpNewPunchesOnceRefreshIntervalHasPassed() {
+        assertThat(puncherStore.get(101_000L)).isEqualTo(30L);
+
+        puncherStore.put(40L, 100_500L);
+        assertThat(puncherStore.get(101_000L)).isEqualTo(30L);
+
+        currentTimeMillis += REFRESH_INTERVAL_MILLIS;
+        assertThat(puncherStore.get(101_000L)).isEqualTo(40L);
+        assertThat(puncherStore.getMillisForTimestamp(45L)).isEqualTo(100_500L);
+    }
+
+    @Test
+    public void passesLookupsBeforeIndexedHistoryToDelegate() {
+        puncherStore.put(5L, 80_000L);
+        puncherStore.get(97_000L);
+        clearInvocations(kvs);
+
+        assertThat(puncherStore.get(85_000L)).isEqualTo(5L);
+        assertThat(puncherStore.get(70_000L)).isEqualTo(Long.MIN_VALUE);
+        assertThat(puncherStore.getMillisForTimestamp(7L)).isEqualTo(80_000L);
+        assertThat(puncherStore.getMillisForTimestamp(1L)).isEqualTo(0L);
+        verify(kvs, times(4)).getRange(eq(AtlasDbConstants.PUNCH_TABLE), any(RangeRequest.class), anyLong());
+    }
+}
@@ -16,6 +16,7 @@
 package com.palantir.atlasdb.sweep;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
 import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyList;
@@ -30,6 +31,7 @@ import static org.mockito.Mockito.when;
 import java.util.Collection;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 import java.util.stream.LongStream;
@@ -37,10 +39,17 @@ import java.util.stream.LongStream;
 import org.junit.Test;
 import org.mockito.invocation.InvocationOnMock;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Sets;
 import com.palantir.atlasdb.AtlasDbConstants;
 import com.palantir.atlasdb.keyvalue.api.KeyAlreadyExistsException;
+import com.palantir.atlasdb.keyvalue.api.KeyValueService;
+import com.palantir.atlasdb.keyvalue.impl.InMemoryKeyValueService;
+import com.palantir.atlasdb.transaction.encoding.TicketsEncodingStrategy;
 import com.palantir.atlasdb.transaction.impl.TransactionConstants;
+import com.palantir.atlasdb.transaction.impl.TransactionTables;
+import com.palantir.atlasdb.transaction.service.SimpleTransactionService;
 import com.palantir.atlasdb.transaction.service.TransactionService;
 
 public class CommitTsCacheTest {
@@ -178,6 +187,85 @@ public class CommitTsCacheTest {
         assertThat(loader.loadIfCached(VALID_START_TIMESTAMP)).contains(ROLLBACK_TIMESTAMP);
     }
 
+    @Test
+    public void loadBatchAsyncLoadsAndCachesTimestamps() throws Exception {
+        when(mockTransactionService.get(any()))
+                .thenReturn(ImmutableMap.of(VALID_START_TIMESTAMP, VALID_COMMIT_TIMESTAMP));
+
+        assertThat(loader.loadBatchAsync(ImmutableList.of(VALID_START_TIMESTAMP)).get())
+                .containsExactly(entry(VALID_START_TIMESTAMP, VALID_COMMIT_TIMESTAMP));
+        assertThat(loader.loadIfCached(VALID_START_TIMESTAMP)).contains(VALID_COMMIT_TIMESTAMP);
+    }
+
+    @Test
+    public void prefillIsNoOpWithoutKeyValueService() throws Exception {
+        loader.prefillAsync(0L, 1_000L).get();
+        verifyNoMoreInteractions(mockTransactionService);
+    }
+
+    @Test
+    public void prefillCachesFinishedTransactionsInRange() throws ExecutionException, InterruptedException {
+        KeyValueService kvs = new InMemoryKeyValueService(false);
+        TransactionTables.createTables(kvs);
+        TransactionService v1Service = SimpleTransactionService.createV1(kvs);
+        v1Service.putUnlessExists(9L, 12L);
+        v1Service.putUnlessExists(10L, 13L);
+        v1Service.putUnlessExists(15L, ROLLBACK_TIMESTAMP);
+        v1Service.putUnlessExists(19L, 25L);
+        v1Service.putUnlessExists(20L, 21L);
+
+        CommitTsCache cache = CommitTsCache.create(mockTransactionService, kvs);
+        cache.prefillAsync(10L, 20L).get();
+
+        assertThat(cache.loadIfCached(9L)).isEmpty();
+        assertThat(cache.loadIfCached(10L)).contains(13L);
+        assertThat(cache.loadIfCached(11L)).isEmpty();
+        assertThat(cache.loadIfCached(15L)).contains(ROLLBACK_TIMESTAMP);
+        assertThat(cache.loadIfCached(19L)).contains(25L);
+        assertThat(cache.loadIfCached(20L)).isEmpty();
+        verifyNoMoreInteractions(mockTransactionService);
+    }
+
+    @Test
+    public void prefillCachesTicketsEncodedTransactionsInRange() throws ExecutionException, InterruptedException {
+        KeyValueService kvs = new InMemoryKeyValueService(false);
+        TransactionTables.createTables(kvs);
+        TransactionService v2Service = SimpleTransactionService.createV2(kvs);
+        long quantum = TicketsEncodingStrategy.PARTITIONING_QUANTUM;
+        long startTs = quantum - 50L;
+        long endTs = quantum + 50L;
+        for (long timestamp = startTs - 20L; timestamp < endTs + 20L; timestamp++) {
+            v2Service.putUnlessExists(timestamp, timestamp + 3L);
+        }
+
+        CommitTsCache cache = CommitTsCache.create(mockTransactionService, kvs);
+        cache.prefillAsync(startTs, endTs).get();
+
+        for (long timestamp = startTs - 20L; timestamp < endTs + 20L; timestamp++) {
+            if (timestamp >= startTs && timestamp < endTs) {
+                assertThat(cache.loadIfCached(timestamp)).contains(timestamp + 3L);
+            } else {
+                assertThat(cache.loadIfCached(timestamp)).isEmpty();
+            }
+        }
+    }
+
+    @Test
+    public void prefillIsNotRepeatedForTheSameRange() throws ExecutionException, InterruptedException {
+        KeyValueService kvs = new InMemoryKeyValueService(false);
+        TransactionTables.createTables(kvs);
+        TransactionService v1Service = SimpleTransactionService.createV1(kvs);
+        CommitTsCache cache = CommitTsCache.create(mockTransactionService, kvs);
+
+        cache.prefillAsync(10L, 20L).get();
+        v1Service.putUnlessExists(10L, 13L);
+        cache.prefillAsync(10L, 20L).get();
+        assertThat(cache.loadIfCached(10L)).isEmpty();
+
+        cache.prefillAsync(10L, 21L).get();
+        assertThat(cache.loadIfCached(10L)).contains(13L);
+    }
+
     @SuppressWarnings("unchecked")
     private Map<Long, Long> assertRequestedTimestampsAndMapIdentity(InvocationOnMock invocation,
             Collection<Long> expected) {
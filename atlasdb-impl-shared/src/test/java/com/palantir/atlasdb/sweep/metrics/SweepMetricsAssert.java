@@ -28,6 +28,7 @@ import com.codahale.metrics.MetricRegistry;
 import com.google.common.collect.ImmutableMap;
 import com.palantir.atlasdb.AtlasDbMetricNames;
 import com.palantir.atlasdb.sweep.BackgroundSweeperImpl;
+import com.palantir.atlasdb.sweep.queue.ShardAndStrategy;
 import com.palantir.atlasdb.util.MetricsManager;
 import com.palantir.tritium.metrics.registry.MetricName;
 
@@ -102,6 +103,18 @@ public final class SweepMetricsAssert extends AbstractAssert<SweepMetricsAssert,
         objects.assertEqual(info, getGaugeThorough(AtlasDbMetricNames.LAG_MILLIS).getValue(), value);
     }
 
+    public void hasLagForShardEqualTo(ShardAndStrategy shardStrategy, Long value) {
+        String strategy = shardStrategy.isConservative()
+                ? AtlasDbMetricNames.TAG_CONSERVATIVE
+                : AtlasDbMetricNames.TAG_THOROUGH;
+        Map<String, String> tags = ImmutableMap.of(
+                AtlasDbMetricNames.TAG_STRATEGY, strategy,
+                AtlasDbMetricNames.TAG_SHARD, Integer.toString(shardStrategy.shard()));
+        objects.assertEqual(info,
+                getGauge(TargetedSweepMetrics.class, AtlasDbMetricNames.SHARD_LAG_TIMESTAMPS, tags).getValue(),
+                value);
+    }
+
     public void hasLegacyOutcomeEqualTo(SweepOutcome outcome, long value) {
         objects.assertEqual(info, getGaugeForLegacyOutcome(outcome).getValue(), value);
     }
@@ -181,6 +181,18 @@ public class TargetedSweepMetricsTest {
         assertThat(metricsManager).hasMillisSinceLastSweptConservativeEqualTo(clockTime - 5);
     }
 
+    @Test
+    public void lagIsReportedSeparatelyForEachShard() {
+        metrics.updateLagForShard(CONS_ZERO, 100);
+        metrics.updateLagForShard(CONS_ONE, 5);
+        metrics.updateLagForShard(THOR_ZERO, 7);
+        metrics.updateLagForShard(CONS_ZERO, 50);
+
+        assertThat(metricsManager).hasLagForShardEqualTo(CONS_ZERO, 50L);
+        assertThat(metricsManager).hasLagForShardEqualTo(CONS_ONE, 5L);
+        assertThat(metricsManager).hasLagForShardEqualTo(THOR_ZERO, 7L);
+    }
+
     @Test
     public void millisSinceLastSweptUpdatesAsClockUpdatesAfterWaiting() {
         metrics.updateEnqueuedWrites(CONS_ZERO, 1);
@@ -0,0 +1,111 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.sweep.queue;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import static com.palantir.atlasdb.sweep.queue.AdaptiveShardScheduler.MAX_BACKOFF_MILLIS;
+import static com.palantir.atlasdb.sweep.queue.AdaptiveShardScheduler.MIN_BACKOFF_MILLIS;
+
+import org.junit.Test;
+
+public class AdaptiveShardSchedulerTest {
+    private static final int SHARDS = 4;
+
+    private long currentTimeMillis = 1_000L;
+    private final AdaptiveShardScheduler scheduler = new AdaptiveShardScheduler(() -> currentTimeMillis);
+
+    @Test
+    public void triesAllShardsInitially() {
+        assertThat(scheduler.shardsToTry(SHARDS)).containsExactlyInAnyOrder(0, 1, 2, 3);
+        assertThat(scheduler.millisUntilNextShardIsEligible(SHARDS)).isEqualTo(0L);
+    }
+
+    @Test
+    public void triesShardsThatWereNeverSweptBeforeLaggedShards() {
+        scheduler.recordSwept(0, 10L);
+        scheduler.recordSwept(1, 1_000L);
+
+        assertThat(scheduler.shardsToTry(SHARDS)).containsSubsequence(2, 1, 0).containsSubsequence(3, 1, 0);
+    }
+
+    @Test
+    public void triesMostLaggedShardsFirst() {
+        scheduler.recordSwept(0, 10L);
+        scheduler.recordSwept(1, 1_000L);
+        scheduler.recordSwept(2, 100L);
+        scheduler.recordSwept(3, 5L);
+
+        assertThat(scheduler.shardsToTry(SHARDS)).containsExactly(1, 2, 0, 3);
+    }
+
+    @Test
+    public void rotatesBetweenShardsWithEqualLag() {
+        for (int shard = 0; shard < SHARDS; shard++) {
+            scheduler.recordSwept(shard, 10L);
+        }
+
+        assertThat(scheduler.shardsToTry(SHARDS)).containsExactly(0, 1, 2, 3);
+        assertThat(scheduler.shardsToTry(SHARDS)).containsExactly(1, 2, 3, 0);
+    }
+
+    @Test
+    public void backsOffFromShardsThatHaveCaughtUp() {
+        scheduler.recordSwept(0, 0L);
+
+        assertThat(scheduler.shardsToTry(SHARDS)).containsExactlyInAnyOrder(1, 2, 3);
+
+        currentTimeMillis += MIN_BACKOFF_MILLIS;
+        assertThat(scheduler.shardsToTry(SHARDS)).contains(0);
+    }
+
+    @Test
+    public void backoffDoublesUpToMaximumWhileShardStaysCaughtUp() {
+        long expectedBackoff = MIN_BACKOFF_MILLIS;
+        for (int i = 0; i < 10; i++) {
+            scheduler.recordSwept(0, 0L);
+            assertThat(scheduler.millisUntilNextShardIsEligible(1)).isEqualTo(expectedBackoff);
+
+            currentTimeMillis += expectedBackoff;
+            expectedBackoff = Math.min(2 * expectedBackoff, MAX_BACKOFF_MILLIS);
+        }
+        assertThat(expectedBackoff).isEqualTo(MAX_BACKOFF_MILLIS);
+    }
+
+    @Test
+    public void backoffResetsOnceShardHasBacklogAgain() {
+        scheduler.recordSwept(0, 0L);
+        currentTimeMillis += MIN_BACKOFF_MILLIS;
+        scheduler.recordSwept(0, 0L);
+        currentTimeMillis += 2 * MIN_BACKOFF_MILLIS;
+
+        scheduler.recordSwept(0, 10L);
+        assertThat(scheduler.shardsToTry(1)).containsExactly(0);
+
+        scheduler.recordSwept(0, 0L);
+        assertThat(scheduler.millisUntilNextShardIsEligible(1)).isEqualTo(MIN_BACKOFF_MILLIS);
+    }
+
+    @Test
+    public void waitsUntilFirstShardStopsBackingOff() {
+        scheduler.recordSwept(0, 0L);
+        currentTimeMillis += 1_000L;
+        scheduler.recordSwept(1, 0L);
+
+        assertThat(scheduler.shardsToTry(2)).isEmpty();
+        assertThat(scheduler.millisUntilNextShardIsEligible(2)).isEqualTo(MIN_BACKOFF_MILLIS - 1_000L);
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.sweep.queue;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.palantir.atlasdb.AtlasDbConstants;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.ClusterAvailabilityStatus;
+import com.palantir.atlasdb.keyvalue.api.KeyValueService;
+import com.palantir.atlasdb.keyvalue.api.TableReference;
+import com.palantir.atlasdb.ptobject.EncodingUtils;
+import com.palantir.atlasdb.sweep.Sweeper;
+
+public class SweepQueueDeleterTest {
+    private static final TableReference TABLE_1 = TableReference.createFromFullyQualifiedName("test.table1");
+    private static final TableReference TABLE_2 = TableReference.createFromFullyQualifiedName("test.table2");
+    private static final TableReference TABLE_3 = TableReference.createFromFullyQualifiedName("test.table3");
+    private static final int DELETE_THREADS = 4;
+
+    private final KeyValueService kvs = mock(KeyValueService.class);
+    private final TargetedSweepFollower follower = mock(TargetedSweepFollower.class);
+    private final Set<String> deletingThreads = ConcurrentHashMap.newKeySet();
+
+    @Before
+    public void setup() {
+        when(kvs.getClusterAvailabilityStatus()).thenReturn(ClusterAvailabilityStatus.ALL_AVAILABLE);
+        when(kvs.getMetadataForTable(any())).thenReturn(new byte[] {1});
+        doAnswer(invocation -> deletingThreads.add(Thread.currentThread().getName()))
+                .when(kvs).deleteAllTimestamps(any(), anyMap(), anyBoolean());
+    }
+
+    @Test
+    public void deletesPartitionsConcurrentlyWhenKvsIsFullyAvailable() {
+        CountDownLatch allPartitionsDeleting = new CountDownLatch(3);
+        doAnswer(invocation -> {
+            allPartitionsDeleting.countDown();
+            return allPartitionsDeleting.await(10, TimeUnit.SECONDS);
+        }).when(kvs).deleteAllTimestamps(any(), anyMap(), anyBoolean());
+
+        createDeleter(DELETE_THREADS).sweep(writesToThreeTables(), Sweeper.THOROUGH);
+
+        assertThat(allPartitionsDeleting.getCount()).isEqualTo(0L);
+        verify(kvs, times(3)).deleteAllTimestamps(any(), anyMap(), eq(true));
+    }
+
+    @Test
+    public void splitsLargeTablesIntoPartitions() {
+        List<WriteInfo> writes = writes(TABLE_1, 2 * SweepQueueUtils.BATCH_SIZE_KVS + 1);
+
+        createDeleter(DELETE_THREADS).sweep(writes, Sweeper.CONSERVATIVE);
+
+        verify(kvs, times(3)).addGarbageCollectionSentinelValues(eq(TABLE_1), any());
+        verify(kvs, times(3)).deleteAllTimestamps(eq(TABLE_1), anyMap(), eq(false));
+    }
+
+    @Test
+    public void deletesSequentiallyWhenKvsIsNotFullyAvailable() {
+        when(kvs.getClusterAvailabilityStatus()).thenReturn(ClusterAvailabilityStatus.QUORUM_AVAILABLE);
+
+        createDeleter(DELETE_THREADS).sweep(writesToThreeTables(), Sweeper.THOROUGH);
+
+        verify(kvs, times(3)).deleteAllTimestamps(any(), anyMap(), eq(true));
+        assertThat(deletingThreads).containsExactly(Thread.currentThread().getName());
+    }
+
+    @Test
+    public void deletesSequentiallyIfClosedWhileSweeping() {
+        SweepQueueDeleter deleter = createDeleter(DELETE_THREADS);
+        when(kvs.getClusterAvailabilityStatus()).thenAnswer(invocation -> {
+            deleter.close();
+            return ClusterAvailabilityStatus.ALL_AVAILABLE;
+        });
+
+        deleter.sweep(writesToThreeTables(), Sweeper.THOROUGH);
+
+        verify(kvs, times(3)).deleteAllTimestamps(any(), anyMap(), eq(true));
+        assertThat(deletingThreads).containsExactly(Thread.currentThread().getName());
+    }
+
+    @Test
+    public void deletesSequentiallyWithOneDeleteThread() {
+        createDeleter(1).sweep(writesToThreeTables(), Sweeper.THOROUGH);
+
+        verify(kvs, times(3)).deleteAllTimestamps(any(), anyMap(), eq(true));
+        assertThat(deletingThreads).containsExactly(Thread.currentThread().getName());
+    }
+
+    @Test
+    public void deletesSequentiallyOnceClosed() {
+        SweepQueueDeleter deleter = createDeleter(DELETE_THREADS);
+        deleter.close();
+
+        deleter.sweep(writesToThreeTables(), Sweeper.THOROUGH);
+
+        verify(kvs, times(3)).deleteAllTimestamps(any(), anyMap(), eq(true));
+        assertThat(deletingThreads).containsExactly(Thread.currentThread().getName());
+    }
+
+    @Test
+    public void deletesRemainingPartitionsBeforeRethrowingFailure() {
+        RuntimeException failure = new RuntimeException("failed");
+        doThrow(failure).when(kvs).deleteAllTimestamps(eq(TABLE_2), anyMap(), anyBoolean());
+
+        assertThatThrownBy(() -> createDeleter(DELETE_THREADS).sweep(writesToThreeTables(), Sweeper.THOROUGH))
+                .isEqualTo(failure);
+        verify(kvs).deleteAllTimestamps(eq(TABLE_1), anyMap(), eq(true));
+        verify(kvs).deleteAllTimestamps(eq(TABLE_3), anyMap(), eq(true));
+    }
+
+    @Test
+    public void ignoresFailuresForDroppedTables() {
+        doThrow(new RuntimeException("dropped")).when(kvs).deleteAllTimestamps(eq(TABLE_2), anyMap(), anyBoolean());
+        when(kvs.getMetadataForTable(TABLE_2)).thenReturn(AtlasDbConstants.EMPTY_TABLE_METADATA);
+
+        createDeleter(DELETE_THREADS).sweep(writesToThreeTables(), Sweeper.THOROUGH);
+
+        verify(kvs).deleteAllTimestamps(eq(TABLE_1), anyMap(), eq(true));
+        verify(kvs).deleteAllTimestamps(eq(TABLE_3), anyMap(), eq(true));
+    }
+
+    private SweepQueueDeleter createDeleter(int deleteThreads) {
+        return new SweepQueueDeleter(kvs, follower, writes -> writes, deleteThreads);
+    }
+
+    private static List<WriteInfo> writesToThreeTables() {
+        List<WriteInfo> writes = new ArrayList<>();
+        writes.addAll(writes(TABLE_1, 10));
+        writes.addAll(writes(TABLE_2, 10));
+        writes.addAll(writes(TABLE_3, 10));
+        return writes;
+    }
+
+    private static List<WriteInfo> writes(TableReference tableRef, int numCells) {
+        List<WriteInfo> writes = new ArrayList<>();
+        for (long i = 0; i < numCells; i++) {
+            Cell cell = Cell.create(EncodingUtils.encodeVarLong(i), EncodingUtils.encodeVarLong(i));
+            writes.add(WriteInfo.write(tableRef, cell, 100L));
+        }
+        return writes;
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.transaction.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.TableReference;
+import com.palantir.atlasdb.ptobject.EncodingUtils;
+
+public class ImmutableTableCacheTest {
+    private static final TableReference IMMUTABLE_TABLE = TableReference.createFromFullyQualifiedName("test.immutable");
+    private static final TableReference MUTABLE_TABLE = TableReference.createFromFullyQualifiedName("test.mutable");
+    private static final Cell CELL = Cell.create(EncodingUtils.encodeVarLong(1L), EncodingUtils.encodeVarLong(2L));
+    private static final byte[] VALUE = {1, 2, 3};
+
+    private final ImmutableTableCache cache = new ImmutableTableCache(IMMUTABLE_TABLE::equals, 10);
+
+    @Test
+    public void servesValuesOnlyToTransactionsStartingAfterTheRead() {
+        cache.cacheReadValues(IMMUTABLE_TABLE, ImmutableMap.of(CELL, VALUE), 10L);
+
+        assertThat(get(IMMUTABLE_TABLE, 9L)).isEmpty();
+        assertThat(get(IMMUTABLE_TABLE, 10L)).containsEntry(CELL, VALUE);
+        assertThat(get(IMMUTABLE_TABLE, 20L)).containsEntry(CELL, VALUE);
+    }
+
+    @Test
+    public void keepsEarliestRead() {
+        cache.cacheReadValues(IMMUTABLE_TABLE, ImmutableMap.of(CELL, VALUE), 10L);
+        cache.cacheReadValues(IMMUTABLE_TABLE, ImmutableMap.of(CELL, VALUE), 20L);
+        assertThat(get(IMMUTABLE_TABLE, 15L)).containsEntry(CELL, VALUE);
+
+        cache.cacheReadValues(IMMUTABLE_TABLE, ImmutableMap.of(CELL, VALUE), 5L);
+        assertThat(get(IMMUTABLE_TABLE, 5L)).containsEntry(CELL, VALUE);
+    }
+
+    @Test
+    public void doesNotCacheDeletedValues() {
+        cache.cacheReadValues(IMMUTABLE_TABLE, ImmutableMap.of(CELL, new byte[0]), 10L);
+
+        assertThat(get(IMMUTABLE_TABLE, 20L)).isEmpty();
+    }
+
+    @Test
+    public void doesNotCacheTablesThatAreNotImmutable() {
+        cache.cacheReadValues(MUTABLE_TABLE, ImmutableMap.of(CELL, VALUE), 10L);
+
+        assertThat(cache.isImmutable(MUTABLE_TABLE)).isFalse();
+        assertThat(get(MUTABLE_TABLE, 20L)).isEmpty();
+    }
+
+    @Test
+    public void disabledCacheCachesNothing() {
+        ImmutableTableCache disabled = ImmutableTableCache.createDisabled();
+        disabled.cacheReadValues(IMMUTABLE_TABLE, ImmutableMap.of(CELL, VALUE), 10L);
+
+        assertThat(disabled.isImmutable(IMMUTABLE_TABLE)).isFalse();
+        assertThat(disabled.getCachedValues(IMMUTABLE_TABLE, ImmutableSet.of(CELL), 20L)).isEmpty();
+    }
+
+    private Map<Cell, byte[]> get(TableReference tableRef, long startTimestamp) {
+        return cache.getCachedValues(tableRef, ImmutableSet.of(CELL), startTimestamp);
+    }
+}
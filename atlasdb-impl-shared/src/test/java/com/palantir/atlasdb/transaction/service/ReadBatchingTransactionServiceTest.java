@@ -0,0 +1,137 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.transaction.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.Map;
+import java.util.Set;
+
+import org.immutables.value.Value;
+import org.junit.After;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.SettableFuture;
+import com.palantir.atlasdb.autobatch.BatchElement;
+
+public class ReadBatchingTransactionServiceTest {
+    private final TransactionService mockTransactionService = mock(TransactionService.class);
+    private final TransactionService readBatchingTransactionService = ReadBatchingTransactionService.create(
+            mockTransactionService);
+
+    @After
+    public void verifyMocks() {
+        verifyNoMoreInteractions(mockTransactionService);
+    }
+
+    @Test
+    public void getsSingleValueFromUnderlyingViaBatch() {
+        when(mockTransactionService.get(anyIterable())).thenReturn(ImmutableMap.of(3L, 5L));
+
+        assertThat(readBatchingTransactionService.get(3L)).isEqualTo(5L);
+
+        verify(mockTransactionService).get(ImmutableSet.of(3L));
+    }
+
+    @Test
+    public void returnsNullForUncommittedSingleValue() {
+        when(mockTransactionService.get(anyIterable())).thenReturn(ImmutableMap.of());
+
+        assertThat(readBatchingTransactionService.get(3L)).isNull();
+
+        verify(mockTransactionService).get(ImmutableSet.of(3L));
+    }
+
+    @Test
+    public void getsMultipleValuesFromUnderlyingViaBatch() {
+        when(mockTransactionService.get(anyIterable())).thenReturn(ImmutableMap.of(3L, 5L, 4L, 6L));
+
+        assertThat(readBatchingTransactionService.get(ImmutableList.of(3L, 4L, 7L)))
+                .isEqualTo(ImmutableMap.of(3L, 5L, 4L, 6L));
+
+        verify(mockTransactionService).get(ImmutableSet.of(3L, 4L, 7L));
+    }
+
+    @Test
+    public void doesNotCallUnderlyingForEmptyRequest() {
+        assertThat(readBatchingTransactionService.get(ImmutableList.of())).isEmpty();
+    }
+
+    @Test
+    public void propagatesExceptionsFromUnderlying() {
+        RuntimeException exception = new IllegalStateException("boo");
+        when(mockTransactionService.get(anyIterable())).thenThrow(exception);
+
+        assertThatThrownBy(() -> readBatchingTransactionService.get(3L)).isEqualTo(exception);
+
+        verify(mockTransactionService).get(ImmutableSet.of(3L));
+    }
+
+    @Test
+    public void putsUnlessExistsDirectlyToUnderlying() {
+        readBatchingTransactionService.putUnlessExists(7, 66);
+
+        verify(mockTransactionService).putUnlessExists(7, 66);
+    }
+
+    @Test
+    public void deduplicatesStartTimestampsAcrossElementsAndDelegatesOnce() throws Exception {
+        when(mockTransactionService.get(anyIterable())).thenReturn(ImmutableMap.of(1L, 10L, 2L, 20L, 3L, 30L));
+        TestReadBatchElement firstElement = TestReadBatchElement.of(1L, 2L);
+        TestReadBatchElement secondElement = TestReadBatchElement.of(2L, 3L, 4L);
+        TestReadBatchElement thirdElement = TestReadBatchElement.of(1L);
+
+        ReadBatchingTransactionService.processBatch(mockTransactionService, ImmutableList.of(
+                firstElement, secondElement, thirdElement));
+
+        verify(mockTransactionService).get(ImmutableSet.of(1L, 2L, 3L, 4L));
+        assertThat(Futures.getDone(firstElement.result())).isEqualTo(ImmutableMap.of(1L, 10L, 2L, 20L));
+        assertThat(Futures.getDone(secondElement.result())).isEqualTo(ImmutableMap.of(2L, 20L, 3L, 30L));
+        assertThat(Futures.getDone(thirdElement.result())).isEqualTo(ImmutableMap.of(1L, 10L));
+    }
+
+    @Test
+    public void propagatesFailureOfUnderlyingRead() {
+        RuntimeException exception = new IllegalStateException("boo");
+        when(mockTransactionService.get(anyIterable())).thenThrow(exception);
+
+        assertThatThrownBy(() -> ReadBatchingTransactionService.processBatch(mockTransactionService,
+                ImmutableList.of(TestReadBatchElement.of(1L), TestReadBatchElement.of(2L))))
+                .isEqualTo(exception);
+
+        verify(mockTransactionService).get(ImmutableSet.of(1L, 2L));
+    }
+
+    @Value.Immutable
+    interface TestReadBatchElement extends BatchElement<Set<Long>, Map<Long, Long>> {
+        static TestReadBatchElement of(Long... startTimestamps) {
+            return ImmutableTestReadBatchElement.builder()
+                    .argument(ImmutableSet.copyOf(startTimestamps))
+                    .result(SettableFuture.create())
+                    .build();
+        }
+    }
+}
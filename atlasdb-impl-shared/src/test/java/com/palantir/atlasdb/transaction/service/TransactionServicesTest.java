@@ -32,6 +32,7 @@ import org.junit.Before;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
 
+import com.palantir.atlasdb.autobatch.AutobatcherConfig;
 import com.palantir.atlasdb.coordination.CoordinationService;
 import com.palantir.atlasdb.internalschema.InternalSchemaMetadata;
 import com.palantir.atlasdb.internalschema.TransactionSchemaManager;
@@ -130,6 +131,14 @@ public class TransactionServicesTest {
         commitTs = timestampService.getFreshTimestamp();
     }
 
+    @Test
+    public void writeBatchingUsesDefaultAutobatcherConfigUnlessAdaptiveBatchingIsEnabled() {
+        assertThat(TransactionServices.writeBatchingAutobatcherConfig(false))
+                .isEqualTo(AutobatcherConfig.defaultConfig());
+        assertThat(AutobatcherConfig.defaultConfig().enableAdaptiveLinger()).isFalse();
+        assertThat(TransactionServices.writeBatchingAutobatcherConfig(true).enableAdaptiveLinger()).isTrue();
+    }
+
     private void forceInstallV2() {
         TransactionSchemaManager transactionSchemaManager = new TransactionSchemaManager(coordinationService);
         Awaitility.await().atMost(1, TimeUnit.SECONDS)
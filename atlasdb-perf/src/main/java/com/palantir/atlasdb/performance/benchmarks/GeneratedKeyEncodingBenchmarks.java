@@ -0,0 +1,128 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.performance.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.palantir.atlasdb.schema.generated.SweepableCellsTable.SweepableCellsColumn;
+import com.palantir.atlasdb.schema.generated.SweepableCellsTable.SweepableCellsRow;
+import com.palantir.atlasdb.schema.generated.SweepableTimestampsTable.SweepableTimestampsColumn;
+import com.palantir.atlasdb.schema.generated.SweepableTimestampsTable.SweepableTimestampsRow;
+
+/**
+ * Encodes and decodes the row and column names of generated tables, which mix hashed, fixed and variable length
+ * numeric components with trailing blobs. Run with {@code -prof gc} to see the allocation rate.
+ */
+public class GeneratedKeyEncodingBenchmarks {
+    private static final byte[] METADATA = {1, 2, 3, 4};
+
+    @State(Scope.Benchmark)
+    public static class EncodedKeys {
+        private SweepableCellsRow cellsRow;
+        private SweepableCellsColumn cellsColumn;
+        private SweepableTimestampsRow timestampsRow;
+        private SweepableTimestampsColumn timestampsColumn;
+        private byte[] cellsRowBytes;
+        private byte[] cellsColumnBytes;
+        private byte[] timestampsRowBytes;
+        private byte[] timestampsColumnBytes;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            cellsRow = SweepableCellsRow.of(1_234_567L, METADATA);
+            cellsColumn = SweepableCellsColumn.of(49_999L, -42L);
+            timestampsRow = SweepableTimestampsRow.of(127L, 20L, new byte[] {1});
+            timestampsColumn = SweepableTimestampsColumn.of(1_234_567L);
+            cellsRowBytes = cellsRow.persistToBytes();
+            cellsColumnBytes = cellsColumn.persistToBytes();
+            timestampsRowBytes = timestampsRow.persistToBytes();
+            timestampsColumnBytes = timestampsColumn.persistToBytes();
+        }
+    }
+
+    @Benchmark
+    @Warmup(time = 1, timeUnit = TimeUnit.SECONDS)
+    @Measurement(time = 5, timeUnit = TimeUnit.SECONDS)
+    @Threads(1)
+    public byte[] persistSweepableCellsRow(EncodedKeys keys) {
+        return keys.cellsRow.persistToBytes();
+    }
+
+    @Benchmark
+    @Warmup(time = 1, timeUnit = TimeUnit.SECONDS)
+    @Measurement(time = 5, timeUnit = TimeUnit.SECONDS)
+    @Threads(1)
+    public byte[] persistSweepableCellsColumn(EncodedKeys keys) {
+        return keys.cellsColumn.persistToBytes();
+    }
+
+    @Benchmark
+    @Warmup(time = 1, timeUnit = TimeUnit.SECONDS)
+    @Measurement(time = 5, timeUnit = TimeUnit.SECONDS)
+    @Threads(1)
+    public byte[] persistSweepableTimestampsRow(EncodedKeys keys) {
+        return keys.timestampsRow.persistToBytes();
+    }
+
+    @Benchmark
+    @Warmup(time = 1, timeUnit = TimeUnit.SECONDS)
+    @Measurement(time = 5, timeUnit = TimeUnit.SECONDS)
+    @Threads(1)
+    public byte[] persistSweepableTimestampsColumn(EncodedKeys keys) {
+        return keys.timestampsColumn.persistToBytes();
+    }
+
+    @Benchmark
+    @Warmup(time = 1, timeUnit = TimeUnit.SECONDS)
+    @Measurement(time = 5, timeUnit = TimeUnit.SECONDS)
+    @Threads(1)
+    public SweepableCellsRow hydrateSweepableCellsRow(EncodedKeys keys) {
+        return SweepableCellsRow.BYTES_HYDRATOR.hydrateFromBytes(keys.cellsRowBytes);
+    }
+
+    @Benchmark
+    @Warmup(time = 1, timeUnit = TimeUnit.SECONDS)
+    @Measurement(time = 5, timeUnit = TimeUnit.SECONDS)
+    @Threads(1)
+    public SweepableCellsColumn hydrateSweepableCellsColumn(EncodedKeys keys) {
+        return SweepableCellsColumn.BYTES_HYDRATOR.hydrateFromBytes(keys.cellsColumnBytes);
+    }
+
+    @Benchmark
+    @Warmup(time = 1, timeUnit = TimeUnit.SECONDS)
+    @Measurement(time = 5, timeUnit = TimeUnit.SECONDS)
+    @Threads(1)
+    public SweepableTimestampsRow hydrateSweepableTimestampsRow(EncodedKeys keys) {
+        return SweepableTimestampsRow.BYTES_HYDRATOR.hydrateFromBytes(keys.timestampsRowBytes);
+    }
+
+    @Benchmark
+    @Warmup(time = 1, timeUnit = TimeUnit.SECONDS)
+    @Measurement(time = 5, timeUnit = TimeUnit.SECONDS)
+    @Threads(1)
+    public SweepableTimestampsColumn hydrateSweepableTimestampsColumn(EncodedKeys keys) {
+        return SweepableTimestampsColumn.BYTES_HYDRATOR.hydrateFromBytes(keys.timestampsColumnBytes);
+    }
+}
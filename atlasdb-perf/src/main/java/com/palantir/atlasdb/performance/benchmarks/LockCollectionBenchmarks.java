@@ -0,0 +1,119 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.performance.benchmarks;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.collect.ImmutableSet;
+import com.palantir.atlasdb.timelock.lock.AsyncLockService;
+import com.palantir.atlasdb.timelock.lock.AsyncResult;
+import com.palantir.atlasdb.timelock.lock.LockLog;
+import com.palantir.atlasdb.timelock.lock.TimeLimit;
+import com.palantir.lock.LockDescriptor;
+import com.palantir.lock.StringLockDescriptor;
+import com.palantir.lock.v2.LockToken;
+
+/**
+ * Measures lock and unlock throughput of the timelock {@link AsyncLockService}, which looks up (and creates) the locks
+ * for each request in its {@link com.palantir.atlasdb.timelock.lock.LockCollection}. Each thread locks its own
+ * descriptors, so requests never wait for each other and the benchmark measures the lock table itself.
+ */
+public class LockCollectionBenchmarks {
+    private static final int DESCRIPTORS_PER_THREAD = 100_000;
+    private static final TimeLimit TIMEOUT = TimeLimit.of(1_000L);
+
+    @State(Scope.Benchmark)
+    public static class LockServiceState {
+        private ScheduledExecutorService executor;
+        private AsyncLockService lockService;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            executor = Executors.newSingleThreadScheduledExecutor();
+            lockService = AsyncLockService.createDefault(
+                    new LockLog(new MetricRegistry(), () -> Long.MAX_VALUE), executor, executor);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            lockService.close();
+            executor.shutdownNow();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class DescriptorState {
+        @Param({"1", "10", "1000"})
+        public int descriptorsPerRequest;
+
+        private List<LockDescriptor> descriptors;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            String threadPrefix = UUID.randomUUID().toString();
+            descriptors = IntStream.range(0, DESCRIPTORS_PER_THREAD)
+                    .mapToObj(i -> StringLockDescriptor.of(threadPrefix + i))
+                    .collect(Collectors.toList());
+        }
+
+        Set<LockDescriptor> nextRequest() {
+            int start = ThreadLocalRandom.current().nextInt(DESCRIPTORS_PER_THREAD - descriptorsPerRequest);
+            return ImmutableSet.copyOf(descriptors.subList(start, start + descriptorsPerRequest));
+        }
+    }
+
+    @Benchmark
+    @Warmup(time = 1, timeUnit = TimeUnit.SECONDS)
+    @Measurement(time = 10, timeUnit = TimeUnit.SECONDS)
+    @Threads(1)
+    public boolean singleThreadLockAndUnlock(LockServiceState service, DescriptorState request) {
+        return lockAndUnlock(service, request);
+    }
+
+    @Benchmark
+    @Warmup(time = 1, timeUnit = TimeUnit.SECONDS)
+    @Measurement(time = 10, timeUnit = TimeUnit.SECONDS)
+    @Threads(32)
+    public boolean manyThreadsLockAndUnlock(LockServiceState service, DescriptorState request) {
+        return lockAndUnlock(service, request);
+    }
+
+    private static boolean lockAndUnlock(LockServiceState service, DescriptorState request) {
+        AsyncResult<LockToken> result = service.lockService.lock(UUID.randomUUID(), request.nextRequest(), TIMEOUT);
+        // Nothing else locks this thread's descriptors, so the request is granted immediately.
+        return service.lockService.unlock(result.get());
+    }
+}
@@ -21,10 +21,12 @@ import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertThat;
 
 import java.io.BufferedReader;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.concurrent.TimeUnit;
 
 import org.openjdk.jmh.annotations.Benchmark;
@@ -37,6 +39,8 @@ import org.openjdk.jmh.annotations.Warmup;
 import com.palantir.atlasdb.performance.benchmarks.table.StreamingTable;
 import com.palantir.atlasdb.performance.schema.generated.StreamTestTableFactory;
 import com.palantir.atlasdb.performance.schema.generated.ValueStreamStore;
+import com.palantir.atlasdb.stream.ImmutableStreamStorePersistenceConfiguration;
+import com.palantir.atlasdb.stream.StreamStorePersistenceConfiguration;
 import com.palantir.atlasdb.transaction.api.TransactionManager;
 
 @State(Scope.Benchmark)
@@ -93,4 +97,39 @@ public class StreamStoreBenchmarks {
             assertArrayEquals(table.getVeryLargeStreamFirstBytes(), firstBytes);
         }
     }
+
+    @Benchmark
+    @Threads(1)
+    @Warmup(time = 1, timeUnit = TimeUnit.SECONDS)
+    @Measurement(time = 30, timeUnit = TimeUnit.SECONDS)
+    public void loadVeryLargeStreamAsFile(StreamingTable table) throws IOException {
+        loadVeryLargeStreamAsFile(table, StreamStorePersistenceConfiguration.DEFAULT_CONFIG);
+    }
+
+    @Benchmark
+    @Threads(1)
+    @Warmup(time = 1, timeUnit = TimeUnit.SECONDS)
+    @Measurement(time = 30, timeUnit = TimeUnit.SECONDS)
+    public void loadVeryLargeStreamAsFileWithConcurrentBlockLoads(StreamingTable table) throws IOException {
+        loadVeryLargeStreamAsFile(table, ImmutableStreamStorePersistenceConfiguration.builder()
+                .numConcurrentBlockLoadsForFiles(8)
+                .build());
+    }
+
+    private static void loadVeryLargeStreamAsFile(StreamingTable table, StreamStorePersistenceConfiguration config)
+            throws IOException {
+        long id = table.getVeryLargeStreamId();
+        TransactionManager transactionManager = table.getTransactionManager();
+        StreamTestTableFactory tables = StreamTestTableFactory.of();
+        ValueStreamStore store = ValueStreamStore.of(transactionManager, tables, () -> config);
+        File file = transactionManager.runTaskThrowOnConflict(txn -> store.loadStreamAsFile(txn, id));
+        try (InputStream inputStream = Files.newInputStream(file.toPath())) {
+            byte[] firstBytes = new byte[16];
+            int read = inputStream.read(firstBytes);
+            assertThat(read, is(16));
+            assertArrayEquals(table.getVeryLargeStreamFirstBytes(), firstBytes);
+        } finally {
+            Files.delete(file.toPath());
+        }
+    }
 }
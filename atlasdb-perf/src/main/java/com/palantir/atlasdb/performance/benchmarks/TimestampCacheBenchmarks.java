@@ -0,0 +1,98 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.performance.benchmarks;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.codahale.metrics.MetricRegistry;
+import com.palantir.atlasdb.cache.TimestampCache;
+import com.palantir.atlasdb.cache.TimestampCacheType;
+
+public class TimestampCacheBenchmarks {
+    private static final long CACHE_SIZE = 1_000_000L;
+
+    @State(Scope.Benchmark)
+    public static class TimestampCacheState {
+        @Param({"CAFFEINE", "PRIMITIVE"})
+        public TimestampCacheType cacheType;
+
+        private TimestampCache cache;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            cache = TimestampCache.create(cacheType, new MetricRegistry(), () -> CACHE_SIZE);
+            for (long startTimestamp = 1; startTimestamp <= CACHE_SIZE; startTimestamp++) {
+                cache.putAlreadyCommittedTransaction(startTimestamp, startTimestamp + 1);
+            }
+        }
+    }
+
+    @Benchmark
+    @Warmup(time = 1, timeUnit = TimeUnit.SECONDS)
+    @Measurement(time = 10, timeUnit = TimeUnit.SECONDS)
+    @Threads(4)
+    public Long fewThreadsGetPresent(TimestampCacheState state) {
+        return state.cache.getCommitTimestampIfPresent(randomStartTimestamp(1, CACHE_SIZE));
+    }
+
+    @Benchmark
+    @Warmup(time = 1, timeUnit = TimeUnit.SECONDS)
+    @Measurement(time = 10, timeUnit = TimeUnit.SECONDS)
+    @Threads(32)
+    public Long manyThreadsGetPresent(TimestampCacheState state) {
+        return state.cache.getCommitTimestampIfPresent(randomStartTimestamp(1, CACHE_SIZE));
+    }
+
+    @Benchmark
+    @Warmup(time = 1, timeUnit = TimeUnit.SECONDS)
+    @Measurement(time = 10, timeUnit = TimeUnit.SECONDS)
+    @Threads(4)
+    public Long fewThreadsGetAbsent(TimestampCacheState state) {
+        return state.cache.getCommitTimestampIfPresent(randomStartTimestamp(CACHE_SIZE + 1, 2 * CACHE_SIZE));
+    }
+
+    /**
+     * Reads a working set twice the size of the cache, caching every miss, so that most puts cause an eviction.
+     */
+    @Benchmark
+    @Warmup(time = 1, timeUnit = TimeUnit.SECONDS)
+    @Measurement(time = 10, timeUnit = TimeUnit.SECONDS)
+    @Threads(32)
+    public Long manyThreadsGetOrPutWithEviction(TimestampCacheState state) {
+        long startTimestamp = randomStartTimestamp(1, 2 * CACHE_SIZE);
+        Long commitTimestamp = state.cache.getCommitTimestampIfPresent(startTimestamp);
+        if (commitTimestamp == null) {
+            commitTimestamp = startTimestamp + 1;
+            state.cache.putAlreadyCommittedTransaction(startTimestamp, commitTimestamp);
+        }
+        return commitTimestamp;
+    }
+
+    private static long randomStartTimestamp(long inclusiveLowerBound, long inclusiveUpperBound) {
+        return ThreadLocalRandom.current().nextLong(inclusiveLowerBound, inclusiveUpperBound + 1);
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.keyvalue.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterators;
+import com.palantir.atlasdb.AtlasDbConstants;
+import com.palantir.atlasdb.encoding.PtBytes;
+import com.palantir.atlasdb.keyvalue.api.AsyncKeyValueService;
+import com.palantir.atlasdb.keyvalue.api.BatchColumnRangeSelection;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.ColumnSelection;
+import com.palantir.atlasdb.keyvalue.api.KeyValueService;
+import com.palantir.atlasdb.keyvalue.api.RowColumnRangeIterator;
+import com.palantir.atlasdb.keyvalue.api.TableReference;
+import com.palantir.atlasdb.keyvalue.api.Value;
+
+/**
+ * Checks that the {@link AsyncKeyValueService} methods of a key value service read and write the same data as their
+ * synchronous counterparts.
+ */
+public abstract class AbstractAsyncKeyValueServiceTest {
+    private static final TableReference TEST_TABLE = TableReference.createFromFullyQualifiedName("ns.async_test");
+    private static final TableReference OTHER_TEST_TABLE =
+            TableReference.createFromFullyQualifiedName("ns.async_test_other");
+
+    private static final byte[] ROW_1 = PtBytes.toBytes("row1");
+    private static final byte[] ROW_2 = PtBytes.toBytes("row2");
+    private static final byte[] COL_1 = PtBytes.toBytes("col1");
+    private static final byte[] COL_2 = PtBytes.toBytes("col2");
+    private static final Cell ROW_1_COL_1 = Cell.create(ROW_1, COL_1);
+    private static final Cell ROW_1_COL_2 = Cell.create(ROW_1, COL_2);
+    private static final Cell ROW_2_COL_1 = Cell.create(ROW_2, COL_1);
+    private static final byte[] OLD_VALUE = PtBytes.toBytes("old");
+    private static final byte[] NEW_VALUE = PtBytes.toBytes("new");
+    private static final long OLD_TIMESTAMP = 10L;
+    private static final long NEW_TIMESTAMP = 20L;
+    private static final long READ_TIMESTAMP = 100L;
+
+    private final KvsManager kvsManager;
+
+    private KeyValueService keyValueService;
+    private AsyncKeyValueService asyncKeyValueService;
+
+    protected AbstractAsyncKeyValueServiceTest(KvsManager kvsManager) {
+        this.kvsManager = kvsManager;
+    }
+
+    @Before
+    public void setUp() {
+        keyValueService = kvsManager.getDefaultKvs();
+        asyncKeyValueService = (AsyncKeyValueService) keyValueService;
+        keyValueService.createTables(ImmutableMap.of(
+                TEST_TABLE, AtlasDbConstants.GENERIC_TABLE_METADATA,
+                OTHER_TEST_TABLE, AtlasDbConstants.GENERIC_TABLE_METADATA));
+
+        keyValueService.put(TEST_TABLE, ImmutableMap.of(
+                ROW_1_COL_1, OLD_VALUE, ROW_1_COL_2, OLD_VALUE, ROW_2_COL_1, OLD_VALUE), OLD_TIMESTAMP);
+        keyValueService.put(TEST_TABLE, ImmutableMap.of(ROW_1_COL_1, NEW_VALUE), NEW_TIMESTAMP);
+    }
+
+    @After
+    public void tearDown() {
+        keyValueService.truncateTables(ImmutableSet.of(TEST_TABLE, OTHER_TEST_TABLE));
+    }
+
+    @Test
+    public void getRowsAsyncReturnsSameCellsAsGetRows() {
+        Iterable<byte[]> rows = ImmutableList.of(ROW_1, ROW_2);
+
+        Map<Cell, Value> result = asyncKeyValueService.getRowsAsync(
+                TEST_TABLE, rows, ColumnSelection.all(), READ_TIMESTAMP).join();
+
+        assertThat(result).isEqualTo(keyValueService.getRows(
+                TEST_TABLE, rows, ColumnSelection.all(), READ_TIMESTAMP));
+        assertThat(result.get(ROW_1_COL_1)).isEqualTo(Value.create(NEW_VALUE, NEW_TIMESTAMP));
+        assertThat(result).containsOnlyKeys(ROW_1_COL_1, ROW_1_COL_2, ROW_2_COL_1);
+    }
+
+    @Test
+    public void getRowsAsyncOnlyReturnsSelectedColumns() {
+        Map<Cell, Value> result = asyncKeyValueService.getRowsAsync(
+                TEST_TABLE,
+                ImmutableList.of(ROW_1, ROW_2),
+                ColumnSelection.create(ImmutableList.of(COL_2)),
+                READ_TIMESTAMP).join();
+
+        assertThat(result).containsOnlyKeys(ROW_1_COL_2);
+    }
+
+    @Test
+    public void getAsyncReadsEachCellAtItsOwnTimestamp() {
+        Map<Cell, Value> result = asyncKeyValueService.getAsync(TEST_TABLE, ImmutableMap.of(
+                ROW_1_COL_1, NEW_TIMESTAMP,
+                ROW_1_COL_2, READ_TIMESTAMP,
+                ROW_2_COL_1, OLD_TIMESTAMP)).join();
+
+        assertThat(result).containsOnly(
+                entry(ROW_1_COL_1, Value.create(OLD_VALUE, OLD_TIMESTAMP)),
+                entry(ROW_1_COL_2, Value.create(OLD_VALUE, OLD_TIMESTAMP)));
+    }
+
+    @Test
+    public void getAsyncOfNoCellsReturnsNothing() {
+        assertThat(asyncKeyValueService.getAsync(TEST_TABLE, ImmutableMap.of()).join()).isEmpty();
+    }
+
+    @Test
+    public void getRowsColumnRangeAsyncReturnsEachRowsColumns() {
+        Map<byte[], RowColumnRangeIterator> result = asyncKeyValueService.getRowsColumnRangeAsync(
+                TEST_TABLE,
+                ImmutableList.of(ROW_1, ROW_2),
+                BatchColumnRangeSelection.create(PtBytes.EMPTY_BYTE_ARRAY, PtBytes.EMPTY_BYTE_ARRAY, 1),
+                READ_TIMESTAMP).join();
+
+        assertThat(result).hasSize(2);
+        result.forEach((row, iterator) -> {
+            int expectedColumns = PtBytes.toString(row).equals(PtBytes.toString(ROW_1)) ? 2 : 1;
+            assertThat(Iterators.size(iterator)).isEqualTo(expectedColumns);
+        });
+    }
+
+    @Test
+    public void multiPutAsyncWritesToAllTables() {
+        asyncKeyValueService.multiPutAsync(ImmutableMap.of(
+                TEST_TABLE, ImmutableMap.of(ROW_2_COL_1, NEW_VALUE),
+                OTHER_TEST_TABLE, ImmutableMap.of(ROW_1_COL_1, NEW_VALUE)), READ_TIMESTAMP).join();
+
+        assertThat(keyValueService.get(TEST_TABLE, ImmutableMap.of(ROW_2_COL_1, Long.MAX_VALUE)))
+                .containsEntry(ROW_2_COL_1, Value.create(NEW_VALUE, READ_TIMESTAMP));
+        assertThat(keyValueService.get(OTHER_TEST_TABLE, ImmutableMap.of(ROW_1_COL_1, Long.MAX_VALUE)))
+                .containsEntry(ROW_1_COL_1, Value.create(NEW_VALUE, READ_TIMESTAMP));
+    }
+}
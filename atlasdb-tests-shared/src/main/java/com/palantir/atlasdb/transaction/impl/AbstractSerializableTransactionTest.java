@@ -126,7 +126,9 @@ public abstract class AbstractSerializableTransactionTest extends AbstractTransa
                 MoreExecutors.newDirectExecutorService(),
                 CommitProfileProcessor.createNonLogging(metricsManager),
                 true,
-                () -> ImmutableTransactionConfig.builder().build()) {
+                () -> ImmutableTransactionConfig.builder().build(),
+                MoreExecutors.newDirectExecutorService(),
+                ImmutableTableCache.createDisabled()) {
             @Override
             protected Map<Cell, byte[]> transformGetsForTesting(Map<Cell, byte[]> map) {
                 return Maps.transformValues(map, input -> input.clone());
@@ -136,7 +136,9 @@ public abstract class AbstractTransactionTest extends TransactionTestSetup {
                 MoreExecutors.newDirectExecutorService(),
                 CommitProfileProcessor.createNonLogging(metricsManager),
                 true,
-                () -> TRANSACTION_CONFIG);
+                () -> TRANSACTION_CONFIG,
+                MoreExecutors.newDirectExecutorService(),
+                ImmutableTableCache.createDisabled());
     }
 
     @Test
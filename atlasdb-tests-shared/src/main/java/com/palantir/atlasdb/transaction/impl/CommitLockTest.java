@@ -182,7 +182,9 @@ public class CommitLockTest extends TransactionTestSetup {
                 MoreExecutors.newDirectExecutorService(),
                 CommitProfileProcessor.createNonLogging(metricsManager),
                 true,
-                () -> TRANSACTION_CONFIG) {
+                () -> TRANSACTION_CONFIG,
+                MoreExecutors.newDirectExecutorService(),
+                ImmutableTableCache.createDisabled()) {
             @Override
             protected Map<Cell, byte[]> transformGetsForTesting(Map<Cell, byte[]> map) {
                 return Maps.transformValues(map, byte[]::clone);
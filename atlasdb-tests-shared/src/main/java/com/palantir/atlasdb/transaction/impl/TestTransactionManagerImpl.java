@@ -150,7 +150,9 @@ public class TestTransactionManagerImpl extends SerializableTransactionManager i
                 deleteExecutor,
                 CommitProfileProcessor.createNonLogging(metricsManager),
                 validateLocksOnReads,
-                () -> TRANSACTION_CONFIG);
+                () -> TRANSACTION_CONFIG,
+                commitStageExecutor,
+                immutableTableCache);
     }
 
     @Override
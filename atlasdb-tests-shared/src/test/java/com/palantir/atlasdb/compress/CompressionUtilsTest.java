@@ -15,15 +15,23 @@
  */
 package com.palantir.atlasdb.compress;
 
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 import org.junit.Test;
 
+import com.google.protobuf.ByteString;
 import com.palantir.atlasdb.table.description.ColumnValueDescription.Compression;
+import com.palantir.atlasdb.table.description.TableMetadata;
 
 public class CompressionUtilsTest {
     @Test
@@ -73,4 +81,141 @@ public class CompressionUtilsTest {
         }
         assertTrue(threwIllegalArgumentException);
     }
+
+    @Test
+    public void testCompressAndDecompressWithLz4() {
+        byte[] original = new byte[1024];
+        byte[] compressed = CompressionUtils.compress(original, Compression.LZ4);
+        assertTrue(compressed.length < original.length);
+        byte[] decompressed = CompressionUtils.decompress(compressed, Compression.LZ4);
+        assertArrayEquals(original, decompressed);
+    }
+
+    @Test
+    public void testDecompressExceptionWithLz4() {
+        byte[] compressed = CompressionUtils.compressWithLz4(new byte[1024]);
+        compressed[0]++;  // corrupt the recorded length
+        boolean threwIllegalArgumentException = false;
+        try {
+            CompressionUtils.decompressWithLz4(compressed);
+        } catch (IllegalArgumentException e) {
+            threwIllegalArgumentException = true;
+        }
+        assertTrue(threwIllegalArgumentException);
+    }
+
+    @Test
+    public void testCompressAndDecompressWithZstd() {
+        byte[] original = new byte[1024];
+        byte[] compressed = CompressionUtils.compress(original, Compression.ZSTD);
+        assertTrue(compressed.length < original.length);
+        byte[] decompressed = CompressionUtils.decompress(compressed, Compression.ZSTD);
+        assertArrayEquals(original, decompressed);
+    }
+
+    @Test
+    public void testDecompressExceptionWithZstd() {
+        byte[] compressed = new byte[] { 0, 0, 0, 0, 0, 0, 0, 3, 1, 2, 3 };  // invalid
+        boolean threwIllegalArgumentException = false;
+        try {
+            CompressionUtils.decompressWithZstd(compressed);
+        } catch (IllegalArgumentException e) {
+            threwIllegalArgumentException = true;
+        }
+        assertTrue(threwIllegalArgumentException);
+    }
+
+    @Test
+    public void testCompressAndDecompressWithZstdDictionary() {
+        List<byte[]> samples = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            samples.add(sampleValue(i));
+        }
+        byte[] dictionary = ZstdDictionaries.train(samples, 4096);
+        int dictionaryId = ZstdDictionaries.register(dictionary);
+        assertEquals(ZstdDictionaries.idOf(dictionary), dictionaryId);
+
+        byte[] original = sampleValue(1234);
+        byte[] withDictionary = CompressionUtils.compress(original, Compression.ZSTD, dictionaryId);
+        byte[] withoutDictionary = CompressionUtils.compress(original, Compression.ZSTD);
+        assertTrue(withDictionary.length < withoutDictionary.length);
+        assertArrayEquals(original, CompressionUtils.decompress(withDictionary, Compression.ZSTD));
+    }
+
+    @Test
+    public void testValuesCompressedWithPreviousZstdDictionaryCanBeDecompressedAfterHydratingTableMetadata() {
+        byte[] previousDictionary = trainDictionary("previous");
+        byte[] currentDictionary = trainDictionary("current");
+        TableMetadata metadata = TableMetadata.builder()
+                .zstdDictionary(currentDictionary)
+                .addPreviousZstdDictionaries(ByteString.copyFrom(previousDictionary))
+                .build();
+
+        TableMetadata hydrated = TableMetadata.BYTES_HYDRATOR.hydrateFromBytes(metadata.persistToBytes());
+        ZstdDictionaries.registerAll(hydrated);
+
+        byte[] original = sampleValue(1234, "previous");
+        byte[] compressed = CompressionUtils.compress(
+                original, Compression.ZSTD, ZstdDictionaries.idOf(previousDictionary));
+        assertArrayEquals(original, CompressionUtils.decompress(compressed, Compression.ZSTD));
+    }
+
+    @Test
+    public void testHydratingTableMetadataRegistersItsZstdDictionaries() {
+        byte[] currentDictionary = trainDictionary("hydrated-current");
+        byte[] previousDictionary = trainDictionary("hydrated-previous");
+        TableMetadata metadata = TableMetadata.builder()
+                .zstdDictionary(currentDictionary)
+                .addPreviousZstdDictionaries(ByteString.copyFrom(previousDictionary))
+                .build();
+
+        TableMetadata.BYTES_HYDRATOR.hydrateFromBytes(metadata.persistToBytes());
+
+        assertNotNull(ZstdDictionaries.get(ZstdDictionaries.idOf(currentDictionary)));
+        assertNotNull(ZstdDictionaries.get(ZstdDictionaries.idOf(previousDictionary)));
+    }
+
+    @Test
+    public void testHydratingTableMetadataDoesNotThrowIfItsZstdDictionaryCollidesWithARegisteredOne() {
+        byte[] dictionary = trainDictionary("registered");
+        ZstdDictionaries.register(dictionary);
+        byte[] collidingDictionary = Arrays.copyOf(dictionary, dictionary.length + 1);
+        TableMetadata metadata = TableMetadata.builder().zstdDictionary(collidingDictionary).build();
+
+        TableMetadata hydrated = TableMetadata.BYTES_HYDRATOR.hydrateFromBytes(metadata.persistToBytes());
+
+        assertArrayEquals(collidingDictionary, hydrated.getZstdDictionary());
+        assertTrue(ZstdDictionaries.get(ZstdDictionaries.idOf(dictionary)).hasBytes(dictionary));
+        assertThatThrownBy(() -> ZstdDictionaries.registerAll(hydrated))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void testCompressingWithUnregisteredZstdDictionaryFallsBackToNoDictionary() {
+        byte[] unregisteredDictionary = trainDictionary("unregistered");
+        byte[] original = sampleValue(1234, "unregistered");
+
+        byte[] compressed = CompressionUtils.compressWithZstd(original, ZstdDictionaries.idOf(unregisteredDictionary));
+
+        assertArrayEquals(CompressionUtils.compressWithZstd(original, ZstdDictionaries.NO_DICTIONARY), compressed);
+        assertArrayEquals(original, CompressionUtils.decompressWithZstd(compressed));
+    }
+
+    private static byte[] trainDictionary(String type) {
+        List<byte[]> samples = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            samples.add(sampleValue(i, type));
+        }
+        return ZstdDictionaries.train(samples, 4096);
+    }
+
+    private static byte[] sampleValue(int index) {
+        return sampleValue(index, "user");
+    }
+
+    private static byte[] sampleValue(int index, String type) {
+        return ("{\"id\": " + index + ", \"type\": \"" + type + "\", \"name\": \"" + type + "-" + index
+                + "\", \"active\": " + (index % 2 == 0) + ", \"tags\": [\"alpha\", \"beta\"]}")
+                .getBytes(StandardCharsets.UTF_8);
+    }
 }
@@ -198,6 +198,33 @@ public class EncodingUtilsTest {
         }
     }
 
+    @Test
+    public void testEncodeIntoMatchesConcatenatedEncodings() {
+        for (int i = 0; i < 1000; i++) {
+            long unsigned = rand.nextLong() >>> rand.nextInt(64);
+            long signed = rand.nextLong() >> rand.nextInt(64);
+            long fixed = rand.nextLong();
+            byte[] blob = new byte[rand.nextInt(5)];
+            rand.nextBytes(blob);
+
+            byte[] expected = EncodingUtils.add(
+                    EncodingUtils.encodeUnsignedVarLong(unsigned),
+                    EncodingUtils.encodeSignedVarLong(signed),
+                    PtBytes.toBytes(fixed),
+                    EncodingUtils.encodeLittleEndian(fixed),
+                    blob);
+            byte[] actual = new byte[expected.length];
+            int index = EncodingUtils.encodeUnsignedVarLong(unsigned, actual, 0);
+            index = EncodingUtils.encodeSignedVarLong(signed, actual, index);
+            index = EncodingUtils.encodeFixedLong(fixed, actual, index);
+            index = EncodingUtils.encodeLittleEndian(fixed, actual, index);
+            index = EncodingUtils.copyInto(blob, actual, index);
+
+            assertEquals(expected.length, index);
+            assertArrayEquals(expected, actual);
+        }
+    }
+
     @Test
     public void testVarSignedOrder() {
         SortedMap<byte[], Long> map = Maps.newTreeMap(UnsignedBytes.lexicographicalComparator());
@@ -175,15 +175,17 @@ public final class DataTable implements
 
         @Override
         public byte[] persistToBytes() {
-            byte[] idBytes = PtBytes.toBytes(Long.MIN_VALUE ^ id);
-            return EncodingUtils.add(idBytes);
+            byte[] __output = new byte[8];
+            int __index = 0;
+            EncodingUtils.encodeFixedLong(Long.MIN_VALUE ^ id, __output, __index);
+            return __output;
         }
 
         public static final Hydrator<DataRow> BYTES_HYDRATOR = new Hydrator<DataRow>() {
             @Override
             public DataRow hydrateFromBytes(byte[] __input) {
                 int __index = 0;
-                Long id = Long.MIN_VALUE ^ PtBytes.toLong(__input, __index);
+                long id = Long.MIN_VALUE ^ PtBytes.toLong(__input, __index);
                 __index += 8;
                 return new DataRow(id);
             }
@@ -891,15 +893,17 @@ public final class DataTable implements
 
             @Override
             public byte[] persistToBytes() {
-                byte[] valueBytes = PtBytes.toBytes(Long.MIN_VALUE ^ value);
-                return EncodingUtils.add(valueBytes);
+                byte[] __output = new byte[8];
+                int __index = 0;
+                EncodingUtils.encodeFixedLong(Long.MIN_VALUE ^ value, __output, __index);
+                return __output;
             }
 
             public static final Hydrator<Index1IdxRow> BYTES_HYDRATOR = new Hydrator<Index1IdxRow>() {
                 @Override
                 public Index1IdxRow hydrateFromBytes(byte[] __input) {
                     int __index = 0;
-                    Long value = Long.MIN_VALUE ^ PtBytes.toLong(__input, __index);
+                    long value = Long.MIN_VALUE ^ PtBytes.toLong(__input, __index);
                     __index += 8;
                     return new Index1IdxRow(value);
                 }
@@ -1008,8 +1012,12 @@ public final class DataTable implements
             public byte[] persistToBytes() {
                 byte[] rowNameBytes = EncodingUtils.encodeSizedBytes(rowName);
                 byte[] columnNameBytes = EncodingUtils.encodeSizedBytes(columnName);
-                byte[] idBytes = PtBytes.toBytes(Long.MIN_VALUE ^ id);
-                return EncodingUtils.add(rowNameBytes, columnNameBytes, idBytes);
+                byte[] __output = new byte[rowNameBytes.length + columnNameBytes.length + 8];
+                int __index = 0;
+                __index = EncodingUtils.copyInto(rowNameBytes, __output, __index);
+                __index = EncodingUtils.copyInto(columnNameBytes, __output, __index);
+                EncodingUtils.encodeFixedLong(Long.MIN_VALUE ^ id, __output, __index);
+                return __output;
             }
 
             public static final Hydrator<Index1IdxColumn> BYTES_HYDRATOR = new Hydrator<Index1IdxColumn>() {
@@ -1020,7 +1028,7 @@ public final class DataTable implements
                     __index += EncodingUtils.sizeOfSizedBytes(rowName);
                     byte[] columnName = EncodingUtils.decodeSizedBytes(__input, __index);
                     __index += EncodingUtils.sizeOfSizedBytes(columnName);
-                    Long id = Long.MIN_VALUE ^ PtBytes.toLong(__input, __index);
+                    long id = Long.MIN_VALUE ^ PtBytes.toLong(__input, __index);
                     __index += 8;
                     return new Index1IdxColumn(rowName, columnName, id);
                 }
@@ -1555,18 +1563,20 @@ public final class DataTable implements
 
             @Override
             public byte[] persistToBytes() {
-                byte[] valueBytes = PtBytes.toBytes(Long.MIN_VALUE ^ value);
-                byte[] idBytes = PtBytes.toBytes(Long.MIN_VALUE ^ id);
-                return EncodingUtils.add(valueBytes, idBytes);
+                byte[] __output = new byte[8 + 8];
+                int __index = 0;
+                __index = EncodingUtils.encodeFixedLong(Long.MIN_VALUE ^ value, __output, __index);
+                EncodingUtils.encodeFixedLong(Long.MIN_VALUE ^ id, __output, __index);
+                return __output;
             }
 
             public static final Hydrator<Index2IdxRow> BYTES_HYDRATOR = new Hydrator<Index2IdxRow>() {
                 @Override
                 public Index2IdxRow hydrateFromBytes(byte[] __input) {
                     int __index = 0;
-                    Long value = Long.MIN_VALUE ^ PtBytes.toLong(__input, __index);
+                    long value = Long.MIN_VALUE ^ PtBytes.toLong(__input, __index);
                     __index += 8;
-                    Long id = Long.MIN_VALUE ^ PtBytes.toLong(__input, __index);
+                    long id = Long.MIN_VALUE ^ PtBytes.toLong(__input, __index);
                     __index += 8;
                     return new Index2IdxRow(value, id);
                 }
@@ -1671,7 +1681,11 @@ public final class DataTable implements
             public byte[] persistToBytes() {
                 byte[] rowNameBytes = EncodingUtils.encodeSizedBytes(rowName);
                 byte[] columnNameBytes = EncodingUtils.encodeSizedBytes(columnName);
-                return EncodingUtils.add(rowNameBytes, columnNameBytes);
+                byte[] __output = new byte[rowNameBytes.length + columnNameBytes.length];
+                int __index = 0;
+                __index = EncodingUtils.copyInto(rowNameBytes, __output, __index);
+                EncodingUtils.copyInto(columnNameBytes, __output, __index);
+                return __output;
             }
 
             public static final Hydrator<Index2IdxColumn> BYTES_HYDRATOR = new Hydrator<Index2IdxColumn>() {
@@ -2193,15 +2207,17 @@ public final class DataTable implements
 
             @Override
             public byte[] persistToBytes() {
-                byte[] valueBytes = PtBytes.toBytes(Long.MIN_VALUE ^ value);
-                return EncodingUtils.add(valueBytes);
+                byte[] __output = new byte[8];
+                int __index = 0;
+                EncodingUtils.encodeFixedLong(Long.MIN_VALUE ^ value, __output, __index);
+                return __output;
             }
 
             public static final Hydrator<Index3IdxRow> BYTES_HYDRATOR = new Hydrator<Index3IdxRow>() {
                 @Override
                 public Index3IdxRow hydrateFromBytes(byte[] __input) {
                     int __index = 0;
-                    Long value = Long.MIN_VALUE ^ PtBytes.toLong(__input, __index);
+                    long value = Long.MIN_VALUE ^ PtBytes.toLong(__input, __index);
                     __index += 8;
                     return new Index3IdxRow(value);
                 }
@@ -2294,7 +2310,11 @@ public final class DataTable implements
             public byte[] persistToBytes() {
                 byte[] rowNameBytes = EncodingUtils.encodeSizedBytes(rowName);
                 byte[] columnNameBytes = EncodingUtils.encodeSizedBytes(columnName);
-                return EncodingUtils.add(rowNameBytes, columnNameBytes);
+                byte[] __output = new byte[rowNameBytes.length + columnNameBytes.length];
+                int __index = 0;
+                __index = EncodingUtils.copyInto(rowNameBytes, __output, __index);
+                EncodingUtils.copyInto(columnNameBytes, __output, __index);
+                return __output;
             }
 
             public static final Hydrator<Index3IdxColumn> BYTES_HYDRATOR = new Hydrator<Index3IdxColumn>() {
@@ -2823,18 +2843,20 @@ public final class DataTable implements
 
             @Override
             public byte[] persistToBytes() {
-                byte[] value1Bytes = PtBytes.toBytes(Long.MIN_VALUE ^ value1);
-                byte[] value2Bytes = PtBytes.toBytes(Long.MIN_VALUE ^ value2);
-                return EncodingUtils.add(value1Bytes, value2Bytes);
+                byte[] __output = new byte[8 + 8];
+                int __index = 0;
+                __index = EncodingUtils.encodeFixedLong(Long.MIN_VALUE ^ value1, __output, __index);
+                EncodingUtils.encodeFixedLong(Long.MIN_VALUE ^ value2, __output, __index);
+                return __output;
             }
 
             public static final Hydrator<Index4IdxRow> BYTES_HYDRATOR = new Hydrator<Index4IdxRow>() {
                 @Override
                 public Index4IdxRow hydrateFromBytes(byte[] __input) {
                     int __index = 0;
-                    Long value1 = Long.MIN_VALUE ^ PtBytes.toLong(__input, __index);
+                    long value1 = Long.MIN_VALUE ^ PtBytes.toLong(__input, __index);
                     __index += 8;
-                    Long value2 = Long.MIN_VALUE ^ PtBytes.toLong(__input, __index);
+                    long value2 = Long.MIN_VALUE ^ PtBytes.toLong(__input, __index);
                     __index += 8;
                     return new Index4IdxRow(value1, value2);
                 }
@@ -2939,7 +2961,11 @@ public final class DataTable implements
             public byte[] persistToBytes() {
                 byte[] rowNameBytes = EncodingUtils.encodeSizedBytes(rowName);
                 byte[] columnNameBytes = EncodingUtils.encodeSizedBytes(columnName);
-                return EncodingUtils.add(rowNameBytes, columnNameBytes);
+                byte[] __output = new byte[rowNameBytes.length + columnNameBytes.length];
+                int __index = 0;
+                __index = EncodingUtils.copyInto(rowNameBytes, __output, __index);
+                EncodingUtils.copyInto(columnNameBytes, __output, __index);
+                return __output;
             }
 
             public static final Hydrator<Index4IdxColumn> BYTES_HYDRATOR = new Hydrator<Index4IdxColumn>() {
@@ -175,15 +175,17 @@ public final class TwoColumnsTable implements
 
         @Override
         public byte[] persistToBytes() {
-            byte[] idBytes = PtBytes.toBytes(Long.MIN_VALUE ^ id);
-            return EncodingUtils.add(idBytes);
+            byte[] __output = new byte[8];
+            int __index = 0;
+            EncodingUtils.encodeFixedLong(Long.MIN_VALUE ^ id, __output, __index);
+            return __output;
         }
 
         public static final Hydrator<TwoColumnsRow> BYTES_HYDRATOR = new Hydrator<TwoColumnsRow>() {
             @Override
             public TwoColumnsRow hydrateFromBytes(byte[] __input) {
                 int __index = 0;
-                Long id = Long.MIN_VALUE ^ PtBytes.toLong(__input, __index);
+                long id = Long.MIN_VALUE ^ PtBytes.toLong(__input, __index);
                 __index += 8;
                 return new TwoColumnsRow(id);
             }
@@ -909,15 +911,17 @@ public final class TwoColumnsTable implements
 
             @Override
             public byte[] persistToBytes() {
-                byte[] fooBytes = PtBytes.toBytes(Long.MIN_VALUE ^ foo);
-                return EncodingUtils.add(fooBytes);
+                byte[] __output = new byte[8];
+                int __index = 0;
+                EncodingUtils.encodeFixedLong(Long.MIN_VALUE ^ foo, __output, __index);
+                return __output;
             }
 
             public static final Hydrator<FooToIdCondIdxRow> BYTES_HYDRATOR = new Hydrator<FooToIdCondIdxRow>() {
                 @Override
                 public FooToIdCondIdxRow hydrateFromBytes(byte[] __input) {
                     int __index = 0;
-                    Long foo = Long.MIN_VALUE ^ PtBytes.toLong(__input, __index);
+                    long foo = Long.MIN_VALUE ^ PtBytes.toLong(__input, __index);
                     __index += 8;
                     return new FooToIdCondIdxRow(foo);
                 }
@@ -1026,8 +1030,12 @@ public final class TwoColumnsTable implements
             public byte[] persistToBytes() {
                 byte[] rowNameBytes = EncodingUtils.encodeSizedBytes(rowName);
                 byte[] columnNameBytes = EncodingUtils.encodeSizedBytes(columnName);
-                byte[] idBytes = PtBytes.toBytes(Long.MIN_VALUE ^ id);
-                return EncodingUtils.add(rowNameBytes, columnNameBytes, idBytes);
+                byte[] __output = new byte[rowNameBytes.length + columnNameBytes.length + 8];
+                int __index = 0;
+                __index = EncodingUtils.copyInto(rowNameBytes, __output, __index);
+                __index = EncodingUtils.copyInto(columnNameBytes, __output, __index);
+                EncodingUtils.encodeFixedLong(Long.MIN_VALUE ^ id, __output, __index);
+                return __output;
             }
 
             public static final Hydrator<FooToIdCondIdxColumn> BYTES_HYDRATOR = new Hydrator<FooToIdCondIdxColumn>() {
@@ -1038,7 +1046,7 @@ public final class TwoColumnsTable implements
                     __index += EncodingUtils.sizeOfSizedBytes(rowName);
                     byte[] columnName = EncodingUtils.decodeSizedBytes(__input, __index);
                     __index += EncodingUtils.sizeOfSizedBytes(columnName);
-                    Long id = Long.MIN_VALUE ^ PtBytes.toLong(__input, __index);
+                    long id = Long.MIN_VALUE ^ PtBytes.toLong(__input, __index);
                     __index += 8;
                     return new FooToIdCondIdxColumn(rowName, columnName, id);
                 }
@@ -1517,18 +1525,20 @@ public final class TwoColumnsTable implements
 
             @Override
             public byte[] persistToBytes() {
-                byte[] hashOfRowComponentsBytes = PtBytes.toBytes(Long.MIN_VALUE ^ hashOfRowComponents);
-                byte[] fooBytes = PtBytes.toBytes(Long.MIN_VALUE ^ foo);
-                return EncodingUtils.add(hashOfRowComponentsBytes, fooBytes);
+                byte[] __output = new byte[8 + 8];
+                int __index = 0;
+                __index = EncodingUtils.encodeFixedLong(Long.MIN_VALUE ^ hashOfRowComponents, __output, __index);
+                EncodingUtils.encodeFixedLong(Long.MIN_VALUE ^ foo, __output, __index);
+                return __output;
             }
 
             public static final Hydrator<FooToIdIdxRow> BYTES_HYDRATOR = new Hydrator<FooToIdIdxRow>() {
                 @Override
                 public FooToIdIdxRow hydrateFromBytes(byte[] __input) {
                     int __index = 0;
-                    Long hashOfRowComponents = Long.MIN_VALUE ^ PtBytes.toLong(__input, __index);
+                    long hashOfRowComponents = Long.MIN_VALUE ^ PtBytes.toLong(__input, __index);
                     __index += 8;
-                    Long foo = Long.MIN_VALUE ^ PtBytes.toLong(__input, __index);
+                    long foo = Long.MIN_VALUE ^ PtBytes.toLong(__input, __index);
                     __index += 8;
                     return new FooToIdIdxRow(hashOfRowComponents, foo);
                 }
@@ -1644,8 +1654,12 @@ public final class TwoColumnsTable implements
             public byte[] persistToBytes() {
                 byte[] rowNameBytes = EncodingUtils.encodeSizedBytes(rowName);
                 byte[] columnNameBytes = EncodingUtils.encodeSizedBytes(columnName);
-                byte[] idBytes = PtBytes.toBytes(Long.MIN_VALUE ^ id);
-                return EncodingUtils.add(rowNameBytes, columnNameBytes, idBytes);
+                byte[] __output = new byte[rowNameBytes.length + columnNameBytes.length + 8];
+                int __index = 0;
+                __index = EncodingUtils.copyInto(rowNameBytes, __output, __index);
+                __index = EncodingUtils.copyInto(columnNameBytes, __output, __index);
+                EncodingUtils.encodeFixedLong(Long.MIN_VALUE ^ id, __output, __index);
+                return __output;
             }
 
             public static final Hydrator<FooToIdIdxColumn> BYTES_HYDRATOR = new Hydrator<FooToIdIdxColumn>() {
@@ -1656,7 +1670,7 @@ public final class TwoColumnsTable implements
                     __index += EncodingUtils.sizeOfSizedBytes(rowName);
                     byte[] columnName = EncodingUtils.decodeSizedBytes(__input, __index);
                     __index += EncodingUtils.sizeOfSizedBytes(columnName);
-                    Long id = Long.MIN_VALUE ^ PtBytes.toLong(__input, __index);
+                    long id = Long.MIN_VALUE ^ PtBytes.toLong(__input, __index);
                     __index += 8;
                     return new FooToIdIdxColumn(rowName, columnName, id);
                 }
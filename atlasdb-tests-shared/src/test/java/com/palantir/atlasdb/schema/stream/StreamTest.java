@@ -84,7 +84,9 @@ import com.palantir.atlasdb.schema.stream.generated.TestHashComponentsStreamMeta
 import com.palantir.atlasdb.schema.stream.generated.TestHashComponentsStreamMetadataTable.TestHashComponentsStreamMetadataRow;
 import com.palantir.atlasdb.schema.stream.generated.TestHashComponentsStreamStore;
 import com.palantir.atlasdb.schema.stream.generated.TestHashComponentsStreamValueTable.TestHashComponentsStreamValueRow;
+import com.palantir.atlasdb.stream.ImmutableStreamStorePersistenceConfiguration;
 import com.palantir.atlasdb.stream.PersistentStreamStore;
+import com.palantir.atlasdb.stream.StreamStorePersistenceConfiguration;
 import com.palantir.atlasdb.table.description.Schemas;
 import com.palantir.atlasdb.transaction.api.Transaction;
 import com.palantir.atlasdb.transaction.api.TransactionConflictException;
@@ -97,6 +99,13 @@ import com.palantir.util.crypto.Sha256Hash;
 public class StreamTest extends AtlasDbTestCase {
     public static final long TEST_ID = 5L;
     public static final long TEST_BLOCK_ID = 5L;
+    private static final StreamStorePersistenceConfiguration CONCURRENT_CONFIG =
+            ImmutableStreamStorePersistenceConfiguration.builder()
+                    .numConcurrentBlockWriters(4)
+                    .numBlockBatchesToReadAhead(2)
+                    .numConcurrentBlockLoadsForFiles(4)
+                    .build();
+
     private PersistentStreamStore defaultStore;
     private PersistentStreamStore compressedStore;
     private PersistentStreamStore maxMemStore;
@@ -299,6 +308,28 @@ public class StreamTest extends AtlasDbTestCase {
         storeAndCheckByteStreams(maxMemStore, getIncompressibleBytes(20_000_000));
     }
 
+    @Test
+    public void testStoreAndLoadWithConcurrentBlockOperations_defaultStream() throws IOException {
+        StreamTestStreamStore store = StreamTestStreamStore.of(txManager, StreamTestTableFactory.of(),
+                () -> CONCURRENT_CONFIG);
+        storeNonTransactionallyAndCheckByteStreams(store, getIncompressibleBytes(5_000_000));
+    }
+
+    @Test
+    public void testStoreAndLoadWithConcurrentBlockOperations_compressedStream() throws IOException {
+        StreamTestWithHashStreamStore store = StreamTestWithHashStreamStore.of(txManager, StreamTestTableFactory.of(),
+                () -> CONCURRENT_CONFIG);
+        storeNonTransactionallyAndCheckByteStreams(store, getIncompressibleBytes(5_000_000));
+    }
+
+    private void storeNonTransactionallyAndCheckByteStreams(PersistentStreamStore store, byte[] bytesToStore)
+            throws IOException {
+        Pair<Long, Sha256Hash> idAndHash = store.storeStream(new ByteArrayInputStream(bytesToStore));
+
+        assertEquals(Sha256Hash.computeHash(bytesToStore), idAndHash.rhSide);
+        verifyLoadingStreams(store, idAndHash.lhSide, bytesToStore);
+    }
+
     private long storeAndCheckByteStreams(PersistentStreamStore store, byte[] bytesToStore) throws IOException {
         byte[] reference = PtBytes.toBytes("ref");
 
@@ -46,12 +46,15 @@ import java.util.Random;
 import java.util.SortedMap;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CompletionService;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
@@ -81,6 +84,7 @@ import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Multimaps;
 import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.Uninterruptibles;
 import com.palantir.atlasdb.AtlasDbConstants;
 import com.palantir.atlasdb.AtlasDbTestCase;
 import com.palantir.atlasdb.cache.TimestampCache;
@@ -141,10 +145,12 @@ import com.palantir.timestamp.TimestampService;
 @SuppressWarnings("checkstyle:all")
 public class SnapshotTransactionTest extends AtlasDbTestCase {
     private static final TransactionConfig TRANSACTION_CONFIG = ImmutableTransactionConfig.builder().build();
+    private static final TableReference IMMUTABLE_TABLE = TableReference.createFromFullyQualifiedName("ns.immutable");
 
     protected final TimestampCache timestampCache = new TimestampCache(
             metricsManager.getRegistry(), () -> AtlasDbConstants.DEFAULT_TIMESTAMP_CACHE_SIZE);
     protected final ExecutorService getRangesExecutor = Executors.newFixedThreadPool(8);
+    protected final ExecutorService commitStageExecutor = Executors.newCachedThreadPool();
     protected final int defaultGetRangesConcurrency = 2;
     protected final TransactionOutcomeMetrics transactionOutcomeMetrics
             = TransactionOutcomeMetrics.create(metricsManager);
@@ -300,7 +306,9 @@ public class SnapshotTransactionTest extends AtlasDbTestCase {
                 MoreExecutors.newDirectExecutorService(),
                 CommitProfileProcessor.createNonLogging(metricsManager),
                 true,
-                () -> TRANSACTION_CONFIG);
+                () -> TRANSACTION_CONFIG,
+                MoreExecutors.newDirectExecutorService(),
+                ImmutableTableCache.createDisabled());
         try {
             snapshot.get(TABLE, ImmutableSet.of(cell));
             fail();
@@ -367,7 +375,9 @@ public class SnapshotTransactionTest extends AtlasDbTestCase {
                 MoreExecutors.newDirectExecutorService(),
                 CommitProfileProcessor.createNonLogging(metricsManager),
                 true,
-                () -> TRANSACTION_CONFIG);
+                () -> TRANSACTION_CONFIG,
+                MoreExecutors.newDirectExecutorService(),
+                ImmutableTableCache.createDisabled());
         snapshot.delete(TABLE, ImmutableSet.of(cell));
         snapshot.commit();
 
@@ -1186,6 +1196,146 @@ public class SnapshotTransactionTest extends AtlasDbTestCase {
         verify(timelockService).refreshLockLeases(ImmutableSet.of(res.getLock()));
     }
 
+    @Test
+    public void pipelinedCommitWritesValues() {
+        Cell cell = Cell.create(PtBytes.toBytes("row1"), PtBytes.toBytes("column1"));
+        TimelockService timelockService = new LegacyTimelockService(timestampService, lockService, lockClient);
+        LockImmutableTimestampResponse res =
+                timelockService.lockImmutableTimestamp(IdentifiedTimeLockRequest.create());
+        long transactionTs = timelockService.getFreshTimestamp();
+
+        SnapshotTransaction snapshot = getPipelinedSnapshotTransactionWith(
+                timelockService, () -> transactionTs, res, PreCommitConditions.NO_OP);
+        snapshot.put(TABLE, ImmutableMap.of(cell, PtBytes.toBytes("value")));
+        snapshot.commit();
+
+        timelockService.unlock(ImmutableSet.of(res.getLock()));
+
+        Transaction readTransaction = txManager.createNewTransaction();
+        assertThat(readTransaction.get(TABLE, ImmutableSet.of(cell)).get(cell), is(PtBytes.toBytes("value")));
+    }
+
+    @Test
+    public void pipelinedCommitThrowsOnWriteWriteConflict() {
+        Cell cell = Cell.create(PtBytes.toBytes("row1"), PtBytes.toBytes("column1"));
+        TimelockService timelockService = new LegacyTimelockService(timestampService, lockService, lockClient);
+        LockImmutableTimestampResponse res =
+                timelockService.lockImmutableTimestamp(IdentifiedTimeLockRequest.create());
+        long transactionTs = timelockService.getFreshTimestamp();
+
+        SnapshotTransaction snapshot = getPipelinedSnapshotTransactionWith(
+                timelockService, () -> transactionTs, res, PreCommitConditions.NO_OP);
+        writeCells(TABLE, ImmutableMap.of(cell, PtBytes.toBytes("first")));
+        snapshot.put(TABLE, ImmutableMap.of(cell, PtBytes.toBytes("second")));
+
+        assertThatExceptionOfType(TransactionConflictException.class).isThrownBy(snapshot::commit);
+
+        timelockService.unlock(ImmutableSet.of(res.getLock()));
+    }
+
+    @Test
+    public void pipelinedCommitChecksForConflictsBeforeWritingToKeyValueService() {
+        Cell cell = Cell.create(PtBytes.toBytes("row1"), PtBytes.toBytes("column1"));
+        TimelockService timelockService = new LegacyTimelockService(timestampService, lockService, lockClient);
+        LockImmutableTimestampResponse res =
+                timelockService.lockImmutableTimestamp(IdentifiedTimeLockRequest.create());
+        long transactionTs = timelockService.getFreshTimestamp();
+        writeCells(TABLE, ImmutableMap.of(cell, PtBytes.toBytes("first")));
+
+        // Hold back the pipelined conflict check until our own writes have reached the key value service, or for
+        // long enough that they would have, were the commit not waiting for the check before writing.
+        CountDownLatch ownWritesMade = new CountDownLatch(1);
+        KeyValueService kvs = new ForwardingKeyValueService() {
+            @Override
+            protected KeyValueService delegate() {
+                return keyValueService;
+            }
+
+            @Override
+            public void multiPut(Map<TableReference, ? extends Map<Cell, byte[]>> valuesByTable, long timestamp) {
+                super.multiPut(valuesByTable, timestamp);
+                ownWritesMade.countDown();
+            }
+        };
+        ExecutorService delayingExecutor = new ThreadPoolExecutor(
+                1, 1, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>()) {
+            @Override
+            protected void beforeExecute(Thread thread, Runnable task) {
+                Uninterruptibles.awaitUninterruptibly(ownWritesMade, 1, TimeUnit.SECONDS);
+            }
+        };
+
+        SnapshotTransaction snapshot = getSnapshotTransactionWith(kvs, delayingExecutor, timelockService,
+                () -> transactionTs, res, PreCommitConditions.NO_OP, true,
+                ImmutableTransactionConfig.builder().enablePipelinedCommit(true).build());
+        snapshot.put(TABLE, ImmutableMap.of(cell, PtBytes.toBytes("second")));
+
+        assertThatExceptionOfType(TransactionConflictException.class).isThrownBy(snapshot::commit);
+        assertThat(ownWritesMade.getCount(), is(1L));
+
+        timelockService.unlock(ImmutableSet.of(res.getLock()));
+        delayingExecutor.shutdown();
+    }
+
+    @Test
+    public void pipelinedCommitFailsIfPreCommitConditionFails() {
+        Cell cell = Cell.create(PtBytes.toBytes("row1"), PtBytes.toBytes("column1"));
+        TimelockService timelockService = new LegacyTimelockService(timestampService, lockService, lockClient);
+        LockImmutableTimestampResponse res =
+                timelockService.lockImmutableTimestamp(IdentifiedTimeLockRequest.create());
+        long transactionTs = timelockService.getFreshTimestamp();
+
+        SnapshotTransaction snapshot = getPipelinedSnapshotTransactionWith(
+                timelockService, () -> transactionTs, res, ALWAYS_FAILS_CONDITION);
+        snapshot.put(TABLE, ImmutableMap.of(cell, PtBytes.toBytes("value")));
+
+        assertThatExceptionOfType(TransactionFailedRetriableException.class)
+                .isThrownBy(snapshot::commit)
+                .withMessageContaining("Condition failed");
+
+        timelockService.unlock(ImmutableSet.of(res.getLock()));
+    }
+
+    @Test
+    public void servesImmutableTableReadsFromCacheToLaterTransactions() {
+        Cell cell = Cell.create(PtBytes.toBytes("row1"), PtBytes.toBytes("column1"));
+        createImmutableTable();
+        ImmutableTableCache immutableTableCache = ImmutableTableCache.create(keyValueService);
+        writeCells(IMMUTABLE_TABLE, ImmutableMap.of(cell, PtBytes.toBytes("value")));
+
+        assertThat(readWithImmutableTableCache(immutableTableCache, cell), is(PtBytes.toBytes("value")));
+
+        // Break the table's promise of immutability, to tell cached reads from those of the key value service
+        writeCells(IMMUTABLE_TABLE, ImmutableMap.of(cell, PtBytes.toBytes("overwritten")));
+
+        assertThat(readWithImmutableTableCache(immutableTableCache, cell), is(PtBytes.toBytes("value")));
+        assertThat(readWithImmutableTableCache(ImmutableTableCache.createDisabled(), cell),
+                is(PtBytes.toBytes("overwritten")));
+    }
+
+    @Test
+    public void doesNotServeCachedImmutableTableReadsToTransactionsStartedBeforeTheRead() {
+        Cell cell = Cell.create(PtBytes.toBytes("row1"), PtBytes.toBytes("column1"));
+        createImmutableTable();
+        ImmutableTableCache immutableTableCache = ImmutableTableCache.create(keyValueService);
+        writeCells(IMMUTABLE_TABLE, ImmutableMap.of(cell, PtBytes.toBytes("value")));
+
+        TimelockService timelockService = new LegacyTimelockService(timestampService, lockService, lockClient);
+        LockImmutableTimestampResponse res =
+                timelockService.lockImmutableTimestamp(IdentifiedTimeLockRequest.create());
+        long earlierTs = timelockService.getFreshTimestamp();
+        writeCells(IMMUTABLE_TABLE, ImmutableMap.of(cell, PtBytes.toBytes("overwritten")));
+        assertThat(readWithImmutableTableCache(immutableTableCache, cell), is(PtBytes.toBytes("overwritten")));
+
+        SnapshotTransaction earlierTransaction = getSnapshotTransactionWith(keyValueService, commitStageExecutor,
+                timelockService, () -> earlierTs, res, PreCommitConditions.NO_OP, true, TRANSACTION_CONFIG,
+                immutableTableCache);
+        assertThat(earlierTransaction.get(IMMUTABLE_TABLE, ImmutableSet.of(cell)).get(cell),
+                is(PtBytes.toBytes("value")));
+
+        timelockService.unlock(ImmutableSet.of(res.getLock()));
+    }
+
     @Test
     public void testThrowsIfSweepSentinelSeen() {
         Cell cell = Cell.create(PtBytes.toBytes("row1"), PtBytes.toBytes("column1"));
@@ -1225,22 +1375,94 @@ public class SnapshotTransactionTest extends AtlasDbTestCase {
                 true);
     }
 
+    private SnapshotTransaction getPipelinedSnapshotTransactionWith(
+            TimelockService timelockService,
+            Supplier<Long> startTs,
+            LockImmutableTimestampResponse lockImmutableTimestampResponse,
+            PreCommitCondition preCommitCondition) {
+        return getSnapshotTransactionWith(
+                timelockService,
+                startTs,
+                lockImmutableTimestampResponse,
+                preCommitCondition,
+                true,
+                ImmutableTransactionConfig.builder().enablePipelinedCommit(true).build());
+    }
+
     private SnapshotTransaction getSnapshotTransactionWith(
             TimelockService timelockService,
             Supplier<Long> startTs,
             LockImmutableTimestampResponse lockImmutableTimestampResponse,
             PreCommitCondition preCommitCondition,
             boolean validateLocksOnReads) {
+        return getSnapshotTransactionWith(
+                timelockService,
+                startTs,
+                lockImmutableTimestampResponse,
+                preCommitCondition,
+                validateLocksOnReads,
+                TRANSACTION_CONFIG);
+    }
+
+    private SnapshotTransaction getSnapshotTransactionWith(
+            TimelockService timelockService,
+            Supplier<Long> startTs,
+            LockImmutableTimestampResponse lockImmutableTimestampResponse,
+            PreCommitCondition preCommitCondition,
+            boolean validateLocksOnReads,
+            TransactionConfig transactionConfig) {
+        return getSnapshotTransactionWith(
+                keyValueService,
+                commitStageExecutor,
+                timelockService,
+                startTs,
+                lockImmutableTimestampResponse,
+                preCommitCondition,
+                validateLocksOnReads,
+                transactionConfig);
+    }
+
+    private SnapshotTransaction getSnapshotTransactionWith(
+            KeyValueService kvs,
+            ExecutorService commitStageExecutor,
+            TimelockService timelockService,
+            Supplier<Long> startTs,
+            LockImmutableTimestampResponse lockImmutableTimestampResponse,
+            PreCommitCondition preCommitCondition,
+            boolean validateLocksOnReads,
+            TransactionConfig transactionConfig) {
+        return getSnapshotTransactionWith(
+                kvs,
+                commitStageExecutor,
+                timelockService,
+                startTs,
+                lockImmutableTimestampResponse,
+                preCommitCondition,
+                validateLocksOnReads,
+                transactionConfig,
+                ImmutableTableCache.createDisabled());
+    }
+
+    private SnapshotTransaction getSnapshotTransactionWith(
+            KeyValueService kvs,
+            ExecutorService commitStageExecutor,
+            TimelockService timelockService,
+            Supplier<Long> startTs,
+            LockImmutableTimestampResponse lockImmutableTimestampResponse,
+            PreCommitCondition preCommitCondition,
+            boolean validateLocksOnReads,
+            TransactionConfig transactionConfig,
+            ImmutableTableCache immutableTableCache) {
         return new SnapshotTransaction(
                 metricsManager,
-                keyValueService,
+                kvs,
                 timelockService,
                 transactionService,
                 NoOpCleaner.INSTANCE,
                 startTs,
                 TestConflictDetectionManagers.createWithStaticConflictDetection(
                         ImmutableMap.of(TABLE, ConflictHandler.RETRY_ON_WRITE_WRITE)),
-                SweepStrategyManagers.createDefault(keyValueService),
+                SweepStrategyManagers.createDefault(kvs),
                 lockImmutableTimestampResponse.getImmutableTimestamp(),
                 Optional.of(lockImmutableTimestampResponse.getLock()),
                 preCommitCondition,
@@ -1255,7 +1477,28 @@ public class SnapshotTransactionTest extends AtlasDbTestCase {
                 MoreExecutors.newDirectExecutorService(),
                 CommitProfileProcessor.createNonLogging(metricsManager),
                 validateLocksOnReads,
-                () -> TRANSACTION_CONFIG);
+                () -> transactionConfig,
+                commitStageExecutor,
+                immutableTableCache);
+    }
+
+    private void createImmutableTable() {
+        keyValueService.createTable(IMMUTABLE_TABLE, TableMetadata.builder().immutable(true).build().persistToBytes());
+    }
+
+    private byte[] readWithImmutableTableCache(ImmutableTableCache immutableTableCache, Cell cell) {
+        TimelockService timelockService = new LegacyTimelockService(timestampService, lockService, lockClient);
+        LockImmutableTimestampResponse res =
+                timelockService.lockImmutableTimestamp(IdentifiedTimeLockRequest.create());
+        long transactionTs = timelockService.getFreshTimestamp();
+        SnapshotTransaction snapshot = getSnapshotTransactionWith(keyValueService, commitStageExecutor,
+                timelockService, () -> transactionTs, res, PreCommitConditions.NO_OP, true, TRANSACTION_CONFIG,
+                immutableTableCache);
+        try {
+            return snapshot.get(IMMUTABLE_TABLE, ImmutableSet.of(cell)).get(cell);
+        } finally {
+            timelockService.unlock(ImmutableSet.of(res.getLock()));
+        }
     }
 
     private void writeCells(TableReference table, ImmutableMap<Cell, byte[]> cellsToWrite) {
@@ -1352,7 +1352,12 @@ public final class UserProfileTable implements
                 byte[] rowNameBytes = EncodingUtils.encodeSizedBytes(rowName);
                 byte[] columnNameBytes = EncodingUtils.encodeSizedBytes(columnName);
                 byte[] idBytes = EncodingUtils.encodeUUID(id);
-                return EncodingUtils.add(rowNameBytes, columnNameBytes, idBytes);
+                byte[] __output = new byte[rowNameBytes.length + columnNameBytes.length + idBytes.length];
+                int __index = 0;
+                __index = EncodingUtils.copyInto(rowNameBytes, __output, __index);
+                __index = EncodingUtils.copyInto(columnNameBytes, __output, __index);
+                EncodingUtils.copyInto(idBytes, __output, __index);
+                return __output;
             }
 
             public static final Hydrator<CookiesIdxColumn> BYTES_HYDRATOR = new Hydrator<CookiesIdxColumn>() {
@@ -1891,15 +1896,17 @@ public final class UserProfileTable implements
 
             @Override
             public byte[] persistToBytes() {
-                byte[] timeBytes = EncodingUtils.encodeUnsignedVarLong(time);
-                return EncodingUtils.add(timeBytes);
+                byte[] __output = new byte[EncodingUtils.sizeOfUnsignedVarLong(time)];
+                int __index = 0;
+                EncodingUtils.encodeUnsignedVarLong(time, __output, __index);
+                return __output;
             }
 
             public static final Hydrator<CreatedIdxRow> BYTES_HYDRATOR = new Hydrator<CreatedIdxRow>() {
                 @Override
                 public CreatedIdxRow hydrateFromBytes(byte[] __input) {
                     int __index = 0;
-                    Long time = EncodingUtils.decodeUnsignedVarLong(__input, __index);
+                    long time = EncodingUtils.decodeUnsignedVarLong(__input, __index);
                     __index += EncodingUtils.sizeOfUnsignedVarLong(time);
                     return new CreatedIdxRow(time);
                 }
@@ -2009,7 +2016,12 @@ public final class UserProfileTable implements
                 byte[] rowNameBytes = EncodingUtils.encodeSizedBytes(rowName);
                 byte[] columnNameBytes = EncodingUtils.encodeSizedBytes(columnName);
                 byte[] idBytes = EncodingUtils.encodeUUID(id);
-                return EncodingUtils.add(rowNameBytes, columnNameBytes, idBytes);
+                byte[] __output = new byte[rowNameBytes.length + columnNameBytes.length + idBytes.length];
+                int __index = 0;
+                __index = EncodingUtils.copyInto(rowNameBytes, __output, __index);
+                __index = EncodingUtils.copyInto(columnNameBytes, __output, __index);
+                EncodingUtils.copyInto(idBytes, __output, __index);
+                return __output;
             }
 
             public static final Hydrator<CreatedIdxColumn> BYTES_HYDRATOR = new Hydrator<CreatedIdxColumn>() {
@@ -2548,15 +2560,17 @@ public final class UserProfileTable implements
 
             @Override
             public byte[] persistToBytes() {
-                byte[] birthdayBytes = EncodingUtils.encodeSignedVarLong(birthday);
-                return EncodingUtils.add(birthdayBytes);
+                byte[] __output = new byte[EncodingUtils.sizeOfSignedVarLong(birthday)];
+                int __index = 0;
+                EncodingUtils.encodeSignedVarLong(birthday, __output, __index);
+                return __output;
             }
 
             public static final Hydrator<UserBirthdaysIdxRow> BYTES_HYDRATOR = new Hydrator<UserBirthdaysIdxRow>() {
                 @Override
                 public UserBirthdaysIdxRow hydrateFromBytes(byte[] __input) {
                     int __index = 0;
-                    Long birthday = EncodingUtils.decodeSignedVarLong(__input, __index);
+                    long birthday = EncodingUtils.decodeSignedVarLong(__input, __index);
                     __index += EncodingUtils.sizeOfSignedVarLong(birthday);
                     return new UserBirthdaysIdxRow(birthday);
                 }
@@ -2666,7 +2680,12 @@ public final class UserProfileTable implements
                 byte[] rowNameBytes = EncodingUtils.encodeSizedBytes(rowName);
                 byte[] columnNameBytes = EncodingUtils.encodeSizedBytes(columnName);
                 byte[] idBytes = EncodingUtils.encodeUUID(id);
-                return EncodingUtils.add(rowNameBytes, columnNameBytes, idBytes);
+                byte[] __output = new byte[rowNameBytes.length + columnNameBytes.length + idBytes.length];
+                int __index = 0;
+                __index = EncodingUtils.copyInto(rowNameBytes, __output, __index);
+                __index = EncodingUtils.copyInto(columnNameBytes, __output, __index);
+                EncodingUtils.copyInto(idBytes, __output, __index);
+                return __output;
             }
 
             public static final Hydrator<UserBirthdaysIdxColumn> BYTES_HYDRATOR = new Hydrator<UserBirthdaysIdxColumn>() {
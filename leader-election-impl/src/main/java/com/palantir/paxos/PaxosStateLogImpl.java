@@ -53,7 +53,7 @@ public class PaxosStateLogImpl<V extends Persistable & Versionable> implements P
     private final ReentrantLock lock = new ReentrantLock();
     private final Map<Long, Long> seqToVersionMap = Maps.newHashMap();
 
-    private static final String TMP_FILE_SUFFIX = ".tmp";
+    static final String TMP_FILE_SUFFIX = ".tmp";
     private static final Logger log = LoggerFactory.getLogger(PaxosStateLogImpl.class);
 
     private static Predicate<File> nameIsALongPredicate() {
@@ -84,6 +84,13 @@ public class PaxosStateLogImpl<V extends Persistable & Versionable> implements P
 
     public PaxosStateLogImpl(String path) {
         this.path = path;
+        if (new File(path, SegmentedPaxosStateLog.FORMAT_MARKER_FILE_NAME).exists()) {
+            // The rounds have been migrated to segments and the files we would read deleted, so starting with an
+            // empty log here would forget promises and acceptances that paxos relies on.
+            throw new IllegalStateException("The paxos state log at " + new File(path).getAbsolutePath()
+                    + " has been migrated to the segmented format, and cannot be read without it. Re-enable the"
+                    + " segmented paxos state log.");
+        }
         try {
             FileUtils.forceMkdir(new File(path));
             if (getGreatestLogEntry() == PaxosAcceptor.NO_LOG_ENTRY) {
@@ -0,0 +1,663 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.paxos;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.annotation.Nullable;
+
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Maps;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import com.palantir.common.base.Throwables;
+import com.palantir.common.persist.Persistable;
+import com.palantir.logsafe.SafeArg;
+import com.palantir.logsafe.UnsafeArg;
+
+/**
+ * A {@link PaxosStateLog} that appends rounds to a small number of pre-allocated, memory-mapped segment files, instead
+ * of writing one file per round as {@link PaxosStateLogImpl} does.
+ * <p>
+ * Each record carries a CRC32C checksum of its contents. Writers append under a short lock and then wait for their
+ * record to be made durable; a single {@code fsync} of the active segment covers every record appended before it
+ * started, so concurrent writers share the cost of syncing (group commit). Rounds that are written more than once are
+ * appended again, and the latest record for a sequence number wins.
+ * <p>
+ * Truncation is recorded as a marker in the log, and segments are deleted once every record they contain has been
+ * truncated. The greatest log entry is never truncated.
+ * <p>
+ * If the directory contains a log in the file-per-round layout used by {@link PaxosStateLogImpl}, it is migrated into
+ * segments the first time this log is opened, and the per-round files are then deleted. After migration, the
+ * directory can no longer be read by {@link PaxosStateLogImpl}.
+ */
+public final class SegmentedPaxosStateLog<V extends Persistable & Versionable> implements PaxosStateLog<V>, Closeable {
+    private static final Logger log = LoggerFactory.getLogger(SegmentedPaxosStateLog.class);
+
+    static final String SEGMENT_SUFFIX = ".segment";
+    static final String FORMAT_MARKER_FILE_NAME = "segmented-log";
+    static final int DEFAULT_SEGMENT_SIZE_BYTES = 16 * 1024 * 1024;
+
+    private static final HashFunction CHECKSUM = Hashing.crc32c();
+
+    private final File directory;
+    private final int segmentSizeBytes;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ReentrantLock syncLock = new ReentrantLock();
+
+    // All of the following are guarded by lock
+    private final NavigableMap<Long, Segment> segments = new TreeMap<>();
+    private final NavigableMap<Long, RecordLocation> index = new TreeMap<>();
+    private final Map<Long, Long> seqToVersionMap = Maps.newHashMap();
+    private Segment activeSegment;
+    private long appendedRecords = 0;
+
+    // Only modified while holding syncLock
+    private volatile long syncedRecords = 0;
+
+    private SegmentedPaxosStateLog(File directory, int segmentSizeBytes) {
+        this.directory = directory;
+        this.segmentSizeBytes = segmentSizeBytes;
+    }
+
+    public static <V extends Persistable & Versionable> SegmentedPaxosStateLog<V> create(String path) {
+        return create(path, DEFAULT_SEGMENT_SIZE_BYTES);
+    }
+
+    @VisibleForTesting
+    static <V extends Persistable & Versionable> SegmentedPaxosStateLog<V> create(String path, int segmentSizeBytes) {
+        File directory = new File(path);
+        SegmentedPaxosStateLog<V> stateLog = new SegmentedPaxosStateLog<>(directory, segmentSizeBytes);
+        try {
+            FileUtils.forceMkdir(directory);
+            stateLog.initialize();
+        } catch (IOException e) {
+            stateLog.close();
+            throw new RuntimeException("IO problem related to the path " + directory.getAbsolutePath(), e);
+        }
+        return stateLog;
+    }
+
+    private void initialize() throws IOException {
+        deleteTemporaryFiles();
+        File formatMarker = new File(directory, FORMAT_MARKER_FILE_NAME);
+        File[] legacyFiles = LegacyLogFiles.list(directory);
+        if (formatMarker.exists()) {
+            // A previous migration completed, but was interrupted while deleting the old files.
+            LegacyLogFiles.delete(legacyFiles);
+            recover();
+        } else if (legacyFiles.length > 0) {
+            migrateFromFilePerRound(legacyFiles);
+        } else {
+            deleteSegmentFiles();
+            // As in PaxosStateLogImpl, a brand new log starts with an entry for NO_LOG_ENTRY, so that
+            // #getLeastLogEntry does not let us skip over seq 0 after a restart.
+            appendAndSync(RecordType.ROUND, PaxosAcceptor.NO_LOG_ENTRY, new byte[0]);
+            createFormatMarker(formatMarker);
+        }
+    }
+
+    private void migrateFromFilePerRound(File[] legacyFiles) throws IOException {
+        log.info("Migrating paxos state log at {} from one file per round to segments",
+                UnsafeArg.of("path", directory.getAbsolutePath()),
+                SafeArg.of("numRounds", legacyFiles.length));
+        // Segments left behind by an earlier, interrupted migration are incomplete; start again from the old files.
+        deleteSegmentFiles();
+
+        PaxosStateLogImpl<V> legacyLog = new PaxosStateLogImpl<>(directory.getPath());
+        for (File legacyFile : legacyFiles) {
+            long seq = LegacyLogFiles.getSeq(legacyFile);
+            byte[] bytes = readLegacyRound(legacyLog, seq);
+            if (bytes != null) {
+                append(RecordType.ROUND, seq, bytes);
+            }
+        }
+        syncUpTo(appendedRecords);
+
+        createFormatMarker(new File(directory, FORMAT_MARKER_FILE_NAME));
+        LegacyLogFiles.delete(legacyFiles);
+        log.info("Migrated paxos state log at {}", UnsafeArg.of("path", directory.getAbsolutePath()));
+    }
+
+    @Nullable
+    private static byte[] readLegacyRound(PaxosStateLogImpl<?> legacyLog, long seq) {
+        if (seq == PaxosAcceptor.NO_LOG_ENTRY) {
+            return new byte[0];
+        }
+        try {
+            return legacyLog.readRound(seq);
+        } catch (IOException e) {
+            log.warn("Not migrating round {} of the paxos state log, because it could not be read",
+                    SafeArg.of("seq", seq), e);
+            return null;
+        }
+    }
+
+    private void recover() throws IOException {
+        File[] segmentFiles = directory.listFiles((dir, name) -> name.endsWith(SEGMENT_SUFFIX));
+        if (segmentFiles == null) {
+            throw new IOException("Could not list the files in " + directory.getAbsolutePath());
+        }
+        Arrays.sort(segmentFiles);
+        for (int i = 0; i < segmentFiles.length; i++) {
+            Segment segment = Segment.open(getSegmentId(segmentFiles[i]), segmentFiles[i]);
+            segments.put(segment.id, segment);
+            boolean isLastSegment = i == segmentFiles.length - 1;
+            replay(segment, isLastSegment);
+            if (isLastSegment) {
+                activeSegment = segment;
+            }
+        }
+    }
+
+    private void replay(Segment segment, boolean isLastSegment) {
+        int position = 0;
+        Record record;
+        while ((record = segment.read(position)) != null) {
+            apply(segment, position, record.type, record.seq);
+            position += record.size();
+        }
+        segment.writePosition = position;
+
+        if (segment.hasRecordAt(position)) {
+            if (isLastSegment) {
+                // Most likely a write that was torn by a crash, and so never acknowledged.
+                log.warn("Discarding a partially written record at the end of the paxos state log",
+                        UnsafeArg.of("segment", segment.file.getAbsolutePath()),
+                        SafeArg.of("offset", position));
+                segment.clearFrom(position);
+            } else {
+                log.error("Corrupt record in the middle of the paxos state log; the remainder of the segment is"
+                                + " being ignored",
+                        UnsafeArg.of("segment", segment.file.getAbsolutePath()),
+                        SafeArg.of("offset", position));
+            }
+        }
+    }
+
+    private void apply(Segment segment, int offset, RecordType type, long seq) {
+        segment.greatestSeq = Math.max(segment.greatestSeq, seq);
+        if (type == RecordType.ROUND) {
+            index.put(seq, new RecordLocation(segment, offset));
+        } else {
+            index.headMap(seq, true).clear();
+        }
+    }
+
+    @Override
+    public void writeRound(long seq, V round) {
+        byte[] bytes = round.persistToBytes();
+        long recordNumber;
+        lock.lock();
+        try {
+            // reject old state
+            Long latestVersion = seqToVersionMap.get(seq);
+            if (latestVersion != null && round.getVersion() < latestVersion) {
+                return;
+            }
+            recordNumber = append(RecordType.ROUND, seq, bytes);
+            seqToVersionMap.put(seq, round.getVersion());
+        } catch (IOException e) {
+            log.error("problem writing paxos state", e);
+            throw Throwables.throwUncheckedException(e);
+        } finally {
+            lock.unlock();
+        }
+
+        try {
+            syncUpTo(recordNumber);
+        } catch (IOException e) {
+            log.error("problem syncing paxos state", e);
+            throw Throwables.throwUncheckedException(e);
+        }
+    }
+
+    @Override
+    public byte[] readRound(long seq) throws IOException {
+        lock.lock();
+        try {
+            RecordLocation location = index.get(seq);
+            if (location == null) {
+                return null;
+            }
+            Record record = location.segment.read(location.offset);
+            if (record == null || record.seq != seq) {
+                throw new CorruptLogFileException();
+            }
+            if (seq == PaxosAcceptor.NO_LOG_ENTRY && record.payload.length == 0) {
+                // The placeholder entry created for a brand new log has no contents.
+                return null;
+            }
+            return record.payload;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long getLeastLogEntry() {
+        lock.lock();
+        try {
+            return index.isEmpty() ? PaxosAcceptor.NO_LOG_ENTRY : index.firstKey();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long getGreatestLogEntry() {
+        lock.lock();
+        try {
+            return index.isEmpty() ? PaxosAcceptor.NO_LOG_ENTRY : index.lastKey();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void truncate(long toDeleteInclusive) {
+        lock.lock();
+        try {
+            if (index.isEmpty()) {
+                return;
+            }
+            // We never want to remove our most recent entry
+            long bound = Math.min(index.lastKey() - 1, toDeleteInclusive);
+            if (bound < index.firstKey()) {
+                return;
+            }
+
+            append(RecordType.TRUNCATE, bound, new byte[0]);
+            seqToVersionMap.keySet().removeIf(seq -> seq <= bound);
+            // The marker must be durable before any segment is deleted, as it is what hides the rounds in later
+            // segments that are not deleted. We sync directly, as #syncUpTo must not be called holding the lock.
+            activeSegment.force();
+            deleteTruncatedSegments(bound);
+        } catch (IOException e) {
+            log.error("problem truncating paxos state", e);
+            throw Throwables.throwUncheckedException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Deletes the oldest segments, as long as everything in them has been truncated. Segments are only ever deleted
+     * from the front of the log, so that truncation markers in deleted segments cannot be needed to hide rounds in
+     * older segments that remain.
+     */
+    private void deleteTruncatedSegments(long toDeleteInclusive) {
+        while (!segments.isEmpty()) {
+            Segment segment = segments.firstEntry().getValue();
+            if (segment == activeSegment || segment.greatestSeq > toDeleteInclusive) {
+                return;
+            }
+            segments.remove(segment.id);
+            segment.closeQuietly();
+            if (!segment.file.delete()) {
+                log.warn("failed to delete paxos log segment {}",
+                        UnsafeArg.of("segment", segment.file.getAbsolutePath()));
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            segments.values().forEach(Segment::closeQuietly);
+            segments.clear();
+            index.clear();
+            activeSegment = null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void appendAndSync(RecordType type, long seq, byte[] payload) throws IOException {
+        long recordNumber;
+        lock.lock();
+        try {
+            recordNumber = append(type, seq, payload);
+        } finally {
+            lock.unlock();
+        }
+        syncUpTo(recordNumber);
+    }
+
+    /**
+     * Appends a record to the active segment, rolling over to a new segment if necessary, and returns the number of
+     * records appended so far. Must be called while holding {@link #lock}.
+     */
+    private long append(RecordType type, long seq, byte[] payload) throws IOException {
+        int recordSize = Record.HEADER_SIZE_BYTES + payload.length;
+        if (activeSegment == null || activeSegment.remaining() < recordSize) {
+            rollSegment(recordSize);
+        }
+        int offset = activeSegment.append(type, seq, payload);
+        apply(activeSegment, offset, type, seq);
+        appendedRecords++;
+        return appendedRecords;
+    }
+
+    private void rollSegment(int minimumSizeBytes) throws IOException {
+        if (activeSegment != null) {
+            // Records in the old segment are covered by later syncs only if we sync them now.
+            activeSegment.force();
+        }
+        long id = segments.isEmpty() ? 0 : segments.lastKey() + 1;
+        File file = new File(directory, String.format("%020d%s", id, SEGMENT_SUFFIX));
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+            randomAccessFile.setLength(Math.max(segmentSizeBytes, minimumSizeBytes));
+            randomAccessFile.getFD().sync();
+        }
+        syncDirectory();
+        activeSegment = Segment.open(id, file);
+        segments.put(id, activeSegment);
+    }
+
+    /**
+     * Makes all records up to and including the given record durable. Threads that arrive while a sync is in progress
+     * wait for it to finish, and will usually find that their record was covered by it.
+     */
+    private void syncUpTo(long recordNumber) throws IOException {
+        if (syncedRecords >= recordNumber) {
+            return;
+        }
+        syncLock.lock();
+        try {
+            if (syncedRecords >= recordNumber) {
+                return;
+            }
+            long target;
+            Segment segmentToSync;
+            lock.lock();
+            try {
+                target = appendedRecords;
+                segmentToSync = activeSegment;
+            } finally {
+                lock.unlock();
+            }
+            segmentToSync.force();
+            syncedRecords = target;
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    private void createFormatMarker(File formatMarker) throws IOException {
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(formatMarker, "rw")) {
+            randomAccessFile.getFD().sync();
+        }
+        syncDirectory();
+    }
+
+    private void syncDirectory() {
+        try (FileChannel channel = FileChannel.open(directory.toPath(), StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Not all platforms support syncing a directory.
+            log.debug("Could not sync directory {}", UnsafeArg.of("path", directory.getAbsolutePath()), e);
+        }
+    }
+
+    /**
+     * Deletes files left behind by writes that were interrupted, whether by {@link PaxosStateLogImpl} before a
+     * migration, or otherwise.
+     */
+    private void deleteTemporaryFiles() throws IOException {
+        File[] tmpFiles = directory.listFiles((dir, name) -> name.endsWith(PaxosStateLogImpl.TMP_FILE_SUFFIX));
+        if (tmpFiles == null) {
+            throw new IOException("Could not list the files in " + directory.getAbsolutePath());
+        }
+        for (File tmpFile : tmpFiles) {
+            FileUtils.forceDelete(tmpFile);
+        }
+    }
+
+    private void deleteSegmentFiles() throws IOException {
+        File[] segmentFiles = directory.listFiles((dir, name) -> name.endsWith(SEGMENT_SUFFIX));
+        if (segmentFiles == null) {
+            throw new IOException("Could not list the files in " + directory.getAbsolutePath());
+        }
+        for (File segmentFile : segmentFiles) {
+            FileUtils.forceDelete(segmentFile);
+        }
+    }
+
+    private static long getSegmentId(File segmentFile) {
+        String name = segmentFile.getName();
+        return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static int checksum(RecordType type, long seq, byte[] payload, int offset, int length) {
+        return CHECKSUM.newHasher()
+                .putByte(type.id)
+                .putLong(seq)
+                .putBytes(payload, offset, length)
+                .hash()
+                .asInt();
+    }
+
+    private enum RecordType {
+        ROUND((byte) 1),
+        TRUNCATE((byte) 2);
+
+        private final byte id;
+
+        RecordType(byte id) {
+            this.id = id;
+        }
+
+        @Nullable
+        static RecordType fromId(byte id) {
+            for (RecordType type : values()) {
+                if (type.id == id) {
+                    return type;
+                }
+            }
+            return null;
+        }
+    }
+
+    private static final class RecordLocation {
+        private final Segment segment;
+        private final int offset;
+
+        RecordLocation(Segment segment, int offset) {
+            this.segment = segment;
+            this.offset = offset;
+        }
+    }
+
+    /**
+     * On disk, a record is laid out as
+     * <pre>
+     *     | record size (4) | checksum (4) | type (1) | seq (8) | payload |
+     * </pre>
+     * where the record size includes the header, and the checksum covers the type, seq and payload. The record size
+     * is written last, and segments are zero-filled when created, so a record size of zero marks the end of a segment.
+     */
+    private static final class Record {
+        static final int HEADER_SIZE_BYTES = 4 + 4 + 1 + 8;
+
+        private final RecordType type;
+        private final long seq;
+        private final byte[] payload;
+
+        Record(RecordType type, long seq, byte[] payload) {
+            this.type = type;
+            this.seq = seq;
+            this.payload = payload;
+        }
+
+        int size() {
+            return HEADER_SIZE_BYTES + payload.length;
+        }
+    }
+
+    private static final class Segment {
+        private final long id;
+        private final File file;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+
+        private int writePosition = 0;
+        private long greatestSeq = PaxosAcceptor.NO_LOG_ENTRY;
+
+        private Segment(long id, File file, FileChannel channel, MappedByteBuffer buffer) {
+            this.id = id;
+            this.file = file;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        static Segment open(long id, File file) throws IOException {
+            FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+            try {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+                return new Segment(id, file, channel, buffer);
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+        }
+
+        int remaining() {
+            return buffer.capacity() - writePosition;
+        }
+
+        int append(RecordType type, long seq, byte[] payload) {
+            int offset = writePosition;
+            int recordSize = Record.HEADER_SIZE_BYTES + payload.length;
+            buffer.putInt(offset + 4, checksum(type, seq, payload, 0, payload.length));
+            buffer.put(offset + 8, type.id);
+            buffer.putLong(offset + 9, seq);
+            for (int i = 0; i < payload.length; i++) {
+                buffer.put(offset + Record.HEADER_SIZE_BYTES + i, payload[i]);
+            }
+            buffer.putInt(offset, recordSize);
+            writePosition += recordSize;
+            return offset;
+        }
+
+        /**
+         * Returns the record at the given offset, or null if there is no complete, valid record there.
+         */
+        @Nullable
+        Record read(int offset) {
+            if (offset + Record.HEADER_SIZE_BYTES > buffer.capacity()) {
+                return null;
+            }
+            int recordSize = buffer.getInt(offset);
+            if (recordSize < Record.HEADER_SIZE_BYTES || recordSize > buffer.capacity() - offset) {
+                return null;
+            }
+            RecordType type = RecordType.fromId(buffer.get(offset + 8));
+            if (type == null) {
+                return null;
+            }
+            long seq = buffer.getLong(offset + 9);
+            byte[] payload = new byte[recordSize - Record.HEADER_SIZE_BYTES];
+            for (int i = 0; i < payload.length; i++) {
+                payload[i] = buffer.get(offset + Record.HEADER_SIZE_BYTES + i);
+            }
+            if (buffer.getInt(offset + 4) != checksum(type, seq, payload, 0, payload.length)) {
+                return null;
+            }
+            return new Record(type, seq, payload);
+        }
+
+        boolean hasRecordAt(int offset) {
+            return offset + 4 <= buffer.capacity() && buffer.getInt(offset) != 0;
+        }
+
+        void clearFrom(int offset) {
+            for (int i = offset; i < buffer.capacity(); i++) {
+                buffer.put(i, (byte) 0);
+            }
+            force();
+        }
+
+        void force() {
+            buffer.force();
+        }
+
+        void closeQuietly() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.debug("Failed to close paxos log segment {}", UnsafeArg.of("segment", file.getAbsolutePath()), e);
+            }
+        }
+    }
+
+    /**
+     * The files of a log written by {@link PaxosStateLogImpl}, whose names are the round they store.
+     */
+    private static final class LegacyLogFiles {
+        private LegacyLogFiles() {
+            // utility
+        }
+
+        static File[] list(File directory) throws IOException {
+            File[] files = directory.listFiles(LegacyLogFiles::isLegacyLogFile);
+            if (files == null) {
+                throw new IOException("Could not list the files in " + directory.getAbsolutePath());
+            }
+            Arrays.sort(files, (first, second) -> Long.compare(getSeq(first), getSeq(second)));
+            return files;
+        }
+
+        static long getSeq(File file) {
+            return Long.parseLong(file.getName());
+        }
+
+        static void delete(File[] files) throws IOException {
+            for (File file : files) {
+                FileUtils.forceDelete(file);
+            }
+        }
+
+        private static boolean isLegacyLogFile(File file) {
+            if (!file.isFile()) {
+                return false;
+            }
+            try {
+                getSeq(file);
+                return true;
+            } catch (NumberFormatException e) {
+                return false;
+            }
+        }
+    }
+}
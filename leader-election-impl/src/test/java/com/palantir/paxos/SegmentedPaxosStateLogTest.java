@@ -0,0 +1,285 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.paxos;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.common.primitives.Longs;
+
+public class SegmentedPaxosStateLogTest {
+    private static final int SMALL_SEGMENT_SIZE_BYTES = 512;
+
+    @Rule
+    public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private String logDirectory;
+    private SegmentedPaxosStateLog<PaxosValue> log;
+
+    @Before
+    public void setUp() throws IOException {
+        logDirectory = tempFolder.newFolder().getPath();
+        log = SegmentedPaxosStateLog.create(logDirectory, SMALL_SEGMENT_SIZE_BYTES);
+    }
+
+    @After
+    public void tearDown() {
+        log.close();
+    }
+
+    @Test
+    public void newLogHasNoEntries() throws IOException {
+        assertThat(log.getLeastLogEntry()).isEqualTo(PaxosAcceptor.NO_LOG_ENTRY);
+        assertThat(log.getGreatestLogEntry()).isEqualTo(PaxosAcceptor.NO_LOG_ENTRY);
+        assertThat(log.readRound(PaxosAcceptor.NO_LOG_ENTRY)).isNull();
+        assertThat(PaxosStateLogs.getGreatestValidLogEntry(log)).isNull();
+    }
+
+    @Test
+    public void readsBackWrittenRounds() throws IOException {
+        writeRounds(0, 10);
+
+        for (long seq = 0; seq < 10; seq++) {
+            assertThat(readValue(seq)).isEqualTo(valueForRound(seq));
+        }
+        assertThat(log.readRound(10)).isNull();
+        assertThat(log.getLeastLogEntry()).isEqualTo(PaxosAcceptor.NO_LOG_ENTRY);
+        assertThat(log.getGreatestLogEntry()).isEqualTo(9L);
+    }
+
+    @Test
+    public void laterWriteOfRoundReplacesEarlierWrite() throws IOException {
+        PaxosValue newerValue = new PaxosValue("leader", 5, Longs.toByteArray(42));
+        writeRounds(0, 10);
+        log.writeRound(5, newerValue);
+
+        assertThat(readValue(5)).isEqualTo(newerValue);
+    }
+
+    @Test
+    public void rejectsWritesOfOlderVersions() throws IOException {
+        PaxosAcceptorState olderState = PaxosAcceptorState.newState(new PaxosProposalId(1, "uuid"));
+        PaxosAcceptorState newerState = olderState.withPromise(new PaxosProposalId(2, "uuid"));
+        SegmentedPaxosStateLog<PaxosAcceptorState> acceptorLog =
+                SegmentedPaxosStateLog.create(tempFolder.newFolder().getPath());
+        try {
+            acceptorLog.writeRound(1, newerState);
+            acceptorLog.writeRound(1, olderState);
+
+            assertThat(PaxosAcceptorState.BYTES_HYDRATOR.hydrateFromBytes(acceptorLog.readRound(1)).getVersion())
+                    .isEqualTo(newerState.getVersion());
+        } finally {
+            acceptorLog.close();
+        }
+    }
+
+    @Test
+    public void rollsOverToNewSegmentsWhenFull() throws IOException {
+        writeRounds(0, 100);
+
+        assertThat(segmentFiles()).hasSizeGreaterThan(1);
+        reopen();
+        for (long seq = 0; seq < 100; seq++) {
+            assertThat(readValue(seq)).isEqualTo(valueForRound(seq));
+        }
+    }
+
+    @Test
+    public void canWriteRoundsLargerThanASegment() throws IOException {
+        PaxosValue largeValue = new PaxosValue("leader", 0, new byte[4 * SMALL_SEGMENT_SIZE_BYTES]);
+        log.writeRound(0, largeValue);
+        writeRounds(1, 3);
+        reopen();
+
+        assertThat(readValue(0)).isEqualTo(largeValue);
+        assertThat(readValue(2)).isEqualTo(valueForRound(2));
+    }
+
+    @Test
+    public void truncateRemovesOldRoundsAndSegments() throws IOException {
+        writeRounds(0, 100);
+        int segmentsBeforeTruncation = segmentFiles().size();
+
+        log.truncate(89);
+
+        assertThat(log.getLeastLogEntry()).isEqualTo(90L);
+        assertThat(log.readRound(50)).isNull();
+        assertThat(readValue(90)).isEqualTo(valueForRound(90));
+        assertThat(segmentFiles().size()).isLessThan(segmentsBeforeTruncation);
+
+        reopen();
+        assertThat(log.getLeastLogEntry()).isEqualTo(90L);
+        assertThat(log.getGreatestLogEntry()).isEqualTo(99L);
+        assertThat(log.readRound(50)).isNull();
+    }
+
+    @Test
+    public void truncateNeverRemovesGreatestEntry() throws IOException {
+        writeRounds(0, 10);
+
+        log.truncate(Long.MAX_VALUE);
+        reopen();
+
+        assertThat(log.getLeastLogEntry()).isEqualTo(9L);
+        assertThat(log.getGreatestLogEntry()).isEqualTo(9L);
+        assertThat(readValue(9)).isEqualTo(valueForRound(9));
+    }
+
+    @Test
+    public void discardsPartiallyWrittenRecordOnRecovery() throws IOException {
+        writeRounds(0, 3);
+        log.close();
+        corruptLastRecord();
+
+        log = SegmentedPaxosStateLog.create(logDirectory, SMALL_SEGMENT_SIZE_BYTES);
+        assertThat(log.getGreatestLogEntry()).isEqualTo(1L);
+
+        writeRounds(2, 4);
+        reopen();
+        assertThat(readValue(2)).isEqualTo(valueForRound(2));
+        assertThat(readValue(3)).isEqualTo(valueForRound(3));
+    }
+
+    @Test
+    public void migratesLogWithOneFilePerRound() throws IOException {
+        String legacyDirectory = tempFolder.newFolder().getPath();
+        PaxosStateLogImpl<PaxosValue> legacyLog = new PaxosStateLogImpl<>(legacyDirectory);
+        for (long seq = 0; seq < 10; seq++) {
+            legacyLog.writeRound(seq, valueForRound(seq));
+        }
+        legacyLog.truncate(4);
+
+        SegmentedPaxosStateLog<PaxosValue> migratedLog = SegmentedPaxosStateLog.create(legacyDirectory);
+        try {
+            assertThat(migratedLog.getLeastLogEntry()).isEqualTo(5L);
+            assertThat(migratedLog.getGreatestLogEntry()).isEqualTo(9L);
+            for (long seq = 5; seq < 10; seq++) {
+                assertThat(PaxosValue.BYTES_HYDRATOR.hydrateFromBytes(migratedLog.readRound(seq)))
+                        .isEqualTo(valueForRound(seq));
+            }
+            assertThat(new File(legacyDirectory, "9")).doesNotExist();
+        } finally {
+            migratedLog.close();
+        }
+    }
+
+    @Test
+    public void legacyLogCannotBeOpenedAfterMigration() throws IOException {
+        writeRounds(0, 10);
+        log.close();
+
+        assertThatThrownBy(() -> new PaxosStateLogImpl<PaxosValue>(logDirectory))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("segmented");
+        reopen();
+        assertThat(readValue(9)).isEqualTo(valueForRound(9));
+    }
+
+    @Test
+    public void deletesLeftoverTemporaryFilesOnOpen() throws IOException {
+        String legacyDirectory = tempFolder.newFolder().getPath();
+        PaxosStateLogImpl<PaxosValue> legacyLog = new PaxosStateLogImpl<>(legacyDirectory);
+        legacyLog.writeRound(0, valueForRound(0));
+        File leftoverTmpFile = new File(legacyDirectory, "1" + PaxosStateLogImpl.TMP_FILE_SUFFIX);
+        Files.write(leftoverTmpFile.toPath(), new byte[] {1, 2, 3});
+
+        SegmentedPaxosStateLog<PaxosValue> migratedLog = SegmentedPaxosStateLog.create(legacyDirectory);
+        try {
+            assertThat(leftoverTmpFile).doesNotExist();
+            assertThat(migratedLog.getGreatestLogEntry()).isEqualTo(0L);
+        } finally {
+            migratedLog.close();
+        }
+    }
+
+    @Test
+    public void concurrentWritesAreAllDurable() throws Exception {
+        int numThreads = 8;
+        int roundsPerThread = 100;
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < numThreads; thread++) {
+                long firstRound = thread * roundsPerThread;
+                futures.add(executor.submit(() -> writeRounds(firstRound, firstRound + roundsPerThread)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        reopen();
+        for (long seq = 0; seq < numThreads * roundsPerThread; seq++) {
+            assertThat(readValue(seq)).isEqualTo(valueForRound(seq));
+        }
+    }
+
+    private void writeRounds(long fromInclusive, long toExclusive) {
+        for (long seq = fromInclusive; seq < toExclusive; seq++) {
+            log.writeRound(seq, valueForRound(seq));
+        }
+    }
+
+    private PaxosValue readValue(long seq) throws IOException {
+        return PaxosValue.BYTES_HYDRATOR.hydrateFromBytes(log.readRound(seq));
+    }
+
+    private void reopen() {
+        log.close();
+        log = SegmentedPaxosStateLog.create(logDirectory, SMALL_SEGMENT_SIZE_BYTES);
+    }
+
+    private List<File> segmentFiles() {
+        File[] files = new File(logDirectory).listFiles(
+                (dir, name) -> name.endsWith(SegmentedPaxosStateLog.SEGMENT_SUFFIX));
+        Arrays.sort(files);
+        return Arrays.asList(files);
+    }
+
+    private void corruptLastRecord() throws IOException {
+        List<File> segments = segmentFiles();
+        File lastSegment = segments.get(segments.size() - 1);
+        byte[] bytes = Files.readAllBytes(lastSegment.toPath());
+        int endOfData = bytes.length;
+        while (endOfData > 0 && bytes[endOfData - 1] == 0) {
+            endOfData--;
+        }
+        bytes[endOfData - 1] ^= 0x5a;
+        Files.write(lastSegment.toPath(), bytes);
+    }
+
+    private static PaxosValue valueForRound(long seq) {
+        return new PaxosValue("leader", seq, Longs.toByteArray(seq));
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.lock.client;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.palantir.atlasdb.autobatch.BatchElement;
+import com.palantir.atlasdb.autobatch.DisruptorAutobatcher;
+import com.palantir.lock.v2.LockImmutableTimestampResponse;
+import com.palantir.lock.v2.LockToken;
+import com.palantir.lock.v2.StartIdentifiedAtlasDbTransactionBatchRequest;
+import com.palantir.lock.v2.StartIdentifiedAtlasDbTransactionRequest;
+import com.palantir.lock.v2.StartIdentifiedAtlasDbTransactionResponse;
+import com.palantir.lock.v2.TimelockService;
+
+/**
+ * Coalesces concurrent requests to start transactions into calls to
+ * {@link TimelockService#startIdentifiedAtlasDbTransactionBatch}, so that starting many short transactions needs
+ * far fewer round trips to TimeLock, and TimeLock only locks the immutable timestamp once per batch.
+ *
+ * Transactions started in the same batch share an immutable timestamp lock. Each transaction is handed its own
+ * {@link LockTokenShare} of it, which {@link TimeLockClient} translates when refreshing or unlocking, so the shared
+ * lock stays held until every transaction in the batch has released its share.
+ */
+public final class BatchingTransactionStarter implements TransactionStarter {
+    private final DisruptorAutobatcher<StartIdentifiedAtlasDbTransactionRequest,
+            StartIdentifiedAtlasDbTransactionResponse> autobatcher;
+
+    private BatchingTransactionStarter(DisruptorAutobatcher<StartIdentifiedAtlasDbTransactionRequest,
+            StartIdentifiedAtlasDbTransactionResponse> autobatcher) {
+        this.autobatcher = autobatcher;
+    }
+
+    public static BatchingTransactionStarter create(TimelockService timelockService, LockRefresher lockRefresher) {
+        return new BatchingTransactionStarter(DisruptorAutobatcher.create(consumer(timelockService, lockRefresher)));
+    }
+
+    @Override
+    public StartIdentifiedAtlasDbTransactionResponse startIdentifiedAtlasDbTransaction(
+            StartIdentifiedAtlasDbTransactionRequest request) {
+        ListenableFuture<StartIdentifiedAtlasDbTransactionResponse> response = autobatcher.apply(request);
+        try {
+            return response.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            // Callers inspect the cause of what we throw to decide whether TimeLock was unavailable, so we must not
+            // add another layer of wrapping.
+            Throwables.throwIfUnchecked(e.getCause());
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    @Override
+    public void close() {
+        autobatcher.close();
+    }
+
+    @VisibleForTesting
+    static Consumer<List<BatchElement<StartIdentifiedAtlasDbTransactionRequest,
+            StartIdentifiedAtlasDbTransactionResponse>>> consumer(
+            TimelockService timelockService,
+            LockRefresher lockRefresher) {
+        return batch -> {
+            Map<UUID, List<BatchElement<StartIdentifiedAtlasDbTransactionRequest,
+                    StartIdentifiedAtlasDbTransactionResponse>>> elementsByRequestor = batch.stream()
+                    .collect(Collectors.groupingBy(element -> element.argument().requestorId()));
+            elementsByRequestor.forEach((requestorId, elements) -> {
+                try {
+                    startTransactions(timelockService, lockRefresher, requestorId, elements);
+                } catch (Throwable t) {
+                    elements.forEach(element -> element.result().setException(t));
+                }
+            });
+        };
+    }
+
+    private static void startTransactions(
+            TimelockService timelockService,
+            LockRefresher lockRefresher,
+            UUID requestorId,
+            List<BatchElement<StartIdentifiedAtlasDbTransactionRequest,
+                    StartIdentifiedAtlasDbTransactionResponse>> elements) {
+        List<StartIdentifiedAtlasDbTransactionResponse> responses = timelockService
+                .startIdentifiedAtlasDbTransactionBatch(
+                        StartIdentifiedAtlasDbTransactionBatchRequest.createForRequestor(requestorId, elements.size()));
+        Preconditions.checkState(responses.size() == elements.size(),
+                "Requested %s transactions from TimeLock, but %s were started", elements.size(), responses.size());
+
+        List<StartIdentifiedAtlasDbTransactionResponse> sharedResponses =
+                shareImmutableTimestampLocks(responses, lockRefresher);
+        for (int i = 0; i < elements.size(); i++) {
+            elements.get(i).result().set(sharedResponses.get(i));
+        }
+    }
+
+    private static List<StartIdentifiedAtlasDbTransactionResponse> shareImmutableTimestampLocks(
+            List<StartIdentifiedAtlasDbTransactionResponse> responses,
+            LockRefresher lockRefresher) {
+        Map<LockToken, Long> sharesNeeded = responses.stream()
+                .collect(Collectors.groupingBy(response -> response.immutableTimestamp().getLock(),
+                        Collectors.counting()));
+        Map<LockToken, Iterator<LockToken>> sharesByLock = new HashMap<>();
+        sharesNeeded.forEach((lock, numShares) -> {
+            lockRefresher.registerLock(lock);
+            sharesByLock.put(lock, LockTokenShare.share(lock, numShares.intValue()).iterator());
+        });
+
+        return responses.stream()
+                .map(response -> StartIdentifiedAtlasDbTransactionResponse.of(
+                        LockImmutableTimestampResponse.of(
+                                response.immutableTimestamp().getImmutableTimestamp(),
+                                sharesByLock.get(response.immutableTimestamp().getLock()).next()),
+                        response.startTimestampAndPartition()))
+                .collect(Collectors.toList());
+    }
+}
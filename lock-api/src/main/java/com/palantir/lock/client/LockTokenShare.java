@@ -0,0 +1,116 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.lock.client;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+import com.palantir.lock.v2.LockToken;
+
+/**
+ * One of several references to a lock token that is shared between transactions started in the same batch.
+ *
+ * Shares only exist on the client: they must be translated to the shared lock token before being sent to TimeLock.
+ * A share is valid for as long as the shared lock is held and the share has not been released, and the shared lock
+ * should only be unlocked once every share of it has been released.
+ */
+final class LockTokenShare implements LockToken {
+    private final LockToken sharedLockToken;
+    private final AtomicInteger outstandingShares;
+    private final AtomicBoolean released = new AtomicBoolean(false);
+
+    private LockTokenShare(LockToken sharedLockToken, AtomicInteger outstandingShares) {
+        this.sharedLockToken = sharedLockToken;
+        this.outstandingShares = outstandingShares;
+    }
+
+    static List<LockToken> share(LockToken token, int numShares) {
+        Preconditions.checkArgument(numShares > 0, "Must create a positive number of shares, but was %s", numShares);
+        AtomicInteger outstandingShares = new AtomicInteger(numShares);
+        return IntStream.range(0, numShares)
+                .mapToObj(unused -> new LockTokenShare(token, outstandingShares))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Returns the tokens that TimeLock knows about for the given tokens: shares that have not been released are
+     * replaced by their shared lock token, and released shares are dropped.
+     */
+    static Set<LockToken> sharedLockTokens(Set<LockToken> tokens) {
+        return tokens.stream()
+                .map(LockTokenShare::sharedLockToken)
+                .filter(Optional::isPresent)
+                .map(Optional::get)
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Returns those of the given tokens whose shared lock token is one of {@code heldSharedLockTokens}.
+     */
+    static Set<LockToken> filterHeld(Set<LockToken> tokens, Set<LockToken> heldSharedLockTokens) {
+        return tokens.stream()
+                .filter(token -> sharedLockToken(token).map(heldSharedLockTokens::contains).orElse(false))
+                .collect(Collectors.toSet());
+    }
+
+    private static Optional<LockToken> sharedLockToken(LockToken token) {
+        if (!(token instanceof LockTokenShare)) {
+            return Optional.of(token);
+        }
+        LockTokenShare share = (LockTokenShare) token;
+        return share.isReleased() ? Optional.empty() : Optional.of(share.sharedLockToken);
+    }
+
+    LockToken sharedLockToken() {
+        return sharedLockToken;
+    }
+
+    boolean isReleased() {
+        return released.get();
+    }
+
+    /**
+     * Releases this share, if it has not been released already. Returns the shared lock token if this was the last
+     * outstanding share of it, in which case the caller is responsible for unlocking it.
+     */
+    Optional<LockToken> release() {
+        if (released.compareAndSet(false, true) && outstandingShares.decrementAndGet() == 0) {
+            return Optional.of(sharedLockToken);
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public UUID getRequestId() {
+        return sharedLockToken.getRequestId();
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("sharedLockToken", sharedLockToken)
+                .add("released", released.get())
+                .toString();
+    }
+}
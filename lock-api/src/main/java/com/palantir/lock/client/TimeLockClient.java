@@ -17,9 +17,12 @@ package com.palantir.lock.client;
 
 import java.net.ConnectException;
 import java.net.UnknownHostException;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.stream.Collectors;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
@@ -32,6 +35,7 @@ import com.palantir.lock.v2.LockRequest;
 import com.palantir.lock.v2.LockResponse;
 import com.palantir.lock.v2.LockToken;
 import com.palantir.lock.v2.StartAtlasDbTransactionResponse;
+import com.palantir.lock.v2.StartIdentifiedAtlasDbTransactionBatchRequest;
 import com.palantir.lock.v2.StartIdentifiedAtlasDbTransactionRequest;
 import com.palantir.lock.v2.StartIdentifiedAtlasDbTransactionResponse;
 import com.palantir.lock.v2.TimelockService;
@@ -49,13 +53,27 @@ public class TimeLockClient implements AutoCloseable, TimelockService {
     private final CloseableTimestampService timestampService;
     private final LockRefresher lockRefresher;
     private final TimeLockUnlocker unlocker;
+    private final TransactionStarter transactionStarter;
 
     public static TimeLockClient createDefault(TimelockService timelockService) {
+        return createDefault(timelockService, false);
+    }
+
+    /**
+     * Creates a client that batches timestamp requests and unlocks. If batchTransactionStarts is true, concurrent
+     * transaction starts are also batched, using {@link TimelockService#startIdentifiedAtlasDbTransactionBatch};
+     * this must only be enabled if every TimeLock server the client may talk to supports that endpoint.
+     */
+    public static TimeLockClient createDefault(TimelockService timelockService, boolean batchTransactionStarts) {
         AsyncTimeLockUnlocker asyncUnlocker = AsyncTimeLockUnlocker.create(timelockService);
         RequestBatchingTimestampService timestampService =
                 RequestBatchingTimestampService.create(new TimelockServiceErrorDecorator(timelockService));
+        LockRefresher lockRefresher = createLockRefresher(timelockService);
+        TransactionStarter transactionStarter = batchTransactionStarts
+                ? BatchingTransactionStarter.create(timelockService, lockRefresher)
+                : unbatchedTransactionStarter(timelockService, lockRefresher);
         return new TimeLockClient(
-                timelockService, timestampService, createLockRefresher(timelockService), asyncUnlocker);
+                timelockService, timestampService, lockRefresher, asyncUnlocker, transactionStarter);
     }
 
     public static TimeLockClient withSynchronousUnlocker(TimelockService timelockService) {
@@ -67,10 +85,17 @@ public class TimeLockClient implements AutoCloseable, TimelockService {
     @VisibleForTesting
     TimeLockClient(TimelockService delegate, CloseableTimestampService timestampService,
             LockRefresher lockRefresher, TimeLockUnlocker unlocker) {
+        this(delegate, timestampService, lockRefresher, unlocker, unbatchedTransactionStarter(delegate, lockRefresher));
+    }
+
+    @VisibleForTesting
+    TimeLockClient(TimelockService delegate, CloseableTimestampService timestampService,
+            LockRefresher lockRefresher, TimeLockUnlocker unlocker, TransactionStarter transactionStarter) {
         this.delegate = delegate;
         this.timestampService = timestampService;
         this.lockRefresher = lockRefresher;
         this.unlocker = unlocker;
+        this.transactionStarter = transactionStarter;
     }
 
     @Override
@@ -105,10 +130,16 @@ public class TimeLockClient implements AutoCloseable, TimelockService {
     @Override
     public StartIdentifiedAtlasDbTransactionResponse startIdentifiedAtlasDbTransaction(
             StartIdentifiedAtlasDbTransactionRequest request) {
-        StartIdentifiedAtlasDbTransactionResponse response = executeOnTimeLock(
-                () -> delegate.startIdentifiedAtlasDbTransaction(request));
-        lockRefresher.registerLock(response.immutableTimestamp().getLock());
-        return response;
+        return executeOnTimeLock(() -> transactionStarter.startIdentifiedAtlasDbTransaction(request));
+    }
+
+    @Override
+    public List<StartIdentifiedAtlasDbTransactionResponse> startIdentifiedAtlasDbTransactionBatch(
+            StartIdentifiedAtlasDbTransactionBatchRequest request) {
+        List<StartIdentifiedAtlasDbTransactionResponse> responses = executeOnTimeLock(
+                () -> delegate.startIdentifiedAtlasDbTransactionBatch(request));
+        responses.forEach(response -> lockRefresher.registerLock(response.immutableTimestamp().getLock()));
+        return responses;
     }
 
     @Override
@@ -132,19 +163,56 @@ public class TimeLockClient implements AutoCloseable, TimelockService {
 
     @Override
     public Set<LockToken> refreshLockLeases(Set<LockToken> tokens) {
-        return executeOnTimeLock(() -> delegate.refreshLockLeases(tokens));
+        Set<LockToken> refreshed = executeOnTimeLock(
+                () -> delegate.refreshLockLeases(LockTokenShare.sharedLockTokens(tokens)));
+        return LockTokenShare.filterHeld(tokens, refreshed);
     }
 
+    /**
+     * Unlocks the given tokens. A {@link LockTokenShare} is reported as unlocked if this call released it, and, if
+     * it was the last outstanding share of its lock, that lock was unlocked.
+     */
     @Override
     public Set<LockToken> unlock(Set<LockToken> tokens) {
-        lockRefresher.unregisterLocks(tokens);
-        return executeOnTimeLock(() -> delegate.unlock(tokens));
+        Set<LockToken> unreleasedTokens = tokens.stream()
+                .filter(token -> !(token instanceof LockTokenShare) || !((LockTokenShare) token).isReleased())
+                .collect(Collectors.toSet());
+        Set<LockToken> toUnlock = releaseShares(unreleasedTokens);
+        lockRefresher.unregisterLocks(toUnlock);
+        Set<LockToken> unlocked = executeOnTimeLock(() -> delegate.unlock(toUnlock));
+        return unreleasedTokens.stream()
+                .filter(token -> {
+                    LockToken tokenToUnlock = token instanceof LockTokenShare
+                            ? ((LockTokenShare) token).sharedLockToken()
+                            : token;
+                    return !toUnlock.contains(tokenToUnlock) || unlocked.contains(tokenToUnlock);
+                })
+                .collect(Collectors.toSet());
     }
 
     @Override
     public void tryUnlock(Set<LockToken> tokens) {
-        lockRefresher.unregisterLocks(tokens);
-        unlocker.enqueue(tokens);
+        Set<LockToken> toUnlock = releaseShares(tokens);
+        lockRefresher.unregisterLocks(toUnlock);
+        if (!toUnlock.isEmpty()) {
+            unlocker.enqueue(toUnlock);
+        }
+    }
+
+    /**
+     * Releases any shares among the given tokens, and returns the tokens that should be unlocked on TimeLock: those
+     * that were not shared, along with shared locks whose last outstanding share has now been released.
+     */
+    private static Set<LockToken> releaseShares(Set<LockToken> tokens) {
+        Set<LockToken> toUnlock = new HashSet<>();
+        for (LockToken token : tokens) {
+            if (token instanceof LockTokenShare) {
+                ((LockTokenShare) token).release().ifPresent(toUnlock::add);
+            } else {
+                toUnlock.add(token);
+            }
+        }
+        return toUnlock;
     }
 
     @Override
@@ -169,6 +237,7 @@ public class TimeLockClient implements AutoCloseable, TimelockService {
     @Override
     public void close() {
         lockRefresher.close();
+        transactionStarter.close();
         unlocker.close();
         timestampService.close();
     }
@@ -178,6 +247,16 @@ public class TimeLockClient implements AutoCloseable, TimelockService {
         return new LockRefresher(refreshExecutor, timelockService, REFRESH_INTERVAL_MILLIS);
     }
 
+    private static TransactionStarter unbatchedTransactionStarter(
+            TimelockService timelockService, LockRefresher lockRefresher) {
+        return request -> {
+            StartIdentifiedAtlasDbTransactionResponse response =
+                    timelockService.startIdentifiedAtlasDbTransaction(request);
+            lockRefresher.registerLock(response.immutableTimestamp().getLock());
+            return response;
+        };
+    }
+
     private static ScheduledExecutorService createSingleThreadScheduledExecutor(String operation) {
         return PTExecutors.newSingleThreadScheduledExecutor(
                 new ThreadFactoryBuilder()
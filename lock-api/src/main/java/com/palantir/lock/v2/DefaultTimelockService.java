@@ -16,6 +16,7 @@
 
 package com.palantir.lock.v2;
 
+import java.util.List;
 import java.util.Set;
 
 import com.palantir.timestamp.TimestampRange;
@@ -57,6 +58,12 @@ public final class DefaultTimelockService implements TimelockService {
         return delegate.startIdentifiedAtlasDbTransaction(request);
     }
 
+    @Override
+    public List<StartIdentifiedAtlasDbTransactionResponse> startIdentifiedAtlasDbTransactionBatch(
+            StartIdentifiedAtlasDbTransactionBatchRequest request) {
+        return delegate.startIdentifiedAtlasDbTransactionBatch(request);
+    }
+
     @Override
     public long getImmutableTimestamp() {
         return delegate.getImmutableTimestamp();
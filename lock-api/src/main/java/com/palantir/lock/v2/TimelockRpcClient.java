@@ -16,6 +16,7 @@
 
 package com.palantir.lock.v2;
 
+import java.util.List;
 import java.util.Set;
 
 import javax.ws.rs.Consumes;
@@ -61,6 +62,11 @@ public interface TimelockRpcClient {
     StartIdentifiedAtlasDbTransactionResponse startIdentifiedAtlasDbTransaction(
             StartIdentifiedAtlasDbTransactionRequest request);
 
+    @POST
+    @Path("start-identified-atlasdb-transaction-batch")
+    List<StartIdentifiedAtlasDbTransactionResponse> startIdentifiedAtlasDbTransactionBatch(
+            StartIdentifiedAtlasDbTransactionBatchRequest request);
+
     @POST
     @Path("immutable-timestamp")
     long getImmutableTimestamp();
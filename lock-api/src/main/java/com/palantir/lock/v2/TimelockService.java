@@ -15,7 +15,10 @@
  */
 package com.palantir.lock.v2;
 
+import java.util.List;
 import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import javax.ws.rs.QueryParam;
 
@@ -53,6 +56,22 @@ public interface TimelockService {
     StartIdentifiedAtlasDbTransactionResponse startIdentifiedAtlasDbTransaction(
             StartIdentifiedAtlasDbTransactionRequest request);
 
+    /**
+     * Starts {@link StartIdentifiedAtlasDbTransactionBatchRequest#numTransactions()} transactions for the given
+     * requestor. Implementations backed by TimeLock return responses that all share the same immutable timestamp
+     * lock; this lock is held until it is unlocked once, so callers that hand the transactions out separately must
+     * keep track of when all of them have finished with it.
+     *
+     * The default implementation starts each transaction independently, with its own immutable timestamp lock.
+     */
+    default List<StartIdentifiedAtlasDbTransactionResponse> startIdentifiedAtlasDbTransactionBatch(
+            StartIdentifiedAtlasDbTransactionBatchRequest request) {
+        return IntStream.range(0, request.numTransactions())
+                .mapToObj(unused -> startIdentifiedAtlasDbTransaction(
+                        StartIdentifiedAtlasDbTransactionRequest.createForRequestor(request.requestorId())))
+                .collect(Collectors.toList());
+    }
+
     long getImmutableTimestamp();
 
     LockResponse lock(LockRequest request);
@@ -0,0 +1,173 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.lock.client;
+
+import static java.util.stream.Collectors.toList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.immutables.value.Value;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.SettableFuture;
+import com.palantir.atlasdb.autobatch.BatchElement;
+import com.palantir.lock.v2.LockImmutableTimestampResponse;
+import com.palantir.lock.v2.LockToken;
+import com.palantir.lock.v2.StartIdentifiedAtlasDbTransactionBatchRequest;
+import com.palantir.lock.v2.StartIdentifiedAtlasDbTransactionRequest;
+import com.palantir.lock.v2.StartIdentifiedAtlasDbTransactionResponse;
+import com.palantir.lock.v2.TimelockService;
+import com.palantir.lock.v2.TimestampAndPartition;
+
+public class BatchingTransactionStarterTest {
+    private static final UUID REQUESTOR_1 = UUID.randomUUID();
+    private static final UUID REQUESTOR_2 = UUID.randomUUID();
+    private static final long IMMUTABLE_TIMESTAMP = 5L;
+
+    private final TimelockService timelockService = mock(TimelockService.class);
+    private final LockRefresher lockRefresher = mock(LockRefresher.class);
+    private final AtomicLong timestamps = new AtomicLong(10L);
+
+    @Test
+    public void startsAllTransactionsForARequestorInOneCall() {
+        when(timelockService.startIdentifiedAtlasDbTransactionBatch(any())).then(
+                invocation -> sharedLockResponses(invocation.getArgument(0)));
+
+        List<StartIdentifiedAtlasDbTransactionResponse> responses = startTransactions(REQUESTOR_1, REQUESTOR_1);
+
+        ArgumentCaptor<StartIdentifiedAtlasDbTransactionBatchRequest> captor =
+                ArgumentCaptor.forClass(StartIdentifiedAtlasDbTransactionBatchRequest.class);
+        verify(timelockService).startIdentifiedAtlasDbTransactionBatch(captor.capture());
+        assertThat(captor.getValue().requestorId()).isEqualTo(REQUESTOR_1);
+        assertThat(captor.getValue().numTransactions()).isEqualTo(2);
+        assertThat(responses.stream().map(response -> response.startTimestampAndPartition().timestamp()))
+                .containsExactly(10L, 11L);
+    }
+
+    @Test
+    public void makesOneCallPerRequestor() {
+        when(timelockService.startIdentifiedAtlasDbTransactionBatch(any())).then(
+                invocation -> sharedLockResponses(invocation.getArgument(0)));
+
+        startTransactions(REQUESTOR_1, REQUESTOR_2, REQUESTOR_1);
+
+        ArgumentCaptor<StartIdentifiedAtlasDbTransactionBatchRequest> captor =
+                ArgumentCaptor.forClass(StartIdentifiedAtlasDbTransactionBatchRequest.class);
+        verify(timelockService, times(2)).startIdentifiedAtlasDbTransactionBatch(captor.capture());
+        assertThat(captor.getAllValues().stream().map(StartIdentifiedAtlasDbTransactionBatchRequest::numTransactions))
+                .containsExactlyInAnyOrder(1, 2);
+    }
+
+    @Test
+    public void givesEachTransactionAShareOfTheImmutableTimestampLockAndRefreshesTheSharedLock() {
+        when(timelockService.startIdentifiedAtlasDbTransactionBatch(any())).then(
+                invocation -> sharedLockResponses(invocation.getArgument(0)));
+
+        List<StartIdentifiedAtlasDbTransactionResponse> responses = startTransactions(REQUESTOR_1, REQUESTOR_1);
+
+        List<LockToken> locks = responses.stream()
+                .map(response -> response.immutableTimestamp().getLock())
+                .collect(toList());
+        assertThat(locks).hasSize(2).doesNotHaveDuplicates().allMatch(lock -> lock instanceof LockTokenShare);
+        LockToken sharedLock = ((LockTokenShare) locks.get(0)).sharedLockToken();
+        assertThat(((LockTokenShare) locks.get(1)).sharedLockToken()).isEqualTo(sharedLock);
+        assertThat(responses.stream().map(response -> response.immutableTimestamp().getImmutableTimestamp()))
+                .containsOnly(IMMUTABLE_TIMESTAMP);
+
+        verify(lockRefresher).registerLock(sharedLock);
+        verifyNoMoreInteractions(lockRefresher);
+    }
+
+    @Test
+    public void sharedLockIsOnlyReturnedByTheLastShareToBeReleased() {
+        List<LockToken> shares = LockTokenShare.share(LockToken.of(UUID.randomUUID()), 2);
+        LockTokenShare first = (LockTokenShare) shares.get(0);
+        LockTokenShare second = (LockTokenShare) shares.get(1);
+
+        assertThat(first.release()).isEmpty();
+        assertThat(first.release()).isEmpty();
+        assertThat(second.release()).contains(first.sharedLockToken());
+    }
+
+    @Test
+    public void failsOnlyTheRequestsOfTheRequestorWhoseCallFailed() {
+        RuntimeException failure = new RuntimeException("TimeLock is unhappy");
+        when(timelockService.startIdentifiedAtlasDbTransactionBatch(any())).then(invocation -> {
+            StartIdentifiedAtlasDbTransactionBatchRequest request = invocation.getArgument(0);
+            if (request.requestorId().equals(REQUESTOR_2)) {
+                throw failure;
+            }
+            return sharedLockResponses(request);
+        });
+
+        List<BatchElement<StartIdentifiedAtlasDbTransactionRequest, StartIdentifiedAtlasDbTransactionResponse>>
+                elements = batchElements(REQUESTOR_1, REQUESTOR_2);
+        BatchingTransactionStarter.consumer(timelockService, lockRefresher).accept(elements);
+
+        assertThat(Futures.getUnchecked(elements.get(0).result())).isNotNull();
+        assertThatThrownBy(() -> elements.get(1).result().get())
+                .isInstanceOf(ExecutionException.class)
+                .hasCause(failure);
+    }
+
+    private List<StartIdentifiedAtlasDbTransactionResponse> startTransactions(UUID... requestorIds) {
+        List<BatchElement<StartIdentifiedAtlasDbTransactionRequest, StartIdentifiedAtlasDbTransactionResponse>>
+                elements = batchElements(requestorIds);
+        BatchingTransactionStarter.consumer(timelockService, lockRefresher).accept(elements);
+        return Futures.getUnchecked(Futures.allAsList(Lists.transform(elements, BatchElement::result)));
+    }
+
+    private static List<BatchElement<StartIdentifiedAtlasDbTransactionRequest,
+            StartIdentifiedAtlasDbTransactionResponse>> batchElements(UUID... requestorIds) {
+        return Stream.of(requestorIds)
+                .map(requestorId -> ImmutableTestBatchElement.builder()
+                        .argument(StartIdentifiedAtlasDbTransactionRequest.createForRequestor(requestorId))
+                        .result(SettableFuture.create())
+                        .build())
+                .collect(toList());
+    }
+
+    private List<StartIdentifiedAtlasDbTransactionResponse> sharedLockResponses(
+            StartIdentifiedAtlasDbTransactionBatchRequest request) {
+        LockImmutableTimestampResponse immutableTimestamp =
+                LockImmutableTimestampResponse.of(IMMUTABLE_TIMESTAMP, LockToken.of(request.requestId()));
+        return IntStream.range(0, request.numTransactions())
+                .mapToObj(unused -> StartIdentifiedAtlasDbTransactionResponse.of(
+                        immutableTimestamp, TimestampAndPartition.of(timestamps.getAndIncrement(), 0)))
+                .collect(toList());
+    }
+
+    @Value.Immutable
+    interface TestBatchElement
+            extends BatchElement<StartIdentifiedAtlasDbTransactionRequest, StartIdentifiedAtlasDbTransactionResponse> {}
+}
@@ -21,6 +21,7 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -29,6 +30,7 @@ import static org.mockito.Mockito.when;
 
 import java.net.ConnectException;
 import java.net.UnknownHostException;
+import java.util.List;
 import java.util.UUID;
 
 import org.junit.Test;
@@ -45,7 +47,10 @@ import com.palantir.lock.v2.LockImmutableTimestampResponse;
 import com.palantir.lock.v2.LockRequest;
 import com.palantir.lock.v2.LockResponse;
 import com.palantir.lock.v2.LockToken;
+import com.palantir.lock.v2.StartIdentifiedAtlasDbTransactionRequest;
+import com.palantir.lock.v2.StartIdentifiedAtlasDbTransactionResponse;
 import com.palantir.lock.v2.TimelockService;
+import com.palantir.lock.v2.TimestampAndPartition;
 import com.palantir.lock.v2.WaitForLocksRequest;
 import com.palantir.timestamp.CloseableTimestampService;
 import com.palantir.timestamp.TimestampRange;
@@ -106,6 +111,43 @@ public class TimeLockClientTest {
         inOrder.verify(delegate).unlock(TOKENS);
     }
 
+    @Test
+    public void refreshesSharedLockOfUnreleasedShares() {
+        List<LockToken> shares = LockTokenShare.share(TOKEN_1, 3);
+        ((LockTokenShare) shares.get(2)).release();
+        when(delegate.refreshLockLeases(ImmutableSet.of(TOKEN_1))).thenReturn(ImmutableSet.of(TOKEN_1));
+
+        assertThat(timelock.refreshLockLeases(ImmutableSet.copyOf(shares)))
+                .containsExactlyInAnyOrder(shares.get(0), shares.get(1));
+        verify(delegate).refreshLockLeases(ImmutableSet.of(TOKEN_1));
+    }
+
+    @Test
+    public void onlyUnlocksSharedLockOnceEveryShareIsReleased() {
+        List<LockToken> shares = LockTokenShare.share(TOKEN_1, 2);
+
+        timelock.tryUnlock(ImmutableSet.of(shares.get(0)));
+        verify(unlocker, never()).enqueue(any());
+
+        timelock.tryUnlock(ImmutableSet.of(shares.get(1), TOKEN_2));
+        verify(refresher).unregisterLocks(TOKENS);
+        verify(unlocker).enqueue(TOKENS);
+    }
+
+    @Test
+    public void unlockReportsSharesReleasedByThisCall() {
+        List<LockToken> shares = LockTokenShare.share(TOKEN_1, 3);
+        ((LockTokenShare) shares.get(2)).release();
+        when(delegate.unlock(ImmutableSet.of())).thenReturn(ImmutableSet.of());
+
+        assertThat(timelock.unlock(ImmutableSet.of(shares.get(0), shares.get(2)))).containsExactly(shares.get(0));
+        verify(delegate).unlock(ImmutableSet.of());
+
+        when(delegate.unlock(ImmutableSet.of(TOKEN_1))).thenReturn(ImmutableSet.of(TOKEN_1));
+        assertThat(timelock.unlock(ImmutableSet.of(shares.get(1)))).containsExactly(shares.get(1));
+        verify(delegate).unlock(ImmutableSet.of(TOKEN_1));
+    }
+
     @Test
     public void refreshDelegates() {
         timelock.refreshLockLeases(TOKENS);
@@ -197,4 +239,19 @@ public class TimeLockClientTest {
             verify(timelock, times(1)).unlock(ImmutableSet.of(LockToken.of(uuid)));
         }
     }
+
+    @Test
+    public void defaultClientStartsTransactionsIndividuallyUnlessBatchingIsEnabled() {
+        StartIdentifiedAtlasDbTransactionRequest request =
+                StartIdentifiedAtlasDbTransactionRequest.createForRequestor(UUID.randomUUID());
+        StartIdentifiedAtlasDbTransactionResponse response = StartIdentifiedAtlasDbTransactionResponse.of(
+                LockImmutableTimestampResponse.of(1L, TOKEN_1), TimestampAndPartition.of(2L, 0));
+        when(delegate.startIdentifiedAtlasDbTransaction(request)).thenReturn(response);
+
+        try (TimeLockClient client = TimeLockClient.createDefault(delegate)) {
+            assertThat(client.startIdentifiedAtlasDbTransaction(request)).isEqualTo(response);
+        }
+        verify(delegate).startIdentifiedAtlasDbTransaction(request);
+        verify(delegate, never()).startIdentifiedAtlasDbTransactionBatch(any());
+    }
 }
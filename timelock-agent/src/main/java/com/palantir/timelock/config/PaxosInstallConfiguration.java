@@ -44,6 +44,17 @@ public interface PaxosInstallConfiguration {
     @JsonProperty("is-new-service")
     boolean isNewService();
 
+    /**
+     * If true, paxos logs are stored in a small number of memory-mapped segment files instead of one file per round.
+     * Existing logs are migrated the first time they are opened in this format, after which this option cannot be
+     * turned off again.
+     */
+    @JsonProperty("use-segmented-state-log")
+    @Value.Default
+    default boolean useSegmentedStateLog() {
+        return false;
+    }
+
     @Value.Check
     default void check() {
         if (isNewService() && dataDirectory().isDirectory()) {
@@ -15,6 +15,8 @@
  */
 package com.palantir.timelock.config;
 
+import java.util.Optional;
+
 import org.immutables.value.Value;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
@@ -50,6 +52,14 @@ public interface PaxosRuntimeConfiguration {
         return true;
     }
 
+    /**
+     * If present, the timestamp bound is extended in the background once this fraction of the headroom left by the
+     * last extension has been handed out, instead of only when a request reaches the bound. Must be strictly between
+     * 0 and 1. Only applies to timestamp services created after it is set.
+     */
+    @JsonProperty("proactive-timestamp-bound-extension-threshold")
+    Optional<Double> proactiveTimestampBoundExtensionThreshold();
+
     @Value.Check
     default void check() {
         Preconditions.checkArgument(pingRateMs() > 0,
@@ -58,5 +68,9 @@ public interface PaxosRuntimeConfiguration {
                 "Maximum wait before proposal must be positive; found '%s'.", maximumWaitBeforeProposalMs());
         Preconditions.checkArgument(leaderPingResponseWaitMs() > 0,
                 "Leader ping response wait interval must be positive; found '%s'.", leaderPingResponseWaitMs());
+        proactiveTimestampBoundExtensionThreshold().ifPresent(threshold -> Preconditions.checkArgument(
+                threshold > 0.0 && threshold < 1.0,
+                "Proactive timestamp bound extension threshold must be strictly between 0 and 1; found '%s'.",
+                threshold));
     }
 }
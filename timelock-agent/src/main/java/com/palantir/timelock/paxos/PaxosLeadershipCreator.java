@@ -109,6 +109,7 @@ public class PaxosLeadershipCreator {
                 .learnerLogDir(Paths.get(install.paxos().dataDirectory().toString(),
                         PaxosTimeLockConstants.LEADER_PAXOS_NAMESPACE,
                         PaxosTimeLockConstants.LEARNER_SUBDIRECTORY_PATH).toFile())
+                .useSegmentedPaxosStateLog(install.paxos().useSegmentedStateLog())
                 .pingRateMs(paxosRuntimeConfiguration.pingRateMs())
                 .quorumSize(PaxosRemotingUtils.getQuorumSize(PaxosRemotingUtils.getClusterAddresses(install)))
                 .leaderPingResponseWaitMs(paxosRuntimeConfiguration.pingRateMs())
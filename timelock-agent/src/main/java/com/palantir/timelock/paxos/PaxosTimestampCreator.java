@@ -117,7 +117,11 @@ public class PaxosTimestampCreator implements TimestampCreator {
                         ImmutableList.copyOf(learners),
                         paxosRuntime.get().maximumWaitBeforeProposalMs()),
                 client);
-        PersistentTimestampService persistentTimestampService = PersistentTimestampServiceImpl.create(boundStore);
+        PersistentTimestampService persistentTimestampService = paxosRuntime.get()
+                .proactiveTimestampBoundExtensionThreshold()
+                .map(threshold -> PersistentTimestampServiceImpl.createWithProactiveBoundExtension(
+                        boundStore, threshold))
+                .orElseGet(() -> PersistentTimestampServiceImpl.create(boundStore));
         return new DelegatingManagedTimestampService(persistentTimestampService, persistentTimestampService);
     }
 
@@ -81,7 +81,8 @@ public class TimeLockAgent {
         this.registrar = registrar;
 
         this.paxosResource = PaxosResource.create(metricsManager.getRegistry(),
-                install.paxos().dataDirectory().toString());
+                install.paxos().dataDirectory().toString(),
+                install.paxos().useSegmentedStateLog());
         this.leadershipCreator = new PaxosLeadershipCreator(this.metricsManager, install, runtime, registrar);
         this.lockCreator = new LockCreator(runtime, deprecated);
         this.timestampCreator = getTimestampCreator(metricsManager.getRegistry());
@@ -16,6 +16,7 @@
 package com.palantir.atlasdb.timelock;
 
 import java.io.Closeable;
+import java.util.List;
 import java.util.Set;
 
 import com.palantir.atlasdb.timelock.lock.AsyncResult;
@@ -25,6 +26,7 @@ import com.palantir.lock.v2.LockImmutableTimestampResponse;
 import com.palantir.lock.v2.LockRequest;
 import com.palantir.lock.v2.LockToken;
 import com.palantir.lock.v2.StartAtlasDbTransactionResponse;
+import com.palantir.lock.v2.StartIdentifiedAtlasDbTransactionBatchRequest;
 import com.palantir.lock.v2.StartIdentifiedAtlasDbTransactionRequest;
 import com.palantir.lock.v2.StartIdentifiedAtlasDbTransactionResponse;
 import com.palantir.lock.v2.WaitForLocksRequest;
@@ -50,4 +52,7 @@ public interface AsyncTimelockService extends ClientAwareManagedTimestampService
     StartIdentifiedAtlasDbTransactionResponse startIdentifiedAtlasDbTransaction(
             StartIdentifiedAtlasDbTransactionRequest request);
 
+    List<StartIdentifiedAtlasDbTransactionResponse> startIdentifiedAtlasDbTransactionBatch(
+            StartIdentifiedAtlasDbTransactionBatchRequest request);
+
 }
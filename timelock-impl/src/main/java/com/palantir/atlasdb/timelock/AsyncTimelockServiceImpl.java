@@ -16,8 +16,10 @@
 package com.palantir.atlasdb.timelock;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 import com.palantir.atlasdb.timelock.lock.AsyncLockService;
 import com.palantir.atlasdb.timelock.lock.AsyncResult;
@@ -31,6 +33,7 @@ import com.palantir.lock.v2.LockImmutableTimestampResponse;
 import com.palantir.lock.v2.LockRequest;
 import com.palantir.lock.v2.LockToken;
 import com.palantir.lock.v2.StartAtlasDbTransactionResponse;
+import com.palantir.lock.v2.StartIdentifiedAtlasDbTransactionBatchRequest;
 import com.palantir.lock.v2.StartIdentifiedAtlasDbTransactionRequest;
 import com.palantir.lock.v2.StartIdentifiedAtlasDbTransactionResponse;
 import com.palantir.lock.v2.TimestampAndPartition;
@@ -69,6 +72,11 @@ public class AsyncTimelockServiceImpl implements AsyncTimelockService {
         return timestampService.getFreshTimestampForClient(clientIdentifier);
     }
 
+    @Override
+    public List<TimestampAndPartition> getFreshTimestampsForClient(UUID clientIdentifier, int numTimestamps) {
+        return timestampService.getFreshTimestampsForClient(clientIdentifier, numTimestamps);
+    }
+
     @Override
     public LockImmutableTimestampResponse lockImmutableTimestamp(IdentifiedTimeLockRequest request) {
         long timestamp = timestampService.getFreshTimestamp();
@@ -127,6 +135,18 @@ public class AsyncTimelockServiceImpl implements AsyncTimelockService {
                 getFreshTimestampForClient(request.requestorId()));
     }
 
+    @Override
+    public List<StartIdentifiedAtlasDbTransactionResponse> startIdentifiedAtlasDbTransactionBatch(
+            StartIdentifiedAtlasDbTransactionBatchRequest request) {
+        // The immutable timestamp is locked before any start timestamps are issued, so it is a valid immutable
+        // timestamp for every transaction in the batch.
+        LockImmutableTimestampResponse immutableTimestamp =
+                lockImmutableTimestamp(ImmutableIdentifiedTimeLockRequest.of(request.requestId()));
+        return getFreshTimestampsForClient(request.requestorId(), request.numTransactions()).stream()
+                .map(timestamp -> StartIdentifiedAtlasDbTransactionResponse.of(immutableTimestamp, timestamp))
+                .collect(Collectors.toList());
+    }
+
     @Override
     public long currentTimeMillis() {
         return System.currentTimeMillis();
@@ -31,4 +31,12 @@ public interface AsyncLock {
 
     LockDescriptor getDescriptor();
 
+    /**
+     * Called once by each request that obtained this lock from a {@link LockCollection}, when it will no longer lock,
+     * unlock or wait for this lock. For a successful lock request, this is after the lock has been unlocked.
+     */
+    default void release() {
+        // most locks are not reference counted
+    }
+
 }
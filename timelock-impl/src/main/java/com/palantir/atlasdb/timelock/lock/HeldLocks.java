@@ -80,10 +80,17 @@ public class HeldLocks {
         for (AsyncLock lock : acquiredLocks) {
             lock.unlock(token.getRequestId());
         }
+        for (AsyncLock lock : acquiredLocks) {
+            lock.release();
+        }
 
         return true;
     }
 
+    public NanoTime getExpiry() {
+        return expirationTimer.expiry();
+    }
+
     public LockToken getToken() {
         return token;
     }
@@ -15,9 +15,10 @@
  */
 package com.palantir.atlasdb.timelock.lock;
 
-import java.util.Iterator;
+import java.util.Queue;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentMap;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
@@ -25,6 +26,7 @@ import java.util.function.Supplier;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
+import com.palantir.common.time.NanoTime;
 import com.palantir.leader.NotCurrentLeaderException;
 import com.palantir.lock.v2.LockToken;
 
@@ -33,16 +35,34 @@ public class HeldLocksCollection {
     @VisibleForTesting
     final ConcurrentMap<UUID, AsyncResult<HeldLocks>> heldLocksById = Maps.newConcurrentMap();
 
+    private final LeaseExpiryWheel expiryWheel;
+    private final Queue<UUID> unsuccessfulRequests = new ConcurrentLinkedQueue<>();
+
+    public HeldLocksCollection() {
+        this(NanoTime::now);
+    }
+
+    @VisibleForTesting
+    HeldLocksCollection(Supplier<NanoTime> clock) {
+        this.expiryWheel = new LeaseExpiryWheel(clock);
+    }
+
     public AsyncResult<LockToken> getExistingOrAcquire(
             UUID requestId,
             Supplier<AsyncResult<HeldLocks>> lockAcquirer) {
         AsyncResult<HeldLocks> locksFuture = heldLocksById.computeIfAbsent(
-                requestId, ignored -> lockAcquirer.get());
+                requestId, ignored -> registerCompletionHandler(requestId, lockAcquirer.get()));
         return locksFuture.map(HeldLocks::getToken);
     }
 
     public Set<LockToken> unlock(Set<LockToken> tokens) {
-        Set<LockToken> unlocked = filter(tokens, HeldLocks::unlock);
+        Set<LockToken> unlocked = filter(tokens, heldLocks -> {
+            if (!heldLocks.unlock()) {
+                return false;
+            }
+            expiryWheel.remove(heldLocks);
+            return true;
+        });
         for (LockToken token : unlocked) {
             heldLocksById.remove(token.getRequestId());
         }
@@ -50,17 +70,26 @@ public class HeldLocksCollection {
     }
 
     public Set<LockToken> refresh(Set<LockToken> tokens) {
-        return filter(tokens, HeldLocks::refresh);
+        return filter(tokens, heldLocks -> {
+            NanoTime previousExpiry = heldLocks.getExpiry();
+            if (!heldLocks.refresh()) {
+                return false;
+            }
+            expiryWheel.reschedule(heldLocks, previousExpiry);
+            return true;
+        });
     }
 
+    /**
+     * Removes requests that failed or timed out, and unlocks and removes requests whose leases have expired. This
+     * only visits locks whose leases have expired since the last call, not every held lock.
+     */
     public void removeExpired() {
-        Iterator<AsyncResult<HeldLocks>> iterator = heldLocksById.values().iterator();
-        while (iterator.hasNext()) {
-            AsyncResult<HeldLocks> lockResult = iterator.next();
-            if (shouldRemove(lockResult)) {
-                iterator.remove();
-            }
+        UUID unsuccessfulRequest;
+        while ((unsuccessfulRequest = unsuccessfulRequests.poll()) != null) {
+            heldLocksById.remove(unsuccessfulRequest);
         }
+        expiryWheel.expire(heldLocks -> heldLocksById.remove(heldLocks.getRequestId()));
     }
 
     public void failAllOutstandingRequestsWithNotCurrentLeaderException() {
@@ -68,10 +97,17 @@ public class HeldLocksCollection {
         heldLocksById.values().forEach(result -> result.failIfNotCompleted(ex));
     }
 
-    private boolean shouldRemove(AsyncResult<HeldLocks> lockResult) {
-        return lockResult.isFailed()
-                || lockResult.isTimedOut()
-                || lockResult.test(HeldLocks::unlockIfExpired);
+    private AsyncResult<HeldLocks> registerCompletionHandler(UUID requestId, AsyncResult<HeldLocks> result) {
+        // This may run synchronously inside #computeIfAbsent, or on a thread that holds the monitor of an AsyncLock,
+        // so it must not modify heldLocksById.
+        result.onComplete(() -> {
+            if (result.isCompletedSuccessfully()) {
+                expiryWheel.schedule(result.get());
+            } else {
+                unsuccessfulRequests.add(requestId);
+            }
+        });
+        return result;
     }
 
     private Set<LockToken> filter(Set<LockToken> tokens, Predicate<HeldLocks> predicate) {
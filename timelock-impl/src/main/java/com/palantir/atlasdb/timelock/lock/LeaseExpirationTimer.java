@@ -41,7 +41,7 @@ public class LeaseExpirationTimer {
         return expiry().isBefore(clock.get());
     }
 
-    private NanoTime expiry() {
+    public NanoTime expiry() {
         return lastRefreshTime.plus(LEASE_TIMEOUT);
     }
 }
@@ -0,0 +1,132 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.timelock.lock;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import com.palantir.common.time.NanoTime;
+
+/**
+ * A timing wheel of held locks, bucketed by the time at which their leases expire, so that expired locks can be found
+ * without scanning every held lock.
+ * <p>
+ * Each slot of the wheel covers one tick of time. Because every lease expires within
+ * {@link LeaseExpirationTimer#LEASE_TIMEOUT} of being acquired or refreshed, a single wheel spanning slightly more
+ * than the lease timeout is enough: slots are reused once per rotation, and there is no need for the overflow levels
+ * of a hierarchical wheel. Scheduling, rescheduling after a refresh, and removal are all constant time, and
+ * {@link #expire} only visits the locks in slots whose time has passed.
+ */
+final class LeaseExpiryWheel {
+    private static final Duration TICK = Duration.ofSeconds(1);
+
+    private final Supplier<NanoTime> clock;
+    private final NanoTime epoch;
+    private final long tickNanos;
+    private final Set<HeldLocks>[] slots;
+
+    // Only advanced by #expire; read without synchronization when scheduling
+    private volatile long nextTickToExpire;
+
+    LeaseExpiryWheel(Supplier<NanoTime> clock) {
+        this(clock, TICK, LeaseExpirationTimer.LEASE_TIMEOUT);
+    }
+
+    @SuppressWarnings("unchecked")
+    LeaseExpiryWheel(Supplier<NanoTime> clock, Duration tick, Duration leaseTimeout) {
+        this.clock = clock;
+        this.epoch = clock.get();
+        this.tickNanos = tick.toNanos();
+        // One slot for each whole tick in a lease, plus one for a partial tick at either end
+        int numSlots = (int) (leaseTimeout.toNanos() / tickNanos) + 2;
+        this.slots = new Set[numSlots];
+        for (int i = 0; i < numSlots; i++) {
+            slots[i] = ConcurrentHashMap.newKeySet();
+        }
+        this.nextTickToExpire = tickOf(epoch);
+    }
+
+    void schedule(HeldLocks heldLocks) {
+        slotFor(heldLocks.getExpiry()).add(heldLocks);
+    }
+
+    /**
+     * Moves locks whose lease was just refreshed, and previously expired at {@code previousExpiry}, to the slot for
+     * their new expiry.
+     */
+    void reschedule(HeldLocks heldLocks, NanoTime previousExpiry) {
+        Set<HeldLocks> previousSlot = slotFor(previousExpiry);
+        Set<HeldLocks> newSlot = slotFor(heldLocks.getExpiry());
+        if (previousSlot != newSlot) {
+            newSlot.add(heldLocks);
+            previousSlot.remove(heldLocks);
+        }
+    }
+
+    void remove(HeldLocks heldLocks) {
+        slotFor(heldLocks.getExpiry()).remove(heldLocks);
+    }
+
+    /**
+     * Unlocks the held locks in every slot whose time has fully passed, and passes each of them to
+     * {@code expiredLocksConsumer}.
+     */
+    synchronized void expire(Consumer<HeldLocks> expiredLocksConsumer) {
+        long currentTick = tickOf(clock.get());
+        // If we have fallen behind by more than a rotation, every slot still only needs to be visited once.
+        long ticksToExpire = Math.min(currentTick - nextTickToExpire, slots.length);
+        for (long tick = nextTickToExpire; tick < nextTickToExpire + ticksToExpire; tick++) {
+            expireSlot(slots[slotIndex(tick)], expiredLocksConsumer);
+        }
+        nextTickToExpire = Math.max(nextTickToExpire, currentTick);
+    }
+
+    private void expireSlot(Set<HeldLocks> slot, Consumer<HeldLocks> expiredLocksConsumer) {
+        Iterator<HeldLocks> iterator = slot.iterator();
+        while (iterator.hasNext()) {
+            HeldLocks heldLocks = iterator.next();
+            if (heldLocks.unlockIfExpired()) {
+                iterator.remove();
+                expiredLocksConsumer.accept(heldLocks);
+            } else {
+                // Either this lease was refreshed concurrently, or it expires on a later rotation of the wheel.
+                // Concurrent refreshes of the same lease can leave a stale copy behind, which we clean up here.
+                Set<HeldLocks> currentSlot = slotFor(heldLocks.getExpiry());
+                if (currentSlot != slot) {
+                    currentSlot.add(heldLocks);
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
+    private Set<HeldLocks> slotFor(NanoTime expiry) {
+        // Leases that have already expired go in the next slot to be expired, rather than one already visited.
+        return slots[slotIndex(Math.max(tickOf(expiry), nextTickToExpire))];
+    }
+
+    private long tickOf(NanoTime time) {
+        return Math.floorDiv(time.nanosSince(epoch), tickNanos);
+    }
+
+    private int slotIndex(long tick) {
+        return (int) Math.floorMod(tick, (long) slots.length);
+    }
+}
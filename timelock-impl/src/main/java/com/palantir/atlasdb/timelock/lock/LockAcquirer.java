@@ -40,12 +40,13 @@ public class LockAcquirer {
     }
 
     public AsyncResult<HeldLocks> acquireLocks(UUID requestId, OrderedLocks locks, TimeLimit timeout) {
-        return new Acquisition(requestId, locks, timeout, lock -> lock.lock(requestId)).execute()
+        // On success, the locks are released when the returned HeldLocks is unlocked.
+        return new Acquisition(requestId, locks, timeout, lock -> lock.lock(requestId), false).execute()
                 .map(ignored -> new HeldLocks(lockLog, locks.get(), requestId));
     }
 
     public AsyncResult<Void> waitForLocks(UUID requestId, OrderedLocks locks, TimeLimit timeout) {
-        return new Acquisition(requestId, locks, timeout, lock -> lock.waitUntilAvailable(requestId))
+        return new Acquisition(requestId, locks, timeout, lock -> lock.waitUntilAvailable(requestId), true)
                 .execute();
     }
 
@@ -54,6 +55,7 @@ public class LockAcquirer {
         private final OrderedLocks locks;
         private final TimeLimit timeout;
         private final Function<AsyncLock, AsyncResult<Void>> lockFunction;
+        private final boolean releaseOnSuccess;
 
         private AsyncResult<Void> result;
 
@@ -61,11 +63,13 @@ public class LockAcquirer {
                 UUID requestId,
                 OrderedLocks locks,
                 TimeLimit timeout,
-                Function<AsyncLock, AsyncResult<Void>> lockFunction) {
+                Function<AsyncLock, AsyncResult<Void>> lockFunction,
+                boolean releaseOnSuccess) {
             this.requestId = requestId;
             this.locks = locks;
             this.timeout = timeout;
             this.lockFunction = lockFunction;
+            this.releaseOnSuccess = releaseOnSuccess;
         }
 
         public AsyncResult<Void> execute() {
@@ -99,6 +103,13 @@ public class LockAcquirer {
                 log.info("Lock request timed out", SafeArg.of("requestId", requestId));
                 unlockAll();
             });
+            if (releaseOnSuccess) {
+                result.onComplete(() -> {
+                    if (result.isCompletedSuccessfully()) {
+                        releaseAll();
+                    }
+                });
+            }
         }
 
         private void unlockAll() {
@@ -109,6 +120,17 @@ public class LockAcquirer {
             } catch (Throwable t) {
                 log.error("Error while unlocking locks", SafeArg.of("requestId", requestId), t);
             }
+            releaseAll();
+        }
+
+        private void releaseAll() {
+            try {
+                for (AsyncLock lock : locks.get()) {
+                    lock.release();
+                }
+            } catch (Throwable t) {
+                log.error("Error while releasing locks", SafeArg.of("requestId", requestId), t);
+            }
         }
 
         private void scheduleTimeout() {
@@ -15,50 +15,102 @@
  */
 package com.palantir.atlasdb.timelock.lock;
 
-
-import java.util.Comparator;
-import java.util.List;
+import java.util.Arrays;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
-import com.google.common.collect.Lists;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
 import com.palantir.lock.LockDescriptor;
 
+/**
+ * The table of locks known to the lock service, keyed by descriptor.
+ * <p>
+ * A lock stays in the table for as long as some request that obtained it from {@link #getAll} is still using it; each
+ * such request must eventually call {@link AsyncLock#release()} on each lock it was given. Once the last reference to
+ * a lock is released, it is removed from the table, and a later request for the same descriptor creates a new lock.
+ */
 public class LockCollection {
 
-    private final LoadingCache<LockDescriptor, ExclusiveLock> locksById;
-
-    public LockCollection() {
-        locksById = CacheBuilder.newBuilder()
-                .weakValues()
-                .build(new CacheLoader<LockDescriptor, ExclusiveLock>() {
-                    @Override
-                    public ExclusiveLock load(LockDescriptor descriptor) throws Exception {
-                        return new ExclusiveLock(descriptor);
-                    }
-                });
-    }
+    private final ConcurrentMap<LockDescriptor, RefCountedLock> locksById = new ConcurrentHashMap<>();
 
     public OrderedLocks getAll(Set<LockDescriptor> descriptors) {
-        List<LockDescriptor> orderedDescriptors = sort(descriptors);
+        if (descriptors.size() == 1) {
+            return OrderedLocks.fromSingleLock(getAndRetain(descriptors.iterator().next()));
+        }
+
+        LockDescriptor[] orderedDescriptors = descriptors.toArray(new LockDescriptor[0]);
+        Arrays.sort(orderedDescriptors);
 
-        List<AsyncLock> locks = Lists.newArrayListWithExpectedSize(descriptors.size());
+        ImmutableList.Builder<AsyncLock> locks = ImmutableList.builder();
         for (LockDescriptor descriptor : orderedDescriptors) {
-            locks.add(getLock(descriptor));
+            locks.add(getAndRetain(descriptor));
+        }
+        return OrderedLocks.fromOrderedList(locks.build());
+    }
+
+    @VisibleForTesting
+    int size() {
+        return locksById.size();
+    }
+
+    private AsyncLock getAndRetain(LockDescriptor descriptor) {
+        while (true) {
+            RefCountedLock lock = locksById.computeIfAbsent(descriptor, this::newLock);
+            if (lock.tryRetain()) {
+                return lock;
+            }
+            // The last reference to this lock was released concurrently, and it is being removed from the table.
+            locksById.remove(descriptor, lock);
         }
-        return OrderedLocks.fromOrderedList(locks);
     }
 
-    private List<LockDescriptor> sort(Set<LockDescriptor> descriptors) {
-        List<LockDescriptor> orderedDescriptors = Lists.newArrayList(descriptors);
-        orderedDescriptors.sort(Comparator.naturalOrder());
-        return orderedDescriptors;
+    private RefCountedLock newLock(LockDescriptor descriptor) {
+        return new RefCountedLock(descriptor, this);
     }
 
-    private AsyncLock getLock(LockDescriptor descriptor) {
-        return locksById.getUnchecked(descriptor);
+    private void remove(RefCountedLock lock) {
+        locksById.remove(lock.getDescriptor(), lock);
+    }
+
+    /**
+     * An {@link ExclusiveLock} that counts the requests using it. A lock whose count has dropped to zero is retired
+     * and can never be retained again, so two requests can never be given different locks for the same descriptor.
+     */
+    private static final class RefCountedLock extends ExclusiveLock {
+        private static final int RETIRED = -1;
+        private static final AtomicIntegerFieldUpdater<RefCountedLock> REFERENCES_UPDATER =
+                AtomicIntegerFieldUpdater.newUpdater(RefCountedLock.class, "references");
+
+        private final LockCollection owner;
+
+        private volatile int references = 0;
+
+        RefCountedLock(LockDescriptor descriptor, LockCollection owner) {
+            super(descriptor);
+            this.owner = owner;
+        }
+
+        boolean tryRetain() {
+            while (true) {
+                int current = references;
+                if (current == RETIRED) {
+                    return false;
+                }
+                if (REFERENCES_UPDATER.compareAndSet(this, current, current + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        @Override
+        public void release() {
+            if (REFERENCES_UPDATER.decrementAndGet(this) == 0 && REFERENCES_UPDATER.compareAndSet(this, 0, RETIRED)) {
+                owner.remove(this);
+            }
+        }
     }
 
 }
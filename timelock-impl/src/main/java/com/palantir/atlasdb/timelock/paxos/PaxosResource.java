@@ -26,10 +26,16 @@ import org.immutables.value.Value;
 import com.codahale.metrics.MetricRegistry;
 import com.google.common.collect.Maps;
 import com.palantir.atlasdb.util.AtlasDbMetrics;
+import com.palantir.common.persist.Persistable;
+import com.palantir.leader.PaxosKnowledgeEventRecorder;
 import com.palantir.paxos.PaxosAcceptor;
 import com.palantir.paxos.PaxosAcceptorImpl;
 import com.palantir.paxos.PaxosLearner;
 import com.palantir.paxos.PaxosLearnerImpl;
+import com.palantir.paxos.PaxosStateLog;
+import com.palantir.paxos.PaxosStateLogImpl;
+import com.palantir.paxos.SegmentedPaxosStateLog;
+import com.palantir.paxos.Versionable;
 
 @Path("/" + PaxosTimeLockConstants.INTERNAL_NAMESPACE
         + "/" + PaxosTimeLockConstants.CLIENT_PAXOS_NAMESPACE
@@ -37,15 +43,24 @@ import com.palantir.paxos.PaxosLearnerImpl;
 public final class PaxosResource {
     private final MetricRegistry metricRegistry;
     private final String logDirectory;
+    private final boolean useSegmentedStateLog;
     private final Map<String, PaxosComponents> paxosComponentsByClient = Maps.newConcurrentMap();
 
-    private PaxosResource(MetricRegistry metricRegistry, String logDirectory) {
+    private PaxosResource(MetricRegistry metricRegistry, String logDirectory, boolean useSegmentedStateLog) {
         this.metricRegistry = metricRegistry;
         this.logDirectory = logDirectory;
+        this.useSegmentedStateLog = useSegmentedStateLog;
     }
 
     public static PaxosResource create(MetricRegistry metricRegistry, String logDirectory) {
-        return new PaxosResource(metricRegistry, logDirectory);
+        return create(metricRegistry, logDirectory, false);
+    }
+
+    public static PaxosResource create(
+            MetricRegistry metricRegistry,
+            String logDirectory,
+            boolean useSegmentedStateLog) {
+        return new PaxosResource(metricRegistry, logDirectory, useSegmentedStateLog);
     }
 
     public PaxosComponents createInstrumentedComponents(String client) {
@@ -54,7 +69,7 @@ public final class PaxosResource {
         PaxosLearner learner = instrument(
                 metricRegistry,
                 PaxosLearner.class,
-                PaxosLearnerImpl.newLearner(learnerLogDir),
+                PaxosLearnerImpl.newLearner(createStateLog(learnerLogDir), PaxosKnowledgeEventRecorder.NO_OP),
                 client);
 
         String acceptorLogDir = Paths.get(logDirectory, client, PaxosTimeLockConstants.ACCEPTOR_SUBDIRECTORY_PATH)
@@ -62,7 +77,7 @@ public final class PaxosResource {
         PaxosAcceptor acceptor = instrument(
                 metricRegistry,
                 PaxosAcceptor.class,
-                PaxosAcceptorImpl.newAcceptor(acceptorLogDir),
+                PaxosAcceptorImpl.newAcceptor(createStateLog(acceptorLogDir)),
                 client);
 
         return ImmutablePaxosComponents.builder()
@@ -71,6 +86,13 @@ public final class PaxosResource {
                 .build();
     }
 
+    private <V extends Persistable & Versionable> PaxosStateLog<V> createStateLog(String logDir) {
+        if (useSegmentedStateLog) {
+            return SegmentedPaxosStateLog.create(logDir);
+        }
+        return new PaxosStateLogImpl<>(logDir);
+    }
+
     private static <T> T instrument(MetricRegistry metricRegistry, Class<T> serviceClass, T service, String client) {
         // TODO(nziebart): tag with the client name, when tritium supports it
         return AtlasDbMetrics.instrument(metricRegistry, serviceClass, service, MetricRegistry.name(serviceClass));
@@ -16,6 +16,7 @@
 
 package com.palantir.atlasdb.timelock.transaction.timestamp;
 
+import java.util.List;
 import java.util.UUID;
 
 import com.palantir.atlasdb.timelock.paxos.ManagedTimestampService;
@@ -38,4 +39,15 @@ public interface ClientAwareManagedTimestampService extends ManagedTimestampServ
      * @return a suitable timestamp
      */
     TimestampAndPartition getFreshTimestampForClient(UUID clientIdentifier);
+
+    /**
+     * Returns the given number of fresh timestamps, in increasing order, that are suitable for use by the client with
+     * the provided identifier. Each timestamp returned satisfies the same freshness guarantee as
+     * {@link #getFreshTimestampForClient(UUID)}.
+     *
+     * @param clientIdentifier UUID identifying the client; should be consistent across the client's lifetime
+     * @param numTimestamps number of timestamps required; must be positive
+     * @return suitable timestamps
+     */
+    List<TimestampAndPartition> getFreshTimestampsForClient(UUID clientIdentifier, int numTimestamps);
 }
@@ -16,6 +16,8 @@
 
 package com.palantir.atlasdb.timelock.transaction.timestamp;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.OptionalLong;
 import java.util.UUID;
 
@@ -23,6 +25,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
 import com.palantir.atlasdb.timelock.paxos.AutoDelegate_ManagedTimestampService;
 import com.palantir.atlasdb.timelock.paxos.ManagedTimestampService;
 import com.palantir.atlasdb.timelock.transaction.client.CachingPartitionAllocator;
@@ -80,6 +83,34 @@ public class DelegatingClientAwareManagedTimestampService
         }
     }
 
+    @Override
+    public List<TimestampAndPartition> getFreshTimestampsForClient(UUID clientIdentifier, int numTimestamps) {
+        Preconditions.checkArgument(numTimestamps > 0,
+                "Must request a positive number of timestamps, but requested %s", numTimestamps);
+        List<TimestampAndPartition> timestamps = new ArrayList<>(numTimestamps);
+        while (timestamps.size() < numTimestamps) {
+            int remaining = numTimestamps - timestamps.size();
+            TimestampRange timestampRange = delegate.getFreshTimestamps(
+                    (int) Math.min((long) remaining * NUM_PARTITIONS, Integer.MAX_VALUE));
+            int targetResidue = allocator.getRelevantModuli(clientIdentifier).iterator().next();
+            OptionalLong firstRelevantTimestamp = TimestampRanges.getTimestampMatchingModulus(
+                    timestampRange,
+                    targetResidue,
+                    NUM_PARTITIONS);
+            if (!firstRelevantTimestamp.isPresent()) {
+                continue;
+            }
+
+            // Every NUM_PARTITIONS-th timestamp from the first match has the same residue.
+            for (long timestamp = firstRelevantTimestamp.getAsLong();
+                    timestamp <= timestampRange.getUpperBound() && timestamps.size() < numTimestamps;
+                    timestamp += NUM_PARTITIONS) {
+                timestamps.add(TimestampAndPartition.of(timestamp, targetResidue));
+            }
+        }
+        return timestamps;
+    }
+
     @Override
     public ManagedTimestampService delegate() {
         return delegate;
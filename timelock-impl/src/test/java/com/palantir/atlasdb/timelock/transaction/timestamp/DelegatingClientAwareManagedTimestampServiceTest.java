@@ -116,4 +116,35 @@ public class DelegatingClientAwareManagedTimestampServiceTest {
         verify(timestamps, times(3)).getFreshTimestamps(anyInt());
 
     }
+
+    @Test
+    public void getsMultipleTimestampsForClientFromOneRange() {
+        int numPartitions = DelegatingClientAwareManagedTimestampService.NUM_PARTITIONS;
+        when(allocator.getRelevantModuli(UUID_ONE)).thenReturn(RESIDUE_ONE);
+        when(timestamps.getFreshTimestamps(anyInt()))
+                .thenReturn(TimestampRange.createInclusiveRange(numPartitions, 4 * numPartitions - 1));
+
+        assertThat(service.getFreshTimestampsForClient(UUID_ONE, 3)).containsExactly(
+                TimestampAndPartition.of(numPartitions + 1, 1),
+                TimestampAndPartition.of(2 * numPartitions + 1, 1),
+                TimestampAndPartition.of(3 * numPartitions + 1, 1));
+
+        verify(allocator).getRelevantModuli(UUID_ONE);
+        verify(timestamps).getFreshTimestamps(3 * numPartitions);
+    }
+
+    @Test
+    public void requestsMoreTimestampsIfRangeDoesNotContainEnoughForClient() {
+        when(allocator.getRelevantModuli(UUID_TWO)).thenReturn(RESIDUE_TWO);
+        when(timestamps.getFreshTimestamps(anyInt()))
+                .thenReturn(TIMESTAMP_RANGE)
+                .thenReturn(TIMESTAMP_SEVEN)
+                .thenReturn(TIMESTAMP_RANGE);
+
+        assertThat(service.getFreshTimestampsForClient(UUID_TWO, 2))
+                .containsExactly(RESIDUE_TWO_TIMESTAMP_IN_RANGE, RESIDUE_TWO_TIMESTAMP_IN_RANGE);
+
+        verify(allocator, times(3)).getRelevantModuli(UUID_TWO);
+        verify(timestamps, times(3)).getFreshTimestamps(anyInt());
+    }
 }
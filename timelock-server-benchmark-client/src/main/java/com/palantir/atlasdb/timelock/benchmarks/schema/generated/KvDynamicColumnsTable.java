@@ -177,16 +177,19 @@ public final class KvDynamicColumnsTable implements
 
         @Override
         public byte[] persistToBytes() {
-            byte[] hashOfRowComponentsBytes = PtBytes.toBytes(Long.MIN_VALUE ^ hashOfRowComponents);
             byte[] bucketBytes = EncodingUtils.encodeVarString(bucket);
-            return EncodingUtils.add(hashOfRowComponentsBytes, bucketBytes);
+            byte[] __output = new byte[8 + bucketBytes.length];
+            int __index = 0;
+            __index = EncodingUtils.encodeFixedLong(Long.MIN_VALUE ^ hashOfRowComponents, __output, __index);
+            EncodingUtils.copyInto(bucketBytes, __output, __index);
+            return __output;
         }
 
         public static final Hydrator<KvDynamicColumnsRow> BYTES_HYDRATOR = new Hydrator<KvDynamicColumnsRow>() {
             @Override
             public KvDynamicColumnsRow hydrateFromBytes(byte[] __input) {
                 int __index = 0;
-                Long hashOfRowComponents = Long.MIN_VALUE ^ PtBytes.toLong(__input, __index);
+                long hashOfRowComponents = Long.MIN_VALUE ^ PtBytes.toLong(__input, __index);
                 __index += 8;
                 String bucket = EncodingUtils.decodeVarString(__input, __index);
                 __index += EncodingUtils.sizeOfVarString(bucket);
@@ -293,15 +296,17 @@ public final class KvDynamicColumnsTable implements
 
         @Override
         public byte[] persistToBytes() {
-            byte[] keyBytes = PtBytes.toBytes(Long.MIN_VALUE ^ key);
-            return EncodingUtils.add(keyBytes);
+            byte[] __output = new byte[8];
+            int __index = 0;
+            EncodingUtils.encodeFixedLong(Long.MIN_VALUE ^ key, __output, __index);
+            return __output;
         }
 
         public static final Hydrator<KvDynamicColumnsColumn> BYTES_HYDRATOR = new Hydrator<KvDynamicColumnsColumn>() {
             @Override
             public KvDynamicColumnsColumn hydrateFromBytes(byte[] __input) {
                 int __index = 0;
-                Long key = Long.MIN_VALUE ^ PtBytes.toLong(__input, __index);
+                long key = Long.MIN_VALUE ^ PtBytes.toLong(__input, __index);
                 __index += 8;
                 return new KvDynamicColumnsColumn(key);
             }
@@ -186,21 +186,24 @@ public final class KvRowsTable implements
 
         @Override
         public byte[] persistToBytes() {
-            byte[] hashOfRowComponentsBytes = PtBytes.toBytes(Long.MIN_VALUE ^ hashOfRowComponents);
             byte[] bucketBytes = EncodingUtils.encodeVarString(bucket);
-            byte[] keyBytes = PtBytes.toBytes(Long.MIN_VALUE ^ key);
-            return EncodingUtils.add(hashOfRowComponentsBytes, bucketBytes, keyBytes);
+            byte[] __output = new byte[8 + bucketBytes.length + 8];
+            int __index = 0;
+            __index = EncodingUtils.encodeFixedLong(Long.MIN_VALUE ^ hashOfRowComponents, __output, __index);
+            __index = EncodingUtils.copyInto(bucketBytes, __output, __index);
+            EncodingUtils.encodeFixedLong(Long.MIN_VALUE ^ key, __output, __index);
+            return __output;
         }
 
         public static final Hydrator<KvRowsRow> BYTES_HYDRATOR = new Hydrator<KvRowsRow>() {
             @Override
             public KvRowsRow hydrateFromBytes(byte[] __input) {
                 int __index = 0;
-                Long hashOfRowComponents = Long.MIN_VALUE ^ PtBytes.toLong(__input, __index);
+                long hashOfRowComponents = Long.MIN_VALUE ^ PtBytes.toLong(__input, __index);
                 __index += 8;
                 String bucket = EncodingUtils.decodeVarString(__input, __index);
                 __index += EncodingUtils.sizeOfVarString(bucket);
-                Long key = Long.MIN_VALUE ^ PtBytes.toLong(__input, __index);
+                long key = Long.MIN_VALUE ^ PtBytes.toLong(__input, __index);
                 __index += 8;
                 return new KvRowsRow(hashOfRowComponents, bucket, key);
             }
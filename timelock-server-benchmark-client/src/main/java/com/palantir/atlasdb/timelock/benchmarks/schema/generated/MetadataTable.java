@@ -179,16 +179,19 @@ public final class MetadataTable implements
 
         @Override
         public byte[] persistToBytes() {
-            byte[] hashOfRowComponentsBytes = PtBytes.toBytes(Long.MIN_VALUE ^ hashOfRowComponents);
             byte[] keyBytes = EncodingUtils.encodeVarString(key);
-            return EncodingUtils.add(hashOfRowComponentsBytes, keyBytes);
+            byte[] __output = new byte[8 + keyBytes.length];
+            int __index = 0;
+            __index = EncodingUtils.encodeFixedLong(Long.MIN_VALUE ^ hashOfRowComponents, __output, __index);
+            EncodingUtils.copyInto(keyBytes, __output, __index);
+            return __output;
         }
 
         public static final Hydrator<MetadataRow> BYTES_HYDRATOR = new Hydrator<MetadataRow>() {
             @Override
             public MetadataRow hydrateFromBytes(byte[] __input) {
                 int __index = 0;
-                Long hashOfRowComponents = Long.MIN_VALUE ^ PtBytes.toLong(__input, __index);
+                long hashOfRowComponents = Long.MIN_VALUE ^ PtBytes.toLong(__input, __index);
                 __index += 8;
                 String key = EncodingUtils.decodeVarString(__input, __index);
                 __index += EncodingUtils.sizeOfVarString(key);
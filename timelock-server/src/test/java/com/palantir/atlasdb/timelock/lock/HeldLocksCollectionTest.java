@@ -17,25 +17,31 @@ package com.palantir.atlasdb.timelock.lock;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
+import java.time.Duration;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 
 import org.junit.Test;
 
 import com.google.common.collect.ImmutableSet;
+import com.palantir.common.time.NanoTime;
 import com.palantir.lock.v2.LockToken;
 
 public class HeldLocksCollectionTest {
 
     private static final UUID REQUEST_ID = UUID.randomUUID();
 
-    private final HeldLocksCollection heldLocksCollection = new HeldLocksCollection();
+    private long currentTimeNanos = 0L;
+    private final HeldLocksCollection heldLocksCollection =
+            new HeldLocksCollection(() -> NanoTime.createForTests(currentTimeNanos));
 
     @Test
     public void callsSupplierForNewRequest() {
@@ -72,6 +78,7 @@ public class HeldLocksCollectionTest {
 
         assertThat(heldLocksCollection.heldLocksById.size()).isEqualTo(3);
 
+        advancePastLeaseTimeout();
         heldLocksCollection.removeExpired();
 
         assertThat(heldLocksCollection.heldLocksById.size()).isEqualTo(1);
@@ -120,6 +127,42 @@ public class HeldLocksCollectionTest {
         assertThat(heldLocksCollection.heldLocksById.isEmpty()).isTrue();
     }
 
+    @Test
+    public void doesNotCheckLocksBeforeTheirLeaseExpires() {
+        HeldLocks heldLocks = mockHeldLocks(LockToken.of(REQUEST_ID));
+        heldLocksCollection.getExistingOrAcquire(REQUEST_ID, () -> completedResult(heldLocks));
+
+        heldLocksCollection.removeExpired();
+        verify(heldLocks, never()).unlockIfExpired();
+
+        advancePastLeaseTimeout();
+        heldLocksCollection.removeExpired();
+        verify(heldLocks).unlockIfExpired();
+    }
+
+    @Test
+    public void refreshPostponesExpiryCheck() {
+        HeldLocks heldLocks = mockHeldLocks(LockToken.of(REQUEST_ID));
+        AtomicReference<NanoTime> expiry = new AtomicReference<>(heldLocks.getExpiry());
+        when(heldLocks.getExpiry()).thenAnswer(invocation -> expiry.get());
+        when(heldLocks.refresh()).thenAnswer(invocation -> {
+            expiry.set(NanoTime.createForTests(currentTimeNanos).plus(LeaseExpirationTimer.LEASE_TIMEOUT));
+            return true;
+        });
+        heldLocksCollection.getExistingOrAcquire(REQUEST_ID, () -> completedResult(heldLocks));
+
+        currentTimeNanos += LeaseExpirationTimer.LEASE_TIMEOUT.toNanos() / 2;
+        heldLocksCollection.refresh(ImmutableSet.of(LockToken.of(REQUEST_ID)));
+
+        currentTimeNanos += LeaseExpirationTimer.LEASE_TIMEOUT.toNanos() / 2 + Duration.ofSeconds(2).toNanos();
+        heldLocksCollection.removeExpired();
+        verify(heldLocks, never()).unlockIfExpired();
+
+        advancePastLeaseTimeout();
+        heldLocksCollection.removeExpired();
+        verify(heldLocks).unlockIfExpired();
+    }
+
     private LockToken mockExpiredRequest() {
         return mockHeldLocksForNewRequest(
                 heldLocks -> when(heldLocks.unlockIfExpired()).thenReturn(true));
@@ -168,15 +211,33 @@ public class HeldLocksCollectionTest {
 
     private LockToken mockHeldLocksForNewRequest(Consumer<HeldLocks> mockApplier) {
         LockToken request = LockToken.of(UUID.randomUUID());
-        HeldLocks heldLocks = mock(HeldLocks.class);
+        HeldLocks heldLocks = mockHeldLocks(request);
         mockApplier.accept(heldLocks);
 
-        AsyncResult<HeldLocks> completedResult = new AsyncResult<>();
-        completedResult.complete(heldLocks);
+        AsyncResult<HeldLocks> completedResult = completedResult(heldLocks);
         heldLocksCollection.getExistingOrAcquire(request.getRequestId(),
                 () -> completedResult);
 
         return request;
     }
 
+    private HeldLocks mockHeldLocks(LockToken token) {
+        HeldLocks heldLocks = mock(HeldLocks.class);
+        when(heldLocks.getToken()).thenReturn(token);
+        when(heldLocks.getRequestId()).thenReturn(token.getRequestId());
+        when(heldLocks.getExpiry()).thenReturn(
+                NanoTime.createForTests(currentTimeNanos).plus(LeaseExpirationTimer.LEASE_TIMEOUT));
+        return heldLocks;
+    }
+
+    private static AsyncResult<HeldLocks> completedResult(HeldLocks heldLocks) {
+        AsyncResult<HeldLocks> result = new AsyncResult<>();
+        result.complete(heldLocks);
+        return result;
+    }
+
+    private void advancePastLeaseTimeout() {
+        currentTimeNanos += LeaseExpirationTimer.LEASE_TIMEOUT.plusSeconds(2).toNanos();
+    }
+
 }
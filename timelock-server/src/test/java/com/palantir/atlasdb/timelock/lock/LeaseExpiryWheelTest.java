@@ -0,0 +1,121 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.timelock.lock;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+
+import org.junit.Test;
+
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.collect.ImmutableList;
+import com.palantir.common.time.NanoTime;
+import com.palantir.lock.StringLockDescriptor;
+
+public class LeaseExpiryWheelTest {
+    private static final Duration LEASE_TIMEOUT = LeaseExpirationTimer.LEASE_TIMEOUT;
+
+    private long currentTimeNanos = 0L;
+    private final Supplier<NanoTime> clock = () -> NanoTime.createForTests(currentTimeNanos);
+    private final LeaseExpiryWheel wheel = new LeaseExpiryWheel(clock);
+    private final List<HeldLocks> expired = new CopyOnWriteArrayList<>();
+
+    @Test
+    public void expiresLocksOnlyOnceTheirLeaseHasPassed() {
+        HeldLocks heldLocks = scheduleNewHeldLocks();
+
+        advance(LEASE_TIMEOUT.minusSeconds(1));
+        wheel.expire(expired::add);
+        assertThat(expired).isEmpty();
+
+        advance(Duration.ofSeconds(3));
+        wheel.expire(expired::add);
+        assertThat(expired).containsExactly(heldLocks);
+    }
+
+    @Test
+    public void doesNotExpireRefreshedLocks() {
+        HeldLocks heldLocks = scheduleNewHeldLocks();
+
+        advance(LEASE_TIMEOUT.dividedBy(2));
+        NanoTime previousExpiry = heldLocks.getExpiry();
+        heldLocks.refresh();
+        wheel.reschedule(heldLocks, previousExpiry);
+
+        advance(LEASE_TIMEOUT.dividedBy(2).plusSeconds(2));
+        wheel.expire(expired::add);
+        assertThat(expired).isEmpty();
+
+        advance(LEASE_TIMEOUT);
+        wheel.expire(expired::add);
+        assertThat(expired).containsExactly(heldLocks);
+    }
+
+    @Test
+    public void doesNotReturnRemovedLocks() {
+        HeldLocks heldLocks = scheduleNewHeldLocks();
+        wheel.remove(heldLocks);
+
+        advance(LEASE_TIMEOUT.multipliedBy(2));
+        wheel.expire(expired::add);
+
+        assertThat(expired).isEmpty();
+    }
+
+    @Test
+    public void expiresAllLocksIfFallenBehindByManyRotations() {
+        HeldLocks first = scheduleNewHeldLocks();
+        advance(Duration.ofSeconds(7));
+        HeldLocks second = scheduleNewHeldLocks();
+
+        advance(LEASE_TIMEOUT.multipliedBy(10));
+        wheel.expire(expired::add);
+
+        assertThat(expired).containsExactlyInAnyOrder(first, second);
+    }
+
+    @Test
+    public void keepsLocksThatExpireOnALaterRotation() {
+        advance(LEASE_TIMEOUT.multipliedBy(3));
+        HeldLocks heldLocks = scheduleNewHeldLocks();
+
+        wheel.expire(expired::add);
+        assertThat(expired).isEmpty();
+
+        advance(LEASE_TIMEOUT.plusSeconds(2));
+        wheel.expire(expired::add);
+        assertThat(expired).containsExactly(heldLocks);
+    }
+
+    private HeldLocks scheduleNewHeldLocks() {
+        UUID requestId = UUID.randomUUID();
+        ExclusiveLock lock = new ExclusiveLock(StringLockDescriptor.of(requestId.toString()));
+        lock.lock(requestId);
+        HeldLocks heldLocks = new HeldLocks(new LockLog(new MetricRegistry(), () -> 2L),
+                ImmutableList.of(lock), requestId, new LeaseExpirationTimer(clock));
+        wheel.schedule(heldLocks);
+        return heldLocks;
+    }
+
+    private void advance(Duration duration) {
+        currentTimeNanos += duration.toNanos();
+    }
+}
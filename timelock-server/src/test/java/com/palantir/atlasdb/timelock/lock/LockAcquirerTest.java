@@ -175,9 +175,32 @@ public class LockAcquirerTest {
         waitFor(lockA);
 
         verify(lockA).waitUntilAvailable(REQUEST_ID);
+        verify(lockA).release();
         verifyNoMoreInteractions(lockA);
     }
 
+    @Test
+    public void doesNotReleaseLocksWhileHeld() {
+        HeldLocks heldLocks = acquire(lockA, lockB).get();
+        verify(lockA, never()).release();
+
+        heldLocks.unlock();
+        verify(lockA).release();
+        verify(lockB).release();
+    }
+
+    @Test
+    public void releasesAllLocksAfterTimeout() {
+        lockB.lock(OTHER_REQUEST_ID);
+        acquire(lockA, lockB, lockC);
+
+        executor.tick(TIMEOUT.getTimeMillis() + 1L, TimeUnit.MILLISECONDS);
+
+        verify(lockA).release();
+        verify(lockB).release();
+        verify(lockC).release();
+    }
+
     @Test
     public void timesOutRequestAfterSpecifiedTime() {
         acquire(lockB);
@@ -17,10 +17,14 @@ package com.palantir.atlasdb.timelock.lock;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -70,6 +74,54 @@ public class LockCollectionTest {
         assertThat(actualOrder).isEqualTo(expectedOrder);
     }
 
+    @Test
+    public void keepsLockWhileAnyRequestHoldsAReference() {
+        Set<LockDescriptor> descriptors = descriptors("foo");
+        AsyncLock lock = lockCollection.getAll(descriptors).get().get(0);
+        AsyncLock sameLock = lockCollection.getAll(descriptors).get().get(0);
+
+        lock.release();
+
+        assertThat(lockCollection.getAll(descriptors).get()).containsExactly(sameLock);
+    }
+
+    @Test
+    public void removesLockOnceAllReferencesAreReleased() {
+        Set<LockDescriptor> descriptors = descriptors("foo", "bar");
+        List<AsyncLock> locks = lockCollection.getAll(descriptors).get();
+
+        locks.forEach(AsyncLock::release);
+
+        assertThat(lockCollection.size()).isEqualTo(0);
+        assertThat(lockCollection.getAll(descriptors).get()).doesNotContainAnyElementsOf(locks);
+    }
+
+    @Test
+    public void neverHandsOutTwoLocksForTheSameDescriptorConcurrently() throws Exception {
+        Set<LockDescriptor> descriptors = descriptors("foo");
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 4; thread++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        AsyncLock lock = lockCollection.getAll(descriptors).get().get(0);
+                        assertThat(lockCollection.getAll(descriptors).get()).containsExactly(lock);
+                        lock.release();
+                        lock.release();
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(lockCollection.size()).isEqualTo(0);
+    }
+
     private Set<LockDescriptor> descriptors(String... names) {
         return Arrays.stream(names)
                 .map(StringLockDescriptor::of)
@@ -15,6 +15,8 @@
  */
 package com.palantir.timestamp;
 
+import java.util.OptionalDouble;
+
 import javax.annotation.concurrent.ThreadSafe;
 
 import org.slf4j.Logger;
@@ -50,6 +52,7 @@ public class PersistentTimestampServiceImpl implements PersistentTimestampServic
     private static final int MAX_TIMESTAMPS_PER_REQUEST = 10_000;
 
     private ErrorCheckingTimestampBoundStore store;
+    private OptionalDouble proactiveExtensionThreshold;
     private PersistentTimestamp timestamp;
     private final InitializingWrapper wrapper = new InitializingWrapper();
 
@@ -67,7 +70,22 @@ public class PersistentTimestampServiceImpl implements PersistentTimestampServic
 
     public static PersistentTimestampService create(ErrorCheckingTimestampBoundStore store,
             boolean initializeAsync) {
-        PersistentTimestampServiceImpl service = new PersistentTimestampServiceImpl(store);
+        return create(store, OptionalDouble.empty(), initializeAsync);
+    }
+
+    /**
+     * Creates a timestamp service whose upper limit is extended in the background once the given fraction of the
+     * headroom left by the last extension has been handed out; see {@link PersistentUpperLimit}.
+     */
+    public static PersistentTimestampService createWithProactiveBoundExtension(TimestampBoundStore store,
+            double proactiveExtensionThreshold) {
+        return create(new ErrorCheckingTimestampBoundStore(store), OptionalDouble.of(proactiveExtensionThreshold),
+                AtlasDbConstants.DEFAULT_INITIALIZE_ASYNC);
+    }
+
+    private static PersistentTimestampService create(ErrorCheckingTimestampBoundStore store,
+            OptionalDouble proactiveExtensionThreshold, boolean initializeAsync) {
+        PersistentTimestampServiceImpl service = new PersistentTimestampServiceImpl(store, proactiveExtensionThreshold);
         service.wrapper.initialize(initializeAsync);
         return service.wrapper.isInitialized() ? service : service.wrapper;
     }
@@ -77,13 +95,17 @@ public class PersistentTimestampServiceImpl implements PersistentTimestampServic
         this.timestamp = timestamp;
     }
 
-    private PersistentTimestampServiceImpl(ErrorCheckingTimestampBoundStore store) {
+    private PersistentTimestampServiceImpl(ErrorCheckingTimestampBoundStore store,
+            OptionalDouble proactiveExtensionThreshold) {
         this.store = store;
+        this.proactiveExtensionThreshold = proactiveExtensionThreshold;
     }
 
     private void tryInitialize() {
         long latestTimestamp = store.getUpperLimit();
-        PersistentUpperLimit upperLimit = new PersistentUpperLimit(store);
+        PersistentUpperLimit upperLimit = proactiveExtensionThreshold.isPresent()
+                ? new PersistentUpperLimit(store, proactiveExtensionThreshold.getAsDouble())
+                : new PersistentUpperLimit(store);
         timestamp = new PersistentTimestamp(upperLimit, latestTimestamp);
     }
 
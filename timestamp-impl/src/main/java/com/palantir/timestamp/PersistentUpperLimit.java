@@ -15,9 +15,36 @@
  */
 package com.palantir.timestamp;
 
+import java.util.OptionalDouble;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import com.palantir.common.concurrent.NamedThreadFactory;
+import com.palantir.common.concurrent.PTExecutors;
+import com.palantir.logsafe.SafeArg;
 
+/**
+ * The persisted upper limit on the timestamps that may be handed out.
+ * <p>
+ * By default, the limit is extended synchronously, by {@link #BUFFER} beyond the requested limit, when a request
+ * needs timestamps beyond it, so that request waits for the bound store. If a proactive extension threshold is
+ * given, then once the headroom left below the limit falls below {@code 1 - threshold} of the current buffer, the
+ * limit is also extended on a background thread, and the buffer is sized so as to last for
+ * {@link #PROACTIVE_BUFFER_DURATION_NANOS} at the rate at which timestamps were handed out since the last extension,
+ * between {@link #BUFFER} and {@link #MAX_PROACTIVE_BUFFER}. Requests then only extend the limit synchronously if
+ * the background extension has not landed by the time they reach it.
+ */
 public class PersistentUpperLimit {
+    private static final Logger log = LoggerFactory.getLogger(PersistentUpperLimit.class);
 
     /**
      * Some internal atlas clients have behavior tied to this value and will need to
@@ -25,12 +52,47 @@ public class PersistentUpperLimit {
      */
     @VisibleForTesting
     static final long BUFFER = 1_000_000;
+    @VisibleForTesting
+    static final long MAX_PROACTIVE_BUFFER = 100 * BUFFER;
+    @VisibleForTesting
+    static final long PROACTIVE_BUFFER_DURATION_NANOS = TimeUnit.MINUTES.toNanos(1);
 
     private volatile long currentLimit;
+    private volatile long proactiveExtensionPoint = Long.MAX_VALUE;
     private final TimestampBoundStore store;
+    private final OptionalDouble proactiveExtensionThreshold;
+    private final Executor extensionExecutor;
+    private final LongSupplier nanoClock;
+    private final AtomicBoolean extensionInFlight = new AtomicBoolean();
+
+    // Guarded by this; the limit requested by, and the time of, the last extension.
+    private long lastRequestedLimit;
+    private long lastExtensionNanos;
+    private boolean hasExtended = false;
 
     public PersistentUpperLimit(TimestampBoundStore boundStore) {
+        this(boundStore, OptionalDouble.empty(), ExtensionExecutorHolder.EXECUTOR, System::nanoTime);
+    }
+
+    /**
+     * Creates an upper limit that is extended in the background once the given fraction, which must be strictly
+     * between 0 and 1, of the headroom left by the last extension has been used up.
+     */
+    public PersistentUpperLimit(TimestampBoundStore boundStore, double proactiveExtensionThreshold) {
+        this(boundStore, OptionalDouble.of(proactiveExtensionThreshold), ExtensionExecutorHolder.EXECUTOR,
+                System::nanoTime);
+    }
+
+    @VisibleForTesting
+    PersistentUpperLimit(TimestampBoundStore boundStore, OptionalDouble proactiveExtensionThreshold,
+            Executor extensionExecutor, LongSupplier nanoClock) {
+        proactiveExtensionThreshold.ifPresent(threshold -> Preconditions.checkArgument(
+                threshold > 0.0 && threshold < 1.0,
+                "Proactive extension threshold must be strictly between 0 and 1, but was %s", threshold));
         this.store = boundStore;
+        this.proactiveExtensionThreshold = proactiveExtensionThreshold;
+        this.extensionExecutor = extensionExecutor;
+        this.nanoClock = nanoClock;
         this.currentLimit = boundStore.getUpperLimit();
     }
 
@@ -41,6 +103,8 @@ public class PersistentUpperLimit {
     public void increaseToAtLeast(long newLimit) {
         if (newLimit > currentLimit) {
             updateLimit(newLimit);
+        } else if (newLimit >= proactiveExtensionPoint) {
+            extendInBackground(newLimit);
         }
     }
 
@@ -49,9 +113,74 @@ public class PersistentUpperLimit {
             return;
         }
 
-        long newLimitWithBuffer = Math.addExact(newLimit, BUFFER);
-        storeUpperLimit(newLimitWithBuffer);
-        currentLimit = newLimitWithBuffer;
+        extend(newLimit);
+    }
+
+    private void extendInBackground(long requestedLimit) {
+        if (!extensionInFlight.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            extensionExecutor.execute(() -> {
+                try {
+                    extendProactively(requestedLimit);
+                } catch (RuntimeException e) {
+                    log.warn("Failed to extend the timestamp upper limit in the background. Requests will extend it"
+                            + " themselves if they reach the current limit of {}.",
+                            SafeArg.of("currentLimit", currentLimit),
+                            e);
+                } finally {
+                    extensionInFlight.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            extensionInFlight.set(false);
+            log.warn("Could not schedule a background extension of the timestamp upper limit.", e);
+        }
+    }
+
+    private synchronized void extendProactively(long requestedLimit) {
+        if (requestedLimit < proactiveExtensionPoint) {
+            // A request reached the limit first, and extended it synchronously
+            return;
+        }
+
+        extend(requestedLimit);
+    }
+
+    private void extend(long requestedLimit) {
+        long buffer = nextBuffer(requestedLimit);
+        long newLimitWithBuffer = Math.addExact(requestedLimit, buffer);
+        if (newLimitWithBuffer > currentLimit) {
+            storeUpperLimit(newLimitWithBuffer);
+            currentLimit = newLimitWithBuffer;
+        }
+        if (proactiveExtensionThreshold.isPresent()) {
+            long headroomBeforeExtending = (long) ((1.0 - proactiveExtensionThreshold.getAsDouble()) * buffer);
+            proactiveExtensionPoint = currentLimit - headroomBeforeExtending;
+        }
+    }
+
+    /**
+     * Sizes the buffer so that it lasts for {@link #PROACTIVE_BUFFER_DURATION_NANOS} at the rate at which the
+     * requested limit has increased since the last extension. Before the first extension, and if proactive extension
+     * is disabled, this is {@link #BUFFER}.
+     */
+    private long nextBuffer(long requestedLimit) {
+        if (!proactiveExtensionThreshold.isPresent()) {
+            return BUFFER;
+        }
+        long now = nanoClock.getAsLong();
+        long buffer = BUFFER;
+        if (hasExtended && now > lastExtensionNanos) {
+            double timestampsPerNano = (double) (requestedLimit - lastRequestedLimit) / (now - lastExtensionNanos);
+            double bufferForRate = timestampsPerNano * PROACTIVE_BUFFER_DURATION_NANOS;
+            buffer = (long) Math.max(BUFFER, Math.min(MAX_PROACTIVE_BUFFER, bufferForRate));
+        }
+        lastRequestedLimit = requestedLimit;
+        lastExtensionNanos = now;
+        hasExtended = true;
+        return buffer;
     }
 
     private void storeUpperLimit(long upperLimit) {
@@ -60,4 +189,8 @@ public class PersistentUpperLimit {
         DebugLogger.didStoreNewUpperLimit(upperLimit);
     }
 
+    private static final class ExtensionExecutorHolder {
+        private static final ExecutorService EXECUTOR = PTExecutors.newCachedThreadPool(
+                new NamedThreadFactory("timestamp-upper-limit-extension", true));
+    }
 }
@@ -16,6 +16,7 @@
 package com.palantir.timestamp;
 
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
 import static org.mockito.ArgumentMatchers.anyLong;
@@ -25,6 +26,11 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalDouble;
+import java.util.concurrent.TimeUnit;
+
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -34,6 +40,8 @@ public class PersistentUpperLimitTest {
     private static final long TIMESTAMP = 12345L;
     private static final long INITIAL_UPPER_LIMIT = 10L;
     private static final long BUFFER = PersistentUpperLimit.BUFFER;
+    private static final double PROACTIVE_THRESHOLD = 0.5;
+    private static final long PROACTIVE_EXTENSION_POINT = TIMESTAMP + BUFFER / 2;
 
     private TimestampBoundStore boundStore;
     private PersistentUpperLimit upperLimit;
@@ -41,6 +49,8 @@ public class PersistentUpperLimitTest {
     @Rule
     public ExpectedException exception = ExpectedException.none();
     private final TimestampAllocationFailures allocationFailures = mock(TimestampAllocationFailures.class);
+    private final List<Runnable> backgroundExtensions = new ArrayList<>();
+    private long currentTimeNanos = 0L;
 
     @Before
     public void setup() {
@@ -119,4 +129,88 @@ public class PersistentUpperLimitTest {
         assertThat(upperLimit.get(), is(INITIAL_UPPER_LIMIT));
     }
 
+    @Test
+    public void shouldExtendInTheBackgroundOnceTheThresholdIsPassed() {
+        PersistentUpperLimit proactiveLimit = createProactiveUpperLimit();
+        proactiveLimit.increaseToAtLeast(TIMESTAMP);
+
+        proactiveLimit.increaseToAtLeast(PROACTIVE_EXTENSION_POINT - 1);
+        assertThat(backgroundExtensions.isEmpty(), is(true));
+
+        proactiveLimit.increaseToAtLeast(PROACTIVE_EXTENSION_POINT);
+        proactiveLimit.increaseToAtLeast(PROACTIVE_EXTENSION_POINT + 1);
+        assertThat(backgroundExtensions.size(), is(1));
+        assertThat(proactiveLimit.get(), is(TIMESTAMP + BUFFER));
+
+        currentTimeNanos += TimeUnit.SECONDS.toNanos(1);
+        runBackgroundExtensions();
+
+        // BUFFER / 2 timestamps per second for a minute
+        long expectedLimit = PROACTIVE_EXTENSION_POINT + 30 * BUFFER;
+        verify(boundStore).storeUpperLimit(expectedLimit);
+        assertThat(proactiveLimit.get(), is(expectedLimit));
+    }
+
+    @Test
+    public void shouldCapTheBufferSizedFromTheIssuanceRate() {
+        PersistentUpperLimit proactiveLimit = createProactiveUpperLimit();
+        proactiveLimit.increaseToAtLeast(TIMESTAMP);
+
+        proactiveLimit.increaseToAtLeast(PROACTIVE_EXTENSION_POINT);
+        currentTimeNanos += TimeUnit.MILLISECONDS.toNanos(1);
+        runBackgroundExtensions();
+
+        verify(boundStore).storeUpperLimit(PROACTIVE_EXTENSION_POINT + PersistentUpperLimit.MAX_PROACTIVE_BUFFER);
+    }
+
+    @Test
+    public void shouldExtendSynchronouslyIfTheBackgroundExtensionHasNotLanded() {
+        PersistentUpperLimit proactiveLimit = createProactiveUpperLimit();
+        proactiveLimit.increaseToAtLeast(TIMESTAMP);
+        proactiveLimit.increaseToAtLeast(PROACTIVE_EXTENSION_POINT);
+
+        currentTimeNanos += TimeUnit.SECONDS.toNanos(1);
+        long beyondLimit = proactiveLimit.get() + 1;
+        proactiveLimit.increaseToAtLeast(beyondLimit);
+        verify(boundStore, times(2)).storeUpperLimit(anyLong());
+        long limitAfterSynchronousExtension = proactiveLimit.get();
+        assertThat(limitAfterSynchronousExtension > beyondLimit, is(true));
+
+        runBackgroundExtensions();
+        verify(boundStore, times(2)).storeUpperLimit(anyLong());
+        assertThat(proactiveLimit.get(), is(limitAfterSynchronousExtension));
+    }
+
+    @Test
+    public void shouldRetryTheBackgroundExtensionIfItFails() {
+        PersistentUpperLimit proactiveLimit = createProactiveUpperLimit();
+        proactiveLimit.increaseToAtLeast(TIMESTAMP);
+        doThrow(RuntimeException.class).when(boundStore).storeUpperLimit(anyLong());
+
+        proactiveLimit.increaseToAtLeast(PROACTIVE_EXTENSION_POINT);
+        runBackgroundExtensions();
+        assertThat(proactiveLimit.get(), is(TIMESTAMP + BUFFER));
+
+        proactiveLimit.increaseToAtLeast(PROACTIVE_EXTENSION_POINT);
+        assertThat(backgroundExtensions.size(), is(1));
+    }
+
+    @Test
+    public void shouldRejectProactiveThresholdsOutsideTheUnitInterval() {
+        assertThatThrownBy(() -> new PersistentUpperLimit(boundStore, 0.0))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new PersistentUpperLimit(boundStore, 1.0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private PersistentUpperLimit createProactiveUpperLimit() {
+        return new PersistentUpperLimit(boundStore, OptionalDouble.of(PROACTIVE_THRESHOLD), backgroundExtensions::add,
+                () -> currentTimeNanos);
+    }
+
+    private void runBackgroundExtensions() {
+        List<Runnable> extensions = new ArrayList<>(backgroundExtensions);
+        backgroundExtensions.clear();
+        extensions.forEach(Runnable::run);
+    }
 }